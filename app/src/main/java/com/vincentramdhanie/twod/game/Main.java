@@ -1,6 +1,10 @@
 package com.vincentramdhanie.twod.game;
 
 import com.vincentramdhanie.twod.game.core.Game;    
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
+import com.vincentramdhanie.twod.game.metrics.MetricsServer;
+import com.vincentramdhanie.twod.game.utils.AssetWatcher;
+import java.nio.file.Paths;
 import javax.swing.SwingUtilities;
 
 public class Main {
@@ -10,6 +14,27 @@ public class Main {
         // Set system properties for rendering
         System.setProperty("sun.java2d.opengl", "True");
         
+        // Optionally expose engine metrics on localhost, e.g. -Dtwod.metrics.port=9400
+        String metricsPort = System.getProperty("twod.metrics.port");
+        if (metricsPort != null) {
+            try {
+                new MetricsServer(EngineMetrics.REGISTRY, Integer.parseInt(metricsPort)).start();
+            } catch (Exception e) {
+                System.err.println("Could not start metrics server: " + e.getMessage());
+            }
+        }
+        
+        // Development mode: reload edited assets while the game runs,
+        // e.g. -Dtwod.assets.watch=app/src/main/resources
+        String assetDirectory = System.getProperty("twod.assets.watch");
+        if (assetDirectory != null) {
+            try {
+                new AssetWatcher(Paths.get(assetDirectory)).start();
+            } catch (Exception e) {
+                System.err.println("Could not watch assets: " + e.getMessage());
+            }
+        }
+        
         // Create and start everything in the Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             try {
@@ -1,13 +1,24 @@
 package com.vincentramdhanie.twod.game.core;
 
+import com.vincentramdhanie.twod.game.diagnostics.FrameRenderEvent;
+import com.vincentramdhanie.twod.game.diagnostics.TickEvent;
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
+import com.vincentramdhanie.twod.game.graphics.FrameRing;
+import com.vincentramdhanie.twod.game.graphics.SpriteRegistry;
 import com.vincentramdhanie.twod.game.input.KeyHandler;
 import com.vincentramdhanie.twod.game.input.MouseHandler;
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
 
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 import javax.swing.Timer;
+import java.awt.GraphicsDevice;
+import java.util.function.Consumer;
 
 public class Game implements Runnable {
+    // Fixed simulation rate in updates per second
+    public static final int TICK_RATE = 60;
+    
     private JFrame window;
     private GamePanel gamePanel;
     private Thread gameThread;
@@ -15,12 +26,27 @@ public class Game implements Runnable {
     private KeyHandler keyHandler;
     private MouseHandler mouseHandler;
     private boolean running;
-    private final int FPS = 60;
     private int width;
     private int height;
     private boolean initialized = false;
     
+    // Frames recorded by the game thread and drawn by the render thread. Without the
+    // render thread (-Dtwod.pipeline=false) recorded frames are drawn in place.
+    private final SpriteRegistry sprites = new SpriteRegistry();
+    private FrameRing frameRing;
+    private RenderThread renderThread;
+    private DrawCommandBuffer frameBuffer;
+    
     public Game(String title, int width, int height) {
+        this(title, width, height, null);
+    }
+    
+    /**
+     * Creates the game and lets the caller register or select game states
+     * before the game loop starts
+     * @param setup called on the EDT once the GameStateManager exists, may be null
+     */
+    public Game(String title, int width, int height, Consumer<GameStateManager> setup) {
         this.width = width;
         this.height = height;
         
@@ -32,12 +58,14 @@ public class Game implements Runnable {
                 window = new JFrame(title);
                 window.setSize(width, height);
                 window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-                window.setResizable(false);
+                // The panel scales its frames to the window, so any size works
+                window.setResizable(true);
                 window.setLocationRelativeTo(null);
                 
                 gamePanel = new GamePanel(width, height);
                 keyHandler = new KeyHandler();
                 mouseHandler = new MouseHandler();
+                mouseHandler.setGamePanel(gamePanel);
                 
                 System.out.println("Creating GameStateManager");
                 gsm = new GameStateManager(width, height);
@@ -45,13 +73,26 @@ public class Game implements Runnable {
                 System.out.println("Setting input handlers");
                 gsm.setInputHandlers(keyHandler, mouseHandler);
                 
+                if (setup != null) {
+                    setup.accept(gsm);
+                }
+                
                 gamePanel.addKeyListener(keyHandler);
                 gamePanel.addMouseListener(mouseHandler);
                 gamePanel.addMouseMotionListener(mouseHandler);
                 
                 window.add(gamePanel);
+                boolean fullscreen = "true".equals(System.getProperty("twod.fullscreen"));
+                if (fullscreen) {
+                    // Has to happen before pack() makes the window displayable
+                    window.setUndecorated(true);
+                }
                 window.pack();
-                window.setVisible(true);
+                if (fullscreen) {
+                    enterFullscreen();
+                } else {
+                    window.setVisible(true);
+                }
                 
                 gamePanel.requestFocus();
                 
@@ -68,7 +109,6 @@ public class Game implements Runnable {
                     // Set up a delayed extra render after a short delay to ensure menu is visible
                     // This helps with some rendering quirks at startup
                     Timer initialRenderTimer = new Timer(150, e -> {
-                        System.out.println("Delayed initial render triggered");
                         if (gamePanel != null && gsm != null) {
                             gsm.requestRedraw();
                             gamePanel.render(gsm);
@@ -88,6 +128,22 @@ public class Game implements Runnable {
         });
     }
     
+    /**
+     * Shows the window fullscreen, or maximized and undecorated where exclusive
+     * fullscreen is not supported
+     */
+    private void enterFullscreen() {
+        GraphicsDevice device = window.getGraphicsConfiguration().getDevice();
+        if (device.isFullScreenSupported()) {
+            System.out.println("Entering fullscreen");
+            device.setFullScreenWindow(window);
+        } else {
+            System.out.println("Fullscreen not supported, maximizing the window instead");
+            window.setExtendedState(JFrame.MAXIMIZED_BOTH);
+            window.setVisible(true);
+        }
+    }
+    
     public void start() {
         System.out.println("Requesting game start");
         // This method is called from Main, but actual start is handled
@@ -100,6 +156,15 @@ public class Game implements Runnable {
     }
     
     private void startGameThread() {
+        if ("false".equals(System.getProperty("twod.pipeline"))) {
+            frameBuffer = new DrawCommandBuffer(sprites);
+        } else {
+            System.out.println("Starting render thread");
+            frameRing = new FrameRing(sprites);
+            renderThread = new RenderThread(gamePanel, gsm, frameRing);
+            renderThread.start();
+        }
+        
         System.out.println("Starting game thread");
         running = true;
         gameThread = new Thread(this);
@@ -122,7 +187,7 @@ public class Game implements Runnable {
     }
     
     private void gameLoop() {
-        final int TARGET_FPS = 60;
+        final int TARGET_FPS = TICK_RATE;
         final long OPTIMAL_TIME = 1000 / TARGET_FPS;
         
         long lastUpdateTime = System.nanoTime();
@@ -131,6 +196,8 @@ public class Game implements Runnable {
         double delta = 0;
         int frames = 0;
         int updates = 0;
+        long tickCount = 0;
+        long frameCount = 0;
         
         // Force first render
         boolean forceFirstRender = true;
@@ -144,6 +211,10 @@ public class Game implements Runnable {
             
             // Update game logic
             if (delta >= 1) {
+                TickEvent tickEvent = new TickEvent();
+                tickEvent.begin();
+                long tickStart = System.nanoTime();
+                
                 gsm.update();
                 
                 // Update key handler if available
@@ -151,6 +222,13 @@ public class Game implements Runnable {
                     keyHandler.update();
                 }
                 
+                EngineMetrics.TICK_TIME.observeNanos(System.nanoTime() - tickStart);
+                EngineMetrics.TICKS.increment();
+                
+                tickEvent.tick = tickCount++;
+                tickEvent.state = gsm.getCurrentState();
+                tickEvent.commit();
+                
                 updates++;
                 delta--;
                 needsRender = true;
@@ -159,10 +237,42 @@ public class Game implements Runnable {
             // Check if we need to render
             if (needsRender || gsm.needsConstantUpdates() || forceFirstRender) {
                 forceFirstRender = false; // Reset after first forced render
+                gsm.setRenderingHints(gamePanel.getRenderingHints());
                 
-                // Render at the target rate
-                gamePanel.render(gsm);
-                frames++;
+                if (frameRing != null) {
+                    // Drawn on the render thread while the next tick runs. States that
+                    // cannot record are drawn here instead, so only this thread reads them.
+                    DrawCommandBuffer frame = frameRing.beginFrame();
+                    if (gsm.record(frame)) {
+                        frameRing.publish();
+                    } else {
+                        long renderStart = System.nanoTime();
+                        gamePanel.render(gsm);
+                        EngineMetrics.RENDER_TIME.observeNanos(System.nanoTime() - renderStart);
+                        EngineMetrics.FRAMES.increment();
+                        frames++;
+                    }
+                } else {
+                    // Render at the target rate
+                    FrameRenderEvent frameEvent = new FrameRenderEvent();
+                    frameEvent.begin();
+                    long renderStart = System.nanoTime();
+                    
+                    frameBuffer.clear();
+                    if (gsm.record(frameBuffer)) {
+                        gamePanel.render(frameBuffer);
+                    } else {
+                        gamePanel.render(gsm);
+                    }
+                    
+                    EngineMetrics.RENDER_TIME.observeNanos(System.nanoTime() - renderStart);
+                    EngineMetrics.FRAMES.increment();
+                    
+                    frameEvent.frame = frameCount++;
+                    frameEvent.state = gsm.getCurrentState();
+                    frameEvent.commit();
+                    frames++;
+                }
             } else {
                 // For static states, we can sleep a bit to reduce CPU usage
                 try {
@@ -172,10 +282,15 @@ public class Game implements Runnable {
                 }
             }
             
-            // Output FPS and UPS every second for debugging
+            // Publish and reset the per-second FPS and UPS counters
+            // (per-frame timings are recorded as Flight Recorder events)
             if (System.currentTimeMillis() - timer > 1000) {
                 timer += 1000;
-                System.out.println("FPS: " + frames + ", UPS: " + updates);
+                if (renderThread != null) {
+                    frames += renderThread.takeFrameCount();
+                }
+                EngineMetrics.FPS.set(frames);
+                EngineMetrics.UPS.set(updates);
                 frames = 0;
                 updates = 0;
             }
@@ -199,6 +314,9 @@ public class Game implements Runnable {
     private void stop() {
         try {
             System.out.println("Stopping game");
+            if (renderThread != null) {
+                renderThread.stop();
+            }
             gameThread.join();
             running = false;
         } catch (InterruptedException e) {
@@ -1,19 +1,38 @@
 package com.vincentramdhanie.twod.game.core;
 
+import com.vincentramdhanie.twod.game.diagnostics.PresentEvent;
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
+import com.vincentramdhanie.twod.game.graphics.PointOverlay;
+import com.vincentramdhanie.twod.game.graphics.Presenter;
+import com.vincentramdhanie.twod.game.graphics.QualityController;
+import com.vincentramdhanie.twod.game.graphics.SoftwareRenderer;
+
 import javax.swing.JPanel;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.RenderingHints;
 import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 
 public class GamePanel extends JPanel {
-    private BufferedImage image;
+    // Drawn at the internal resolution, reduced by the quality level, and scaled to the window when presented
+    private volatile BufferedImage image;
     private Graphics2D g2d;
+    // Set when started with -Dtwod.renderer=software; recorded frames are drawn through it
+    private SoftwareRenderer software;
+    private final boolean useSoftwareRenderer;
+    private final QualityController quality;
+    // Copy of the hints the back buffer is drawn with, for states that draw into their own images
+    private volatile RenderingHints hints;
+    private final Presenter presenter;
+    // Internal resolution relative to the logical game size, from -Dtwod.resolution=<height>
+    private final float resolutionScale;
+    private final PointOverlay pointOverlay = new PointOverlay();
     private int width;
     private int height;
     private Font debugFont;
@@ -22,10 +41,14 @@ public class GamePanel extends JPanel {
     private int currentFps = 0;
     private boolean showFpsCounter = true;
     
+    /**
+     * @param width the logical size game states draw in; the window may be any size
+     */
     public GamePanel(int width, int height) {
         this.width = width;
         this.height = height;
         setPreferredSize(new Dimension(width, height));
+        setBackground(Color.BLACK);
         setFocusable(true);
         requestFocus();
         
@@ -35,16 +58,22 @@ public class GamePanel extends JPanel {
         // Create the debug font
         debugFont = new Font("Arial", Font.PLAIN, 12);
         
-        // Create compatible image for better performance
-        GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
-                                  .getDefaultScreenDevice().getDefaultConfiguration();
-        image = gc.createCompatibleImage(width, height);
+        // Quality adapts to the frame budget unless fixed with -Dtwod.quality=<level>
+        long budget = 1_000_000_000L / Game.TICK_RATE;
+        int fixedLevel = QualityController.parseLevel(System.getProperty("twod.quality", "adaptive"));
+        quality = fixedLevel < 0 ? new QualityController(budget) : new QualityController(budget, fixedLevel, false);
+        EngineMetrics.RENDER_QUALITY.set(quality.getLevel());
         
-        g2d = (Graphics2D) image.getGraphics();
+        resolutionScale = parseResolutionScale(System.getProperty("twod.resolution"), height);
+        int scaling = "integer".equals(System.getProperty("twod.scaling"))
+            ? Presenter.SCALING_INTEGER : Presenter.SCALING_FIT;
+        presenter = new Presenter(width, height, scaling);
         
-        // Enable anti-aliasing for smoother rendering
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        useSoftwareRenderer = "software".equals(System.getProperty("twod.renderer"));
+        if (useSoftwareRenderer) {
+            System.out.println("Using the software renderer");
+        }
+        createBuffer();
         
         System.out.println("GamePanel initialized at " + width + "x" + height);
         
@@ -57,7 +86,80 @@ public class GamePanel extends JPanel {
         repaint();
     }
     
-    public void render(GameStateManager gsm) {
+    /**
+     * Reads the internal render height, keeping the game's aspect ratio
+     */
+    private static float parseResolutionScale(String value, int height) {
+        if (value == null) return 1f;
+        try {
+            int internalHeight = Integer.parseInt(value.trim());
+            if (internalHeight > 0) {
+                System.out.println("Rendering at an internal height of " + internalHeight);
+                return (float) internalHeight / height;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        System.err.println("Ignoring invalid twod.resolution: " + value);
+        return 1f;
+    }
+    
+    /**
+     * (Re)creates the back buffer at the internal resolution reduced by the current
+     * quality. States keep drawing in logical coordinates; the buffer's transform
+     * scales them.
+     */
+    private void createBuffer() {
+        float scale = resolutionScale * quality.getScale();
+        int bufferWidth = Math.max(1, Math.round(width * scale));
+        int bufferHeight = Math.max(1, Math.round(height * scale));
+        
+        BufferedImage buffer;
+        if (useSoftwareRenderer) {
+            // The software renderer needs an int[] raster behind the image
+            buffer = new BufferedImage(bufferWidth, bufferHeight, BufferedImage.TYPE_INT_RGB);
+            software = new SoftwareRenderer(buffer);
+            software.setScale(scale);
+        } else {
+            // Create compatible image for better performance
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                                      .getDefaultScreenDevice().getDefaultConfiguration();
+            buffer = gc.createCompatibleImage(bufferWidth, bufferHeight);
+        }
+        
+        if (g2d != null) {
+            g2d.dispose();
+        }
+        g2d = buffer.createGraphics();
+        if (scale != 1f) {
+            g2d.scale(scale, scale);
+        }
+        quality.applyHints(g2d);
+        hints = g2d.getRenderingHints();
+        image = buffer;
+    }
+    
+    /**
+     * Feeds a frame's draw time to the quality controller and applies any change
+     */
+    private void frameDrawn(long nanos) {
+        float previousScale = quality.getScale();
+        if (!quality.frameDrawn(nanos)) return;
+        
+        System.out.println("Render quality: " + quality.getLevelName());
+        EngineMetrics.RENDER_QUALITY.set(quality.getLevel());
+        if (quality.getScale() != previousScale) {
+            createBuffer();
+        } else {
+            quality.applyHints(g2d);
+            hints = g2d.getRenderingHints();
+        }
+    }
+    
+    /**
+     * Renders the current state directly, on the calling thread
+     */
+    public synchronized void render(GameStateManager gsm) {
         // Check if graphics context is available
         if (g2d == null) {
             System.err.println("Graphics context is null!");
@@ -77,16 +179,8 @@ public class GamePanel extends JPanel {
         }
         
         try {
-            // Calculate FPS
-            long currentTime = System.currentTimeMillis();
-            fpsCount++;
-            
-            // Update FPS counter once per second
-            if (currentTime - lastFrameTime >= 1000) {
-                currentFps = fpsCount;
-                fpsCount = 0;
-                lastFrameTime = currentTime;
-            }
+            long start = System.nanoTime();
+            countFrame();
             
             // Clear the buffer
             g2d.setColor(Color.BLACK);
@@ -95,12 +189,8 @@ public class GamePanel extends JPanel {
             // Let the current game state render its content
             gsm.render(g2d);
             
-            // Additional debug info
-            if (showFpsCounter) {
-                g2d.setColor(Color.YELLOW);
-                g2d.setFont(debugFont);
-                g2d.drawString("FPS: " + currentFps, 10, height - 20);
-            }
+            drawFpsCounter();
+            frameDrawn(System.nanoTime() - start);
             
             // Only request a repaint if we're in an active state that needs constant updates
             // MenuState is static and doesn't need constant updates
@@ -118,13 +208,67 @@ public class GamePanel extends JPanel {
         }
     }
     
+    /**
+     * Draws a frame recorded by the game thread. Called on the render thread.
+     */
+    public synchronized void render(DrawCommandBuffer frame) {
+        if (g2d == null) return;
+        
+        try {
+            long start = System.nanoTime();
+            countFrame();
+            
+            if (software != null) {
+                frame.replay(software);
+                software.flush();
+            } else {
+                frame.replay(g2d, pointOverlay, width, height);
+            }
+            
+            drawFpsCounter();
+            frameDrawn(System.nanoTime() - start);
+            repaint();
+        } catch (Exception e) {
+            System.err.println("Error in GamePanel.render(): " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    private void countFrame() {
+        long currentTime = System.currentTimeMillis();
+        fpsCount++;
+        
+        // Update FPS counter once per second
+        if (currentTime - lastFrameTime >= 1000) {
+            currentFps = fpsCount;
+            fpsCount = 0;
+            lastFrameTime = currentTime;
+        }
+    }
+    
+    private void drawFpsCounter() {
+        if (showFpsCounter) {
+            g2d.setColor(Color.YELLOW);
+            g2d.setFont(debugFont);
+            g2d.drawString("FPS: " + currentFps, 10, height - 20);
+        }
+    }
+    
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         
-        if (image != null) {
-            // Draw the buffered image to the screen
-            g.drawImage(image, 0, 0, this);
+        BufferedImage frame = image;
+        if (frame != null) {
+            PresentEvent event = new PresentEvent();
+            event.begin();
+            
+            // Draw the buffered image to the screen, scaled to the window
+            presenter.present((Graphics2D) g, frame, getWidth(), getHeight());
+            
+            event.width = getWidth();
+            event.height = getHeight();
+            event.commit();
         } else {
             // Fallback if image is null
             g.setColor(Color.RED);
@@ -140,18 +284,36 @@ public class GamePanel extends JPanel {
         
         // Recreate the graphics context if needed after the component is added to a container
         if (g2d == null && image != null) {
-            g2d = (Graphics2D) image.getGraphics();
-            
-            // Re-enable anti-aliasing
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            createBuffer();
         }
         
         // Force repaint when added to container
         System.out.println("Panel added to container, forcing repaint");
         repaint();
     }
-
+    
+    /**
+     * The hints frames are currently drawn with, which follow the quality level.
+     * Safe to read from any thread; a new copy is made whenever they change.
+     */
+    public RenderingHints getRenderingHints() {
+        return hints;
+    }
+    
+    /**
+     * Maps a mouse x position in the window to game coordinates
+     */
+    public int toLogicalX(int x) {
+        return presenter.toLogicalX(x);
+    }
+    
+    /**
+     * Maps a mouse y position in the window to game coordinates
+     */
+    public int toLogicalY(int y) {
+        return presenter.toLogicalY(y);
+    }
+    
     /**
      * Forces a repaint of the panel regardless of state
      * Call this when you need an immediate repaint without waiting for the game loop
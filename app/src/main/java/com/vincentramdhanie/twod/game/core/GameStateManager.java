@@ -1,5 +1,8 @@
 package com.vincentramdhanie.twod.game.core;
 
+import com.vincentramdhanie.twod.game.diagnostics.InputDispatchEvent;
+import com.vincentramdhanie.twod.game.diagnostics.StateTransitionEvent;
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
 import com.vincentramdhanie.twod.game.state.GameState;
 import com.vincentramdhanie.twod.game.state.MenuState;
 import com.vincentramdhanie.twod.game.state.PlayState;
@@ -8,7 +11,10 @@ import com.vincentramdhanie.twod.game.input.KeyHandler;
 import com.vincentramdhanie.twod.game.input.MouseHandler;
 
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class GameStateManager {
@@ -25,6 +31,9 @@ public class GameStateManager {
     private int width;
     private int height;
     
+    // The panel's current rendering hints, for states that record their own images
+    private RenderingHints renderingHints;
+    
     // Input handlers
     private KeyHandler keyHandler;
     private MouseHandler mouseHandler;
@@ -40,7 +49,11 @@ public class GameStateManager {
         
         // Add all game states
         gameStates.add(new MenuState(this));
-        gameStates.add(new PlayState(this, width, height));
+        PlayState playState = new PlayState(this, width, height);
+        // Saved when pausing and every 30 seconds, and continued from on the next play
+        playState.setSaveFile(Paths.get(System.getProperty("twod.save", "world.sav")),
+            Integer.getInteger("twod.autosave", 30));
+        gameStates.add(playState);
         gameStates.add(new PauseState(this));
         
         // Set which states need constant updates
@@ -53,6 +66,19 @@ public class GameStateManager {
         initialized = true;
     }
     
+    /**
+     * Registers an additional game state, e.g. a network client view
+     * @param state the state to add
+     * @param needsConstantUpdates true if the state animates and must be rendered every tick
+     * @return the identifier to pass to setState
+     */
+    public int addState(GameState state, boolean needsConstantUpdates) {
+        gameStates.add(state);
+        stateNeedsConstantUpdates = Arrays.copyOf(stateNeedsConstantUpdates, gameStates.size());
+        stateNeedsConstantUpdates[gameStates.size() - 1] = needsConstantUpdates;
+        return gameStates.size() - 1;
+    }
+    
     public void setInputHandlers(KeyHandler kh, MouseHandler mh) {
         this.keyHandler = kh;
         this.mouseHandler = mh;
@@ -63,7 +89,11 @@ public class GameStateManager {
     }
     
     public void setState(int state) {
-        System.out.println("Setting game state to: " + state);
+        StateTransitionEvent event = new StateTransitionEvent();
+        event.begin();
+        event.fromState = currentState;
+        event.toState = state;
+        
         currentState = state;
         
         try {
@@ -76,10 +106,24 @@ public class GameStateManager {
             if (state == MENU_STATE && gameStates.get(currentState) instanceof MenuState) {
                 ((MenuState) gameStates.get(currentState)).setNeedsRedraw(true);
             }
+            event.succeeded = true;
         } catch (Exception e) {
             System.err.println("Error initializing state " + state + ": " + e.getMessage());
             e.printStackTrace();
         }
+        
+        event.commit();
+    }
+    
+    /**
+     * Throws away the saved world and starts playing a new one
+     */
+    public void newGame() {
+        GameState play = gameStates.get(PLAY_STATE);
+        if (play instanceof PlayState) {
+            ((PlayState) play).discardSave();
+        }
+        setState(PLAY_STATE);
     }
     
     public void update() {
@@ -108,56 +152,116 @@ public class GameStateManager {
         }
     }
     
+    /**
+     * Records the current state's frame as draw commands, if the state supports it
+     *
+     * @return false if the state has to be rendered with render(Graphics2D) instead
+     */
+    public boolean record(DrawCommandBuffer buffer) {
+        if (!initialized) return false;
+        
+        try {
+            return gameStates.get(currentState).record(buffer);
+        } catch (Exception e) {
+            System.err.println("Error recording state " + currentState + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
     // Input handling methods - forward to current state
     
     public void keyPressed(int k) {
         if (!initialized) return;
         
+        InputDispatchEvent event = new InputDispatchEvent();
+        event.begin();
+        event.state = currentState;
+        
         try {
             gameStates.get(currentState).keyPressed(k);
         } catch (Exception e) {
             System.err.println("Error handling keyPressed in state " + currentState + ": " + e.getMessage());
         }
+        
+        event.kind = InputDispatchEvent.KEY_PRESSED;
+        event.keyCode = k;
+        event.commit();
     }
     
     public void keyReleased(int k) {
         if (!initialized) return;
         
+        InputDispatchEvent event = new InputDispatchEvent();
+        event.begin();
+        event.state = currentState;
+        
         try {
             gameStates.get(currentState).keyReleased(k);
         } catch (Exception e) {
             System.err.println("Error handling keyReleased in state " + currentState + ": " + e.getMessage());
         }
+        
+        event.kind = InputDispatchEvent.KEY_RELEASED;
+        event.keyCode = k;
+        event.commit();
     }
     
     public void mousePressed(int x, int y) {
         if (!initialized) return;
         
+        InputDispatchEvent event = new InputDispatchEvent();
+        event.begin();
+        event.state = currentState;
+        
         try {
             gameStates.get(currentState).mousePressed(x, y);
         } catch (Exception e) {
             System.err.println("Error handling mousePressed in state " + currentState + ": " + e.getMessage());
         }
+        
+        event.kind = InputDispatchEvent.MOUSE_PRESSED;
+        event.x = x;
+        event.y = y;
+        event.commit();
     }
     
     public void mouseReleased(int x, int y) {
         if (!initialized) return;
         
+        InputDispatchEvent event = new InputDispatchEvent();
+        event.begin();
+        event.state = currentState;
+        
         try {
             gameStates.get(currentState).mouseReleased(x, y);
         } catch (Exception e) {
             System.err.println("Error handling mouseReleased in state " + currentState + ": " + e.getMessage());
         }
+        
+        event.kind = InputDispatchEvent.MOUSE_RELEASED;
+        event.x = x;
+        event.y = y;
+        event.commit();
     }
     
     public void mouseMoved(int x, int y) {
         if (!initialized) return;
         
+        InputDispatchEvent event = new InputDispatchEvent();
+        event.begin();
+        event.state = currentState;
+        
         try {
             gameStates.get(currentState).mouseMoved(x, y);
         } catch (Exception e) {
             System.err.println("Error handling mouseMoved in state " + currentState + ": " + e.getMessage());
         }
+        
+        event.kind = InputDispatchEvent.MOUSE_MOVED;
+        event.x = x;
+        event.y = y;
+        event.commit();
     }
     
     // Getters for screen dimensions
@@ -169,6 +273,22 @@ public class GameStateManager {
         return height;
     }
     
+    /**
+     * Sets the hints the panel draws frames with, from its quality level. Call on
+     * the game thread before record().
+     */
+    public void setRenderingHints(RenderingHints renderingHints) {
+        this.renderingHints = renderingHints;
+    }
+    
+    /**
+     * Hints for states that record images they draw themselves, so those follow
+     * the quality level too; null until the panel has set them
+     */
+    public RenderingHints getRenderingHints() {
+        return renderingHints;
+    }
+    
     public int getCurrentState() {
         return currentState;
     }
@@ -0,0 +1,78 @@
+package com.vincentramdhanie.twod.game.core;
+
+import com.vincentramdhanie.twod.game.diagnostics.FrameRenderEvent;
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
+import com.vincentramdhanie.twod.game.graphics.FrameRing;
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Draws the frames the game thread records, so drawing frame N overlaps with
+ * simulating tick N + 1. Always draws the latest completed frame; frames recorded
+ * faster than they can be drawn are skipped. Only recorded frames come through
+ * here, so this thread never reads game state; GamePanel serializes them with the
+ * frames of states that cannot record, which the game thread draws itself.
+ */
+public class RenderThread implements Runnable {
+    private final GamePanel gamePanel;
+    private final GameStateManager gsm;
+    private final FrameRing frames;
+    private final AtomicInteger framesDrawn = new AtomicInteger();
+    private volatile boolean running;
+    private Thread thread;
+    
+    public RenderThread(GamePanel gamePanel, GameStateManager gsm, FrameRing frames) {
+        this.gamePanel = gamePanel;
+        this.gsm = gsm;
+        this.frames = frames;
+    }
+    
+    public void start() {
+        running = true;
+        thread = new Thread(this, "render");
+        thread.start();
+    }
+    
+    public void stop() {
+        running = false;
+        if (thread == null) return;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public void run() {
+        long frameCount = 0;
+        while (running) {
+            DrawCommandBuffer frame = frames.take(100, TimeUnit.MILLISECONDS);
+            if (frame == null) continue;
+            
+            FrameRenderEvent event = new FrameRenderEvent();
+            event.begin();
+            long renderStart = System.nanoTime();
+            
+            gamePanel.render(frame);
+            
+            EngineMetrics.RENDER_TIME.observeNanos(System.nanoTime() - renderStart);
+            EngineMetrics.FRAMES.increment();
+            framesDrawn.incrementAndGet();
+            
+            event.frame = frameCount++;
+            event.state = gsm.getCurrentState();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Frames drawn since the last call, for the FPS counter
+     */
+    public int takeFrameCount() {
+        return framesDrawn.getAndSet(0);
+    }
+}
@@ -0,0 +1,35 @@
+package com.vincentramdhanie.twod.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A request for an asset through ResourceLoader, served from the cache or decoded
+ */
+@Name("twod.AssetLoad")
+@Label("Asset Load")
+@Description("A request for an asset through ResourceLoader")
+@Category({"2D Game", "Assets"})
+public class AssetLoadEvent extends Event {
+    @Label("Path")
+    public String path;
+    
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+    
+    @Label("Decode Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long decodeTime;
+    
+    @Label("Cache Hit")
+    public boolean cacheHit;
+    
+    @Label("Found")
+    public boolean found;
+}
@@ -0,0 +1,24 @@
+package com.vincentramdhanie.twod.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Rendering of one frame into the back buffer
+ */
+@Name("twod.FrameRender")
+@Label("Frame Render")
+@Description("Rendering of one frame into the back buffer")
+@Category({"2D Game", "Rendering"})
+@StackTrace(false)
+public class FrameRenderEvent extends Event {
+    @Label("Frame")
+    public long frame;
+    
+    @Label("Game State")
+    public int state;
+}
@@ -0,0 +1,40 @@
+package com.vincentramdhanie.twod.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Delivery of one keyboard or mouse event to the current game state
+ */
+@Name("twod.InputDispatch")
+@Label("Input Dispatch")
+@Description("Delivery of a keyboard or mouse event to the current game state")
+@Category({"2D Game", "Input"})
+@StackTrace(false)
+public class InputDispatchEvent extends Event {
+    public static final int KEY_PRESSED = 0;
+    public static final int KEY_RELEASED = 1;
+    public static final int MOUSE_PRESSED = 2;
+    public static final int MOUSE_RELEASED = 3;
+    public static final int MOUSE_MOVED = 4;
+    
+    @Label("Kind")
+    @Description("0 key pressed, 1 key released, 2 mouse pressed, 3 mouse released, 4 mouse moved")
+    public int kind;
+    
+    @Label("Key Code")
+    public int keyCode;
+    
+    @Label("X")
+    public int x;
+    
+    @Label("Y")
+    public int y;
+    
+    @Label("Game State")
+    public int state;
+}
@@ -0,0 +1,24 @@
+package com.vincentramdhanie.twod.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Copying the back buffer to the screen on the event dispatch thread
+ */
+@Name("twod.Present")
+@Label("Present")
+@Description("Copying the back buffer to the screen")
+@Category({"2D Game", "Rendering"})
+@StackTrace(false)
+public class PresentEvent extends Event {
+    @Label("Width")
+    public int width;
+    
+    @Label("Height")
+    public int height;
+}
@@ -0,0 +1,25 @@
+package com.vincentramdhanie.twod.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A change of game state, including the time spent in the new state's init()
+ */
+@Name("twod.StateTransition")
+@Label("State Transition")
+@Description("A change of game state, including the new state's init()")
+@Category({"2D Game", "Game Loop"})
+public class StateTransitionEvent extends Event {
+    @Label("From State")
+    public int fromState;
+    
+    @Label("To State")
+    public int toState;
+    
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,24 @@
+package com.vincentramdhanie.twod.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One fixed-rate simulation update of the current game state
+ */
+@Name("twod.Tick")
+@Label("Tick")
+@Description("One simulation update of the current game state")
+@Category({"2D Game", "Game Loop"})
+@StackTrace(false)
+public class TickEvent extends Event {
+    @Label("Tick")
+    public long tick;
+    
+    @Label("Game State")
+    public int state;
+}
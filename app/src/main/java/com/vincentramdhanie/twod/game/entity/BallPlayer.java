@@ -1,7 +1,12 @@
 package com.vincentramdhanie.twod.game.entity;
 
+import com.vincentramdhanie.twod.game.core.Game;
 import com.vincentramdhanie.twod.game.graphics.Animation;
+import com.vincentramdhanie.twod.game.graphics.AnimationDefinition;
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
 import com.vincentramdhanie.twod.game.graphics.SpriteSheet;
+import com.vincentramdhanie.twod.game.physics.PhysicsWorld;
+import com.vincentramdhanie.twod.game.utils.AssetHandle;
 import com.vincentramdhanie.twod.game.utils.ResourceLoader;
 
 import java.awt.Graphics2D;
@@ -10,6 +15,21 @@ import java.awt.image.BufferedImage;
 import java.util.List;
 
 public class BallPlayer extends Entity {
+    // Animation ids, as stored in world saves
+    public static final int ANIM_IDLE = 0;
+    public static final int ANIM_LEFT = 1;
+    public static final int ANIM_RIGHT = 2;
+    public static final int ANIM_UP = 3;
+    public static final int ANIM_DOWN = 4;
+    
+    // Movement per tick at Game.TICK_RATE
+    private static final float BASE_MOVE_SPEED = 0.5f;
+    private static final float BASE_MAX_SPEED = 5.0f;
+    private static final float BASE_FRICTION = 0.1f;
+    
+    // Simulation time covered by one update
+    private long tickMillis = 1000 / Game.TICK_RATE;
+    
     // Movement flags
     private boolean left;
     private boolean right;
@@ -26,8 +46,9 @@ public class BallPlayer extends Entity {
     private int maxHealth;
     
     // Animations
-    private BufferedImage spriteImage; // Cache the original sprite image
     private SpriteSheet spriteSheet;
+    // Swapped by ResourceLoader when the sheet is reloaded during development
+    private AssetHandle<SpriteSheet> spriteSheetHandle;
     private Animation idleAnim;
     private Animation leftAnim;
     private Animation rightAnim;
@@ -39,7 +60,10 @@ public class BallPlayer extends Entity {
     // Game properties
     private int screenWidth;
     private int screenHeight;
-    private List<Block> blocks;
+    private PhysicsWorld physics;
+    private int bodyId;
+    // Speed lost into walls and blocks during the last update
+    private float impactSpeed;
     
     public BallPlayer(float x, float y, int width, int height, int screenWidth, int screenHeight) {
         super(x, y, width, height);
@@ -47,9 +71,9 @@ public class BallPlayer extends Entity {
         this.screenHeight = screenHeight;
         
         // Set movement properties
-        moveSpeed = 0.5f;
-        maxSpeed = 5.0f;
-        friction = 0.1f;
+        moveSpeed = BASE_MOVE_SPEED;
+        maxSpeed = BASE_MAX_SPEED;
+        friction = BASE_FRICTION;
         
         // Set health properties
         this.maxHealth = 100;
@@ -67,37 +91,15 @@ public class BallPlayer extends Entity {
     
     private void initAnimations() {
         try {
-            // Load sprite sheet
-            spriteImage = ResourceLoader.loadImage("/sprites/ball.png");
+            // Frames and timings come from the sheet's metadata. The sheet is cached,
+            // so every player shares its sliced frames and animation definitions.
+            spriteSheetHandle = ResourceLoader.sheetHandle("/sprites/ball.sheet");
             
-            if (spriteImage != null) {
-                System.out.println("Player sprite loaded successfully: " + spriteImage.getWidth() + "x" + spriteImage.getHeight());
-                
-                // Based on the file command output, the ball.png is a single 32x32 sprite
-                // Not a sprite sheet as previously assumed
-                
-                // Create a single frame animation for all directions
-                Animation singleFrameAnim = new Animation();
-                singleFrameAnim.addFrame(spriteImage, 150);
-                
-                if (singleFrameAnim.hasFrames()) {
-                    // Use the same animation for all directions since it's just one image
-                    idleAnim = singleFrameAnim;
-                    leftAnim = singleFrameAnim;
-                    rightAnim = singleFrameAnim;
-                    upAnim = singleFrameAnim;
-                    downAnim = singleFrameAnim;
-                    
-                    // Set default animation
-                    currentAnim = idleAnim;
-                    spritesLoaded = true;
-                    System.out.println("Player animation initialized successfully with single sprite");
-                } else {
-                    System.err.println("Failed to create animation from ball sprite");
-                    createEmptyAnimations();
-                }
+            if (spriteSheetHandle != null && bindAnimations(spriteSheetHandle.get())) {
+                spritesLoaded = true;
+                System.out.println("Player animations loaded from sprite sheet");
             } else {
-                System.err.println("Failed to load player sprite image");
+                System.err.println("Failed to load player sprite sheet");
                 // Create empty animations
                 createEmptyAnimations();
             }
@@ -109,6 +111,34 @@ public class BallPlayer extends Entity {
         }
     }
     
+    /**
+     * Creates playheads for the sheet's animations
+     * @return false if the sheet has no idle animation
+     */
+    private boolean bindAnimations(SpriteSheet sheet) {
+        AnimationDefinition idle = sheet.getAnimation("idle");
+        if (idle == null) return false;
+        
+        spriteSheet = sheet;
+        idleAnim = new Animation(idle);
+        leftAnim = sheetAnimation("left");
+        rightAnim = sheetAnimation("right");
+        upAnim = sheetAnimation("up");
+        downAnim = sheetAnimation("down");
+        
+        // Set default animation; update() picks the direction again on the next tick
+        currentAnim = idleAnim;
+        return true;
+    }
+    
+    /**
+     * A playhead for one of the sheet's animations, or the idle one if the sheet does not have it
+     */
+    private Animation sheetAnimation(String name) {
+        AnimationDefinition definition = spriteSheet.getAnimation(name);
+        return definition != null ? new Animation(definition) : idleAnim;
+    }
+    
     private void createEmptyAnimations() {
         spritesLoaded = false;
         // Create basic animations with null frames as a fallback
@@ -120,12 +150,47 @@ public class BallPlayer extends Entity {
         currentAnim = idleAnim;
     }
     
+    /**
+     * Collides with these blocks and the screen edges only. Blocks added to the
+     * list later are not seen; use setPhysics() to share a world.
+     */
     public void setBlocks(List<Block> blocks) {
-        this.blocks = blocks;
+        PhysicsWorld world = new PhysicsWorld(screenWidth, screenHeight, 64);
+        world.addStatics(blocks);
+        setPhysics(world);
+    }
+    
+    /**
+     * Moves through the given world as a dynamic body
+     */
+    public void setPhysics(PhysicsWorld physics) {
+        this.physics = physics;
+        this.bodyId = physics.addDynamic(this);
+    }
+    
+    public int getBodyId() {
+        return bodyId;
+    }
+    
+    /**
+     * Scales speeds and the animation clock so the ball covers the same ground per
+     * second at another tick rate, such as a 30 UPS server
+     */
+    public void setTickRate(int tickRate) {
+        float scale = (float) Game.TICK_RATE / tickRate;
+        moveSpeed = BASE_MOVE_SPEED * scale * scale;
+        maxSpeed = BASE_MAX_SPEED * scale;
+        friction = BASE_FRICTION * scale * scale;
+        tickMillis = 1000 / tickRate;
     }
     
     @Override
     public void update() {
+        // Pick up a reloaded sprite sheet
+        if (spritesLoaded && spriteSheetHandle.get() != spriteSheet) {
+            bindAnimations(spriteSheetHandle.get());
+        }
+        
         // Track previous animation for transition checks
         Animation previousAnim = currentAnim;
         
@@ -183,57 +248,27 @@ public class BallPlayer extends Entity {
             }
         }
         
-        // Calculate new position
-        float newX = position.x + velocity.x;
-        float newY = position.y + velocity.y;
-        
-        // Check screen boundaries
-        if (newX < 0) newX = 0;
-        if (newX > screenWidth - width) newX = screenWidth - width;
-        if (newY < 0) newY = 0;
-        if (newY > screenHeight - height) newY = screenHeight - height;
-        
-        // Check block collisions for X movement
-        boolean collisionX = false;
-        position.x = newX;
-        for (Block block : blocks) {
-            if (checkCollision(block)) {
-                collisionX = true;
-                // Resolve X collision
-                if (velocity.x > 0) { // Moving right
-                    position.x = block.getX() - width;
-                } else if (velocity.x < 0) { // Moving left
-                    position.x = block.getX() + block.getWidth();
-                }
+        // Sweep along the velocity so fast moves cannot pass through blocks,
+        // sliding along whatever is hit and losing speed into it
+        impactSpeed = 0;
+        if (physics != null) {
+            int contacts = physics.move(bodyId, velocity.x, velocity.y);
+            if ((contacts & PhysicsWorld.CONTACT_X) != 0) {
+                impactSpeed += Math.abs(velocity.x);
                 velocity.x = 0;
-                break;
             }
-        }
-        
-        // Check block collisions for Y movement
-        boolean collisionY = false;
-        position.y = newY;
-        for (Block block : blocks) {
-            if (checkCollision(block)) {
-                collisionY = true;
-                // Resolve Y collision
-                if (velocity.y > 0) { // Moving down
-                    position.y = block.getY() - height;
-                } else if (velocity.y < 0) { // Moving up
-                    position.y = block.getY() + block.getHeight();
-                }
+            if ((contacts & PhysicsWorld.CONTACT_Y) != 0) {
+                impactSpeed += Math.abs(velocity.y);
                 velocity.y = 0;
-                break;
             }
+        } else {
+            position.x = Math.max(0, Math.min(screenWidth - width, position.x + velocity.x));
+            position.y = Math.max(0, Math.min(screenHeight - height, position.y + velocity.y));
         }
         
-        // If no collision occurred, move normally
-        if (!collisionX) position.x = newX;
-        if (!collisionY) position.y = newY;
-        
-        // Update current animation
+        // Update current animation on the simulation clock
         if (spritesLoaded && currentAnim != null) {
-            currentAnim.update();
+            currentAnim.update(tickMillis);
         }
     }
     
@@ -272,6 +307,81 @@ public class BallPlayer extends Entity {
         }
     }
     
+    public void record(DrawCommandBuffer buffer, int layer) {
+        BufferedImage currentFrame = spritesLoaded && currentAnim != null ? currentAnim.getCurrentFrame() : null;
+        if (currentFrame != null) {
+            buffer.drawImage(currentFrame, (int)position.x, (int)position.y, width, height, layer);
+        } else {
+            buffer.fillOval((int)position.x, (int)position.y, width, height, Color.RED.getRGB(), layer);
+        }
+    }
+    
+    @Override
+    public void reset(float x, float y) {
+        super.reset(x, y);
+        left = false;
+        right = false;
+        up = false;
+        down = false;
+        health = maxHealth;
+        impactSpeed = 0;
+        if (currentAnim != idleAnim) {
+            currentAnim = idleAnim;
+            currentAnim.reset();
+        }
+    }
+    
+    /**
+     * How much speed the player lost hitting something during the last update, 0 if nothing was hit
+     */
+    public float getImpactSpeed() {
+        return impactSpeed;
+    }
+    
+    @Override
+    public boolean isAtRest() {
+        return super.isAtRest() && !left && !right && !up && !down;
+    }
+    
+    /**
+     * Which animation is playing, as one of the ANIM_ ids
+     */
+    public int getAnimationId() {
+        if (currentAnim == leftAnim && leftAnim != idleAnim) return ANIM_LEFT;
+        if (currentAnim == rightAnim && rightAnim != idleAnim) return ANIM_RIGHT;
+        if (currentAnim == upAnim && upAnim != idleAnim) return ANIM_UP;
+        if (currentAnim == downAnim && downAnim != idleAnim) return ANIM_DOWN;
+        return ANIM_IDLE;
+    }
+    
+    public long getAnimationTime() {
+        return currentAnim != null ? currentAnim.getTime() : 0;
+    }
+    
+    /**
+     * Puts the playhead back where a save left it. Unknown ids play the idle animation.
+     */
+    public void restoreAnimation(int id, long time) {
+        switch (id) {
+            case ANIM_LEFT:
+                currentAnim = leftAnim;
+                break;
+            case ANIM_RIGHT:
+                currentAnim = rightAnim;
+                break;
+            case ANIM_UP:
+                currentAnim = upAnim;
+                break;
+            case ANIM_DOWN:
+                currentAnim = downAnim;
+                break;
+            default:
+                currentAnim = idleAnim;
+                break;
+        }
+        currentAnim.setTime(time);
+    }
+    
     // Health getters and setters
     public int getHealth() { return health; }
     public void setHealth(int health) { 
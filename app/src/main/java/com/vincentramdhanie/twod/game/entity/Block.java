@@ -3,10 +3,13 @@ package com.vincentramdhanie.twod.game.entity;
 import java.awt.Graphics2D;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
+import com.vincentramdhanie.twod.game.utils.AssetHandle;
 import com.vincentramdhanie.twod.game.utils.ResourceLoader;
 
 public class Block extends Entity {
-    private BufferedImage blockImage;
+    // Read through the handle every frame so a reloaded image shows up immediately
+    private AssetHandle<BufferedImage> blockImage;
     private Color color;
     
     public Block(float x, float y, int width, int height) {
@@ -14,7 +17,7 @@ public class Block extends Entity {
         
         try {
             // Load block image
-            blockImage = ResourceLoader.loadImage("/sprites/block.png");
+            blockImage = ResourceLoader.imageHandle("/sprites/block.png");
             
             // Set a default color (used if image fails to load)
             color = new Color(50, 100, 150);
@@ -33,8 +36,9 @@ public class Block extends Entity {
     @Override
     public void render(Graphics2D g) {
         try {
-            if (blockImage != null) {
-                g.drawImage(blockImage, (int)position.x, (int)position.y, width, height, null);
+            BufferedImage image = blockImage != null ? blockImage.get() : null;
+            if (image != null) {
+                g.drawImage(image, (int)position.x, (int)position.y, width, height, null);
             } else {
                 // Fallback if image isn't loaded
                 g.setColor(color);
@@ -47,4 +51,13 @@ public class Block extends Entity {
             g.fillRect((int)position.x, (int)position.y, width, height);
         }
     }
+    
+    public void record(DrawCommandBuffer buffer, int layer) {
+        BufferedImage image = blockImage != null ? blockImage.get() : null;
+        if (image != null) {
+            buffer.drawImage(image, (int)position.x, (int)position.y, width, height, layer);
+        } else {
+            buffer.fillRect((int)position.x, (int)position.y, width, height, color.getRGB(), layer);
+        }
+    }
 }
\ No newline at end of file
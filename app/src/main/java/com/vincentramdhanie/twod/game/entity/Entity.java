@@ -11,6 +11,10 @@ public abstract class Entity {
     protected int width;
     protected int height;
     protected boolean active;
+    // Set by ActivityTracker while the entity is skipped
+    protected boolean sleeping;
+    // Slot in the EntityPool that owns this entity, or -1
+    int poolSlot = -1;
     
     public Entity(float x, float y, int width, int height) {
         this.position = new Vector2D(x, y);
@@ -31,6 +35,26 @@ public abstract class Entity {
         return getBounds().intersects(other.getBounds());
     }
     
+    /**
+     * Brings a pooled entity back as new at (x, y). Subclasses with more state
+     * reset it too.
+     */
+    public void reset(float x, float y) {
+        position.x = x;
+        position.y = y;
+        velocity.x = 0;
+        velocity.y = 0;
+        active = true;
+        sleeping = false;
+    }
+    
+    /**
+     * Whether the entity could fall asleep this tick. By default, when it is not moving.
+     */
+    public boolean isAtRest() {
+        return velocity.x == 0 && velocity.y == 0;
+    }
+    
     // Getters and setters
     public float getX() { return position.x; }
     public float getY() { return position.y; }
@@ -44,4 +68,6 @@ public abstract class Entity {
     public int getHeight() { return height; }
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
+    public boolean isSleeping() { return sleeping; }
+    public void setSleeping(boolean sleeping) { this.sleeping = sleeping; }
 }
\ No newline at end of file
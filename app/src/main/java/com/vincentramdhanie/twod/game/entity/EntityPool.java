@@ -0,0 +1,218 @@
+package com.vincentramdhanie.twod.game.entity;
+
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Recycles entities so spawning and despawning in steady state creates no garbage.
+ *
+ * Every entity lives in a slot for its whole life, and each type keeps a free list
+ * of its idle slots. A handle packs the slot with a generation that goes up each
+ * time the slot is freed, so a handle kept after despawn is caught instead of
+ * quietly pointing at whatever reused the slot.
+ *
+ * despawn() only clears Entity.active; the slot is freed by endTick(), so systems
+ * running later in the same tick still see a consistent (inactive) entity.
+ */
+public class EntityPool {
+    public static final long NO_HANDLE = 0;
+    
+    private static final class TypePool {
+        final Supplier<? extends Entity> factory;
+        int[] freeSlots = new int[16];
+        int freeCount;
+        
+        TypePool(Supplier<? extends Entity> factory) {
+            this.factory = factory;
+        }
+    }
+    
+    private final Map<Class<?>, TypePool> types = new HashMap<>();
+    
+    // Per slot; generations start at 1 so that no handle is 0
+    private Entity[] entities = new Entity[64];
+    private int[] generations = new int[64];
+    private int[] livePosition = new int[64]; // -1 while the slot is free
+    private TypePool[] slotTypes = new TypePool[64];
+    private boolean[] despawning = new boolean[64];
+    private int slotCount;
+    
+    // Live slots, dense, for iteration
+    private int[] live = new int[64];
+    private int liveCount;
+    
+    // Despawned this tick, freed by endTick()
+    private int[] pending = new int[64];
+    private int pendingCount;
+    
+    /**
+     * Registers a type with the factory that creates new instances when its
+     * free list is empty
+     */
+    public <T extends Entity> void register(Class<T> type, Supplier<T> factory) {
+        types.put(type, new TypePool(factory));
+    }
+    
+    /**
+     * Takes an entity of the given type from its free list, or creates one, and
+     * resets it at (x, y)
+     */
+    public <T extends Entity> T spawn(Class<T> type, float x, float y) {
+        TypePool pool = types.get(type);
+        if (pool == null) {
+            throw new IllegalArgumentException("Type not registered with the pool: " + type.getName());
+        }
+        
+        int slot;
+        if (pool.freeCount > 0) {
+            slot = pool.freeSlots[--pool.freeCount];
+        } else {
+            slot = newSlot(pool, pool.factory.get());
+            EngineMetrics.POOL_ALLOCATIONS.increment();
+        }
+        
+        Entity entity = entities[slot];
+        entity.reset(x, y);
+        
+        livePosition[slot] = liveCount;
+        if (liveCount == live.length) {
+            live = Arrays.copyOf(live, liveCount * 2);
+        }
+        live[liveCount++] = slot;
+        EngineMetrics.POOL_SPAWNS.increment();
+        return type.cast(entity);
+    }
+    
+    private int newSlot(TypePool pool, Entity entity) {
+        if (slotCount == entities.length) {
+            int capacity = slotCount * 2;
+            entities = Arrays.copyOf(entities, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+            livePosition = Arrays.copyOf(livePosition, capacity);
+            slotTypes = Arrays.copyOf(slotTypes, capacity);
+            despawning = Arrays.copyOf(despawning, capacity);
+        }
+        int slot = slotCount++;
+        entities[slot] = entity;
+        slotTypes[slot] = pool;
+        generations[slot] = 1;
+        livePosition[slot] = -1;
+        entity.poolSlot = slot;
+        return slot;
+    }
+    
+    /**
+     * The handle of a spawned entity, safe to keep across ticks
+     */
+    public long handleOf(Entity entity) {
+        int slot = entity.poolSlot;
+        if (slot < 0 || slot >= slotCount || entities[slot] != entity) {
+            throw new IllegalArgumentException("Entity does not belong to this pool");
+        }
+        return ((long) generations[slot] << 32) | slot;
+    }
+    
+    /**
+     * Whether the handle still refers to a live entity
+     */
+    public boolean isAlive(long handle) {
+        int slot = (int) handle;
+        return slot >= 0 && slot < slotCount && generations[slot] == (int) (handle >>> 32)
+            && !despawning[slot];
+    }
+    
+    /**
+     * The entity for a handle. Despawned entities stay reachable, inactive,
+     * until the end of the tick.
+     *
+     * @throws IllegalStateException if the entity was despawned in an earlier tick
+     */
+    public Entity get(long handle) {
+        int slot = (int) handle;
+        if (slot < 0 || slot >= slotCount || generations[slot] != (int) (handle >>> 32)) {
+            throw new IllegalStateException("Stale entity handle: slot " + slot + ", generation " + (handle >>> 32));
+        }
+        return entities[slot];
+    }
+    
+    public void despawn(long handle) {
+        despawn(get(handle));
+    }
+    
+    /**
+     * Deactivates the entity now and frees its slot at the end of the tick.
+     * Despawning an entity twice in one tick is harmless.
+     *
+     * @throws IllegalStateException if the entity was already freed in an earlier tick
+     */
+    public void despawn(Entity entity) {
+        int slot = entity.poolSlot;
+        if (slot < 0 || slot >= slotCount || entities[slot] != entity) {
+            throw new IllegalArgumentException("Entity does not belong to this pool");
+        }
+        if (despawning[slot]) return;
+        if (livePosition[slot] < 0) {
+            throw new IllegalStateException("Entity already despawned: slot " + slot);
+        }
+        despawning[slot] = true;
+        entity.setActive(false);
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        }
+        pending[pendingCount++] = slot;
+    }
+    
+    /**
+     * Frees the slots despawned this tick and publishes the occupancy metrics
+     */
+    public void endTick() {
+        for (int i = 0; i < pendingCount; i++) {
+            int slot = pending[i];
+            generations[slot]++;
+            despawning[slot] = false;
+            
+            // Swap-remove from the live list
+            int position = livePosition[slot];
+            int last = live[--liveCount];
+            live[position] = last;
+            livePosition[last] = position;
+            livePosition[slot] = -1;
+            
+            TypePool pool = slotTypes[slot];
+            if (pool.freeCount == pool.freeSlots.length) {
+                pool.freeSlots = Arrays.copyOf(pool.freeSlots, pool.freeCount * 2);
+            }
+            pool.freeSlots[pool.freeCount++] = slot;
+        }
+        pendingCount = 0;
+        
+        EngineMetrics.POOL_LIVE.set(liveCount);
+        EngineMetrics.POOL_FREE.set(slotCount - liveCount);
+    }
+    
+    /**
+     * Despawns every live entity and frees them at once, e.g. when a level restarts
+     */
+    public void clear() {
+        for (int i = 0; i < liveCount; i++) {
+            despawn(entities[live[i]]);
+        }
+        endTick();
+    }
+    
+    public int getLiveCount() {
+        return liveCount;
+    }
+    
+    public Entity getLive(int i) {
+        return entities[live[i]];
+    }
+    
+    public int getCapacity() {
+        return slotCount;
+    }
+}
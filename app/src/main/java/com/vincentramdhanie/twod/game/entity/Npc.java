@@ -0,0 +1,76 @@
+package com.vincentramdhanie.twod.game.entity;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
+
+/**
+ * A non-player character driven by a script. The script only picks targets;
+ * the movement itself happens here in update(), on the game thread.
+ */
+public class Npc extends Entity {
+    private final Color color;
+    private float speed;
+    private float targetX;
+    private float targetY;
+    private boolean moving;
+    
+    public Npc(float x, float y, int width, int height, float speed, Color color) {
+        super(x, y, width, height);
+        this.speed = speed;
+        this.color = color;
+    }
+    
+    /**
+     * Starts moving towards the point at the current speed
+     */
+    public void moveTo(float x, float y) {
+        this.targetX = x;
+        this.targetY = y;
+        this.moving = true;
+    }
+    
+    public void stop() {
+        moving = false;
+        velocity.x = 0;
+        velocity.y = 0;
+    }
+    
+    public boolean hasArrived() {
+        return !moving;
+    }
+    
+    @Override
+    public void update() {
+        if (!moving) return;
+        
+        float dx = targetX - position.x;
+        float dy = targetY - position.y;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        if (distance <= speed) {
+            position.x = targetX;
+            position.y = targetY;
+            stop();
+            return;
+        }
+        
+        velocity.x = dx / distance * speed;
+        velocity.y = dy / distance * speed;
+        position.x += velocity.x;
+        position.y += velocity.y;
+    }
+    
+    @Override
+    public void render(Graphics2D g) {
+        g.setColor(color);
+        g.fillOval((int) position.x, (int) position.y, width, height);
+    }
+    
+    public void record(DrawCommandBuffer buffer, int layer) {
+        buffer.fillOval((int) position.x, (int) position.y, width, height, color.getRGB(), layer);
+    }
+    
+    public float getSpeed() { return speed; }
+    public void setSpeed(float speed) { this.speed = speed; }
+}
@@ -1,47 +1,70 @@
 package com.vincentramdhanie.twod.game.graphics;
 
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
 
+/**
+ * One entity's playhead in a shared AnimationDefinition. Time only moves when
+ * update() is called with the simulation's tick length, so a paused game or a
+ * replay shows exactly the frames the original run did.
+ */
 public class Animation {
-    private List<BufferedImage> frames;
-    private List<Integer> durations;
+    private AnimationDefinition definition;
+    // Simulation time into the current play through, in milliseconds
+    private long time;
     private int currentFrame;
-    private long startTime;
     private boolean playing;
     
     public Animation() {
-        frames = new ArrayList<>();
-        durations = new ArrayList<>();
-        currentFrame = 0;
-        startTime = System.currentTimeMillis();
+        this(AnimationDefinition.EMPTY);
+    }
+    
+    public Animation(AnimationDefinition definition) {
+        this.definition = definition;
         playing = true;
     }
     
+    /**
+     * Appends a frame. This replaces the definition with a copy, so it is meant for
+     * building one-off animations; shared ones should be built as a definition.
+     */
     public void addFrame(BufferedImage frame, int duration) {
-        frames.add(frame);
-        durations.add(duration);
+        definition = definition.withFrame(frame, duration);
     }
     
-    public void update() {
-        if (playing && !frames.isEmpty()) {
-            long elapsed = System.currentTimeMillis() - startTime;
-            
-            if (elapsed > durations.get(currentFrame)) {
-                currentFrame++;
-                startTime = System.currentTimeMillis();
-                
-                if (currentFrame >= frames.size()) {
-                    currentFrame = 0; // Loop animation
-                }
-            }
+    /**
+     * Advances the animation by a fixed amount of simulation time instead of wall-clock time,
+     * so playback is the same on every run
+     * @param deltaMillis simulation time since the previous update
+     */
+    public void update(long deltaMillis) {
+        if (playing) {
+            time = definition.wrap(time + deltaMillis);
+            currentFrame = definition.frameAt(time);
         }
     }
     
     public BufferedImage getCurrentFrame() {
-        if (frames.isEmpty()) return null;
-        return frames.get(currentFrame);
+        if (definition.getFrameCount() == 0) return null;
+        return definition.getFrame(currentFrame);
+    }
+    
+    public int getCurrentFrameIndex() {
+        return currentFrame;
+    }
+    
+    /**
+     * Simulation time into the current play through, in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+    
+    /**
+     * Moves the playhead to a time into the animation, such as one read from a save
+     */
+    public void setTime(long time) {
+        this.time = definition.wrap(Math.max(0, time));
+        currentFrame = definition.frameAt(this.time);
     }
     
     public void setPlaying(boolean playing) {
@@ -54,7 +77,19 @@ public class Animation {
     
     public void reset() {
         currentFrame = 0;
-        startTime = System.currentTimeMillis();
+        time = 0;
+    }
+    
+    /**
+     * Switches to another definition and starts it from the beginning
+     */
+    public void setDefinition(AnimationDefinition definition) {
+        this.definition = definition;
+        reset();
+    }
+    
+    public AnimationDefinition getDefinition() {
+        return definition;
     }
     
     /**
@@ -62,7 +97,7 @@ public class Animation {
      * @return true if the animation has at least one frame, false otherwise
      */
     public boolean hasFrames() {
-        return !frames.isEmpty();
+        return definition.getFrameCount() > 0;
     }
     
     /**
@@ -70,6 +105,6 @@ public class Animation {
      * @return the number of frames
      */
     public int getFrameCount() {
-        return frames.size();
+        return definition.getFrameCount();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The frames and timings of an animation, shared by every entity that plays it.
+ * Immutable; where each entity is in the animation lives in an Animation or in
+ * AnimationPlayheads.
+ *
+ * Durations are stored as cumulative end times, so the frame showing at any time
+ * is found with a binary search rather than by stepping through the frames.
+ */
+public final class AnimationDefinition {
+    public static final AnimationDefinition EMPTY = new AnimationDefinition(new BufferedImage[0], new int[0], true);
+    
+    private final BufferedImage[] frames;
+    // ends[i] is the time in milliseconds at which frame i stops showing
+    private final int[] ends;
+    private final int duration;
+    private final boolean looping;
+    
+    /**
+     * @param durations how long each frame shows, in milliseconds of simulation time
+     * @param looping false to hold the last frame once the animation has played
+     */
+    public AnimationDefinition(BufferedImage[] frames, int[] durations, boolean looping) {
+        if (frames.length != durations.length) {
+            throw new IllegalArgumentException("Got " + frames.length + " frames but " + durations.length + " durations");
+        }
+        this.frames = frames.clone();
+        this.looping = looping;
+        ends = new int[durations.length];
+        int time = 0;
+        for (int i = 0; i < durations.length; i++) {
+            if (durations[i] < 0) {
+                throw new IllegalArgumentException("Negative duration for frame " + i);
+            }
+            time += durations[i];
+            ends[i] = time;
+        }
+        duration = time;
+    }
+    
+    /**
+     * A copy with one more frame at the end
+     */
+    public AnimationDefinition withFrame(BufferedImage frame, int frameDuration) {
+        BufferedImage[] newFrames = Arrays.copyOf(frames, frames.length + 1);
+        newFrames[frames.length] = frame;
+        int[] durations = new int[ends.length + 1];
+        for (int i = 0; i < ends.length; i++) {
+            durations[i] = ends[i] - (i > 0 ? ends[i - 1] : 0);
+        }
+        durations[ends.length] = frameDuration;
+        return new AnimationDefinition(newFrames, durations, looping);
+    }
+    
+    /**
+     * Folds a time into the first play through: looping animations wrap around,
+     * others stop at the end. Playheads keep their time folded so it never grows.
+     */
+    public long wrap(long time) {
+        if (time < duration) return time;
+        if (!looping) return duration;
+        return duration == 0 ? 0 : time % duration;
+    }
+    
+    /**
+     * Index of the frame showing the given time after the animation started
+     */
+    public int frameAt(long time) {
+        if (duration == 0) return 0;
+        long t;
+        if (time < duration) {
+            t = time;
+        } else if (looping) {
+            t = time % duration;
+        } else {
+            return frames.length - 1;
+        }
+        
+        // First frame that ends after t
+        int low = 0;
+        int high = ends.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] <= t) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    public BufferedImage getFrame(int index) {
+        return frames[index];
+    }
+    
+    public int getFrameCount() {
+        return frames.length;
+    }
+    
+    /**
+     * Length of one play through, in milliseconds
+     */
+    public int getDuration() {
+        return duration;
+    }
+    
+    public boolean isLooping() {
+        return looping;
+    }
+}
@@ -0,0 +1,110 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Playheads for many animated sprites, stored as parallel arrays of fixed
+ * capacity. advance() moves all of them forward in one loop with no allocation,
+ * which keeps tens of thousands of animated sprites cheap.
+ *
+ * Playheads are packed at the front of the arrays. Removing one moves the last
+ * playhead into its slot, like ParticleSystem, so callers that keep indices must
+ * update the moved one.
+ */
+public class AnimationPlayheads {
+    private final int capacity;
+    private int count;
+    
+    private final AnimationDefinition[] definitions;
+    // Simulation time into the current play through, in milliseconds
+    private final long[] time;
+    private final int[] frame;
+    // 1 while playing, 0 while paused, so advancing needs no branch on it
+    private final int[] rate;
+    
+    public AnimationPlayheads(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        definitions = new AnimationDefinition[capacity];
+        time = new long[capacity];
+        frame = new int[capacity];
+        rate = new int[capacity];
+    }
+    
+    /**
+     * Starts a playhead at the beginning of the definition
+     *
+     * @return its index, or -1 if there is no room left
+     */
+    public int add(AnimationDefinition definition) {
+        if (count == capacity) return -1;
+        int i = count++;
+        definitions[i] = definition;
+        time[i] = 0;
+        frame[i] = 0;
+        rate[i] = 1;
+        return i;
+    }
+    
+    /**
+     * Removes a playhead; the last one moves into its index
+     */
+    public void remove(int index) {
+        int last = --count;
+        definitions[index] = definitions[last];
+        time[index] = time[last];
+        frame[index] = frame[last];
+        rate[index] = rate[last];
+        definitions[last] = null;
+    }
+    
+    /**
+     * Advances every playing animation by the simulation time of one tick
+     */
+    public void advance(long deltaMillis) {
+        for (int i = 0; i < count; i++) {
+            AnimationDefinition definition = definitions[i];
+            long t = definition.wrap(time[i] + deltaMillis * rate[i]);
+            time[i] = t;
+            frame[i] = definition.frameAt(t);
+        }
+    }
+    
+    /**
+     * Switches a playhead to another definition, from the beginning
+     */
+    public void play(int index, AnimationDefinition definition) {
+        definitions[index] = definition;
+        time[index] = 0;
+        frame[index] = 0;
+    }
+    
+    public void setPlaying(int index, boolean playing) {
+        rate[index] = playing ? 1 : 0;
+    }
+    
+    public BufferedImage getCurrentFrame(int index) {
+        AnimationDefinition definition = definitions[index];
+        return definition.getFrameCount() == 0 ? null : definition.getFrame(frame[index]);
+    }
+    
+    public int getFrameIndex(int index) {
+        return frame[index];
+    }
+    
+    public void clear() {
+        Arrays.fill(definitions, 0, count, null);
+        count = 0;
+    }
+    
+    public int size() {
+        return count;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,188 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * One frame recorded as a flat list of draw commands: sprites by handle, filled
+ * rectangles and ovals, and additive points. The simulation thread records a
+ * frame from the state of the world at the end of a tick, and the render thread
+ * later replays it, so drawing never reads live entity fields.
+ *
+ * Commands carry a layer. Replay draws lower layers first and keeps the recording
+ * order within a layer, so a state can record in whatever order is convenient.
+ * The backing arrays only grow, and a buffer is cleared and reused for later
+ * frames, so recording a frame of steady size does not allocate.
+ *
+ * The buffer keeps the images it draws reachable until it is cleared, so their
+ * SpriteRegistry handles stay valid while the frame waits to be drawn.
+ */
+public class DrawCommandBuffer {
+    public static final int LAYERS = 8;
+    public static final int LAYER_BACKGROUND = 0;
+    public static final int LAYER_WORLD = 1;
+    public static final int LAYER_EFFECTS = 2;
+    public static final int LAYER_CHARACTERS = 3;
+    public static final int LAYER_OVERLAY = 4;
+    
+    private static final int SPRITE = 0;
+    private static final int RECT = 1;
+    private static final int OVAL = 2;
+    private static final int POINT = 3;
+    
+    // kind << 8 | layer, x, y, width, height, then the sprite handle or the colour
+    private static final int STRIDE = 6;
+    
+    private final SpriteRegistry sprites;
+    private int[] data = new int[1024 * STRIDE];
+    private int count;
+    private BufferedImage[] images = new BufferedImage[64];
+    private int imageCount;
+    
+    // Replay order, sorted by layer
+    private int[] order = new int[1024];
+    private final int[] layerStart = new int[LAYERS + 1];
+    
+    public DrawCommandBuffer(SpriteRegistry sprites) {
+        this.sprites = sprites;
+    }
+    
+    public void clear() {
+        count = 0;
+        Arrays.fill(images, 0, imageCount, null);
+        imageCount = 0;
+    }
+    
+    /**
+     * Draws an image scaled to w x h
+     */
+    public void drawImage(BufferedImage image, int x, int y, int w, int h, int layer) {
+        add(SPRITE, layer, x, y, w, h, sprites.handleOf(image));
+        // Runs of one sprite are common, so only keep it once per run
+        if (imageCount == 0 || images[imageCount - 1] != image) {
+            if (imageCount == images.length) {
+                images = Arrays.copyOf(images, imageCount * 2);
+            }
+            images[imageCount++] = image;
+        }
+    }
+    
+    public void fillRect(int x, int y, int w, int h, int argb, int layer) {
+        add(RECT, layer, x, y, w, h, argb);
+    }
+    
+    public void fillOval(int x, int y, int w, int h, int argb, int layer) {
+        add(OVAL, layer, x, y, w, h, argb);
+    }
+    
+    /**
+     * Adds a premultiplied colour to a size x size square, for particles
+     */
+    public void addPoint(int x, int y, int size, int argbPre, int layer) {
+        add(POINT, layer, x, y, size, size, argbPre);
+    }
+    
+    private void add(int kind, int layer, int x, int y, int w, int h, int value) {
+        if (layer < 0 || layer >= LAYERS) {
+            throw new IllegalArgumentException("Layer must be between 0 and " + (LAYERS - 1) + ", was " + layer);
+        }
+        int i = count * STRIDE;
+        if (i == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[i] = kind << 8 | layer;
+        data[i + 1] = x;
+        data[i + 2] = y;
+        data[i + 3] = w;
+        data[i + 4] = h;
+        data[i + 5] = value;
+        count++;
+    }
+    
+    /**
+     * Replays the frame through a software renderer. The caller flushes it.
+     */
+    public void replay(SoftwareRenderer r) {
+        sortByLayer();
+        for (int n = 0; n < count; n++) {
+            int i = order[n] * STRIDE;
+            int x = data[i + 1], y = data[i + 2], w = data[i + 3], h = data[i + 4], value = data[i + 5];
+            switch (data[i] >> 8) {
+                case SPRITE: r.drawImage(sprites.get(value), x, y, w, h); break;
+                case RECT:   r.fillRect(x, y, w, h, value); break;
+                case OVAL:   r.fillOval(x, y, w, h, value); break;
+                default:     r.addPoint(x, y, w, value); break;
+            }
+        }
+    }
+    
+    /**
+     * Replays the frame through Java2D. Runs of points are gathered in the overlay
+     * and drawn with one drawImage each.
+     */
+    public void replay(Graphics2D g, PointOverlay overlay, int width, int height) {
+        sortByLayer();
+        // Wider than any colour, so the first fill always sets one
+        long currentArgb = Long.MIN_VALUE;
+        boolean inPoints = false;
+        for (int n = 0; n < count; n++) {
+            int i = order[n] * STRIDE;
+            int kind = data[i] >> 8;
+            int x = data[i + 1], y = data[i + 2], w = data[i + 3], h = data[i + 4], value = data[i + 5];
+            
+            if (kind == POINT) {
+                if (!inPoints) {
+                    overlay.begin(width, height);
+                    inPoints = true;
+                }
+                overlay.add(x, y, w, value);
+                continue;
+            }
+            if (inPoints) {
+                overlay.draw(g);
+                inPoints = false;
+            }
+            if (kind == SPRITE) {
+                g.drawImage(sprites.get(value), x, y, w, h, null);
+                continue;
+            }
+            if (value != currentArgb) {
+                g.setColor(new Color(value, true));
+                currentArgb = value;
+            }
+            if (kind == RECT) {
+                g.fillRect(x, y, w, h);
+            } else {
+                g.fillOval(x, y, w, h);
+            }
+        }
+        if (inPoints) {
+            overlay.draw(g);
+        }
+    }
+    
+    /**
+     * Counting sort of the command indices by layer, keeping the recording order
+     */
+    private void sortByLayer() {
+        if (order.length < count) {
+            order = new int[data.length / STRIDE];
+        }
+        Arrays.fill(layerStart, 0);
+        for (int n = 0; n < count; n++) {
+            layerStart[(data[n * STRIDE] & 0xff) + 1]++;
+        }
+        for (int layer = 0; layer < LAYERS; layer++) {
+            layerStart[layer + 1] += layerStart[layer];
+        }
+        for (int n = 0; n < count; n++) {
+            order[layerStart[data[n * STRIDE] & 0xff]++] = n;
+        }
+    }
+    
+    public int size() {
+        return count;
+    }
+}
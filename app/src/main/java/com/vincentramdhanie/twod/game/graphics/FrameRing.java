@@ -0,0 +1,84 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Three preallocated DrawCommandBuffers passed between one recording thread and
+ * one rendering thread without locks.
+ *
+ * At any time one buffer is being recorded, one is being drawn, and the third holds
+ * the most recently completed frame. Publishing swaps the recorded buffer with the
+ * completed one, and taking swaps the drawn buffer with it, so neither side ever
+ * waits for the other. If the recorder publishes twice before the renderer takes a
+ * frame, the older one is skipped: the renderer always draws the latest frame.
+ */
+public class FrameRing {
+    // Set in ready when the buffer there has not been taken yet
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+    
+    private final DrawCommandBuffer[] buffers = new DrawCommandBuffer[3];
+    private final AtomicInteger ready = new AtomicInteger(1);
+    // Only touched by the recording thread
+    private int back = 0;
+    // Only touched by the rendering thread
+    private int front = 2;
+    private volatile Thread waiting;
+    
+    public FrameRing(SpriteRegistry sprites) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new DrawCommandBuffer(sprites);
+        }
+    }
+    
+    /**
+     * Returns the cleared buffer to record the next frame into (recording thread)
+     */
+    public DrawCommandBuffer beginFrame() {
+        DrawCommandBuffer buffer = buffers[back];
+        buffer.clear();
+        return buffer;
+    }
+    
+    /**
+     * Hands the buffer from beginFrame() to the renderer (recording thread)
+     */
+    public void publish() {
+        int previous = ready.getAndSet(back | FRESH);
+        if ((previous & FRESH) != 0) {
+            EngineMetrics.FRAMES_SKIPPED.increment();
+        }
+        back = previous & INDEX;
+        Thread thread = waiting;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+    
+    /**
+     * Returns the latest completed frame, waiting up to the timeout for one if none
+     * arrived since the last call (rendering thread). The buffer stays valid until
+     * the next call.
+     *
+     * @return null if no new frame arrived in time
+     */
+    public DrawCommandBuffer take(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while ((ready.get() & FRESH) == 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || Thread.currentThread().isInterrupted()) return null;
+            waiting = Thread.currentThread();
+            // Re-check after announcing ourselves, or a publish in between would be missed
+            if ((ready.get() & FRESH) == 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            waiting = null;
+        }
+        front = ready.getAndSet(front) & INDEX;
+        return buffers[front];
+    }
+}
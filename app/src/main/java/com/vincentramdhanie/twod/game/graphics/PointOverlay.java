@@ -0,0 +1,85 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Draws large numbers of small additive points (particles) through Java2D. The
+ * points are rasterized into a premultiplied overlay image, and only the area they
+ * cover is cleared and drawn, so a small cloud of points stays cheap.
+ */
+public class PointOverlay {
+    private BufferedImage image;
+    private int[] pixels;
+    private int width;
+    private int minX;
+    private int minY;
+    private int maxX = -1;
+    private int maxY = -1;
+    
+    /**
+     * Starts a new set of points over an area of the given size
+     */
+    public void begin(int width, int height) {
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            this.width = width;
+            maxX = -1;
+        }
+        
+        // Clear what the previous set drew
+        for (int row = minY; row <= maxY && maxX >= 0; row++) {
+            Arrays.fill(pixels, row * width + minX, row * width + maxX + 1, 0);
+        }
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = -1;
+        maxY = -1;
+    }
+    
+    /**
+     * Adds a size x size square of a premultiplied colour at (x, y)
+     */
+    public void add(int x, int y, int size, int argbPre) {
+        if (x < 0 || y < 0 || x + size > width || y + size > image.getHeight()) return;
+        add(pixels, width, y * width + x, size, argbPre);
+        if (x < minX) minX = x;
+        if (y < minY) minY = y;
+        if (x + size - 1 > maxX) maxX = x + size - 1;
+        if (y + size - 1 > maxY) maxY = y + size - 1;
+    }
+    
+    /**
+     * Draws the points added since begin() over whatever g is drawing
+     */
+    public void draw(Graphics2D g) {
+        if (maxX < 0) return;
+        g.drawImage(image, minX, minY, maxX + 1, maxY + 1, minX, minY, maxX + 1, maxY + 1, null);
+    }
+    
+    /**
+     * Adds a premultiplied colour to a size x size square of pixels starting at index,
+     * which must be fully inside the raster
+     */
+    public static void add(int[] pixels, int width, int index, int size, int argbPre) {
+        for (int row = index; row < index + size * width; row += width) {
+            for (int p = row; p < row + size; p++) {
+                pixels[p] = addSaturated(pixels[p], argbPre);
+            }
+        }
+    }
+    
+    /**
+     * Adds two ARGB colours channel by channel, clamping at 255
+     */
+    public static int addSaturated(int dst, int src) {
+        int a = Math.min(0xff, (dst >>> 24) + (src >>> 24));
+        int r = Math.min(0xff, ((dst >> 16) & 0xff) + ((src >> 16) & 0xff));
+        int g = Math.min(0xff, ((dst >> 8) & 0xff) + ((src >> 8) & 0xff));
+        int b = Math.min(0xff, (dst & 0xff) + (src & 0xff));
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,150 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Presents a rendered frame scaled to a window of any size, keeping the game's
+ * aspect ratio and filling the rest with black bars.
+ *
+ * Whole-number scale factors are drawn with nearest-neighbour, so pixels stay
+ * sharp. Other factors are first blown up by the largest whole factor that fits
+ * into a cached intermediate image, and only the remainder is smoothed with
+ * bilinear filtering, which keeps edges crisper than filtering the whole way.
+ * The viewport is only recomputed when the window or frame size changes.
+ */
+public class Presenter {
+    // Scale to the largest whole factor that fits and leave the rest as bars
+    public static final int SCALING_INTEGER = 0;
+    // Fill as much of the window as the aspect ratio allows
+    public static final int SCALING_FIT = 1;
+    
+    private final int logicalWidth;
+    private final int logicalHeight;
+    private final int scaling;
+    
+    // Sizes the viewport was computed for
+    private int panelWidth = -1;
+    private int panelHeight = -1;
+    private int frameWidth = -1;
+    private int frameHeight = -1;
+    
+    private int viewX;
+    private int viewY;
+    private int viewWidth;
+    private int viewHeight;
+    // Whole factor from the frame to the viewport, or 0 if it is not a whole number
+    private int wholeScale;
+    // Whole factor applied before the bilinear step; 1 when there is no intermediate
+    private int preScale;
+    private BufferedImage intermediate;
+    
+    /**
+     * @param logicalWidth the size game states draw in, which mouse input is mapped back to
+     * @param scaling SCALING_INTEGER or SCALING_FIT
+     */
+    public Presenter(int logicalWidth, int logicalHeight, int scaling) {
+        this.logicalWidth = logicalWidth;
+        this.logicalHeight = logicalHeight;
+        this.scaling = scaling;
+    }
+    
+    /**
+     * Draws the frame into a panel of the given size
+     */
+    public void present(Graphics2D g, BufferedImage frame, int width, int height) {
+        layout(frame.getWidth(), frame.getHeight(), width, height);
+        
+        g.setColor(Color.BLACK);
+        if (viewX > 0) {
+            g.fillRect(0, 0, viewX, height);
+            g.fillRect(viewX + viewWidth, 0, width - viewX - viewWidth, height);
+        }
+        if (viewY > 0) {
+            g.fillRect(0, 0, width, viewY);
+            g.fillRect(0, viewY + viewHeight, width, height - viewY - viewHeight);
+        }
+        
+        if (wholeScale > 0) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.drawImage(frame, viewX, viewY, viewWidth, viewHeight, null);
+            return;
+        }
+        
+        BufferedImage source = frame;
+        if (preScale > 1) {
+            Graphics2D ig = intermediate.createGraphics();
+            ig.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            ig.drawImage(frame, 0, 0, intermediate.getWidth(), intermediate.getHeight(), null);
+            ig.dispose();
+            source = intermediate;
+        }
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, viewX, viewY, viewWidth, viewHeight, null);
+    }
+    
+    private void layout(int frameWidth, int frameHeight, int width, int height) {
+        if (frameWidth == this.frameWidth && frameHeight == this.frameHeight
+                && width == panelWidth && height == panelHeight) {
+            return;
+        }
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        panelWidth = width;
+        panelHeight = height;
+        
+        double fit = Math.min((double) width / frameWidth, (double) height / frameHeight);
+        if (scaling == SCALING_INTEGER && fit >= 1) {
+            fit = Math.floor(fit);
+        }
+        viewWidth = Math.max(1, (int) Math.round(frameWidth * fit));
+        viewHeight = Math.max(1, (int) Math.round(frameHeight * fit));
+        viewX = (width - viewWidth) / 2;
+        viewY = (height - viewHeight) / 2;
+        
+        boolean whole = fit >= 1 && viewWidth % frameWidth == 0 && viewHeight % frameHeight == 0
+            && viewWidth / frameWidth == viewHeight / frameHeight;
+        wholeScale = whole ? viewWidth / frameWidth : 0;
+        preScale = whole ? 1 : Math.max(1, (int) Math.floor(fit));
+        
+        if (preScale > 1) {
+            intermediate = new BufferedImage(frameWidth * preScale, frameHeight * preScale, BufferedImage.TYPE_INT_RGB);
+        } else {
+            intermediate = null;
+        }
+    }
+    
+    /**
+     * Maps a panel x coordinate, such as a mouse position, to game coordinates
+     */
+    public int toLogicalX(int x) {
+        if (viewWidth <= 0) return x;
+        return (int) Math.floor((x - viewX) * (double) logicalWidth / viewWidth);
+    }
+    
+    /**
+     * Maps a panel y coordinate to game coordinates
+     */
+    public int toLogicalY(int y) {
+        if (viewHeight <= 0) return y;
+        return (int) Math.floor((y - viewY) * (double) logicalHeight / viewHeight);
+    }
+    
+    public int getViewX() {
+        return viewX;
+    }
+    
+    public int getViewY() {
+        return viewY;
+    }
+    
+    public int getViewWidth() {
+        return viewWidth;
+    }
+    
+    public int getViewHeight() {
+        return viewHeight;
+    }
+}
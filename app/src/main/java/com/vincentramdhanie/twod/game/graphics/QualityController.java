@@ -0,0 +1,134 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * Picks a rendering quality level from recent frame times, so slow machines give
+ * up antialiasing and resolution instead of frame rate.
+ *
+ * Frame times are averaged over windows of WINDOW frames. A window averaging over
+ * DOWNGRADE_AT of the budget lowers the quality one level; the quality only goes
+ * back up after UPGRADE_WINDOWS windows in a row averaging under UPGRADE_AT of the
+ * budget. The gap between the two thresholds and the slower climb keep the level
+ * from flipping back and forth around the budget. The window restarts after every
+ * change, so the next decision only sees frames drawn at the new level.
+ */
+public class QualityController {
+    // Antialiasing, smooth image scaling, full resolution
+    public static final int QUALITY_HIGH = 0;
+    // No shape antialiasing
+    public static final int QUALITY_MEDIUM = 1;
+    // No antialiasing at all, rendered at three quarters of the resolution
+    public static final int QUALITY_LOW = 2;
+    // Rendered at half the resolution
+    public static final int QUALITY_MINIMUM = 3;
+    
+    static final int WINDOW = 30;
+    static final double DOWNGRADE_AT = 0.9;
+    static final double UPGRADE_AT = 0.5;
+    static final int UPGRADE_WINDOWS = 4;
+    
+    private static final float[] SCALES = {1.0f, 1.0f, 0.75f, 0.5f};
+    private static final String[] NAMES = {"high", "medium", "low", "minimum"};
+    
+    private final long budgetNanos;
+    private final boolean adaptive;
+    private int level;
+    
+    private long windowNanos;
+    private int windowFrames;
+    private int fastWindows;
+    
+    /**
+     * A controller that adapts the quality to the frame budget, starting at the highest
+     */
+    public QualityController(long budgetNanos) {
+        this(budgetNanos, QUALITY_HIGH, true);
+    }
+    
+    /**
+     * @param adaptive false to keep the starting level whatever the frame times
+     */
+    public QualityController(long budgetNanos, int level, boolean adaptive) {
+        if (level < QUALITY_HIGH || level > QUALITY_MINIMUM) {
+            throw new IllegalArgumentException("Unknown quality level " + level);
+        }
+        this.budgetNanos = budgetNanos;
+        this.level = level;
+        this.adaptive = adaptive;
+    }
+    
+    /**
+     * Parses a level name ("high", "medium", "low" or "minimum")
+     *
+     * @return the level, or -1 if the name is not one
+     */
+    public static int parseLevel(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+    
+    /**
+     * Records how long a frame took to draw
+     *
+     * @return true if the quality level changed
+     */
+    public boolean frameDrawn(long nanos) {
+        if (!adaptive) return false;
+        windowNanos += nanos;
+        if (++windowFrames < WINDOW) return false;
+        
+        double average = (double) windowNanos / windowFrames;
+        windowNanos = 0;
+        windowFrames = 0;
+        
+        if (average > budgetNanos * DOWNGRADE_AT) {
+            fastWindows = 0;
+            if (level < QUALITY_MINIMUM) {
+                level++;
+                return true;
+            }
+        } else if (average < budgetNanos * UPGRADE_AT) {
+            if (++fastWindows >= UPGRADE_WINDOWS && level > QUALITY_HIGH) {
+                fastWindows = 0;
+                level--;
+                return true;
+            }
+        } else {
+            fastWindows = 0;
+        }
+        return false;
+    }
+    
+    /**
+     * Sets the Java2D hints for the current level
+     */
+    public void applyHints(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, level == QUALITY_HIGH
+            ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, level <= QUALITY_MEDIUM
+            ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, level == QUALITY_HIGH
+            ? RenderingHints.VALUE_RENDER_QUALITY : RenderingHints.VALUE_RENDER_SPEED);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, level == QUALITY_HIGH
+            ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+    }
+    
+    public int getLevel() {
+        return level;
+    }
+    
+    public String getLevelName() {
+        return NAMES[level];
+    }
+    
+    /**
+     * Fraction of the screen resolution to render at
+     */
+    public float getScale() {
+        return SCALES[level];
+    }
+}
@@ -0,0 +1,359 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Renders fills and sprites straight into the int[] behind an RGB BufferedImage,
+ * without going through Java2D.
+ *
+ * Besides fills and sprites it draws additive points for particles.
+ *
+ * Draw calls are only recorded, and each is filed under every screen tile it
+ * touches. flush() then renders the tiles in parallel on the common ForkJoinPool:
+ * every tile runs its own commands in the order they were recorded, clipped to the
+ * tile, so tiles never write the same pixel and the result does not depend on the
+ * number of threads. Fills and sprites come out the same as Java2D with
+ * antialiasing off, give or take rounding in the blending; oval edges can differ
+ * by a pixel where Java2D flattens the curve.
+ *
+ * Sprites are converted to ARGB arrays the first time they are drawn and cached by
+ * image, so an image must not be modified after it has been drawn. Sprites with no
+ * transparent pixels are copied row by row instead of blended.
+ */
+public class SoftwareRenderer {
+    public static final int DEFAULT_TILE_SIZE = 128;
+    
+    private static final int FILL = 0;
+    private static final int OVAL = 1;
+    private static final int BLIT = 2;
+    private static final int POINT = 3;
+    
+    private final int[] pixels;
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int tilesX;
+    private final int tilesY;
+    private boolean parallel = true;
+    // Draw coordinates are multiplied by this, for rendering below screen resolution
+    private float scale = 1f;
+    
+    // Recorded commands, as parallel arrays
+    private int commandCount;
+    private int[] type = new int[256];
+    private int[] cmdX = new int[256];
+    private int[] cmdY = new int[256];
+    private int[] cmdW = new int[256];
+    private int[] cmdH = new int[256];
+    private int[] cmdColor = new int[256];
+    private Sprite[] cmdSprite = new Sprite[256];
+    
+    // Indices of the commands touching each tile, in recording order
+    private final int[][] bins;
+    private final int[] binCounts;
+    
+    private final Map<BufferedImage, Sprite> sprites = new WeakHashMap<>();
+    
+    private static final class Sprite {
+        final int[] argb;
+        final int width;
+        final int height;
+        final boolean opaque;
+        
+        Sprite(BufferedImage image) {
+            width = image.getWidth();
+            height = image.getHeight();
+            argb = image.getRGB(0, 0, width, height, null, 0, width);
+            boolean allOpaque = true;
+            for (int p : argb) {
+                if ((p >>> 24) != 0xff) {
+                    allOpaque = false;
+                    break;
+                }
+            }
+            opaque = allOpaque;
+        }
+    }
+    
+    public SoftwareRenderer(BufferedImage target) {
+        this(target, DEFAULT_TILE_SIZE);
+    }
+    
+    /**
+     * @param target an image of TYPE_INT_RGB or TYPE_INT_ARGB, treated as opaque
+     */
+    public SoftwareRenderer(BufferedImage target, int tileSize) {
+        if (target.getType() != BufferedImage.TYPE_INT_RGB && target.getType() != BufferedImage.TYPE_INT_ARGB) {
+            throw new IllegalArgumentException("Target must be TYPE_INT_RGB or TYPE_INT_ARGB, was type " + target.getType());
+        }
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        this.pixels = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        this.width = target.getWidth();
+        this.height = target.getHeight();
+        this.tileSize = tileSize;
+        this.tilesX = (width + tileSize - 1) / tileSize;
+        this.tilesY = (height + tileSize - 1) / tileSize;
+        this.bins = new int[tilesX * tilesY][16];
+        this.binCounts = new int[tilesX * tilesY];
+    }
+    
+    /**
+     * Fills the whole target with an opaque colour
+     */
+    public void clear(int rgb) {
+        record(FILL, 0, 0, width, height, 0xff000000 | rgb, null);
+    }
+    
+    /**
+     * Fills a rectangle. Colours with an alpha below 255 are blended.
+     */
+    public void fillRect(int x, int y, int w, int h, int argb) {
+        if ((argb >>> 24) == 0) return;
+        record(FILL, x, y, w, h, argb, null);
+    }
+    
+    /**
+     * Fills the ellipse inside a rectangle
+     */
+    public void fillOval(int x, int y, int w, int h, int argb) {
+        if ((argb >>> 24) == 0) return;
+        record(OVAL, x, y, w, h, argb, null);
+    }
+    
+    /**
+     * Draws an image at its own size
+     */
+    public void drawImage(BufferedImage image, int x, int y) {
+        drawImage(image, x, y, image.getWidth(), image.getHeight());
+    }
+    
+    /**
+     * Draws an image scaled to w x h with nearest-neighbour sampling
+     */
+    public void drawImage(BufferedImage image, int x, int y, int w, int h) {
+        Sprite sprite = sprites.get(image);
+        if (sprite == null) {
+            sprite = new Sprite(image);
+            sprites.put(image, sprite);
+        }
+        record(BLIT, x, y, w, h, 0, sprite);
+    }
+    
+    /**
+     * Adds a premultiplied colour to a size x size square, for particles
+     */
+    public void addPoint(int x, int y, int size, int argbPre) {
+        record(POINT, x, y, size, size, argbPre, null);
+    }
+    
+    private void record(int kind, int x, int y, int w, int h, int color, Sprite sprite) {
+        if (scale != 1f) {
+            // Scale the edges rather than the size, so neighbours still meet exactly
+            int sx = Math.round(x * scale);
+            int sy = Math.round(y * scale);
+            w = Math.round((x + w) * scale) - sx;
+            h = Math.round((y + h) * scale) - sy;
+            x = sx;
+            y = sy;
+            if (kind == POINT) {
+                w = Math.max(1, w);
+                h = Math.max(1, h);
+            }
+        }
+        
+        // Clip to the target; anything fully outside is dropped here
+        int x0 = Math.max(0, x);
+        int y0 = Math.max(0, y);
+        int x1 = Math.min(width, x + w);
+        int y1 = Math.min(height, y + h);
+        if (x0 >= x1 || y0 >= y1) return;
+        
+        if (commandCount == type.length) {
+            int capacity = commandCount * 2;
+            type = Arrays.copyOf(type, capacity);
+            cmdX = Arrays.copyOf(cmdX, capacity);
+            cmdY = Arrays.copyOf(cmdY, capacity);
+            cmdW = Arrays.copyOf(cmdW, capacity);
+            cmdH = Arrays.copyOf(cmdH, capacity);
+            cmdColor = Arrays.copyOf(cmdColor, capacity);
+            cmdSprite = Arrays.copyOf(cmdSprite, capacity);
+        }
+        int index = commandCount++;
+        type[index] = kind;
+        cmdX[index] = x;
+        cmdY[index] = y;
+        cmdW[index] = w;
+        cmdH[index] = h;
+        cmdColor[index] = color;
+        cmdSprite[index] = sprite;
+        
+        for (int ty = y0 / tileSize; ty <= (y1 - 1) / tileSize; ty++) {
+            for (int tx = x0 / tileSize; tx <= (x1 - 1) / tileSize; tx++) {
+                int tile = ty * tilesX + tx;
+                int n = binCounts[tile];
+                if (n == bins[tile].length) {
+                    bins[tile] = Arrays.copyOf(bins[tile], n * 2);
+                }
+                bins[tile][n] = index;
+                binCounts[tile] = n + 1;
+            }
+        }
+    }
+    
+    /**
+     * Renders everything recorded since the last flush into the target
+     */
+    public void flush() {
+        int tiles = tilesX * tilesY;
+        if (parallel && tiles > 1 && commandCount > 0) {
+            IntStream.range(0, tiles).parallel().forEach(this::renderTile);
+        } else {
+            for (int tile = 0; tile < tiles; tile++) {
+                renderTile(tile);
+            }
+        }
+        
+        Arrays.fill(cmdSprite, 0, commandCount, null);
+        Arrays.fill(binCounts, 0);
+        commandCount = 0;
+    }
+    
+    private void renderTile(int tile) {
+        int count = binCounts[tile];
+        if (count == 0) return;
+        int clipX0 = (tile % tilesX) * tileSize;
+        int clipY0 = (tile / tilesX) * tileSize;
+        int clipX1 = Math.min(width, clipX0 + tileSize);
+        int clipY1 = Math.min(height, clipY0 + tileSize);
+        int[] bin = bins[tile];
+        
+        for (int i = 0; i < count; i++) {
+            int c = bin[i];
+            int x = cmdX[c], y = cmdY[c], w = cmdW[c], h = cmdH[c];
+            int x0 = Math.max(clipX0, x);
+            int y0 = Math.max(clipY0, y);
+            int x1 = Math.min(clipX1, x + w);
+            int y1 = Math.min(clipY1, y + h);
+            
+            switch (type[c]) {
+                case FILL:
+                    fill(x0, y0, x1, y1, cmdColor[c]);
+                    break;
+                case OVAL:
+                    oval(x, y, w, h, x0, y0, x1, y1, cmdColor[c]);
+                    break;
+                case POINT:
+                    point(x0, y0, x1, y1, cmdColor[c]);
+                    break;
+                default:
+                    blit(cmdSprite[c], x, y, w, h, x0, y0, x1, y1);
+                    break;
+            }
+        }
+    }
+    
+    private void fill(int x0, int y0, int x1, int y1, int argb) {
+        int alpha = argb >>> 24;
+        for (int row = y0 * width; row < y1 * width; row += width) {
+            if (alpha == 0xff) {
+                Arrays.fill(pixels, row + x0, row + x1, argb);
+            } else {
+                for (int p = row + x0; p < row + x1; p++) {
+                    pixels[p] = blend(argb, alpha, pixels[p]);
+                }
+            }
+        }
+    }
+    
+    private void oval(int x, int y, int w, int h, int x0, int y0, int x1, int y1, int argb) {
+        int alpha = argb >>> 24;
+        double rx = w / 2.0, ry = h / 2.0;
+        double cx = x + rx, cy = y + ry;
+        for (int py = y0; py < y1; py++) {
+            // Span of this row inside the ellipse, tested at the pixels' top-left
+            // corners, which is what Java2D does for unantialiased fills
+            double dy = (py - cy) / ry;
+            double t = 1 - dy * dy;
+            if (t < 0) continue;
+            double half = rx * Math.sqrt(t);
+            int from = Math.max(x0, (int) Math.ceil(cx - half));
+            int to = Math.min(x1, (int) Math.floor(cx + half) + 1);
+            int row = py * width;
+            for (int p = row + from; p < row + to; p++) {
+                pixels[p] = alpha == 0xff ? argb : blend(argb, alpha, pixels[p]);
+            }
+        }
+    }
+    
+    private void point(int x0, int y0, int x1, int y1, int argbPre) {
+        for (int row = y0 * width; row < y1 * width; row += width) {
+            for (int p = row + x0; p < row + x1; p++) {
+                pixels[p] = PointOverlay.addSaturated(pixels[p], argbPre);
+            }
+        }
+    }
+    
+    private void blit(Sprite sprite, int x, int y, int w, int h, int x0, int y0, int x1, int y1) {
+        int[] src = sprite.argb;
+        int sw = sprite.width;
+        int sh = sprite.height;
+        boolean unscaled = w == sw && h == sh;
+        
+        for (int py = y0; py < y1; py++) {
+            // Sample at the centre of each destination pixel
+            int sy = unscaled ? py - y : (int) (((2L * (py - y) + 1) * sh) / (2L * h));
+            int srcRow = sy * sw;
+            int row = py * width;
+            if (unscaled && sprite.opaque) {
+                System.arraycopy(src, srcRow + (x0 - x), pixels, row + x0, x1 - x0);
+                continue;
+            }
+            for (int px = x0; px < x1; px++) {
+                int sx = unscaled ? px - x : (int) (((2L * (px - x) + 1) * sw) / (2L * w));
+                int s = src[srcRow + sx];
+                int alpha = s >>> 24;
+                if (alpha == 0xff) {
+                    pixels[row + px] = s;
+                } else if (alpha != 0) {
+                    pixels[row + px] = blend(s, alpha, pixels[row + px]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Source-over of a non-premultiplied colour onto an opaque pixel
+     */
+    private static int blend(int src, int alpha, int dst) {
+        int inv = 0xff - alpha;
+        int r = (((src >> 16) & 0xff) * alpha + ((dst >> 16) & 0xff) * inv + 127) / 0xff;
+        int g = (((src >> 8) & 0xff) * alpha + ((dst >> 8) & 0xff) * inv + 127) / 0xff;
+        int b = ((src & 0xff) * alpha + (dst & 0xff) * inv + 127) / 0xff;
+        return 0xff000000 | (r << 16) | (g << 8) | b;
+    }
+    
+    /**
+     * The target's pixels, for passes that write them directly between flushes
+     */
+    public int[] getPixels() { return pixels; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    
+    /**
+     * Multiplies all draw coordinates from now on, to render a screen-sized scene
+     * into a smaller target
+     */
+    public void setScale(float scale) { this.scale = scale; }
+    
+    /**
+     * Renders the tiles on the calling thread only when false (for comparisons)
+     */
+    public void setParallel(boolean parallel) { this.parallel = parallel; }
+}
@@ -0,0 +1,88 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Gives every image drawn through a DrawCommandBuffer a small integer handle, so
+ * recorded frames hold ints instead of references. Handles are assigned on the
+ * simulation thread and looked up on the render thread; a frame is only handed
+ * over after its images were registered, so the render thread always sees them.
+ *
+ * Images are only held weakly. A frame keeps the images it recorded reachable
+ * until it is cleared, and once an image is unreachable its handle goes to the
+ * next new image, so replaced images (a reloaded asset, a redrawn menu) are
+ * released along with anything cached for them.
+ */
+public class SpriteRegistry {
+    // BufferedImage does not override equals, so this is keyed by identity
+    private final Map<BufferedImage, Integer> handles = new WeakHashMap<>();
+    private final ReferenceQueue<BufferedImage> released = new ReferenceQueue<>();
+    private volatile ImageRef[] images = new ImageRef[64];
+    private int count;
+    private int[] freeHandles = new int[16];
+    private int freeCount;
+    
+    private static final class ImageRef extends WeakReference<BufferedImage> {
+        final int handle;
+        
+        ImageRef(BufferedImage image, int handle, ReferenceQueue<BufferedImage> queue) {
+            super(image, queue);
+            this.handle = handle;
+        }
+    }
+    
+    /**
+     * Returns the image's handle, registering it the first time
+     */
+    public synchronized int handleOf(BufferedImage image) {
+        Integer handle = handles.get(image);
+        if (handle != null) return handle;
+        
+        reclaim();
+        ImageRef[] current = images;
+        int h;
+        if (freeCount > 0) {
+            h = freeHandles[--freeCount];
+        } else {
+            if (count == current.length) {
+                current = Arrays.copyOf(current, count * 2);
+            }
+            h = count++;
+        }
+        current[h] = new ImageRef(image, h, released);
+        images = current;
+        handles.put(image, h);
+        return h;
+    }
+    
+    /**
+     * Frees the handles of images that are no longer reachable
+     */
+    private void reclaim() {
+        Reference<? extends BufferedImage> ref;
+        while ((ref = released.poll()) != null) {
+            if (freeCount == freeHandles.length) {
+                freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+            }
+            freeHandles[freeCount++] = ((ImageRef) ref).handle;
+        }
+    }
+    
+    public BufferedImage get(int handle) {
+        return images[handle].get();
+    }
+    
+    /**
+     * Number of images registered and not yet released
+     */
+    public synchronized int size() {
+        reclaim();
+        return count - freeCount;
+    }
+}
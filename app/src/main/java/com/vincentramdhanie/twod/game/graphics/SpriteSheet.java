@@ -1,72 +1,252 @@
 package com.vincentramdhanie.twod.game.graphics;
 
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
+/**
+ * A sprite sheet sliced into frames once, when it is created. Every frame is
+ * copied into its own image, so looking one up is an array index and drawing it
+ * does not drag the whole sheet's raster along.
+ *
+ * Sheets are either a plain grid (the constructor) or described by a .sheet
+ * metadata file (parse()), which names frames and animations:
+ *
+ * <pre>
+ * # Comments and blank lines are ignored
+ * image ball.png                          the sheet image, relative to the .sheet file
+ * frame ball 0 0 32 32                    a named frame: x y width height
+ * grid walk 0 32 32 32 8 1                frames walk0..walk7: x y width height columns rows
+ * animation idle loop 150 ball            name, loop or once, default ms per frame, frames
+ * animation walk loop 100 walk0 walk1:200 walk2   frame:ms overrides the default
+ * </pre>
+ */
 public class SpriteSheet {
-    private BufferedImage spriteSheet;
-    private int spriteWidth;
-    private int spriteHeight;
+    private final BufferedImage[] frames;
+    private final Map<String, Integer> frameIndex;
+    private final Map<String, AnimationDefinition> animations;
+    private final int columns;
+    private final int rows;
     
     public SpriteSheet(BufferedImage spriteSheet, int spriteWidth, int spriteHeight) {
-        this.spriteSheet = spriteSheet;
-        this.spriteWidth = spriteWidth;
-        this.spriteHeight = spriteHeight;
+        if (spriteSheet == null) {
+            throw new IllegalArgumentException("No sprite sheet image");
+        }
+        columns = spriteSheet.getWidth() / spriteWidth;
+        rows = spriteSheet.getHeight() / spriteHeight;
+        frames = new BufferedImage[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                frames[row * columns + col] = slice(spriteSheet, col * spriteWidth, row * spriteHeight,
+                                                    spriteWidth, spriteHeight);
+            }
+        }
+        frameIndex = Collections.emptyMap();
+        animations = Collections.emptyMap();
+    }
+    
+    private SpriteSheet(BufferedImage[] frames, Map<String, Integer> frameIndex,
+                        Map<String, AnimationDefinition> animations) {
+        this.frames = frames;
+        this.frameIndex = frameIndex;
+        this.animations = animations;
+        columns = frames.length;
+        rows = 1;
+    }
+    
+    /**
+     * Builds a sheet from .sheet metadata
+     *
+     * @param images loads the image named on the sheet's image line
+     * @throws IllegalArgumentException if the metadata is malformed, naming the line
+     */
+    public static SpriteSheet parse(String text, Function<String, BufferedImage> images) {
+        BufferedImage image = null;
+        List<BufferedImage> frames = new ArrayList<>();
+        Map<String, Integer> frameIndex = new HashMap<>();
+        Map<String, AnimationDefinition> animations = new HashMap<>();
         
-        if (spriteSheet != null) {
-            System.out.println("SpriteSheet created with dimensions: " + 
-                              spriteSheet.getWidth() + "x" + spriteSheet.getHeight() + 
-                              ", sprite size: " + spriteWidth + "x" + spriteHeight);
-        } else {
-            System.err.println("Warning: Null spritesheet provided to SpriteSheet constructor");
+        String[] lines = text.split("\r?\n");
+        for (int n = 0; n < lines.length; n++) {
+            String line = lines[n].trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split("\\s+");
+            try {
+                switch (parts[0]) {
+                    case "image":
+                        expect(parts, 2);
+                        image = images.apply(parts[1]);
+                        if (image == null) {
+                            throw new IllegalArgumentException("cannot load " + parts[1]);
+                        }
+                        break;
+                    case "frame":
+                        expect(parts, 6);
+                        requireImage(image);
+                        addFrame(frames, frameIndex, parts[1], slice(image, parseInt(parts[2]), parseInt(parts[3]),
+                                                                      parseInt(parts[4]), parseInt(parts[5])));
+                        break;
+                    case "grid":
+                        expect(parts, 8);
+                        requireImage(image);
+                        int x = parseInt(parts[2]);
+                        int y = parseInt(parts[3]);
+                        int w = parseInt(parts[4]);
+                        int h = parseInt(parts[5]);
+                        int cols = parseInt(parts[6]);
+                        int gridRows = parseInt(parts[7]);
+                        for (int i = 0; i < cols * gridRows; i++) {
+                            addFrame(frames, frameIndex, parts[1] + i,
+                                     slice(image, x + (i % cols) * w, y + (i / cols) * h, w, h));
+                        }
+                        break;
+                    case "animation":
+                        if (parts.length < 5) {
+                            throw new IllegalArgumentException("expected a name, loop or once, a duration and frames");
+                        }
+                        animations.put(parts[1], parseAnimation(parts, frames, frameIndex));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown entry " + parts[0]);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + (n + 1) + ": " + e.getMessage(), e);
+            }
         }
+        return new SpriteSheet(frames.toArray(new BufferedImage[0]), frameIndex, animations);
     }
     
-    public BufferedImage getSprite(int row, int col) {
-        if (spriteSheet == null) {
-            System.err.println("Cannot get sprite: spriteSheet is null");
-            return null;
+    private static AnimationDefinition parseAnimation(String[] parts, List<BufferedImage> frames,
+                                                      Map<String, Integer> frameIndex) {
+        boolean looping;
+        if (parts[2].equals("loop")) {
+            looping = true;
+        } else if (parts[2].equals("once")) {
+            looping = false;
+        } else {
+            throw new IllegalArgumentException("expected loop or once but got " + parts[2]);
         }
+        int defaultDuration = parseInt(parts[3]);
         
-        int x = col * spriteWidth;
-        int y = row * spriteHeight;
-        
-        // Make sure we're not trying to get a sprite outside the sheet boundaries
-        if (x >= spriteSheet.getWidth() || y >= spriteSheet.getHeight()) {
-            System.err.println("Sprite coordinates out of bounds: (" + row + "," + col + ") -> (" + 
-                             x + "," + y + ") from sheet " + spriteSheet.getWidth() + "x" + spriteSheet.getHeight());
-            return null;
+        int count = parts.length - 4;
+        BufferedImage[] images = new BufferedImage[count];
+        int[] durations = new int[count];
+        for (int i = 0; i < count; i++) {
+            String entry = parts[4 + i];
+            int colon = entry.indexOf(':');
+            String name = colon < 0 ? entry : entry.substring(0, colon);
+            Integer index = frameIndex.get(name);
+            if (index == null) {
+                throw new IllegalArgumentException("unknown frame " + name);
+            }
+            images[i] = frames.get(index);
+            durations[i] = colon < 0 ? defaultDuration : parseInt(entry.substring(colon + 1));
         }
-        
+        return new AnimationDefinition(images, durations, looping);
+    }
+    
+    private static void addFrame(List<BufferedImage> frames, Map<String, Integer> frameIndex,
+                                 String name, BufferedImage frame) {
+        if (frameIndex.putIfAbsent(name, frames.size()) != null) {
+            throw new IllegalArgumentException("duplicate frame " + name);
+        }
+        frames.add(frame);
+    }
+    
+    private static void expect(String[] parts, int count) {
+        if (parts.length != count) {
+            throw new IllegalArgumentException(parts[0] + " takes " + (count - 1) + " values");
+        }
+    }
+    
+    private static void requireImage(BufferedImage image) {
+        if (image == null) {
+            throw new IllegalArgumentException("frames must come after the image line");
+        }
+    }
+    
+    private static int parseInt(String value) {
         try {
-            // Calculate actual width and height (for edge sprites)
-            int width = Math.min(spriteWidth, spriteSheet.getWidth() - x);
-            int height = Math.min(spriteHeight, spriteSheet.getHeight() - y);
-            
-            if (width <= 0 || height <= 0) {
-                System.err.println("Invalid sprite dimensions: " + width + "x" + height);
-                return null;
-            }
-            
-            // Get the subimage
-            BufferedImage sprite = spriteSheet.getSubimage(x, y, width, height);
-            return sprite;
-        } catch (Exception e) {
-            System.err.println("Error extracting sprite at (" + row + "," + col + "): " + e.getMessage());
-            return null;
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + value);
+        }
+    }
+    
+    /**
+     * Copies a region of the sheet into a new image the screen can draw quickly
+     */
+    private static BufferedImage slice(BufferedImage sheet, int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0 || x < 0 || y < 0
+                || x + width > sheet.getWidth() || y + height > sheet.getHeight()) {
+            throw new IllegalArgumentException("frame " + x + "," + y + " " + width + "x" + height
+                                               + " is outside the " + sheet.getWidth() + "x" + sheet.getHeight() + " sheet");
+        }
+        BufferedImage frame;
+        if (GraphicsEnvironment.isHeadless()) {
+            frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        } else {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                                      .getDefaultScreenDevice().getDefaultConfiguration();
+            frame = gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
         }
+        Graphics2D g = frame.createGraphics();
+        g.drawImage(sheet, 0, 0, width, height, x, y, x + width, y + height, null);
+        g.dispose();
+        return frame;
+    }
+    
+    /**
+     * Gets a frame of a grid sheet
+     * @return the frame, or null if the cell is outside the sheet
+     */
+    public BufferedImage getSprite(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= columns) return null;
+        return frames[row * columns + col];
+    }
+    
+    public BufferedImage getFrame(int index) {
+        return frames[index];
+    }
+    
+    /**
+     * @return the index of a frame named in the metadata, or -1 if there is none
+     */
+    public int indexOf(String name) {
+        Integer index = frameIndex.get(name);
+        return index != null ? index : -1;
+    }
+    
+    /**
+     * @return the shared definition of a named animation, or null if there is none
+     */
+    public AnimationDefinition getAnimation(String name) {
+        return animations.get(name);
+    }
+    
+    public int getFrameCount() {
+        return frames.length;
     }
     
     /**
      * Gets the number of sprites that can fit horizontally in this sheet
      */
     public int getColumnCount() {
-        return spriteSheet != null ? spriteSheet.getWidth() / spriteWidth : 0;
+        return columns;
     }
     
     /**
      * Gets the number of sprites that can fit vertically in this sheet
      */
     public int getRowCount() {
-        return spriteSheet != null ? spriteSheet.getHeight() / spriteHeight : 0;
+        return rows;
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.vincentramdhanie.twod.game.input;
 
 import com.vincentramdhanie.twod.game.core.GameStateManager;
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
@@ -18,12 +19,14 @@ public class KeyHandler implements KeyListener {
     }
     
     public void update() {
-        // This could be used to track key states
+        // Called once per tick: publish how much input arrived since the last one
+        EngineMetrics.inputDrained();
     }
     
     @Override
     public void keyPressed(KeyEvent e) {
         keys[e.getKeyCode()] = true;
+        EngineMetrics.inputReceived();
         
         if (gsm != null) {
             gsm.keyPressed(e.getKeyCode());
@@ -33,6 +36,7 @@ public class KeyHandler implements KeyListener {
     @Override
     public void keyReleased(KeyEvent e) {
         keys[e.getKeyCode()] = false;
+        EngineMetrics.inputReceived();
         
         if (gsm != null) {
             gsm.keyReleased(e.getKeyCode());
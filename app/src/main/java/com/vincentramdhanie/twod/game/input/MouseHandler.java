@@ -1,6 +1,8 @@
 package com.vincentramdhanie.twod.game.input;
 
+import com.vincentramdhanie.twod.game.core.GamePanel;
 import com.vincentramdhanie.twod.game.core.GameStateManager;
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
 
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
@@ -11,6 +13,8 @@ public class MouseHandler implements MouseListener, MouseMotionListener {
     private int mouseY;
     private boolean clicked;
     private GameStateManager gsm;
+    // Maps window coordinates to game coordinates when the window is scaled
+    private GamePanel gamePanel;
     
     public MouseHandler() {
         mouseX = 0;
@@ -22,10 +26,23 @@ public class MouseHandler implements MouseListener, MouseMotionListener {
         this.gsm = gsm;
     }
     
+    public void setGamePanel(GamePanel gamePanel) {
+        this.gamePanel = gamePanel;
+    }
+    
+    private int logicalX(MouseEvent e) {
+        return gamePanel != null ? gamePanel.toLogicalX(e.getX()) : e.getX();
+    }
+    
+    private int logicalY(MouseEvent e) {
+        return gamePanel != null ? gamePanel.toLogicalY(e.getY()) : e.getY();
+    }
+    
     @Override
     public void mousePressed(MouseEvent e) {
-        int x = e.getX();
-        int y = e.getY();
+        int x = logicalX(e);
+        int y = logicalY(e);
+        EngineMetrics.inputReceived();
         
         clicked = true;
         
@@ -38,8 +55,9 @@ public class MouseHandler implements MouseListener, MouseMotionListener {
     
     @Override
     public void mouseReleased(MouseEvent e) {
-        int x = e.getX();
-        int y = e.getY();
+        int x = logicalX(e);
+        int y = logicalY(e);
+        EngineMetrics.inputReceived();
         
         clicked = false;
         
@@ -52,8 +70,9 @@ public class MouseHandler implements MouseListener, MouseMotionListener {
     
     @Override
     public void mouseMoved(MouseEvent e) {
-        int x = e.getX();
-        int y = e.getY();
+        int x = logicalX(e);
+        int y = logicalY(e);
+        EngineMetrics.inputReceived();
         
         mouseX = x;
         mouseY = y;
@@ -67,8 +86,8 @@ public class MouseHandler implements MouseListener, MouseMotionListener {
     
     @Override
     public void mouseDragged(MouseEvent e) {
-        mouseX = e.getX();
-        mouseY = e.getY();
+        mouseX = logicalX(e);
+        mouseY = logicalY(e);
     }
     
     @Override
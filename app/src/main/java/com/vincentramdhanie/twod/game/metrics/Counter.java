@@ -0,0 +1,36 @@
+package com.vincentramdhanie.twod.game.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A monotonically increasing count. Updates are a single atomic add and never allocate.
+ */
+public class Counter extends Metric {
+    private final AtomicLong value = new AtomicLong();
+    
+    Counter(String name, String help) {
+        super(name, help);
+    }
+    
+    public void increment() {
+        value.incrementAndGet();
+    }
+    
+    public void add(long amount) {
+        value.addAndGet(amount);
+    }
+    
+    public long get() {
+        return value.get();
+    }
+    
+    @Override
+    protected String type() {
+        return "counter";
+    }
+    
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        out.append(name).append(' ').append(value.get()).append('\n');
+    }
+}
@@ -0,0 +1,121 @@
+package com.vincentramdhanie.twod.game.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The engine's built-in metrics. Fields are updated directly from the game loop,
+ * the resource loader and the input handlers.
+ */
+public final class EngineMetrics {
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+    
+    // Bucket bounds in seconds, centred around the 16.6 ms frame budget
+    private static final double[] FRAME_BUCKETS = {
+        0.0005, 0.001, 0.002, 0.004, 0.008, 0.0166, 0.033, 0.066, 0.1, 0.25
+    };
+    
+    // Game loop
+    public static final Gauge UPS = REGISTRY.gauge("twod_ups", "Simulation updates in the last second");
+    public static final Gauge FPS = REGISTRY.gauge("twod_fps", "Frames rendered in the last second");
+    public static final Counter TICKS = REGISTRY.counter("twod_ticks_total", "Simulation updates since start");
+    public static final Counter FRAMES = REGISTRY.counter("twod_frames_total", "Frames rendered since start");
+    public static final Counter FRAMES_SKIPPED = REGISTRY.counter("twod_frames_skipped_total",
+        "Recorded frames replaced by a newer one before the render thread drew them");
+    public static final Histogram TICK_TIME = REGISTRY.histogram("twod_tick_seconds",
+        "Time spent in one simulation update", FRAME_BUCKETS);
+    public static final Histogram RENDER_TIME = REGISTRY.histogram("twod_render_seconds",
+        "Time spent rendering one frame", FRAME_BUCKETS);
+    public static final Gauge RENDER_QUALITY = REGISTRY.gauge("twod_render_quality",
+        "Current render quality level, 0 (high) to 3 (minimum)");
+    
+    // World
+    public static final Gauge ENTITIES = REGISTRY.gauge("twod_entities", "Entities in the current game state");
+    public static final Gauge BODIES_AWAKE = REGISTRY.gauge("twod_bodies_awake",
+        "Entities updated this tick");
+    public static final Gauge BODIES_SLEEPING = REGISTRY.gauge("twod_bodies_sleeping",
+        "Entities at rest and skipped by the update");
+    public static final Gauge POOL_LIVE = REGISTRY.gauge("twod_pool_live",
+        "Pooled entities currently spawned");
+    public static final Gauge POOL_FREE = REGISTRY.gauge("twod_pool_free",
+        "Pooled entities waiting on a free list");
+    public static final Counter POOL_SPAWNS = REGISTRY.counter("twod_pool_spawns_total",
+        "Entities spawned from the pool");
+    public static final Counter POOL_ALLOCATIONS = REGISTRY.counter("twod_pool_allocations_total",
+        "Spawns that had to create a new entity because the free list was empty");
+    public static final Gauge PARTICLES = REGISTRY.gauge("twod_particles", "Live particles");
+    
+    // Resource loader
+    public static final Counter ASSET_CACHE_HITS = REGISTRY.counter("twod_asset_cache_hits_total",
+        "ResourceLoader requests served from the cache");
+    public static final Counter ASSET_CACHE_MISSES = REGISTRY.counter("twod_asset_cache_misses_total",
+        "ResourceLoader requests that had to read and decode the asset");
+    public static final Counter ASSET_BYTES_READ = REGISTRY.counter("twod_asset_bytes_read_total",
+        "Encoded asset bytes read by ResourceLoader");
+    public static final Gauge ASSET_CACHE_BYTES = REGISTRY.gauge("twod_asset_cache_bytes",
+        "Approximate decoded size of the images held in the ResourceLoader cache");
+    public static final Counter ASSET_RELOADS = REGISTRY.counter("twod_asset_reloads_total",
+        "Changed assets swapped into the ResourceLoader cache while the game ran");
+    public static final Gauge ASSET_CACHE_HIT_RATIO = REGISTRY.gauge("twod_asset_cache_hit_ratio",
+        "Fraction of ResourceLoader requests served from the cache", EngineMetrics::cacheHitRatio);
+    
+    // Input
+    public static final Gauge INPUT_QUEUE_DEPTH = REGISTRY.gauge("twod_input_queue_depth",
+        "Input events received since the previous simulation update");
+    public static final Counter INPUT_EVENTS = REGISTRY.counter("twod_input_events_total",
+        "Keyboard and mouse events received");
+    
+    // Room scheduler
+    public static final Gauge ROOMS = REGISTRY.gauge("twod_rooms", "Rooms hosted by the room scheduler");
+    public static final Gauge ROOM_UTILIZATION = REGISTRY.gauge("twod_room_carrier_utilization",
+        "Fraction of carrier thread time spent ticking rooms over the last second");
+    public static final Gauge ROOM_CAPACITY = REGISTRY.gauge("twod_room_capacity_estimate",
+        "Rooms this host could run at the target utilization, or -1 when unknown");
+    public static final Histogram ROOM_TICK_TIME = REGISTRY.histogram("twod_room_tick_seconds",
+        "Time spent in one room's simulation update", FRAME_BUCKETS);
+    public static final Histogram ROOM_TICK_LAG = REGISTRY.histogram("twod_room_tick_lag_seconds",
+        "How late a room tick started after its deadline", FRAME_BUCKETS);
+    public static final Counter ROOM_OVERRUNS = REGISTRY.counter("twod_room_overruns_total",
+        "Room ticks that finished after the room's next deadline");
+    public static final Counter ROOMS_REJECTED = REGISTRY.counter("twod_rooms_rejected_total",
+        "Rooms refused because the host was saturated");
+    
+    // World streaming
+    public static final Gauge CHUNKS_LOADED = REGISTRY.gauge("twod_chunks_loaded", "World chunks in memory");
+    public static final Counter CHUNKS_STREAMED = REGISTRY.counter("twod_chunks_streamed_total",
+        "Chunks handed from the workers to the simulation");
+    public static final Counter CHUNKS_SAVED = REGISTRY.counter("twod_chunks_saved_total",
+        "Modified chunks written to disk on eviction");
+    
+    // World saves
+    public static final Histogram WORLD_SAVE_TIME = REGISTRY.histogram("twod_world_save_seconds",
+        "Time spent writing one world save, off the game thread", FRAME_BUCKETS);
+    public static final Histogram WORLD_SNAPSHOT_TIME = REGISTRY.histogram("twod_world_snapshot_seconds",
+        "Time the game thread spent copying the world for a save", FRAME_BUCKETS);
+    
+    private static final AtomicLong pendingInput = new AtomicLong();
+    
+    private EngineMetrics() {
+    }
+    
+    private static double cacheHitRatio() {
+        long hits = ASSET_CACHE_HITS.get();
+        long total = hits + ASSET_CACHE_MISSES.get();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+    
+    /**
+     * Called by the input handlers on the event dispatch thread for every event
+     */
+    public static void inputReceived() {
+        pendingInput.incrementAndGet();
+        INPUT_EVENTS.increment();
+    }
+    
+    /**
+     * Called once per simulation update to publish how many input events
+     * arrived since the previous one
+     */
+    public static void inputDrained() {
+        INPUT_QUEUE_DEPTH.set(pendingInput.getAndSet(0));
+    }
+}
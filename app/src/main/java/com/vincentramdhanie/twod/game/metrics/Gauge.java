@@ -0,0 +1,40 @@
+package com.vincentramdhanie.twod.game.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A value that can go up and down. Either set directly by the engine
+ * (a single atomic write) or computed from a supplier when scraped.
+ */
+public class Gauge extends Metric {
+    private final AtomicLong bits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private final DoubleSupplier supplier;
+    
+    Gauge(String name, String help) {
+        this(name, help, null);
+    }
+    
+    Gauge(String name, String help, DoubleSupplier supplier) {
+        super(name, help);
+        this.supplier = supplier;
+    }
+    
+    public void set(double value) {
+        bits.set(Double.doubleToRawLongBits(value));
+    }
+    
+    public double get() {
+        return supplier != null ? supplier.getAsDouble() : Double.longBitsToDouble(bits.get());
+    }
+    
+    @Override
+    protected String type() {
+        return "gauge";
+    }
+    
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        out.append(name).append(' ').append(get()).append('\n');
+    }
+}
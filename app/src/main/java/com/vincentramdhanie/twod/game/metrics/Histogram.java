@@ -0,0 +1,61 @@
+package com.vincentramdhanie.twod.game.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A duration histogram with fixed bucket bounds. Observations are recorded in
+ * nanoseconds with atomic adds only, and exported in seconds.
+ */
+public class Histogram extends Metric {
+    private final double[] boundsSeconds;
+    private final long[] boundsNanos;
+    private final AtomicLongArray buckets;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumNanos = new AtomicLong();
+    
+    Histogram(String name, String help, double... boundsSeconds) {
+        super(name, help);
+        this.boundsSeconds = boundsSeconds.clone();
+        this.boundsNanos = new long[boundsSeconds.length];
+        for (int i = 0; i < boundsSeconds.length; i++) {
+            boundsNanos[i] = (long) (boundsSeconds[i] * 1_000_000_000L);
+        }
+        // One extra bucket for observations above the last bound (+Inf)
+        this.buckets = new AtomicLongArray(boundsSeconds.length + 1);
+    }
+    
+    public void observeNanos(long nanos) {
+        int bucket = 0;
+        while (bucket < boundsNanos.length && nanos > boundsNanos[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        sumNanos.addAndGet(nanos);
+        count.incrementAndGet();
+    }
+    
+    public long getCount() {
+        return count.get();
+    }
+    
+    @Override
+    protected String type() {
+        return "histogram";
+    }
+    
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        // Prometheus buckets are cumulative
+        long cumulative = 0;
+        for (int i = 0; i < boundsSeconds.length; i++) {
+            cumulative += buckets.get(i);
+            out.append(name).append("_bucket{le=\"").append(boundsSeconds[i]).append("\"} ")
+               .append(cumulative).append('\n');
+        }
+        cumulative += buckets.get(boundsSeconds.length);
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(name).append("_sum ").append(sumNanos.get() / 1_000_000_000.0).append('\n');
+        out.append(name).append("_count ").append(cumulative).append('\n');
+    }
+}
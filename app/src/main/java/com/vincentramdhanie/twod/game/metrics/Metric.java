@@ -0,0 +1,34 @@
+package com.vincentramdhanie.twod.game.metrics;
+
+/**
+ * Base class for all metrics exposed in Prometheus text format
+ */
+public abstract class Metric {
+    protected final String name;
+    protected final String help;
+    
+    protected Metric(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+    
+    /**
+     * @return the Prometheus metric type (counter, gauge or histogram)
+     */
+    protected abstract String type();
+    
+    /**
+     * Appends the sample lines for this metric. Called from the scrape thread only.
+     */
+    protected abstract void writeSamples(StringBuilder out);
+    
+    void writeTo(StringBuilder out) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type()).append('\n');
+        writeSamples(out);
+    }
+    
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,51 @@
+package com.vincentramdhanie.twod.game.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Holds a set of metrics and renders them in Prometheus text exposition format.
+ * Metrics are registered once at startup; scraping only reads their atomic values,
+ * so it never blocks the threads that update them.
+ */
+public class MetricsRegistry {
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+    
+    public Counter counter(String name, String help) {
+        return register(new Counter(name, help));
+    }
+    
+    public Gauge gauge(String name, String help) {
+        return register(new Gauge(name, help));
+    }
+    
+    public Gauge gauge(String name, String help, DoubleSupplier supplier) {
+        return register(new Gauge(name, help, supplier));
+    }
+    
+    public Histogram histogram(String name, String help, double... boundsSeconds) {
+        return register(new Histogram(name, help, boundsSeconds));
+    }
+    
+    private <T extends Metric> T register(T metric) {
+        for (Metric existing : metrics) {
+            if (existing.getName().equals(metric.getName())) {
+                throw new IllegalArgumentException("Metric already registered: " + metric.getName());
+            }
+        }
+        metrics.add(metric);
+        return metric;
+    }
+    
+    /**
+     * Renders every registered metric in Prometheus text format
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Metric metric : metrics) {
+            metric.writeTo(out);
+        }
+        return out.toString();
+    }
+}
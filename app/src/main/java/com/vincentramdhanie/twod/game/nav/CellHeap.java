@@ -0,0 +1,63 @@
+package com.vincentramdhanie.twod.game.nav;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of grid cells keyed by float priority, stored in primitive
+ * arrays. A cell may be pushed again with a better priority; callers skip the
+ * stale entries when they pop them.
+ */
+class CellHeap {
+    private int[] cells;
+    private float[] keys;
+    private int size;
+    
+    CellHeap(int capacity) {
+        cells = new int[capacity];
+        keys = new float[capacity];
+    }
+    
+    void clear() {
+        size = 0;
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    void push(int cell, float key) {
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            cells[i] = cells[parent];
+            keys[i] = keys[parent];
+            i = parent;
+        }
+        cells[i] = cell;
+        keys[i] = key;
+    }
+    
+    int pop() {
+        int top = cells[0];
+        int lastCell = cells[--size];
+        float lastKey = keys[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (keys[child] >= lastKey) break;
+            cells[i] = cells[child];
+            keys[i] = keys[child];
+            i = child;
+        }
+        cells[i] = lastCell;
+        keys[i] = lastKey;
+        return top;
+    }
+}
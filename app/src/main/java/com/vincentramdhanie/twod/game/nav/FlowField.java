@@ -0,0 +1,137 @@
+package com.vincentramdhanie.twod.game.nav;
+
+import java.util.Arrays;
+
+/**
+ * Directions towards one goal cell from every cell of a grid, so any number of
+ * agents heading for the same goal share a single search.
+ *
+ * Built with Dijkstra outwards from the goal. Each reachable cell stores the
+ * step to take next; agents look it up in constant time.
+ */
+public class FlowField {
+    private static final byte NONE = -1;
+    private static final int[] OPPOSITE = {1, 0, 3, 2, 7, 6, 5, 4};
+    
+    private final int goal;
+    private final int cols;
+    private final int rows;
+    private final int cellSize;
+    private final float[] cost;
+    private final byte[] step;
+    private final int builtForVersion;
+    
+    // The newest grid version this field is known to be correct for
+    private volatile int validForVersion;
+    
+    private FlowField(NavGrid grid, int goal) {
+        this.goal = goal;
+        this.cols = grid.getCols();
+        this.rows = grid.getRows();
+        this.cellSize = grid.getCellSize();
+        this.cost = new float[grid.getCellCount()];
+        this.step = new byte[grid.getCellCount()];
+        this.builtForVersion = grid.getVersion();
+        this.validForVersion = builtForVersion;
+    }
+    
+    /**
+     * Computes the field for the goal cell. The goal itself may be blocked (a target
+     * standing close to an obstacle); it is still reached from its free neighbours.
+     * The grid must not change meanwhile; pass a copy when running on another thread.
+     */
+    public static FlowField compute(NavGrid grid, int goal) {
+        FlowField field = new FlowField(grid, goal);
+        Arrays.fill(field.cost, Float.POSITIVE_INFINITY);
+        Arrays.fill(field.step, NONE);
+        if (goal < 0) {
+            return field;
+        }
+        
+        CellHeap open = new CellHeap(256);
+        field.cost[goal] = 0;
+        open.push(goal, 0);
+        while (!open.isEmpty()) {
+            int cell = open.pop();
+            float base = field.cost[cell];
+            
+            // Steps are symmetric, so relaxing outwards from the goal gives the
+            // shortest way back to it
+            for (int d = 0; d < 8; d++) {
+                if (!grid.canStep(cell, d)) continue;
+                int next = grid.neighbour(cell, d);
+                float c = base + (d < 4 ? 1f : NavGrid.DIAGONAL);
+                if (c < field.cost[next]) {
+                    field.cost[next] = c;
+                    field.step[next] = (byte) OPPOSITE[d];
+                    open.push(next, c);
+                }
+            }
+        }
+        return field;
+    }
+    
+    /**
+     * The next cell on the way to the goal, or -1 at the goal or where it is unreachable
+     */
+    public int nextCell(int cell) {
+        if (cell < 0 || step[cell] == NONE) return -1;
+        int d = step[cell];
+        return cell + NavGrid.DY[d] * cols + NavGrid.DX[d];
+    }
+    
+    /**
+     * Unit direction to move in from the point, or zero if there is none
+     */
+    public float getDirectionX(float x, float y) {
+        int d = stepAt(x, y);
+        return d == NONE ? 0 : NavGrid.DX[d] * (d < 4 ? 1f : 1f / NavGrid.DIAGONAL);
+    }
+    
+    public float getDirectionY(float x, float y) {
+        int d = stepAt(x, y);
+        return d == NONE ? 0 : NavGrid.DY[d] * (d < 4 ? 1f : 1f / NavGrid.DIAGONAL);
+    }
+    
+    private int stepAt(float x, float y) {
+        int col = (int) Math.floor(x / cellSize);
+        int row = (int) Math.floor(y / cellSize);
+        if (col < 0 || row < 0 || col >= cols || row >= rows) return NONE;
+        return step[row * cols + col];
+    }
+    
+    public boolean isReachable(int cell) {
+        return cell >= 0 && cost[cell] != Float.POSITIVE_INFINITY;
+    }
+    
+    /**
+     * Path cost from the cell to the goal in cells
+     */
+    public float getCost(int cell) {
+        return cost[cell];
+    }
+    
+    /**
+     * Whether a change to the cells in the range can alter this field: only if a
+     * reachable cell is in it or next to it
+     */
+    boolean isAffectedBy(int minCol, int minRow, int maxCol, int maxRow) {
+        for (int row = Math.max(0, minRow - 1); row <= Math.min(rows - 1, maxRow + 1); row++) {
+            for (int col = Math.max(0, minCol - 1); col <= Math.min(cols - 1, maxCol + 1); col++) {
+                if (cost[row * cols + col] != Float.POSITIVE_INFINITY) return true;
+            }
+        }
+        return false;
+    }
+    
+    void revalidate(int version) {
+        validForVersion = version;
+    }
+    
+    public boolean isValidFor(int version) {
+        return validForVersion == version;
+    }
+    
+    public int getGoal() { return goal; }
+    public int getBuiltForVersion() { return builtForVersion; }
+}
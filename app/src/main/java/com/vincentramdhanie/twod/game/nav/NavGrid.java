@@ -0,0 +1,165 @@
+package com.vincentramdhanie.twod.game.nav;
+
+import com.vincentramdhanie.twod.game.entity.Entity;
+
+import java.util.Collection;
+
+/**
+ * Walkable grid over the play area. Each cell counts the obstacles covering it,
+ * so obstacles can be added and removed one at a time without a rebuild.
+ *
+ * Obstacles are grown by the clearance on every side, which lets an agent of
+ * twice the clearance in size move its centre along any walkable cell.
+ *
+ * Not thread-safe; mutate it from the game thread and hand copy() to other threads.
+ */
+public class NavGrid {
+    // Neighbour offsets; the first four are orthogonal, the rest diagonal
+    static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+    static final float DIAGONAL = (float) Math.sqrt(2);
+    
+    private final int cellSize;
+    private final int cols;
+    private final int rows;
+    private final int clearance;
+    private final int[] blockers;
+    private int version;
+    
+    public NavGrid(int width, int height, int cellSize, int clearance) {
+        this.cellSize = cellSize;
+        this.cols = (width + cellSize - 1) / cellSize;
+        this.rows = (height + cellSize - 1) / cellSize;
+        this.clearance = clearance;
+        this.blockers = new int[cols * rows];
+    }
+    
+    private NavGrid(NavGrid other) {
+        this.cellSize = other.cellSize;
+        this.cols = other.cols;
+        this.rows = other.rows;
+        this.clearance = other.clearance;
+        this.blockers = other.blockers.clone();
+        this.version = other.version;
+    }
+    
+    /**
+     * Builds a grid with every entity as an obstacle
+     */
+    public static NavGrid fromEntities(int width, int height, int cellSize, int clearance,
+                                       Collection<? extends Entity> obstacles) {
+        NavGrid grid = new NavGrid(width, height, cellSize, clearance);
+        for (Entity obstacle : obstacles) {
+            grid.addObstacle(obstacle);
+        }
+        return grid;
+    }
+    
+    /**
+     * A copy that can be read on another thread while this grid keeps changing
+     */
+    public NavGrid copy() {
+        return new NavGrid(this);
+    }
+    
+    /**
+     * Marks the cells under the entity as blocked. Returns the changed cell range
+     * as {minCol, minRow, maxCol, maxRow}.
+     */
+    public int[] addObstacle(Entity obstacle) {
+        return cover(obstacle.getX(), obstacle.getY(), obstacle.getWidth(), obstacle.getHeight(), 1);
+    }
+    
+    /**
+     * Undoes addObstacle for an entity at the same position and size
+     */
+    public int[] removeObstacle(Entity obstacle) {
+        return cover(obstacle.getX(), obstacle.getY(), obstacle.getWidth(), obstacle.getHeight(), -1);
+    }
+    
+    public int[] addRect(float x, float y, int width, int height) {
+        return cover(x, y, width, height, 1);
+    }
+    
+    public int[] removeRect(float x, float y, int width, int height) {
+        return cover(x, y, width, height, -1);
+    }
+    
+    private int[] cover(float x, float y, int width, int height, int delta) {
+        int minCol = clampCol((int) Math.floor((x - clearance) / cellSize));
+        int minRow = clampRow((int) Math.floor((y - clearance) / cellSize));
+        // Exclusive edges, so a block ending exactly on a cell border leaves that cell free
+        int maxCol = clampCol((int) Math.ceil((x + width + clearance) / cellSize) - 1);
+        int maxRow = clampRow((int) Math.ceil((y + height + clearance) / cellSize) - 1);
+        
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                int cell = row * cols + col;
+                blockers[cell] = Math.max(0, blockers[cell] + delta);
+            }
+        }
+        version++;
+        return new int[] {minCol, minRow, maxCol, maxRow};
+    }
+    
+    private int clampCol(int col) {
+        return Math.max(0, Math.min(cols - 1, col));
+    }
+    
+    private int clampRow(int row) {
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+    
+    public boolean isWalkable(int cell) {
+        return blockers[cell] == 0;
+    }
+    
+    public boolean isWalkable(int col, int row) {
+        return col >= 0 && row >= 0 && col < cols && row < rows && blockers[row * cols + col] == 0;
+    }
+    
+    /**
+     * Whether a step from the cell in direction d stays on walkable cells without
+     * cutting the corner of an obstacle
+     */
+    boolean canStep(int cell, int d) {
+        int col = cell % cols;
+        int row = cell / cols;
+        if (!isWalkable(col + DX[d], row + DY[d])) return false;
+        if (d < 4) return true;
+        return isWalkable(col + DX[d], row) && isWalkable(col, row + DY[d]);
+    }
+    
+    int neighbour(int cell, int d) {
+        return cell + DY[d] * cols + DX[d];
+    }
+    
+    /**
+     * The cell containing the point, or -1 outside the grid
+     */
+    public int cellAt(float x, float y) {
+        int col = (int) Math.floor(x / cellSize);
+        int row = (int) Math.floor(y / cellSize);
+        if (col < 0 || row < 0 || col >= cols || row >= rows) return -1;
+        return row * cols + col;
+    }
+    
+    public float centerX(int cell) {
+        return (cell % cols) * cellSize + cellSize / 2f;
+    }
+    
+    public float centerY(int cell) {
+        return (cell / cols) * cellSize + cellSize / 2f;
+    }
+    
+    public int getCellSize() { return cellSize; }
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+    public int getCellCount() { return cols * rows; }
+    public int getClearance() { return clearance; }
+    
+    /**
+     * Incremented on every change, so results can tell which layout they were built for
+     */
+    public int getVersion() { return version; }
+}
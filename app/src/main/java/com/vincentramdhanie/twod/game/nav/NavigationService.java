@@ -0,0 +1,150 @@
+package com.vincentramdhanie.twod.game.nav;
+
+import com.vincentramdhanie.twod.game.entity.Entity;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pathfinding for a world: A* for single queries and cached flow fields for
+ * many agents sharing a goal.
+ *
+ * Flow fields are keyed by goal cell and computed in the background on a copy
+ * of the grid. getFlowField() never waits: it returns the cached field (possibly
+ * built for an older layout) and requests a rebuild if needed. Finished fields
+ * are published by tick() exactly RESULT_LATENCY_TICKS after the request,
+ * waiting for the computation in the rare case it is late, so what agents see
+ * does not depend on thread timing. When obstacles change, only fields that
+ * could reach the changed cells are marked stale.
+ *
+ * Call the methods from the simulation, i.e. the game thread or a script round.
+ */
+public class NavigationService {
+    public static final int RESULT_LATENCY_TICKS = 2;
+    private static final int MAX_FIELDS = 32;
+    
+    private final NavGrid grid;
+    private final Executor executor;
+    private final PathFinder pathFinder = new PathFinder();
+    private final Map<Integer, Entry> fields = new ConcurrentHashMap<>();
+    private volatile long tick;
+    private long requests;
+    
+    private static class Entry {
+        final int goal;
+        volatile FlowField field;
+        volatile CompletableFuture<FlowField> pending;
+        volatile long readyAt;
+        volatile long lastUsed;
+        
+        Entry(int goal) {
+            this.goal = goal;
+        }
+    }
+    
+    public NavigationService(NavGrid grid) {
+        this(grid, ForkJoinPool.commonPool());
+    }
+    
+    public NavigationService(NavGrid grid, Executor executor) {
+        this.grid = grid;
+        this.executor = executor;
+    }
+    
+    /**
+     * Publishes the flow fields that are due this tick
+     */
+    public void tick() {
+        tick++;
+        for (Entry entry : fields.values()) {
+            CompletableFuture<FlowField> pending = entry.pending;
+            if (pending != null && entry.readyAt <= tick) {
+                try {
+                    entry.field = pending.join();
+                } catch (RuntimeException e) {
+                    System.err.println("Error computing flow field: " + e.getMessage());
+                    e.printStackTrace();
+                }
+                entry.pending = null;
+            }
+        }
+    }
+    
+    /**
+     * Shortest path between two points as a list of cells, or null if there is none
+     */
+    public int[] findPath(float fromX, float fromY, float toX, float toY) {
+        return pathFinder.findPath(grid, grid.cellAt(fromX, fromY), grid.cellAt(toX, toY));
+    }
+    
+    /**
+     * The flow field towards the cell containing the point. Returns null until the
+     * first field for that cell has been published.
+     */
+    public FlowField getFlowField(float goalX, float goalY) {
+        int goal = grid.cellAt(goalX, goalY);
+        if (goal < 0) return null;
+        
+        Entry entry = fields.get(goal);
+        if (entry == null) {
+            evictIfFull();
+            entry = new Entry(goal);
+            fields.put(goal, entry);
+        }
+        entry.lastUsed = ++requests;
+        
+        FlowField field = entry.field;
+        if (entry.pending == null && (field == null || !field.isValidFor(grid.getVersion()))) {
+            NavGrid snapshot = grid.copy();
+            entry.readyAt = tick + RESULT_LATENCY_TICKS;
+            entry.pending = CompletableFuture.supplyAsync(() -> FlowField.compute(snapshot, goal), executor);
+        }
+        return field;
+    }
+    
+    private void evictIfFull() {
+        if (fields.size() < MAX_FIELDS) return;
+        Entry oldest = null;
+        for (Entry entry : fields.values()) {
+            if (oldest == null || entry.lastUsed < oldest.lastUsed) {
+                oldest = entry;
+            }
+        }
+        if (oldest != null) {
+            fields.remove(oldest.goal);
+        }
+    }
+    
+    public void addObstacle(Entity obstacle) {
+        invalidate(grid.addObstacle(obstacle));
+    }
+    
+    public void removeObstacle(Entity obstacle) {
+        invalidate(grid.removeObstacle(obstacle));
+    }
+    
+    /**
+     * Keeps fields that cannot be affected by the changed cells valid for the new layout
+     */
+    private void invalidate(int[] changed) {
+        int version = grid.getVersion();
+        for (Entry entry : fields.values()) {
+            FlowField field = entry.field;
+            if (field != null && field.isValidFor(version - 1)
+                && !field.isAffectedBy(changed[0], changed[1], changed[2], changed[3])) {
+                field.revalidate(version);
+            }
+        }
+    }
+    
+    public NavGrid getGrid() {
+        return grid;
+    }
+    
+    public int getCachedFieldCount() {
+        return fields.size();
+    }
+}
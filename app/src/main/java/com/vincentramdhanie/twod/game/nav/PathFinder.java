@@ -0,0 +1,107 @@
+package com.vincentramdhanie.twod.game.nav;
+
+/**
+ * A* over a NavGrid with eight-way movement and no corner cutting.
+ *
+ * The search arrays are kept between queries and reset with a generation stamp
+ * instead of being cleared, so repeated queries do not allocate apart from the
+ * returned path. Not thread-safe; use one PathFinder per thread.
+ */
+public class PathFinder {
+    private float[] cost = new float[0];
+    private int[] parent = new int[0];
+    private int[] seen = new int[0];
+    private int[] closed = new int[0];
+    private int generation;
+    private final CellHeap open = new CellHeap(256);
+    
+    /**
+     * Returns the cells from start to goal inclusive, or null if there is no path
+     */
+    public int[] findPath(NavGrid grid, int start, int goal) {
+        if (start < 0 || goal < 0 || !grid.isWalkable(start) || !grid.isWalkable(goal)) {
+            return null;
+        }
+        prepare(grid.getCellCount());
+        
+        int cols = grid.getCols();
+        int goalCol = goal % cols;
+        int goalRow = goal / cols;
+        
+        open.clear();
+        visit(start, 0, -1);
+        open.push(start, heuristic(start, cols, goalCol, goalRow));
+        
+        while (!open.isEmpty()) {
+            int cell = open.pop();
+            if (closed[cell] == generation) continue; // Stale heap entry
+            if (cell == goal) {
+                return buildPath(goal);
+            }
+            closed[cell] = generation;
+            
+            for (int d = 0; d < 8; d++) {
+                if (!grid.canStep(cell, d)) continue;
+                int next = grid.neighbour(cell, d);
+                if (closed[next] == generation) continue;
+                float g = cost[cell] + (d < 4 ? 1f : NavGrid.DIAGONAL);
+                if (seen[next] != generation || g < cost[next]) {
+                    visit(next, g, cell);
+                    open.push(next, g + heuristic(next, cols, goalCol, goalRow));
+                }
+            }
+        }
+        return null;
+    }
+    
+    private void prepare(int cells) {
+        if (cost.length < cells) {
+            cost = new float[cells];
+            parent = new int[cells];
+            seen = new int[cells];
+            closed = new int[cells];
+            generation = 0;
+        }
+        generation++;
+    }
+    
+    private void visit(int cell, float g, int from) {
+        seen[cell] = generation;
+        cost[cell] = g;
+        parent[cell] = from;
+    }
+    
+    /**
+     * Octile distance, exact for eight-way movement on an empty grid
+     */
+    private static float heuristic(int cell, int cols, int goalCol, int goalRow) {
+        int dx = Math.abs(cell % cols - goalCol);
+        int dy = Math.abs(cell / cols - goalRow);
+        return Math.max(dx, dy) + (NavGrid.DIAGONAL - 1) * Math.min(dx, dy);
+    }
+    
+    private int[] buildPath(int goal) {
+        int length = 0;
+        for (int cell = goal; cell != -1; cell = parent[cell]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int cell = goal, i = length - 1; cell != -1; cell = parent[cell], i--) {
+            path[i] = cell;
+        }
+        return path;
+    }
+    
+    /**
+     * Length of a path in cells, counting diagonal steps as sqrt(2)
+     */
+    public static float pathLength(NavGrid grid, int[] path) {
+        float length = 0;
+        for (int i = 1; i < path.length; i++) {
+            boolean diagonal = path[i] % grid.getCols() != path[i - 1] % grid.getCols()
+                && path[i] / grid.getCols() != path[i - 1] / grid.getCols();
+            length += diagonal ? NavGrid.DIAGONAL : 1f;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,63 @@
+package com.vincentramdhanie.twod.game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a bit stream written by BitWriter
+ */
+public final class BitReader {
+    private ByteBuffer buffer;
+    private long scratch;
+    private int scratchBits;
+    
+    /**
+     * Starts reading at the buffer's current position
+     */
+    public void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.scratch = 0;
+        this.scratchBits = 0;
+    }
+    
+    /**
+     * Reads {@code bits} bits (1 to 32) as an unsigned value
+     */
+    public int readBits(int bits) {
+        while (scratchBits < bits) {
+            scratch |= (buffer.get() & 0xFFL) << scratchBits;
+            scratchBits += 8;
+        }
+        int value = (int) (scratch & (0xFFFFFFFFL >>> (32 - bits)));
+        scratch >>>= bits;
+        scratchBits -= bits;
+        return value;
+    }
+    
+    /**
+     * Bits left to read, including those already buffered
+     */
+    public long remainingBits() {
+        return buffer.remaining() * 8L + scratchBits;
+    }
+    
+    public boolean readBit() {
+        return readBits(1) != 0;
+    }
+    
+    public int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        int group;
+        do {
+            group = readBits(8);
+            value |= (group & 0x7F) << shift;
+            shift += 7;
+        } while ((group & 0x80) != 0 && shift < 35);
+        return value;
+    }
+    
+    public int readSignedVarInt() {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
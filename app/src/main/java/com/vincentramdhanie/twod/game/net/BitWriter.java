@@ -0,0 +1,68 @@
+package com.vincentramdhanie.twod.game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes a little-endian bit stream into a ByteBuffer. Bits are gathered in a
+ * 64-bit scratch word and flushed a byte at a time, so nothing is allocated.
+ */
+public final class BitWriter {
+    private ByteBuffer buffer;
+    private long scratch;
+    private int scratchBits;
+    
+    /**
+     * Starts writing at the buffer's current position
+     */
+    public void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.scratch = 0;
+        this.scratchBits = 0;
+    }
+    
+    /**
+     * Writes the low {@code bits} bits of value (1 to 32)
+     */
+    public void writeBits(int value, int bits) {
+        scratch |= (value & (0xFFFFFFFFL >>> (32 - bits))) << scratchBits;
+        scratchBits += bits;
+        while (scratchBits >= 8) {
+            buffer.put((byte) scratch);
+            scratch >>>= 8;
+            scratchBits -= 8;
+        }
+    }
+    
+    public void writeBit(boolean value) {
+        writeBits(value ? 1 : 0, 1);
+    }
+    
+    /**
+     * Writes a non-negative value in groups of 7 bits, each followed by a continuation bit
+     */
+    public void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeBits((value & 0x7F) | 0x80, 8);
+            value >>>= 7;
+        }
+        writeBits(value, 8);
+    }
+    
+    /**
+     * Writes a signed value as a zig-zag varint, so small magnitudes stay small
+     */
+    public void writeSignedVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+    
+    /**
+     * Writes any remaining bits, padding the last byte with zeros
+     */
+    public void flush() {
+        if (scratchBits > 0) {
+            buffer.put((byte) scratch);
+            scratch = 0;
+            scratchBits = 0;
+        }
+    }
+}
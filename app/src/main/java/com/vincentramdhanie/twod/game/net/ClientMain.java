@@ -0,0 +1,34 @@
+package com.vincentramdhanie.twod.game.net;
+
+import com.vincentramdhanie.twod.game.core.Game;
+
+import javax.swing.SwingUtilities;
+import java.net.InetSocketAddress;
+
+/**
+ * Starts the Swing game window as a client of a GameServer.
+ *
+ * Usage: ClientMain [host] [port]
+ */
+public class ClientMain {
+    public static void main(String[] args) {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : Protocol.DEFAULT_PORT;
+        
+        // Set system properties for rendering
+        System.setProperty("sun.java2d.opengl", "True");
+        
+        SwingUtilities.invokeLater(() -> {
+            try {
+                GameClient client = new GameClient(new InetSocketAddress(host, port));
+                new Game("My 2D Game - " + host + ":" + port, 800, 600, gsm -> {
+                    int networkState = gsm.addState(new NetworkPlayState(gsm, client), true);
+                    gsm.setState(networkState);
+                });
+            } catch (Exception e) {
+                System.err.println("Error starting the client: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.vincentramdhanie.twod.game.net;
+
+import com.vincentramdhanie.twod.game.entity.BallPlayer;
+import com.vincentramdhanie.twod.game.entity.Entity;
+
+import java.util.Arrays;
+
+/**
+ * The replicated state of a set of entities at one tick, stored as parallel
+ * primitive arrays. Entries must be kept in ascending id order so that two
+ * snapshots can be compared with a single merge pass.
+ *
+ * Instances are meant to be reused: clear() and add() only allocate when the
+ * arrays need to grow.
+ */
+public class EntitySnapshot {
+    public static final int FLAG_ACTIVE = 1;
+    
+    int tick = -1;
+    int count;
+    int[] ids;
+    float[] x;
+    float[] y;
+    float[] velX;
+    float[] velY;
+    int[] health;
+    int[] flags;
+    
+    public EntitySnapshot() {
+        this(16);
+    }
+    
+    public EntitySnapshot(int capacity) {
+        ids = new int[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        health = new int[capacity];
+        flags = new int[capacity];
+    }
+    
+    public void clear(int tick) {
+        this.tick = tick;
+        this.count = 0;
+    }
+    
+    /**
+     * Appends an entry. Ids must be added in ascending order.
+     */
+    public void add(int id, float x, float y, float velX, float velY, int health, int flags) {
+        ensureCapacity(count + 1);
+        set(count++, id, x, y, velX, velY, health, flags);
+    }
+    
+    /**
+     * Appends the state of an entity. Health is only tracked for BallPlayers.
+     */
+    public void add(int id, Entity entity) {
+        int hp = entity instanceof BallPlayer ? ((BallPlayer) entity).getHealth() : 0;
+        add(id, entity.getX(), entity.getY(), entity.getVelX(), entity.getVelY(), hp,
+            entity.isActive() ? FLAG_ACTIVE : 0);
+    }
+    
+    void set(int i, int id, float x, float y, float velX, float velY, int health, int flags) {
+        this.ids[i] = id;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.velX[i] = velX;
+        this.velY[i] = velY;
+        this.health[i] = health;
+        this.flags[i] = flags;
+    }
+    
+    void copyEntry(int dst, EntitySnapshot src, int srcIndex) {
+        set(dst, src.ids[srcIndex], src.x[srcIndex], src.y[srcIndex], src.velX[srcIndex],
+            src.velY[srcIndex], src.health[srcIndex], src.flags[srcIndex]);
+    }
+    
+    public void copyFrom(EntitySnapshot other) {
+        ensureCapacity(other.count);
+        tick = other.tick;
+        count = other.count;
+        for (int i = 0; i < count; i++) {
+            copyEntry(i, other, i);
+        }
+    }
+    
+    void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) return;
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        velX = Arrays.copyOf(velX, newCapacity);
+        velY = Arrays.copyOf(velY, newCapacity);
+        health = Arrays.copyOf(health, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+    }
+    
+    public int getTick() { return tick; }
+    public int size() { return count; }
+    public int getId(int i) { return ids[i]; }
+    public float getX(int i) { return x[i]; }
+    public float getY(int i) { return y[i]; }
+    public float getVelX(int i) { return velX[i]; }
+    public float getVelY(int i) { return velY[i]; }
+    public int getHealth(int i) { return health[i]; }
+    public int getFlags(int i) { return flags[i]; }
+    public boolean isActive(int i) { return (flags[i] & FLAG_ACTIVE) != 0; }
+}
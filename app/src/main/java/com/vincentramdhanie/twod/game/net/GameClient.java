@@ -0,0 +1,165 @@
+package com.vincentramdhanie.twod.game.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Client side of the game protocol. Joins a GameServer, sends input once per
+ * tick and keeps the most recent world snapshot. Recently decoded snapshots are
+ * kept so that delta snapshots from the server can be applied to them. Not thread-safe: call poll(),
+ * sendInput() and the getters from the same thread (the game loop).
+ */
+public class GameClient implements AutoCloseable {
+    private static final long JOIN_RETRY_NANOS = 250_000_000L;
+    
+    private final DatagramChannel channel;
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(Protocol.MAX_PACKET_SIZE);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(Protocol.MAX_PACKET_SIZE);
+    
+    // Assigned by the server's welcome packet
+    private int clientId = -1;
+    private long seed;
+    private int worldWidth;
+    private int worldHeight;
+    private int tickRate;
+    
+    // Decoded snapshots indexed by tick; latest is the newest of them
+    private final EntitySnapshot[] history = new EntitySnapshot[Protocol.SNAPSHOT_HISTORY];
+    private final SnapshotCodec codec = new SnapshotCodec();
+    private EntitySnapshot latest;
+    private long snapshotsReceived;
+    
+    private int inputSequence;
+    private long lastJoinNanos;
+    
+    public GameClient(InetSocketAddress server) throws IOException {
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.connect(server);
+        
+        for (int i = 0; i < history.length; i++) {
+            history[i] = new EntitySnapshot(Protocol.MAX_PLAYERS);
+        }
+        latest = history[0];
+    }
+    
+    /**
+     * Processes every packet that has arrived and retries joining until welcomed
+     */
+    public void poll() throws IOException {
+        long now = System.nanoTime();
+        if (!isConnected() && now - lastJoinNanos > JOIN_RETRY_NANOS) {
+            lastJoinNanos = now;
+            sendBuffer.clear();
+            sendBuffer.put(Protocol.JOIN);
+            sendBuffer.flip();
+            send();
+        }
+        
+        while (true) {
+            receiveBuffer.clear();
+            int read;
+            try {
+                read = channel.read(receiveBuffer);
+            } catch (PortUnreachableException e) {
+                // No server listening yet; keep retrying the join
+                return;
+            }
+            if (read <= 0) break;
+            receiveBuffer.flip();
+            handlePacket(receiveBuffer);
+        }
+    }
+    
+    private void handlePacket(ByteBuffer packet) {
+        if (!packet.hasRemaining()) return;
+        
+        byte type = packet.get();
+        if (type == Protocol.WELCOME && packet.remaining() >= 2 + 8 + 4 + 4 + 2) {
+            clientId = packet.getShort();
+            seed = packet.getLong();
+            worldWidth = packet.getInt();
+            worldHeight = packet.getInt();
+            tickRate = packet.getShort();
+        } else if (type == Protocol.SNAPSHOT && packet.remaining() >= 8) {
+            int tick = packet.getInt();
+            int baselineTick = packet.getInt();
+            // Snapshots can arrive out of order; never go back in time
+            if (tick <= latest.getTick()) return;
+            
+            EntitySnapshot target = history[tick % history.length];
+            try {
+                if (baselineTick == Protocol.NO_BASELINE) {
+                    codec.decodeFull(packet, target);
+                } else {
+                    EntitySnapshot baseline = history[baselineTick % history.length];
+                    // The baseline has already been overwritten; wait for a newer snapshot
+                    if (baselineTick < 0 || baseline.getTick() != baselineTick || baseline == target) return;
+                    codec.decodeDelta(baseline, packet, target);
+                }
+            } catch (BufferUnderflowException | SnapshotFormatException e) {
+                // Truncated or corrupt packet
+                target.clear(-1);
+                return;
+            }
+            target.tick = tick;
+            latest = target;
+            snapshotsReceived++;
+        }
+    }
+    
+    /**
+     * Sends the input bits for the current tick
+     */
+    public void sendInput(int inputBits) throws IOException {
+        if (!isConnected()) return;
+        sendBuffer.clear();
+        sendBuffer.put(Protocol.INPUT);
+        sendBuffer.putInt(inputSequence++);
+        sendBuffer.put((byte) inputBits);
+        sendBuffer.putInt(latest.getTick());
+        sendBuffer.flip();
+        send();
+    }
+    
+    private void send() throws IOException {
+        try {
+            channel.write(sendBuffer);
+        } catch (PortUnreachableException e) {
+            // Server not up yet
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (isConnected() && channel.isOpen()) {
+            sendBuffer.clear();
+            sendBuffer.put(Protocol.LEAVE);
+            sendBuffer.flip();
+            send();
+        }
+        channel.close();
+    }
+    
+    public boolean isConnected() { return clientId >= 0; }
+    public int getClientId() { return clientId; }
+    public long getSeed() { return seed; }
+    public int getWorldWidth() { return worldWidth; }
+    public int getWorldHeight() { return worldHeight; }
+    public int getTickRate() { return tickRate; }
+    public int getSnapshotTick() { return latest.getTick(); }
+    public long getSnapshotsReceived() { return snapshotsReceived; }
+    
+    // Players in the latest snapshot, by index
+    public int getPlayerCount() { return latest.size(); }
+    public int getPlayerId(int i) { return latest.getId(i); }
+    public float getPlayerX(int i) { return latest.getX(i); }
+    public float getPlayerY(int i) { return latest.getY(i); }
+    public float getPlayerVelX(int i) { return latest.getVelX(i); }
+    public float getPlayerVelY(int i) { return latest.getVelY(i); }
+    public int getPlayerHealth(int i) { return latest.getHealth(i); }
+}
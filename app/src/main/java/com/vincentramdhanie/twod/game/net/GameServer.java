@@ -0,0 +1,324 @@
+package com.vincentramdhanie.twod.game.net;
+
+import com.vincentramdhanie.twod.game.entity.BallPlayer;
+import com.vincentramdhanie.twod.game.entity.Block;
+import com.vincentramdhanie.twod.game.physics.PhysicsWorld;
+import com.vincentramdhanie.twod.game.state.PlayState;
+import com.vincentramdhanie.twod.game.world.BlockLayout;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authoritative headless game server. Builds the PlayState level's blocks from the
+ * seed, runs the players at a fixed tick, applies input packets from clients to
+ * them and sends every client a world snapshot after each tick, delta-compressed
+ * against the last snapshot that client acknowledged.
+ *
+ * All networking happens on the server thread through a non-blocking DatagramChannel
+ * and a Selector. Packets are encoded into direct buffers allocated once, so
+ * broadcasting does not allocate per tick.
+ *
+ * Usage: GameServer [port] [seed] [tickRate]
+ */
+public class GameServer implements Runnable {
+    private static final long CLIENT_TIMEOUT_NANOS = 5_000_000_000L;
+    private static final int PLAYER_SIZE = 32;
+    
+    private final long seed;
+    // Players collide with the blocks and with each other
+    private final PhysicsWorld physics;
+    private final int width;
+    private final int height;
+    private final int tickRate;
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(Protocol.MAX_PACKET_SIZE);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(Protocol.MAX_PACKET_SIZE);
+    
+    // Recently sent snapshots, indexed by tick, kept as delta baselines
+    private final EntitySnapshot[] history = new EntitySnapshot[Protocol.SNAPSHOT_HISTORY];
+    private final SnapshotCodec codec = new SnapshotCodec();
+    
+    // Clients in join order, plus an index by address for incoming packets
+    private final List<RemoteClient> clients = new ArrayList<>();
+    private final Map<SocketAddress, RemoteClient> clientsByAddress = new HashMap<>();
+    private int nextClientId = 1;
+    
+    private volatile boolean running;
+    private volatile int tick;
+    private Thread thread;
+    
+    public GameServer(InetSocketAddress bindAddress, long seed, int width, int height, int tickRate) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.tickRate = tickRate;
+        
+        // Only the level's blocks; players are the only thing the server simulates
+        this.seed = seed;
+        List<Block> blocks = BlockLayout.generate(seed, width, height);
+        physics = new PhysicsWorld(width, height, 64);
+        physics.addStatics(blocks);
+        
+        for (int i = 0; i < history.length; i++) {
+            history[i] = new EntitySnapshot(Protocol.MAX_PLAYERS);
+        }
+        
+        selector = Selector.open();
+        channel = DatagramChannel.open();
+        channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        channel.configureBlocking(false);
+        channel.bind(bindAddress);
+        channel.register(selector, SelectionKey.OP_READ);
+    }
+    
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Protocol.DEFAULT_PORT;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        int tickRate = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        
+        GameServer server = new GameServer(new InetSocketAddress(port), seed, 800, 600, tickRate);
+        System.out.println("Server listening on port " + server.getPort() + " at " + tickRate + " ticks/s, seed " + seed);
+        server.run();
+    }
+    
+    public void start() {
+        running = true;
+        thread = new Thread(this, "game-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    @Override
+    public void run() {
+        running = true;
+        final long tickNanos = 1_000_000_000L / tickRate;
+        long nextTick = System.nanoTime();
+        
+        try {
+            while (running) {
+                // Sleep in the selector until a packet arrives or the next tick is due
+                long waitMillis = (nextTick - System.nanoTime()) / 1_000_000;
+                if (waitMillis > 0) {
+                    selector.select(waitMillis);
+                } else {
+                    selector.selectNow();
+                }
+                selector.selectedKeys().clear();
+                
+                receivePackets();
+                
+                long now = System.nanoTime();
+                if (now - nextTick >= 0) {
+                    tick(now);
+                    nextTick += tickNanos;
+                    
+                    // After a long stall, resume the fixed rate instead of bursting to catch up
+                    if (now - nextTick > tickNanos * 5) {
+                        nextTick = now + tickNanos;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Server error: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            try {
+                channel.close();
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error closing server channel: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void receivePackets() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress from = channel.receive(receiveBuffer);
+            if (from == null) break;
+            receiveBuffer.flip();
+            try {
+                handlePacket(from, receiveBuffer);
+            } catch (BufferUnderflowException | SnapshotFormatException e) {
+                // A malformed datagram must not take the server down
+                System.err.println("Dropped malformed packet from " + from + ": " + e);
+            }
+        }
+    }
+    
+    private void handlePacket(SocketAddress from, ByteBuffer packet) throws IOException {
+        if (!packet.hasRemaining()) return;
+        
+        byte type = packet.get();
+        RemoteClient client = clientsByAddress.get(from);
+        long now = System.nanoTime();
+        
+        switch (type) {
+            case Protocol.JOIN:
+                if (client == null) {
+                    client = addClient(from, now);
+                    if (client == null) return; // Server full
+                }
+                client.lastHeardNanos = now;
+                sendWelcome(client);
+                break;
+            case Protocol.INPUT:
+                if (client == null || packet.remaining() < 9) return;
+                int sequence = packet.getInt();
+                int bits = packet.get();
+                int ackTick = packet.getInt();
+                client.lastHeardNanos = now;
+                // Datagrams can arrive out of order; only the newest input counts
+                if (sequence - client.lastInputSequence > 0 || client.lastInputSequence == Integer.MIN_VALUE) {
+                    client.lastInputSequence = sequence;
+                    client.inputBits = bits;
+                }
+                if (ackTick > client.ackedTick && ackTick <= tick) {
+                    client.ackedTick = ackTick;
+                }
+                break;
+            case Protocol.LEAVE:
+                if (client != null) {
+                    removeClient(client);
+                }
+                break;
+            default:
+                // Unknown packet type, ignore
+                break;
+        }
+    }
+    
+    private RemoteClient addClient(SocketAddress address, long now) {
+        if (clients.size() >= Protocol.MAX_PLAYERS) {
+            return null;
+        }
+        int id = nextClientId++;
+        
+        // Spawn inside the area BlockLayout keeps free of blocks
+        int spawnX = width / 2 - PLAYER_SIZE / 2 + ((id % 3) - 1) * (PLAYER_SIZE + 2);
+        int spawnY = height - PLAYER_SIZE - 50;
+        BallPlayer player = new BallPlayer(spawnX, spawnY, PLAYER_SIZE, PLAYER_SIZE, width, height);
+        // Speeds are per tick, so keep them the same per second at this tick rate
+        player.setTickRate(tickRate);
+        player.setPhysics(physics);
+        
+        RemoteClient client = new RemoteClient(id, address, player, now);
+        clients.add(client);
+        clientsByAddress.put(address, client);
+        System.out.println("Client " + id + " joined from " + address);
+        return client;
+    }
+    
+    private void removeClient(RemoteClient client) {
+        physics.remove(client.player.getBodyId());
+        clients.remove(client);
+        clientsByAddress.remove(client.address);
+        System.out.println("Client " + client.id + " left");
+    }
+    
+    private void tick(long now) throws IOException {
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            RemoteClient client = clients.get(i);
+            if (now - client.lastHeardNanos > CLIENT_TIMEOUT_NANOS) {
+                removeClient(client);
+                continue;
+            }
+            
+            BallPlayer player = client.player;
+            player.setLeft((client.inputBits & PlayState.INPUT_LEFT) != 0);
+            player.setRight((client.inputBits & PlayState.INPUT_RIGHT) != 0);
+            player.setUp((client.inputBits & PlayState.INPUT_UP) != 0);
+            player.setDown((client.inputBits & PlayState.INPUT_DOWN) != 0);
+            player.update();
+        }
+        
+        tick++;
+        broadcastSnapshot();
+    }
+    
+    private void broadcastSnapshot() throws IOException {
+        // Clients are kept in join order, so ids are already ascending
+        EntitySnapshot snapshot = history[tick % history.length];
+        snapshot.clear(tick);
+        for (int i = 0; i < clients.size(); i++) {
+            RemoteClient client = clients.get(i);
+            snapshot.add(client.id, client.player);
+        }
+        
+        for (int i = 0; i < clients.size(); i++) {
+            RemoteClient client = clients.get(i);
+            EntitySnapshot baseline = baselineFor(client);
+            
+            sendBuffer.clear();
+            sendBuffer.put(Protocol.SNAPSHOT);
+            sendBuffer.putInt(tick);
+            if (baseline == null) {
+                sendBuffer.putInt(Protocol.NO_BASELINE);
+                codec.encodeFull(snapshot, sendBuffer);
+            } else {
+                sendBuffer.putInt(baseline.getTick());
+                codec.encodeDelta(baseline, snapshot, sendBuffer);
+            }
+            sendBuffer.flip();
+            channel.send(sendBuffer, client.address);
+        }
+    }
+    
+    /**
+     * The snapshot the client last acknowledged, if it is still in the history
+     */
+    private EntitySnapshot baselineFor(RemoteClient client) {
+        int acked = client.ackedTick;
+        if (acked < 0 || tick - acked >= history.length) {
+            return null;
+        }
+        EntitySnapshot baseline = history[acked % history.length];
+        return baseline.getTick() == acked ? baseline : null;
+    }
+    
+    private void sendWelcome(RemoteClient client) throws IOException {
+        sendBuffer.clear();
+        sendBuffer.put(Protocol.WELCOME);
+        sendBuffer.putShort((short) client.id);
+        sendBuffer.putLong(seed);
+        sendBuffer.putInt(width);
+        sendBuffer.putInt(height);
+        sendBuffer.putShort((short) tickRate);
+        sendBuffer.flip();
+        channel.send(sendBuffer, client.address);
+    }
+    
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+    
+    public int getTick() {
+        return tick;
+    }
+}
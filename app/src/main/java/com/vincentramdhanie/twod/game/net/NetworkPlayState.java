@@ -0,0 +1,114 @@
+package com.vincentramdhanie.twod.game.net;
+
+import com.vincentramdhanie.twod.game.core.GameStateManager;
+import com.vincentramdhanie.twod.game.entity.Block;
+import com.vincentramdhanie.twod.game.state.GameState;
+import com.vincentramdhanie.twod.game.state.PlayState;
+import com.vincentramdhanie.twod.game.utils.AssetHandle;
+import com.vincentramdhanie.twod.game.utils.ResourceLoader;
+import com.vincentramdhanie.twod.game.world.BlockLayout;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Game state for a networked client. Sends local input to the server every tick
+ * and draws the players from the latest server snapshot. The blocks are rebuilt
+ * locally from the world seed the server sends on join.
+ */
+public class NetworkPlayState extends GameState {
+    private static final int PLAYER_SIZE = 32;
+    
+    private final GameClient client;
+    private List<Block> blocks;
+    private AssetHandle<BufferedImage> ballImage;
+    private volatile int inputBits;
+    
+    public NetworkPlayState(GameStateManager gsm, GameClient client) {
+        super(gsm);
+        this.client = client;
+    }
+    
+    @Override
+    public void init() {
+        ballImage = ResourceLoader.imageHandle("/sprites/ball.png");
+    }
+    
+    @Override
+    public void update() {
+        try {
+            client.poll();
+            
+            if (client.isConnected() && blocks == null) {
+                // Same seed as the server, so the same blocks are generated
+                blocks = BlockLayout.generate(client.getSeed(), client.getWorldWidth(), client.getWorldHeight());
+            }
+            
+            client.sendInput(inputBits);
+        } catch (IOException e) {
+            System.err.println("Network error: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public void render(Graphics2D g) {
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, gsm.getWidth(), gsm.getHeight());
+        
+        if (blocks == null) {
+            g.setColor(Color.WHITE);
+            g.drawString("Connecting to server...", gsm.getWidth() / 2 - 60, gsm.getHeight() / 2);
+            return;
+        }
+        
+        for (Block block : blocks) {
+            block.render(g);
+        }
+        
+        BufferedImage ball = ballImage != null ? ballImage.get() : null;
+        for (int i = 0; i < client.getPlayerCount(); i++) {
+            int x = (int) client.getPlayerX(i);
+            int y = (int) client.getPlayerY(i);
+            if (ball != null) {
+                g.drawImage(ball, x, y, PLAYER_SIZE, PLAYER_SIZE, null);
+            } else {
+                g.setColor(Color.RED);
+                g.fillOval(x, y, PLAYER_SIZE, PLAYER_SIZE);
+            }
+            
+            // Highlight our own player
+            if (client.getPlayerId(i) == client.getClientId()) {
+                g.setColor(Color.YELLOW);
+                g.drawOval(x - 2, y - 2, PLAYER_SIZE + 4, PLAYER_SIZE + 4);
+            }
+        }
+    }
+    
+    @Override
+    public void keyPressed(int k) {
+        inputBits |= PlayState.inputBitFor(k);
+    }
+    
+    @Override
+    public void keyReleased(int k) {
+        inputBits &= ~PlayState.inputBitFor(k);
+    }
+    
+    @Override
+    public void mousePressed(int x, int y) {
+        // Not used
+    }
+    
+    @Override
+    public void mouseReleased(int x, int y) {
+        // Not used
+    }
+    
+    @Override
+    public void mouseMoved(int x, int y) {
+        // Not used
+    }
+}
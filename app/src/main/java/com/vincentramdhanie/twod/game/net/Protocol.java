@@ -0,0 +1,39 @@
+package com.vincentramdhanie.twod.game.net;
+
+/**
+ * Packet layout shared by GameServer and GameClient. All values are big-endian.
+ *
+ * Client to server:
+ *   JOIN     [byte type]
+ *   INPUT    [byte type][int sequence][byte inputBits][int ackTick]
+ *   LEAVE    [byte type]
+ *
+ * Server to client:
+ *   WELCOME  [byte type][short clientId][long seed][int width][int height][short tickRate]
+ *   SNAPSHOT [byte type][int tick][int baselineTick] then a SnapshotCodec payload:
+ *            a full snapshot when baselineTick is -1, otherwise a delta against
+ *            the snapshot for baselineTick
+ *
+ * ackTick is the newest snapshot tick the client has decoded (-1 for none). The
+ * server deltas against it for as long as it is within SNAPSHOT_HISTORY ticks.
+ */
+public final class Protocol {
+    public static final int DEFAULT_PORT = 27960;
+    
+    // Stay below a typical MTU so snapshots are never fragmented
+    public static final int MAX_PACKET_SIZE = 1400;
+    
+    public static final byte JOIN = 1;
+    public static final byte INPUT = 2;
+    public static final byte LEAVE = 3;
+    public static final byte WELCOME = 10;
+    public static final byte SNAPSHOT = 11;
+    
+    public static final int SNAPSHOT_HEADER_BYTES = 1 + 4 + 4;
+    public static final int SNAPSHOT_HISTORY = 32;
+    public static final int NO_BASELINE = -1;
+    public static final int MAX_PLAYERS = 64;
+    
+    private Protocol() {
+    }
+}
@@ -0,0 +1,25 @@
+package com.vincentramdhanie.twod.game.net;
+
+import com.vincentramdhanie.twod.game.entity.BallPlayer;
+
+import java.net.SocketAddress;
+
+/**
+ * Server-side record of one connected client and the player it controls
+ */
+class RemoteClient {
+    final int id;
+    final SocketAddress address;
+    final BallPlayer player;
+    int lastInputSequence = Integer.MIN_VALUE;
+    int inputBits;
+    int ackedTick = Protocol.NO_BASELINE;
+    long lastHeardNanos;
+    
+    RemoteClient(int id, SocketAddress address, BallPlayer player, long now) {
+        this.id = id;
+        this.address = address;
+        this.player = player;
+        this.lastHeardNanos = now;
+    }
+}
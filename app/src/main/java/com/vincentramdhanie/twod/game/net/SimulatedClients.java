@@ -0,0 +1,68 @@
+package com.vincentramdhanie.twod.game.net;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Connects a number of headless clients to a server and drives them with random
+ * input, reporting how many snapshots each one receives per second. Useful for
+ * load testing a server on localhost.
+ *
+ * Usage: SimulatedClients [clients] [seconds] [host] [port]
+ */
+public class SimulatedClients {
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String host = args.length > 2 ? args[2] : "localhost";
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : Protocol.DEFAULT_PORT;
+        
+        List<GameClient> clients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            clients.add(new GameClient(new InetSocketAddress(host, port)));
+        }
+        
+        Random random = new Random(7);
+        int[] input = new int[count];
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        long nextReport = System.nanoTime() + 1_000_000_000L;
+        long[] lastSnapshots = new long[count];
+        int frame = 0;
+        
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < count; i++) {
+                GameClient client = clients.get(i);
+                client.poll();
+                if (frame % 30 == 0) {
+                    input[i] = random.nextInt(16);
+                }
+                client.sendInput(input[i]);
+            }
+            frame++;
+            
+            if (System.nanoTime() >= nextReport) {
+                nextReport += 1_000_000_000L;
+                long min = Long.MAX_VALUE;
+                long max = 0;
+                int connected = 0;
+                for (int i = 0; i < count; i++) {
+                    GameClient client = clients.get(i);
+                    long received = client.getSnapshotsReceived() - lastSnapshots[i];
+                    lastSnapshots[i] = client.getSnapshotsReceived();
+                    min = Math.min(min, received);
+                    max = Math.max(max, received);
+                    if (client.isConnected()) connected++;
+                }
+                System.out.println("connected=" + connected + "/" + count + " snapshots/s min=" + min + " max=" + max);
+            }
+            
+            Thread.sleep(1000 / 60);
+        }
+        
+        for (GameClient client : clients) {
+            client.close();
+        }
+    }
+}
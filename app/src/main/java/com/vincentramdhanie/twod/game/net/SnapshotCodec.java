@@ -0,0 +1,315 @@
+package com.vincentramdhanie.twod.game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bit-packed encoder/decoder for EntitySnapshots, either as a full baseline or as
+ * a delta against a baseline both sides already have.
+ *
+ * Positions are quantized to 1/16 pixel and velocities to 1/256 pixel per tick,
+ * then written as zig-zag varints. A delta lists removed ids, the kept entities
+ * that changed (as a skip count, a field mask and per-field differences) and the
+ * newly added entities in full. Unchanged entities cost nothing in a delta.
+ *
+ * Not thread-safe; use one codec per thread. Encoding and decoding do not allocate
+ * once the internal scratch arrays have grown to the working-set size.
+ *
+ * Decoding checks every count and id gap read off the wire and throws
+ * SnapshotFormatException for values no encoder writes, so a malformed packet
+ * cannot cause a huge allocation or wrap an id.
+ */
+public class SnapshotCodec {
+    public static final float POSITION_SCALE = 16f;
+    public static final float VELOCITY_SCALE = 256f;
+    // Most entities a snapshot may hold
+    public static final int MAX_ENTITIES = 1 << 20;
+    
+    private static final int FIELD_POSITION = 1;
+    private static final int FIELD_VELOCITY = 2;
+    private static final int FIELD_HEALTH = 4;
+    private static final int FIELD_FLAGS = 8;
+    private static final int FIELD_BITS = 4;
+    
+    private final BitWriter writer = new BitWriter();
+    private final BitReader reader = new BitReader();
+    
+    // Decoder scratch space
+    private int[] removedIds = new int[16];
+    private final EntitySnapshot added = new EntitySnapshot();
+    
+    private static int quantizePosition(float value) {
+        return Math.round(value * POSITION_SCALE);
+    }
+    
+    private static int quantizeVelocity(float value) {
+        return Math.round(value * VELOCITY_SCALE);
+    }
+    
+    // ---- Full snapshots ----
+    
+    public void encodeFull(EntitySnapshot snapshot, ByteBuffer out) {
+        writer.reset(out);
+        writer.writeVarInt(snapshot.count);
+        int previousId = -1;
+        for (int i = 0; i < snapshot.count; i++) {
+            int id = snapshot.ids[i];
+            if (id <= previousId) {
+                throw new IllegalArgumentException("Snapshot ids must be ascending: " + id + " after " + previousId);
+            }
+            writer.writeVarInt(id - previousId - 1);
+            writeEntity(snapshot, i);
+            previousId = id;
+        }
+        writer.flush();
+    }
+    
+    public void decodeFull(ByteBuffer in, EntitySnapshot out) {
+        reader.reset(in);
+        out.count = 0;
+        int count = readCount();
+        out.ensureCapacity(count);
+        int previousId = -1;
+        for (int i = 0; i < count; i++) {
+            int id = readId(previousId);
+            readEntity(out, i, id);
+            previousId = id;
+        }
+        out.count = count;
+    }
+    
+    /**
+     * Reads a count, each counted item taking at least one byte of what is left
+     */
+    private int readCount() {
+        int count = reader.readVarInt();
+        if (count < 0 || count > MAX_ENTITIES || count > reader.remainingBits() / 8) {
+            throw new SnapshotFormatException("Bad entity count " + count);
+        }
+        return count;
+    }
+    
+    /**
+     * Reads the next id as a gap after the previous one
+     */
+    private int readId(int previousId) {
+        int gap = readSkip();
+        if (gap > Integer.MAX_VALUE - 1 - previousId) {
+            throw new SnapshotFormatException("Id gap " + gap + " after " + previousId + " overflows");
+        }
+        return previousId + 1 + gap;
+    }
+    
+    private int readSkip() {
+        int skip = reader.readVarInt();
+        if (skip < 0) {
+            throw new SnapshotFormatException("Negative gap " + skip);
+        }
+        return skip;
+    }
+    
+    private void writeEntity(EntitySnapshot s, int i) {
+        writer.writeSignedVarInt(quantizePosition(s.x[i]));
+        writer.writeSignedVarInt(quantizePosition(s.y[i]));
+        writer.writeSignedVarInt(quantizeVelocity(s.velX[i]));
+        writer.writeSignedVarInt(quantizeVelocity(s.velY[i]));
+        writer.writeVarInt(s.health[i]);
+        writer.writeBits(s.flags[i], FIELD_BITS);
+    }
+    
+    private void readEntity(EntitySnapshot s, int i, int id) {
+        float x = reader.readSignedVarInt() / POSITION_SCALE;
+        float y = reader.readSignedVarInt() / POSITION_SCALE;
+        float velX = reader.readSignedVarInt() / VELOCITY_SCALE;
+        float velY = reader.readSignedVarInt() / VELOCITY_SCALE;
+        int health = reader.readVarInt();
+        int flags = reader.readBits(FIELD_BITS);
+        s.set(i, id, x, y, velX, velY, health, flags);
+    }
+    
+    // ---- Deltas ----
+    
+    /**
+     * Encodes current as a delta against baseline. Both must be in ascending id order.
+     */
+    public void encodeDelta(EntitySnapshot baseline, EntitySnapshot current, ByteBuffer out) {
+        writer.reset(out);
+        
+        // Removed: ids in the baseline that are gone from current
+        int removed = 0;
+        for (int b = 0, c = 0; b < baseline.count; ) {
+            if (c >= current.count || baseline.ids[b] < current.ids[c]) { removed++; b++; }
+            else if (baseline.ids[b] > current.ids[c]) { c++; }
+            else { b++; c++; }
+        }
+        writer.writeVarInt(removed);
+        int previousId = -1;
+        for (int b = 0, c = 0; b < baseline.count; ) {
+            if (c >= current.count || baseline.ids[b] < current.ids[c]) {
+                writer.writeVarInt(baseline.ids[b] - previousId - 1);
+                previousId = baseline.ids[b];
+                b++;
+            } else if (baseline.ids[b] > current.ids[c]) { c++; }
+            else { b++; c++; }
+        }
+        
+        // Changed: entities present in both whose quantized state differs
+        int changed = 0;
+        for (int b = 0, c = 0; b < baseline.count && c < current.count; ) {
+            if (baseline.ids[b] < current.ids[c]) { b++; }
+            else if (baseline.ids[b] > current.ids[c]) { c++; }
+            else { if (changedFields(baseline, b, current, c) != 0) changed++; b++; c++; }
+        }
+        writer.writeVarInt(changed);
+        int kept = 0;
+        int lastChanged = -1;
+        for (int b = 0, c = 0; b < baseline.count && c < current.count; ) {
+            if (baseline.ids[b] < current.ids[c]) { b++; }
+            else if (baseline.ids[b] > current.ids[c]) { c++; }
+            else {
+                int fields = changedFields(baseline, b, current, c);
+                if (fields != 0) {
+                    writer.writeVarInt(kept - lastChanged - 1);
+                    writer.writeBits(fields, FIELD_BITS);
+                    writeChangedFields(baseline, b, current, c, fields);
+                    lastChanged = kept;
+                }
+                kept++;
+                b++;
+                c++;
+            }
+        }
+        
+        // Added: ids in current that the baseline does not have
+        int addedCount = 0;
+        for (int b = 0, c = 0; c < current.count; ) {
+            if (b >= baseline.count || current.ids[c] < baseline.ids[b]) { addedCount++; c++; }
+            else if (current.ids[c] > baseline.ids[b]) { b++; }
+            else { b++; c++; }
+        }
+        writer.writeVarInt(addedCount);
+        previousId = -1;
+        for (int b = 0, c = 0; c < current.count; ) {
+            if (b >= baseline.count || current.ids[c] < baseline.ids[b]) {
+                writer.writeVarInt(current.ids[c] - previousId - 1);
+                writeEntity(current, c);
+                previousId = current.ids[c];
+                c++;
+            } else if (current.ids[c] > baseline.ids[b]) { b++; }
+            else { b++; c++; }
+        }
+        
+        writer.flush();
+    }
+    
+    private static int changedFields(EntitySnapshot a, int i, EntitySnapshot b, int j) {
+        int fields = 0;
+        if (quantizePosition(a.x[i]) != quantizePosition(b.x[j]) || quantizePosition(a.y[i]) != quantizePosition(b.y[j])) {
+            fields |= FIELD_POSITION;
+        }
+        if (quantizeVelocity(a.velX[i]) != quantizeVelocity(b.velX[j]) || quantizeVelocity(a.velY[i]) != quantizeVelocity(b.velY[j])) {
+            fields |= FIELD_VELOCITY;
+        }
+        if (a.health[i] != b.health[j]) fields |= FIELD_HEALTH;
+        if (a.flags[i] != b.flags[j]) fields |= FIELD_FLAGS;
+        return fields;
+    }
+    
+    private void writeChangedFields(EntitySnapshot base, int i, EntitySnapshot cur, int j, int fields) {
+        if ((fields & FIELD_POSITION) != 0) {
+            writer.writeSignedVarInt(quantizePosition(cur.x[j]) - quantizePosition(base.x[i]));
+            writer.writeSignedVarInt(quantizePosition(cur.y[j]) - quantizePosition(base.y[i]));
+        }
+        if ((fields & FIELD_VELOCITY) != 0) {
+            writer.writeSignedVarInt(quantizeVelocity(cur.velX[j]) - quantizeVelocity(base.velX[i]));
+            writer.writeSignedVarInt(quantizeVelocity(cur.velY[j]) - quantizeVelocity(base.velY[i]));
+        }
+        if ((fields & FIELD_HEALTH) != 0) {
+            writer.writeSignedVarInt(cur.health[j] - base.health[i]);
+        }
+        if ((fields & FIELD_FLAGS) != 0) {
+            writer.writeBits(cur.flags[j], FIELD_BITS);
+        }
+    }
+    
+    /**
+     * Rebuilds a full snapshot from a baseline and a delta. out must not be the baseline.
+     */
+    public void decodeDelta(EntitySnapshot baseline, ByteBuffer in, EntitySnapshot out) {
+        if (out == baseline) {
+            throw new IllegalArgumentException("Cannot decode a delta in place");
+        }
+        reader.reset(in);
+        
+        int removedCount = readCount();
+        if (removedIds.length < removedCount) {
+            removedIds = new int[Math.max(removedCount, removedIds.length * 2)];
+        }
+        int previousId = -1;
+        for (int i = 0; i < removedCount; i++) {
+            previousId = readId(previousId);
+            removedIds[i] = previousId;
+        }
+        
+        // Copy the kept entities, applying changes as they come up
+        out.ensureCapacity(baseline.count);
+        int changedCount = readCount();
+        int nextChanged = changedCount > 0 ? readSkip() : -1;
+        int kept = 0;
+        int r = 0;
+        for (int b = 0; b < baseline.count; b++) {
+            if (r < removedCount && removedIds[r] == baseline.ids[b]) {
+                r++;
+                continue;
+            }
+            out.copyEntry(kept, baseline, b);
+            if (nextChanged == 0) {
+                applyChangedFields(out, kept, reader.readBits(FIELD_BITS));
+                changedCount--;
+                nextChanged = changedCount > 0 ? readSkip() : -1;
+            } else if (nextChanged > 0) {
+                nextChanged--;
+            }
+            kept++;
+        }
+        
+        // Read the added entities, then merge them in by id
+        int addedCount = readCount();
+        added.ensureCapacity(addedCount);
+        previousId = -1;
+        for (int i = 0; i < addedCount; i++) {
+            int id = readId(previousId);
+            readEntity(added, i, id);
+            previousId = id;
+        }
+        
+        int total = kept + addedCount;
+        out.ensureCapacity(total);
+        int k = kept - 1;
+        int a = addedCount - 1;
+        for (int dst = total - 1; dst >= 0; dst--) {
+            if (a < 0 || (k >= 0 && out.ids[k] > added.ids[a])) {
+                out.copyEntry(dst, out, k--);
+            } else {
+                out.copyEntry(dst, added, a--);
+            }
+        }
+        out.count = total;
+    }
+    
+    private void applyChangedFields(EntitySnapshot s, int i, int fields) {
+        if ((fields & FIELD_POSITION) != 0) {
+            s.x[i] = (quantizePosition(s.x[i]) + reader.readSignedVarInt()) / POSITION_SCALE;
+            s.y[i] = (quantizePosition(s.y[i]) + reader.readSignedVarInt()) / POSITION_SCALE;
+        }
+        if ((fields & FIELD_VELOCITY) != 0) {
+            s.velX[i] = (quantizeVelocity(s.velX[i]) + reader.readSignedVarInt()) / VELOCITY_SCALE;
+            s.velY[i] = (quantizeVelocity(s.velY[i]) + reader.readSignedVarInt()) / VELOCITY_SCALE;
+        }
+        if ((fields & FIELD_HEALTH) != 0) {
+            s.health[i] += reader.readSignedVarInt();
+        }
+        if ((fields & FIELD_FLAGS) != 0) {
+            s.flags[i] = reader.readBits(FIELD_BITS);
+        }
+    }
+}
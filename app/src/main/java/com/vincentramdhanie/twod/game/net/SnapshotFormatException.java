@@ -0,0 +1,13 @@
+package com.vincentramdhanie.twod.game.net;
+
+/**
+ * Thrown by SnapshotCodec when a packet holds counts or ids no encoder writes,
+ * e.g. a corrupt or hostile datagram. Callers drop the packet.
+ */
+public class SnapshotFormatException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+    
+    public SnapshotFormatException(String message) {
+        super(message);
+    }
+}
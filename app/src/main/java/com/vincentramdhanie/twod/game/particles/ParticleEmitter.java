@@ -0,0 +1,78 @@
+package com.vincentramdhanie.twod.game.particles;
+
+import java.util.SplittableRandom;
+
+/**
+ * Spawns particles with randomized speed, direction and lifetime into a
+ * ParticleSystem, either as one-off bursts or as a steady stream.
+ */
+public class ParticleEmitter {
+    private final SplittableRandom random;
+    
+    private float minSpeed = 0.5f;
+    private float maxSpeed = 2.0f;
+    // Centre and width of the cone particles are emitted in, in radians
+    private float direction = 0;
+    private float spread = (float) (2 * Math.PI);
+    private int minLife = 20;
+    private int maxLife = 40;
+    private int rgb = 0xffffff;
+    
+    // Fraction of a particle owed by stream() from earlier ticks
+    private float pending;
+    
+    public ParticleEmitter(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+    
+    /**
+     * Spawns count particles at (x, y), inheriting the given velocity
+     */
+    public void burst(ParticleSystem system, float x, float y, float baseVelX, float baseVelY, int count) {
+        for (int i = 0; i < count; i++) {
+            float angle = direction + (float) ((random.nextDouble() - 0.5) * spread);
+            float speed = minSpeed + (float) random.nextDouble() * (maxSpeed - minSpeed);
+            int ticks = minLife + random.nextInt(maxLife - minLife + 1);
+            if (!system.spawn(x, y, baseVelX + (float) Math.cos(angle) * speed,
+                    baseVelY + (float) Math.sin(angle) * speed, ticks, rgb)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Spawns perTick particles on average, carrying fractions over to later calls.
+     * Meant to be called once per tick.
+     */
+    public void stream(ParticleSystem system, float x, float y, float baseVelX, float baseVelY, float perTick) {
+        pending += perTick;
+        int count = (int) pending;
+        pending -= count;
+        burst(system, x, y, baseVelX, baseVelY, count);
+    }
+    
+    public void setSpeed(float minSpeed, float maxSpeed) {
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+    }
+    
+    /**
+     * Emits within spread radians centred on direction (0 points right, y grows down)
+     */
+    public void setCone(float direction, float spread) {
+        this.direction = direction;
+        this.spread = spread;
+    }
+    
+    public void setLife(int minTicks, int maxTicks) {
+        if (minTicks <= 0 || maxTicks < minTicks) {
+            throw new IllegalArgumentException("Invalid life range " + minTicks + ".." + maxTicks);
+        }
+        this.minLife = minTicks;
+        this.maxLife = maxTicks;
+    }
+    
+    public void setColor(int rgb) {
+        this.rgb = rgb;
+    }
+}
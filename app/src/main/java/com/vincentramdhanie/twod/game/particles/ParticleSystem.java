@@ -0,0 +1,205 @@
+package com.vincentramdhanie.twod.game.particles;
+
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
+import com.vincentramdhanie.twod.game.graphics.PointOverlay;
+
+import java.awt.Graphics2D;
+
+/**
+ * Short-lived visual particles (trails, sparks, explosions), stored as parallel
+ * primitive arrays of fixed capacity so spawning and dying never allocate.
+ *
+ * Live particles are packed at the front of the arrays. A particle that dies is
+ * replaced by the last live one, so the order is not stable but every pass is a
+ * plain loop over 0..count. The integration passes have no branches and touch one
+ * or two arrays each, which lets the JIT vectorize them.
+ *
+ * Particles are cosmetic: they are not part of the world checksum and nothing in
+ * the simulation reads them.
+ */
+public class ParticleSystem {
+    private final int capacity;
+    private int count;
+    
+    final float[] x;
+    final float[] y;
+    final float[] velX;
+    final float[] velY;
+    // Ticks left to live, and 1 / the ticks the particle started with
+    final float[] life;
+    final float[] invMaxLife;
+    // Opaque RGB; the alpha byte is ignored
+    final int[] color;
+    
+    private float gravity = 0;
+    private float drag = 1;
+    private int pointSize = 2;
+    
+    // Used when rendering through a Graphics2D
+    private PointOverlay overlay;
+    
+    public ParticleSystem(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        life = new float[capacity];
+        invMaxLife = new float[capacity];
+        color = new int[capacity];
+    }
+    
+    /**
+     * Adds a particle. When the system is full the particle is dropped.
+     *
+     * @param ticks how many updates the particle lives for
+     * @return false if the particle was dropped
+     */
+    public boolean spawn(float x, float y, float velX, float velY, int ticks, int rgb) {
+        if (count == capacity || ticks <= 0) return false;
+        int i = count++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.velX[i] = velX;
+        this.velY[i] = velY;
+        life[i] = ticks;
+        invMaxLife[i] = 1f / ticks;
+        color[i] = rgb;
+        return true;
+    }
+    
+    /**
+     * Advances every particle by one tick and removes the ones that have expired
+     */
+    public void update() {
+        int n = count;
+        float drag = this.drag;
+        float gravity = this.gravity;
+        
+        for (int i = 0; i < n; i++) {
+            velX[i] *= drag;
+        }
+        for (int i = 0; i < n; i++) {
+            velY[i] = velY[i] * drag + gravity;
+        }
+        for (int i = 0; i < n; i++) {
+            x[i] += velX[i];
+        }
+        for (int i = 0; i < n; i++) {
+            y[i] += velY[i];
+        }
+        for (int i = 0; i < n; i++) {
+            life[i] -= 1f;
+        }
+        
+        // Swap-remove the expired ones
+        int i = 0;
+        while (i < n) {
+            if (life[i] > 0) {
+                i++;
+                continue;
+            }
+            n--;
+            x[i] = x[n];
+            y[i] = y[n];
+            velX[i] = velX[n];
+            velY[i] = velY[n];
+            life[i] = life[n];
+            invMaxLife[i] = invMaxLife[n];
+            color[i] = color[n];
+        }
+        count = n;
+    }
+    
+    /**
+     * Draws the particles straight into an RGB or premultiplied ARGB raster, adding
+     * each one's colour (faded by its remaining life) to what is there. Particles
+     * outside the raster are skipped.
+     */
+    public void render(int[] pixels, int width, int height) {
+        int size = pointSize;
+        int maxX = width - size;
+        int maxY = height - size;
+        for (int i = 0; i < count; i++) {
+            int px = (int) x[i];
+            int py = (int) y[i];
+            if (px < 0 || py < 0 || px > maxX || py > maxY) continue;
+            PointOverlay.add(pixels, width, py * width + px, size, premultiplied(i));
+        }
+    }
+    
+    /**
+     * Draws the particles over whatever g is drawing, in one drawImage call
+     */
+    public void render(Graphics2D g, int width, int height) {
+        if (overlay == null) {
+            overlay = new PointOverlay();
+        }
+        overlay.begin(width, height);
+        int size = pointSize;
+        for (int i = 0; i < count; i++) {
+            overlay.add((int) x[i], (int) y[i], size, premultiplied(i));
+        }
+        overlay.draw(g);
+    }
+    
+    /**
+     * Adds the particles to a frame's draw commands
+     */
+    public void record(DrawCommandBuffer buffer, int layer) {
+        int size = pointSize;
+        for (int i = 0; i < count; i++) {
+            buffer.addPoint((int) x[i], (int) y[i], size, premultiplied(i), layer);
+        }
+    }
+    
+    /**
+     * The colour of particle i faded by its remaining life, as premultiplied ARGB
+     */
+    private int premultiplied(int i) {
+        int fade = (int) (life[i] * invMaxLife[i] * 256);
+        int c = color[i];
+        int r = ((c >> 16) & 0xff) * fade >> 8;
+        int g = ((c >> 8) & 0xff) * fade >> 8;
+        int b = (c & 0xff) * fade >> 8;
+        int a = 0xff * fade >> 8;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+    
+    public void clear() {
+        count = 0;
+    }
+    
+    /**
+     * Added to the vertical velocity every tick
+     */
+    public void setGravity(float gravity) {
+        this.gravity = gravity;
+    }
+    
+    /**
+     * Velocity multiplier applied every tick; 1 keeps particles at constant speed
+     */
+    public void setDrag(float drag) {
+        this.drag = drag;
+    }
+    
+    /**
+     * Side of the square drawn for each particle, in pixels
+     */
+    public void setPointSize(int pointSize) {
+        if (pointSize <= 0) {
+            throw new IllegalArgumentException("Point size must be positive");
+        }
+        this.pointSize = pointSize;
+    }
+    
+    public int size() { return count; }
+    public int getCapacity() { return capacity; }
+    public float getX(int i) { return x[i]; }
+    public float getY(int i) { return y[i]; }
+    public float getLife(int i) { return life[i]; }
+}
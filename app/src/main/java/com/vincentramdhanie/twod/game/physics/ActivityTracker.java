@@ -0,0 +1,171 @@
+package com.vincentramdhanie.twod.game.physics;
+
+import com.vincentramdhanie.twod.game.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Updates only the entities that are doing something.
+ *
+ * An entity that has been at rest (see Entity.isAtRest) for a while falls asleep
+ * and is skipped by update() until something wakes it: input, an impulse, or a
+ * moving body running into it. Entities that touched during a tick form an island
+ * and only fall asleep together, so a body at rest is not left sleeping in the
+ * way of one it is still being pushed against.
+ *
+ * The awake entities are kept in a dense list in wake order, so a tick costs in
+ * proportion to the awake set and runs in the same order every time.
+ */
+public class ActivityTracker {
+    public static final int DEFAULT_SLEEP_DELAY = 30;
+    
+    private final int sleepDelay;
+    private final List<Entity> entities = new ArrayList<>();
+    private final Map<Entity, Integer> ids = new IdentityHashMap<>();
+    
+    // Ticks each entity has been at rest, and its slot in the awake list or -1
+    private int[] restTicks = new int[16];
+    private int[] awakeSlot = new int[16];
+    private int[] awake = new int[16];
+    private int awakeCount;
+    
+    // Union-find over this tick's contacts; islands are rebuilt every tick
+    private int[] parent = new int[16];
+    private int[] islandRest = new int[16];
+    
+    public ActivityTracker() {
+        this(DEFAULT_SLEEP_DELAY);
+    }
+    
+    /**
+     * @param sleepDelay ticks an island must be at rest before it sleeps
+     */
+    public ActivityTracker(int sleepDelay) {
+        this.sleepDelay = sleepDelay;
+    }
+    
+    /**
+     * Starts tracking an entity. Static ones like blocks can start asleep.
+     */
+    public void add(Entity entity, boolean startAwake) {
+        int id = entities.size();
+        if (id == restTicks.length) {
+            int capacity = id * 2;
+            restTicks = Arrays.copyOf(restTicks, capacity);
+            awakeSlot = Arrays.copyOf(awakeSlot, capacity);
+            awake = Arrays.copyOf(awake, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            islandRest = Arrays.copyOf(islandRest, capacity);
+        }
+        entities.add(entity);
+        ids.put(entity, id);
+        awakeSlot[id] = -1;
+        parent[id] = id;
+        if (startAwake) {
+            wake(id);
+        } else {
+            entity.setSleeping(true);
+        }
+    }
+    
+    public void wake(Entity entity) {
+        if (entity.isSleeping()) {
+            Integer id = ids.get(entity);
+            if (id != null) wake(id);
+        }
+    }
+    
+    private void wake(int id) {
+        if (awakeSlot[id] >= 0) return;
+        restTicks[id] = 0;
+        parent[id] = id;
+        awakeSlot[id] = awakeCount;
+        awake[awakeCount++] = id;
+        entities.get(id).setSleeping(false);
+    }
+    
+    /**
+     * Pushes an entity and wakes it up
+     */
+    public void applyImpulse(Entity entity, float impulseX, float impulseY) {
+        entity.setVelX(entity.getVelX() + impulseX);
+        entity.setVelY(entity.getVelY() + impulseY);
+        wake(entity);
+    }
+    
+    /**
+     * Records that two entities touched this tick. A sleeping one is woken, and
+     * the two join the same island.
+     */
+    public void touch(Entity a, Entity b) {
+        Integer idA = ids.get(a);
+        Integer idB = ids.get(b);
+        if (idA == null || idB == null) return;
+        wake(idA);
+        wake(idB);
+        int rootA = find(idA);
+        int rootB = find(idB);
+        if (rootA != rootB) {
+            // Lower id as root keeps the result independent of contact order
+            if (rootA < rootB) parent[rootB] = rootA; else parent[rootA] = rootB;
+        }
+    }
+    
+    private int find(int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+    
+    /**
+     * Updates the awake entities, including any woken during the tick, then puts
+     * to sleep the islands that have been at rest long enough
+     */
+    public void update() {
+        for (int i = 0; i < awakeCount; i++) {
+            entities.get(awake[i]).update();
+        }
+        
+        for (int i = 0; i < awakeCount; i++) {
+            int id = awake[i];
+            restTicks[id] = entities.get(id).isAtRest() ? restTicks[id] + 1 : 0;
+            islandRest[id] = Integer.MAX_VALUE;
+        }
+        for (int i = 0; i < awakeCount; i++) {
+            int id = awake[i];
+            int root = find(id);
+            islandRest[root] = Math.min(islandRest[root], restTicks[id]);
+        }
+        
+        // Compact the awake list in place, keeping its order
+        int kept = 0;
+        for (int i = 0; i < awakeCount; i++) {
+            int id = awake[i];
+            if (islandRest[find(id)] >= sleepDelay) {
+                awakeSlot[id] = -1;
+                entities.get(id).setSleeping(true);
+            } else {
+                awakeSlot[id] = kept;
+                awake[kept++] = id;
+            }
+        }
+        awakeCount = kept;
+        for (int i = 0; i < awakeCount; i++) {
+            parent[awake[i]] = awake[i];
+        }
+    }
+    
+    public int getAwakeCount() {
+        return awakeCount;
+    }
+    
+    public int getSleepingCount() {
+        return entities.size() - awakeCount;
+    }
+}
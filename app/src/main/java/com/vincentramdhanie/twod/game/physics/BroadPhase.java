@@ -0,0 +1,138 @@
+package com.vincentramdhanie.twod.game.physics;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the world bounds. Each body is listed in every cell its box
+ * touches, so a query only looks at the bodies near the region it covers.
+ * Boxes outside the bounds are clamped to the edge cells.
+ */
+class BroadPhase {
+    private final float cellSize;
+    private final int cols;
+    private final int rows;
+    private final int[][] cells;
+    private final int[] cellCounts;
+    
+    // Cell range each body is listed in: minCol, minRow, maxCol, maxRow
+    private int[] ranges = new int[64];
+    
+    // Query results, de-duplicated with a stamp per body
+    private int[] results = new int[64];
+    private int[] stamps = new int[16];
+    private int stamp;
+    
+    BroadPhase(float width, float height, float cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new int[cols * rows][];
+        this.cellCounts = new int[cols * rows];
+    }
+    
+    void insert(int id, float x, float y, float w, float h) {
+        if (id * 4 + 4 > ranges.length) {
+            ranges = Arrays.copyOf(ranges, Math.max(ranges.length * 2, id * 4 + 4));
+        }
+        int base = id * 4;
+        ranges[base] = col(x);
+        ranges[base + 1] = row(y);
+        ranges[base + 2] = col(x + w);
+        ranges[base + 3] = row(y + h);
+        for (int r = ranges[base + 1]; r <= ranges[base + 3]; r++) {
+            for (int c = ranges[base]; c <= ranges[base + 2]; c++) {
+                add(r * cols + c, id);
+            }
+        }
+    }
+    
+    /**
+     * Re-lists a body after it moved. Cheap when it stays in the same cells.
+     */
+    void update(int id, float x, float y, float w, float h) {
+        int base = id * 4;
+        if (ranges[base] == col(x) && ranges[base + 1] == row(y)
+                && ranges[base + 2] == col(x + w) && ranges[base + 3] == row(y + h)) {
+            return;
+        }
+        remove(id);
+        insert(id, x, y, w, h);
+    }
+    
+    void remove(int id) {
+        int base = id * 4;
+        for (int r = ranges[base + 1]; r <= ranges[base + 3]; r++) {
+            for (int c = ranges[base]; c <= ranges[base + 2]; c++) {
+                int cell = r * cols + c;
+                int[] list = cells[cell];
+                int n = cellCounts[cell];
+                for (int i = 0; i < n; i++) {
+                    if (list[i] == id) {
+                        list[i] = list[--n];
+                        break;
+                    }
+                }
+                cellCounts[cell] = n;
+            }
+        }
+    }
+    
+    /**
+     * Collects the bodies listed in the cells that the region touches
+     *
+     * @return the number of candidates, read back with getResult()
+     */
+    int query(float minX, float minY, float maxX, float maxY) {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        int count = 0;
+        int minCol = col(minX);
+        int maxCol = col(maxX);
+        int maxRow = row(maxY);
+        for (int r = row(minY); r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                int cell = r * cols + c;
+                int[] list = cells[cell];
+                for (int i = 0, n = cellCounts[cell]; i < n; i++) {
+                    int id = list[i];
+                    if (id >= stamps.length) {
+                        stamps = Arrays.copyOf(stamps, Math.max(stamps.length * 2, id + 1));
+                    }
+                    if (stamps[id] == stamp) continue;
+                    stamps[id] = stamp;
+                    if (count == results.length) {
+                        results = Arrays.copyOf(results, count * 2);
+                    }
+                    results[count++] = id;
+                }
+            }
+        }
+        return count;
+    }
+    
+    int getResult(int i) {
+        return results[i];
+    }
+    
+    private void add(int cell, int id) {
+        int[] list = cells[cell];
+        int n = cellCounts[cell];
+        if (list == null) {
+            list = cells[cell] = new int[4];
+        } else if (n == list.length) {
+            list = cells[cell] = Arrays.copyOf(list, n * 2);
+        }
+        list[n] = id;
+        cellCounts[cell] = n + 1;
+    }
+    
+    private int col(float x) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor(x / cellSize)));
+    }
+    
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+}
@@ -0,0 +1,21 @@
+package com.vincentramdhanie.twod.game.physics;
+
+/**
+ * The earliest contact found by a sweep. Reused between sweeps to avoid garbage.
+ */
+public class Hit {
+    // Fraction of the move at which the boxes touch
+    public float time;
+    // Points out of the surface that was hit; one of the two is zero
+    public int normalX;
+    public int normalY;
+    // Id of the body that was hit, or -1 for the world bounds
+    public int body;
+    
+    public void reset() {
+        time = 1f;
+        normalX = 0;
+        normalY = 0;
+        body = -1;
+    }
+}
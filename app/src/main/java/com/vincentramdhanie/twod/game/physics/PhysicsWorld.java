@@ -0,0 +1,214 @@
+package com.vincentramdhanie.twod.game.physics;
+
+import com.vincentramdhanie.twod.game.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Continuous collision for axis-aligned entities inside rectangular world bounds.
+ *
+ * move() sweeps a body along its displacement instead of testing the end position,
+ * so fast bodies cannot pass through thin ones. Every candidate from the broadphase
+ * (static and dynamic bodies, and the bounds) is swept, the earliest contact is
+ * resolved first, and the rest of the move slides along the surface that was hit.
+ * Bodies move one after another, each seeing the others where they are now.
+ * With an ActivityTracker set, running into a dynamic body wakes it.
+ *
+ * Ids of removed bodies are handed out again by the next add, so bodies joining
+ * and leaving do not grow the world; forget an id once its body is removed.
+ */
+public class PhysicsWorld {
+    // Contact flags returned by move()
+    public static final int CONTACT_X = 1;
+    public static final int CONTACT_Y = 2;
+    
+    // A move stops after this many contacts; two are enough to wedge into a corner
+    private static final int MAX_CONTACTS = 4;
+    
+    private final float width;
+    private final float height;
+    private final BroadPhase broadPhase;
+    private final List<Entity> bodies = new ArrayList<>();
+    private final BitSet dynamic = new BitSet();
+    private int[] freeIds = new int[8];
+    private int freeCount;
+    private ActivityTracker activity;
+    private final Hit hit = new Hit();
+    
+    /**
+     * @param cellSize broadphase cell size, about the size of a typical body
+     */
+    public PhysicsWorld(float width, float height, float cellSize) {
+        this.width = width;
+        this.height = height;
+        this.broadPhase = new BroadPhase(width, height, cellSize);
+    }
+    
+    /**
+     * Adds a body that never moves, such as a block
+     *
+     * @return the id of the body
+     */
+    public int addStatic(Entity body) {
+        return add(body);
+    }
+    
+    /**
+     * Adds a body that moves with move() and blocks the other bodies
+     *
+     * @return the id to pass to move()
+     */
+    public int addDynamic(Entity body) {
+        int id = add(body);
+        dynamic.set(id);
+        return id;
+    }
+    
+    public void setActivity(ActivityTracker activity) {
+        this.activity = activity;
+    }
+    
+    public void addStatics(List<? extends Entity> statics) {
+        for (Entity body : statics) {
+            add(body);
+        }
+    }
+    
+    private int add(Entity body) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+            bodies.set(id, body);
+        } else {
+            id = bodies.size();
+            bodies.add(body);
+        }
+        broadPhase.insert(id, body.getX(), body.getY(), body.getWidth(), body.getHeight());
+        return id;
+    }
+    
+    public void remove(int id) {
+        if (bodies.get(id) == null) return;
+        broadPhase.remove(id);
+        bodies.set(id, null);
+        dynamic.clear(id);
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+    
+    /**
+     * Moves a body by (dx, dy), stopping at contacts and sliding along them.
+     * Inactive bodies are passed through.
+     *
+     * @return CONTACT_X and/or CONTACT_Y for the axes that were blocked
+     */
+    public int move(int id, float dx, float dy) {
+        Entity body = bodies.get(id);
+        float x = body.getX();
+        float y = body.getY();
+        float w = body.getWidth();
+        float h = body.getHeight();
+        int contacts = 0;
+        
+        for (int i = 0; i < MAX_CONTACTS && (dx != 0 || dy != 0); i++) {
+            hit.reset();
+            sweepBounds(x, y, w, h, dx, dy);
+            
+            int count = broadPhase.query(Math.min(x, x + dx), Math.min(y, y + dy),
+                                         Math.max(x, x + dx) + w, Math.max(y, y + dy) + h);
+            for (int c = 0; c < count; c++) {
+                int other = broadPhase.getResult(c);
+                Entity b = bodies.get(other);
+                if (other == id || !b.isActive()) continue;
+                if (Sweep.sweep(x, y, w, h, dx, dy, b.getX(), b.getY(), b.getWidth(), b.getHeight(), hit)) {
+                    hit.body = other;
+                }
+            }
+            
+            if (hit.time >= 1f) {
+                x += dx;
+                y += dy;
+                break;
+            }
+            
+            if (activity != null && hit.body >= 0 && dynamic.get(hit.body)) {
+                activity.touch(body, bodies.get(hit.body));
+            }
+            
+            // Advance to the contact, then slide: drop the blocked part of what is left
+            float remaining = 1f - hit.time;
+            if (hit.normalX != 0) {
+                x = contactX(w, dx, hit.body);
+                y += dy * hit.time;
+                dx = 0;
+                dy *= remaining;
+                contacts |= CONTACT_X;
+            } else {
+                x += dx * hit.time;
+                y = contactY(h, dy, hit.body);
+                dx *= remaining;
+                dy = 0;
+                contacts |= CONTACT_Y;
+            }
+        }
+        
+        body.setX(x);
+        body.setY(y);
+        broadPhase.update(id, x, y, w, h);
+        return contacts;
+    }
+    
+    /**
+     * The bounds are four walls; treat reaching one like any other contact
+     */
+    private void sweepBounds(float x, float y, float w, float h, float dx, float dy) {
+        if (dx != 0) {
+            float t = dx > 0 ? (width - w - x) / dx : -x / dx;
+            if (t >= 0 && t < hit.time) {
+                hit.time = t;
+                hit.normalX = dx > 0 ? -1 : 1;
+                hit.normalY = 0;
+            }
+        }
+        if (dy != 0) {
+            float t = dy > 0 ? (height - h - y) / dy : -y / dy;
+            if (t >= 0 && t < hit.time) {
+                hit.time = t;
+                hit.normalX = 0;
+                hit.normalY = dy > 0 ? -1 : 1;
+            }
+        }
+    }
+    
+    // Rest exactly against the surface so rounding never leaves the boxes overlapping
+    private float contactX(float w, float dx, int other) {
+        if (other < 0) return dx > 0 ? width - w : 0;
+        Entity b = bodies.get(other);
+        return dx > 0 ? b.getX() - w : b.getX() + b.getWidth();
+    }
+    
+    private float contactY(float h, float dy, int other) {
+        if (other < 0) return dy > 0 ? height - h : 0;
+        Entity b = bodies.get(other);
+        return dy > 0 ? b.getY() - h : b.getY() + b.getHeight();
+    }
+    
+    public Entity getBody(int id) {
+        return bodies.get(id);
+    }
+    
+    /**
+     * Number of bodies in the world, not counting removed ones
+     */
+    public int getBodyCount() {
+        return bodies.size() - freeCount;
+    }
+    
+    public float getWidth() { return width; }
+    public float getHeight() { return height; }
+}
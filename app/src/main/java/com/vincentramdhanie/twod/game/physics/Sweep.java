@@ -0,0 +1,70 @@
+package com.vincentramdhanie.twod.game.physics;
+
+/**
+ * Time of impact between a moving and a resting axis-aligned box.
+ *
+ * Uses the slab method: the time the moving box enters and leaves the other box
+ * is worked out per axis, and the boxes touch between the later entry and the
+ * earlier exit. Boxes that already overlap are ignored so they can separate.
+ */
+public final class Sweep {
+    // Gaps and overlaps smaller than this count as touching, which absorbs rounding
+    static final float EPSILON = 1e-3f;
+    
+    private Sweep() {
+    }
+    
+    /**
+     * Sweeps box A by (dx, dy) against box B. Records the contact in hit if it
+     * happens before hit.time, which the caller starts at 1 for the whole move.
+     *
+     * @return true if hit was updated
+     */
+    public static boolean sweep(float ax, float ay, float aw, float ah, float dx, float dy,
+                                float bx, float by, float bw, float bh, Hit hit) {
+        float xEntry, xExit;
+        if (dx > 0) {
+            xEntry = snap(bx - (ax + aw)) / dx;
+            xExit = (bx + bw - ax) / dx;
+        } else if (dx < 0) {
+            xEntry = snap(ax - (bx + bw)) / -dx;
+            xExit = (ax + aw - bx) / -dx;
+        } else {
+            if (ax + aw <= bx + EPSILON || ax >= bx + bw - EPSILON) return false;
+            xEntry = Float.NEGATIVE_INFINITY;
+            xExit = Float.POSITIVE_INFINITY;
+        }
+        
+        float yEntry, yExit;
+        if (dy > 0) {
+            yEntry = snap(by - (ay + ah)) / dy;
+            yExit = (by + bh - ay) / dy;
+        } else if (dy < 0) {
+            yEntry = snap(ay - (by + bh)) / -dy;
+            yExit = (ay + ah - by) / -dy;
+        } else {
+            if (ay + ah <= by + EPSILON || ay >= by + bh - EPSILON) return false;
+            yEntry = Float.NEGATIVE_INFINITY;
+            yExit = Float.POSITIVE_INFINITY;
+        }
+        
+        float entry = Math.max(xEntry, yEntry);
+        float exit = Math.min(xExit, yExit);
+        // Already overlapping, missed, or not before the best contact so far
+        if (entry < 0 || entry >= exit || entry >= hit.time) return false;
+        
+        hit.time = entry;
+        if (xEntry >= yEntry) {
+            hit.normalX = dx > 0 ? -1 : 1;
+            hit.normalY = 0;
+        } else {
+            hit.normalX = 0;
+            hit.normalY = dy > 0 ? -1 : 1;
+        }
+        return true;
+    }
+    
+    private static float snap(float gap) {
+        return gap < 0 && gap > -EPSILON ? 0 : gap;
+    }
+}
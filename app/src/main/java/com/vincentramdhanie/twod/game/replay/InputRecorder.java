@@ -0,0 +1,83 @@
+package com.vincentramdhanie.twod.game.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a replay file: a header with the world seed and size, followed by one
+ * record per tick holding the input bits and the world checksum after that tick.
+ *
+ * File layout (big-endian):
+ *   int   magic   ('2DRP')
+ *   short version
+ *   long  seed
+ *   int   width
+ *   int   height
+ *   then per tick: byte inputBits, int checksum
+ */
+public class InputRecorder implements AutoCloseable {
+    public static final int MAGIC = 0x32445250; // "2DRP"
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 4 + 2 + 8 + 4 + 4;
+    public static final int TICK_BYTES = 1 + 4;
+    
+    private final DataOutputStream out;
+    private final Thread shutdownHook;
+    private boolean closed = false;
+    
+    public InputRecorder(Path file, long seed, int width, int height) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(seed);
+        out.writeInt(width);
+        out.writeInt(height);
+        
+        // Make sure buffered ticks reach the disk when the game exits via System.exit
+        shutdownHook = new Thread(this::close, "replay-recorder-flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+    
+    /**
+     * Appends one tick. Called on the game thread after the tick has been simulated.
+     */
+    public synchronized void record(int inputBits, int checksum) {
+        if (closed) return;
+        try {
+            out.writeByte(inputBits);
+            out.writeInt(checksum);
+        } catch (IOException e) {
+            System.err.println("Error writing replay, recording stopped: " + e.getMessage());
+            closeQuietly();
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down, the hook is running or about to run
+            }
+        }
+        closeQuietly();
+    }
+    
+    private synchronized void closeQuietly() {
+        if (closed) return;
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Error closing replay file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.vincentramdhanie.twod.game.replay;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A replay file loaded into memory
+ * @see InputRecorder for the file layout
+ */
+public class InputRecording {
+    private final long seed;
+    private final int width;
+    private final int height;
+    private final byte[] inputs;
+    private final int[] checksums;
+    
+    private InputRecording(long seed, int width, int height, byte[] inputs, int[] checksums) {
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.inputs = inputs;
+        this.checksums = checksums;
+    }
+    
+    public static InputRecording read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < InputRecorder.HEADER_BYTES || buffer.getInt() != InputRecorder.MAGIC) {
+            throw new IOException("Not a replay file: " + file);
+        }
+        short version = buffer.getShort();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + version + " in " + file);
+        }
+        long seed = buffer.getLong();
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        
+        // A truncated last record (e.g. after a crash) is ignored
+        int ticks = buffer.remaining() / InputRecorder.TICK_BYTES;
+        byte[] inputs = new byte[ticks];
+        int[] checksums = new int[ticks];
+        for (int i = 0; i < ticks; i++) {
+            inputs[i] = buffer.get();
+            checksums[i] = buffer.getInt();
+        }
+        return new InputRecording(seed, width, height, inputs, checksums);
+    }
+    
+    public long getSeed() { return seed; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getTickCount() { return inputs.length; }
+    public int getInput(int tick) { return inputs[tick] & 0xFF; }
+    public int getChecksum(int tick) { return checksums[tick]; }
+}
@@ -0,0 +1,89 @@
+package com.vincentramdhanie.twod.game.replay;
+
+import com.vincentramdhanie.twod.game.state.PlayState;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Replays a recorded session headless at maximum speed and verifies
+ * the world checksum after every tick.
+ *
+ * Usage: java -Djava.awt.headless=true ... ReplayRunner <replay file> [repetitions]
+ */
+public class ReplayRunner {
+    // Replays run headless, so they can wait for slow script rounds instead of deferring NPC moves
+    public static final long REPLAY_SCRIPT_BUDGET_NANOS = 1_000_000_000L;
+    
+    /**
+     * Outcome of one replay run
+     */
+    public static class Result {
+        public final int ticks;
+        public final long elapsedNanos;
+        public final int firstMismatchTick; // -1 if every tick matched
+        
+        Result(int ticks, long elapsedNanos, int firstMismatchTick) {
+            this.ticks = ticks;
+            this.elapsedNanos = elapsedNanos;
+            this.firstMismatchTick = firstMismatchTick;
+        }
+        
+        public boolean matched() {
+            return firstMismatchTick < 0;
+        }
+        
+        public double ticksPerSecond() {
+            return elapsedNanos > 0 ? ticks / (elapsedNanos / 1_000_000_000.0) : 0;
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayRunner <replay file> [repetitions]");
+            System.exit(2);
+        }
+        System.setProperty("java.awt.headless", "true");
+        
+        Path file = Paths.get(args[0]);
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        InputRecording recording = InputRecording.read(file);
+        System.out.println("Replaying " + recording.getTickCount() + " ticks, seed " + recording.getSeed());
+        
+        boolean allMatched = true;
+        for (int i = 0; i < repetitions; i++) {
+            Result result = replay(recording);
+            System.out.printf("Run %d: %d ticks in %.1f ms (%.0f ticks/s) %s%n", i + 1, result.ticks,
+                              result.elapsedNanos / 1_000_000.0, result.ticksPerSecond(),
+                              result.matched() ? "bit-identical" : "DESYNC at tick " + result.firstMismatchTick);
+            allMatched &= result.matched();
+        }
+        System.exit(allMatched ? 0 : 1);
+    }
+    
+    /**
+     * Rebuilds the recorded world from its seed and drives it with the recorded input
+     */
+    public static Result replay(InputRecording recording) {
+        PlayState state = new PlayState(null, recording.getWidth(), recording.getHeight());
+        state.setSeed(recording.getSeed());
+        state.setEffects(false);
+        state.setScriptBudget(REPLAY_SCRIPT_BUDGET_NANOS);
+        state.init();
+        
+        int firstMismatch = -1;
+        long start = System.nanoTime();
+        try {
+            for (int tick = 0; tick < recording.getTickCount(); tick++) {
+                state.setInputBits(recording.getInput(tick));
+                state.update();
+                if (firstMismatch < 0 && WorldChecksum.of(state) != recording.getChecksum(tick)) {
+                    firstMismatch = tick;
+                }
+            }
+        } finally {
+            state.shutdown();
+        }
+        return new Result(recording.getTickCount(), System.nanoTime() - start, firstMismatch);
+    }
+}
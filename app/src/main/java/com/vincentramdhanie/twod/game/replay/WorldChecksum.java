@@ -0,0 +1,76 @@
+package com.vincentramdhanie.twod.game.replay;
+
+import com.vincentramdhanie.twod.game.entity.BallPlayer;
+import com.vincentramdhanie.twod.game.entity.Block;
+import com.vincentramdhanie.twod.game.entity.Npc;
+import com.vincentramdhanie.twod.game.state.PlayState;
+import com.vincentramdhanie.twod.game.steering.Flock;
+
+import java.util.List;
+
+/**
+ * Computes a 32-bit FNV-1a hash over the exact bits of the simulated world state.
+ * Two runs are bit-identical at a tick only if their checksums match. Covers the
+ * player, the blocks, the scripted NPCs and the swarm.
+ */
+public final class WorldChecksum {
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+    
+    private WorldChecksum() {
+    }
+    
+    public static int of(PlayState state) {
+        int hash = FNV_OFFSET;
+        hash = mix(hash, (int) state.getTick());
+        
+        BallPlayer player = state.getPlayer();
+        if (player != null) {
+            hash = mix(hash, Float.floatToRawIntBits(player.getX()));
+            hash = mix(hash, Float.floatToRawIntBits(player.getY()));
+            hash = mix(hash, Float.floatToRawIntBits(player.getVelX()));
+            hash = mix(hash, Float.floatToRawIntBits(player.getVelY()));
+            hash = mix(hash, player.getHealth());
+        }
+        
+        List<Block> blocks = state.getBlocks();
+        if (blocks != null) {
+            for (int i = 0; i < blocks.size(); i++) {
+                Block block = blocks.get(i);
+                hash = mix(hash, Float.floatToRawIntBits(block.getX()));
+                hash = mix(hash, Float.floatToRawIntBits(block.getY()));
+                hash = mix(hash, block.isActive() ? 1 : 0);
+            }
+        }
+        
+        List<Npc> npcs = state.getNpcs();
+        if (npcs != null) {
+            for (int i = 0; i < npcs.size(); i++) {
+                Npc npc = npcs.get(i);
+                hash = mix(hash, Float.floatToRawIntBits(npc.getX()));
+                hash = mix(hash, Float.floatToRawIntBits(npc.getY()));
+                hash = mix(hash, Float.floatToRawIntBits(npc.getVelX()));
+                hash = mix(hash, Float.floatToRawIntBits(npc.getVelY()));
+            }
+        }
+        
+        Flock swarm = state.getSwarm();
+        if (swarm != null) {
+            for (int i = 0; i < swarm.size(); i++) {
+                hash = mix(hash, Float.floatToRawIntBits(swarm.getX(i)));
+                hash = mix(hash, Float.floatToRawIntBits(swarm.getY(i)));
+                hash = mix(hash, Float.floatToRawIntBits(swarm.getVelX(i)));
+                hash = mix(hash, Float.floatToRawIntBits(swarm.getVelY(i)));
+            }
+        }
+        return hash;
+    }
+    
+    private static int mix(int hash, int value) {
+        for (int i = 0; i < 4; i++) {
+            hash ^= (value >>> (i * 8)) & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,141 @@
+package com.vincentramdhanie.twod.game.save;
+
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
+import com.vincentramdhanie.twod.game.state.PlayState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Saves a world to one file on a background thread. The game thread only copies
+ * the world into a snapshot; writing it out overlaps the following ticks.
+ *
+ * There is one snapshot, so a save cannot start while the previous one is still
+ * being written. Background saves are skipped in that case and retried by the
+ * caller; save() waits for the previous write instead.
+ */
+public class Autosaver {
+    private final Path file;
+    private final WorldSnapshot snapshot = new WorldSnapshot();
+    private final ExecutorService writer;
+    private final Thread shutdownHook;
+    private volatile Future<?> pending;
+    
+    public Autosaver(Path file) {
+        this.file = file;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "world-saver");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        
+        // Let a save that is being written finish when the game exits via System.exit
+        shutdownHook = new Thread(this::await, "world-saver-flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+    
+    /**
+     * Snapshots the world and writes it in the background, unless the previous
+     * save is still being written. Call on the game thread.
+     * @return false if the save was skipped
+     */
+    public boolean saveInBackground(PlayState state) {
+        if (pending != null && !pending.isDone()) return false;
+        start(state);
+        return true;
+    }
+    
+    /**
+     * Snapshots the world and writes it in the background, first waiting for any
+     * save still being written. Call on the game thread.
+     */
+    public void save(PlayState state) {
+        await();
+        start(state);
+    }
+    
+    private void start(PlayState state) {
+        long captureStart = System.nanoTime();
+        snapshot.capture(state);
+        EngineMetrics.WORLD_SNAPSHOT_TIME.observeNanos(System.nanoTime() - captureStart);
+        
+        pending = writer.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                SaveFile.write(snapshot, file);
+                EngineMetrics.WORLD_SAVE_TIME.observeNanos(System.nanoTime() - start);
+            } catch (IOException e) {
+                System.err.println("Error saving world to " + file + ": " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Waits for the save being written, if any
+     */
+    public void await() {
+        Future<?> save = pending;
+        if (save == null) return;
+        try {
+            save.get();
+        } catch (ExecutionException e) {
+            System.err.println("Error saving world: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Reads the save once any pending write has finished
+     * @return the saved world, or null if there is no save or it cannot be read
+     */
+    public WorldSnapshot load() {
+        await();
+        if (!Files.exists(file)) return null;
+        
+        WorldSnapshot saved = new WorldSnapshot();
+        try {
+            SaveFile.read(file, saved);
+            return saved;
+        } catch (IOException e) {
+            System.err.println("Could not read save " + file + ", starting a new world: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Deletes the save once any pending write has finished, so the next load
+     * starts a new world
+     */
+    public void discard() {
+        await();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete save " + file + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Finishes the pending save and stops the writer thread
+     */
+    public void close() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, the hook is running or about to run
+        }
+        await();
+        writer.shutdown();
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,160 @@
+package com.vincentramdhanie.twod.game.save;
+
+import com.vincentramdhanie.twod.game.net.EntitySnapshot;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes world saves with plain FileChannel reads and writes through a
+ * ByteBuffer. Files are deliberately not memory-mapped: a mapping stays alive
+ * until the buffer is garbage collected, and on Windows a mapped file cannot be
+ * replaced, so moving the new save over the old one would fail.
+ *
+ * File layout (big-endian):
+ *   int   magic   ('2DSV')
+ *   short version
+ *   long  seed
+ *   long  tick
+ *   int   width
+ *   int   height
+ *   int   player animation id
+ *   long  player animation time
+ *   then the player, blocks, NPCs and swarm, each as:
+ *     int count, then per entity: int id, float x, float y, float velX, float velY, int health, int flags
+ */
+public final class SaveFile {
+    public static final int MAGIC = 0x32445356; // "2DSV"
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 4 + 2 + 8 + 8 + 4 + 4 + 4 + 8;
+    public static final int ENTITY_BYTES = 7 * 4;
+    // Writes go out in blocks of this size
+    private static final int BLOCK_BYTES = 64 * 1024;
+    
+    private SaveFile() {
+    }
+    
+    /**
+     * Size of the file a snapshot is saved as
+     */
+    public static long sizeOf(WorldSnapshot snapshot) {
+        return HEADER_BYTES + 4 * 4 + (long) snapshot.size() * ENTITY_BYTES;
+    }
+    
+    /**
+     * Writes a snapshot beside the file and moves it into place, so a crash while
+     * saving leaves the previous save intact
+     */
+    public static void write(WorldSnapshot snapshot, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BLOCK_BYTES);
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            buffer.putLong(snapshot.seed);
+            buffer.putLong(snapshot.tick);
+            buffer.putInt(snapshot.screenWidth);
+            buffer.putInt(snapshot.screenHeight);
+            buffer.putInt(snapshot.playerAnimation);
+            buffer.putLong(snapshot.playerAnimationTime);
+            writeEntities(channel, buffer, snapshot.player);
+            writeEntities(channel, buffer, snapshot.blocks);
+            writeEntities(channel, buffer, snapshot.npcs);
+            writeEntities(channel, buffer, snapshot.swarm);
+            drain(channel, buffer);
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static void writeEntities(FileChannel channel, ByteBuffer buffer, EntitySnapshot entities)
+            throws IOException {
+        int count = entities.size();
+        if (buffer.remaining() < 4) {
+            drain(channel, buffer);
+        }
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++) {
+            if (buffer.remaining() < ENTITY_BYTES) {
+                drain(channel, buffer);
+            }
+            buffer.putInt(entities.getId(i));
+            buffer.putFloat(entities.getX(i));
+            buffer.putFloat(entities.getY(i));
+            buffer.putFloat(entities.getVelX(i));
+            buffer.putFloat(entities.getVelY(i));
+            buffer.putInt(entities.getHealth(i));
+            buffer.putInt(entities.getFlags(i));
+        }
+    }
+    
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    
+    /**
+     * Reads a save into a snapshot, reusing its arrays
+     * @throws IOException if the file is not a save, is from a newer version or is cut short
+     */
+    public static void read(Path file, WorldSnapshot snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Save file too large: " + size + " bytes");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            buffer.flip();
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a save file: " + file);
+            }
+            int version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported save version " + version);
+            }
+            snapshot.seed = buffer.getLong();
+            snapshot.tick = buffer.getLong();
+            snapshot.screenWidth = buffer.getInt();
+            snapshot.screenHeight = buffer.getInt();
+            snapshot.playerAnimation = buffer.getInt();
+            snapshot.playerAnimationTime = buffer.getLong();
+            
+            readEntities(buffer, snapshot.player);
+            readEntities(buffer, snapshot.blocks);
+            readEntities(buffer, snapshot.npcs);
+            readEntities(buffer, snapshot.swarm);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Save file is cut short: " + file);
+        }
+    }
+    
+    private static void readEntities(ByteBuffer buffer, EntitySnapshot entities) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * ENTITY_BYTES > buffer.remaining()) {
+            throw new IOException("Save file is cut short");
+        }
+        entities.clear(WorldSnapshot.NO_TICK);
+        for (int i = 0; i < count; i++) {
+            entities.add(buffer.getInt(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat(),
+                buffer.getFloat(), buffer.getInt(), buffer.getInt());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.vincentramdhanie.twod.game.save;
+
+import com.vincentramdhanie.twod.game.entity.BallPlayer;
+import com.vincentramdhanie.twod.game.entity.Block;
+import com.vincentramdhanie.twod.game.entity.Npc;
+import com.vincentramdhanie.twod.game.net.EntitySnapshot;
+import com.vincentramdhanie.twod.game.state.PlayState;
+import com.vincentramdhanie.twod.game.steering.Flock;
+
+import java.util.List;
+
+/**
+ * A copy of everything needed to continue a PlayState world: its seed and tick,
+ * the player, the blocks, the NPCs and the swarm. Entities are copied into
+ * EntitySnapshots, so a snapshot taken on the game thread can be written out on
+ * another thread while the world keeps changing.
+ *
+ * Instances are meant to be reused: capture() only allocates when the arrays
+ * need to grow.
+ */
+public class WorldSnapshot {
+    long seed;
+    long tick;
+    int screenWidth;
+    int screenHeight;
+    int playerAnimation;
+    long playerAnimationTime;
+    final EntitySnapshot player = new EntitySnapshot(1);
+    final EntitySnapshot blocks = new EntitySnapshot();
+    final EntitySnapshot npcs = new EntitySnapshot();
+    final EntitySnapshot swarm = new EntitySnapshot();
+    
+    // The world tick is a long and only kept above; entity snapshots carry the
+    // int ticks of the network protocol, so saved ones are left unlabelled
+    static final int NO_TICK = -1;
+    
+    /**
+     * Copies the state of a world. Call on the thread that updates it.
+     */
+    public void capture(PlayState state) {
+        seed = state.getSeed();
+        tick = state.getTick();
+        screenWidth = state.getScreenWidth();
+        screenHeight = state.getScreenHeight();
+        BallPlayer ball = state.getPlayer();
+        player.clear(NO_TICK);
+        player.add(0, ball);
+        playerAnimation = ball.getAnimationId();
+        playerAnimationTime = ball.getAnimationTime();
+        
+        List<Block> blockList = state.getBlocks();
+        blocks.clear(NO_TICK);
+        for (int i = 0; i < blockList.size(); i++) {
+            blocks.add(i, blockList.get(i));
+        }
+        
+        List<Npc> npcList = state.getNpcs();
+        npcs.clear(NO_TICK);
+        for (int i = 0; i < npcList.size(); i++) {
+            npcs.add(i, npcList.get(i));
+        }
+        
+        Flock flock = state.getSwarm();
+        swarm.clear(NO_TICK);
+        for (int i = 0; i < flock.size(); i++) {
+            swarm.add(i, flock.getX(i), flock.getY(i), flock.getVelX(i), flock.getVelY(i), 0,
+                EntitySnapshot.FLAG_ACTIVE);
+        }
+    }
+    
+    public long getSeed() { return seed; }
+    public long getTick() { return tick; }
+    public int getScreenWidth() { return screenWidth; }
+    public int getScreenHeight() { return screenHeight; }
+    public int getPlayerAnimation() { return playerAnimation; }
+    public long getPlayerAnimationTime() { return playerAnimationTime; }
+    public EntitySnapshot getPlayer() { return player; }
+    public EntitySnapshot getBlocks() { return blocks; }
+    public EntitySnapshot getNpcs() { return npcs; }
+    public EntitySnapshot getSwarm() { return swarm; }
+    
+    /**
+     * Total number of entities in the snapshot
+     */
+    public int size() {
+        return player.size() + blocks.size() + npcs.size() + swarm.size();
+    }
+}
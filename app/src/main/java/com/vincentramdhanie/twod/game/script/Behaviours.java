@@ -0,0 +1,60 @@
+package com.vincentramdhanie.twod.game.script;
+
+import com.vincentramdhanie.twod.game.entity.Entity;
+import com.vincentramdhanie.twod.game.entity.Npc;
+import com.vincentramdhanie.twod.game.nav.FlowField;
+import com.vincentramdhanie.twod.game.nav.NavGrid;
+import com.vincentramdhanie.twod.game.nav.NavigationService;
+
+/**
+ * Ready-made scripts
+ */
+public final class Behaviours {
+    private Behaviours() {
+    }
+    
+    /**
+     * Walks back and forth between two points, pausing at each end
+     */
+    public static Script patrol(float x1, float y1, float x2, float y2, double pauseSeconds) {
+        return ctx -> {
+            while (true) {
+                ctx.moveTo(x2, y2);
+                ctx.waitSeconds(pauseSeconds);
+                ctx.moveTo(x1, y1);
+                ctx.waitSeconds(pauseSeconds);
+            }
+        };
+    }
+    
+    /**
+     * Follows the shared flow field towards the target. While the field for the
+     * target's new cell is being computed, keeps following the previous one.
+     */
+    public static Script chase(NavigationService navigation, Entity target) {
+        return ctx -> {
+            Npc self = ctx.getEntity();
+            NavGrid grid = navigation.getGrid();
+            FlowField field = null;
+            while (true) {
+                float targetX = target.getX() + target.getWidth() / 2f;
+                float targetY = target.getY() + target.getHeight() / 2f;
+                FlowField latest = navigation.getFlowField(targetX, targetY);
+                if (latest != null) {
+                    field = latest;
+                }
+                
+                float x = self.getX() + self.getWidth() / 2f;
+                float y = self.getY() + self.getHeight() / 2f;
+                int next = field == null ? -1 : field.nextCell(grid.cellAt(x, y));
+                if (next >= 0) {
+                    self.moveTo(grid.centerX(next) - self.getWidth() / 2f, grid.centerY(next) - self.getHeight() / 2f);
+                } else if (field != null) {
+                    // In the goal cell (or cut off from it); close in directly
+                    self.moveTo(targetX - self.getWidth() / 2f, targetY - self.getHeight() / 2f);
+                }
+                ctx.waitTicks(1);
+            }
+        };
+    }
+}
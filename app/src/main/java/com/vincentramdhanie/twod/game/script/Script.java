@@ -0,0 +1,24 @@
+package com.vincentramdhanie.twod.game.script;
+
+/**
+ * Behaviour written as plain sequential code. The script runs on its own virtual
+ * thread and advances in step with the simulation through the context's wait methods.
+ *
+ * Example:
+ * <pre>
+ *   ctx -&gt; {
+ *       while (true) {
+ *           ctx.moveTo(100, 100);
+ *           ctx.waitSeconds(2);
+ *           ctx.moveTo(300, 100);
+ *       }
+ *   }
+ * </pre>
+ */
+@FunctionalInterface
+public interface Script {
+    /**
+     * Runs the behaviour. InterruptedException ends the script when the scheduler shuts down.
+     */
+    void run(ScriptContext ctx) throws InterruptedException;
+}
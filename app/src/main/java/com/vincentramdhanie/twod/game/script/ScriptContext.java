@@ -0,0 +1,112 @@
+package com.vincentramdhanie.twod.game.script;
+
+import com.vincentramdhanie.twod.game.entity.Npc;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One running script and the API it uses to wait for the simulation.
+ *
+ * Control passes back and forth between the scheduler's driver thread and the
+ * script's virtual thread through two semaphores, so only one of them runs at a
+ * time and the script may read and steer its entity freely while it has control.
+ */
+public class ScriptContext {
+    private final ScriptScheduler scheduler;
+    private final Npc entity;
+    private final Script script;
+    private final Semaphore resume = new Semaphore(0);
+    private final Semaphore yielded = new Semaphore(0);
+    
+    private Thread thread;
+    private long resumeAt;
+    private volatile boolean done;
+    
+    ScriptContext(ScriptScheduler scheduler, Npc entity, Script script) {
+        this.scheduler = scheduler;
+        this.entity = entity;
+        this.script = script;
+    }
+    
+    // ---- Called on the driver thread by the scheduler ----
+    
+    boolean isDueAt(long tick) {
+        return !done && tick >= resumeAt;
+    }
+    
+    /**
+     * Lets the script run until its next wait or until it ends
+     * @return false if the script still had control after the time limit
+     */
+    boolean resume(long limitNanos) throws InterruptedException {
+        if (thread == null) {
+            thread = scheduler.newThread(this::body);
+            thread.start();
+        } else {
+            resume.release();
+        }
+        return yielded.tryAcquire(limitNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    void cancel() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+        done = true;
+    }
+    
+    private void body() {
+        try {
+            script.run(this);
+        } catch (InterruptedException e) {
+            // Cancelled by the scheduler
+        } catch (RuntimeException e) {
+            System.err.println("Script failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            done = true;
+            yielded.release();
+        }
+    }
+    
+    // ---- Called by the script on its own thread ----
+    
+    /**
+     * Parks the script until the given number of ticks have passed
+     */
+    public void waitTicks(int ticks) throws InterruptedException {
+        resumeAt = scheduler.getTick() + Math.max(1, ticks);
+        yielded.release();
+        resume.acquire();
+    }
+    
+    /**
+     * Waits for the given simulation time, counted in ticks rather than wall-clock time
+     */
+    public void waitSeconds(double seconds) throws InterruptedException {
+        waitTicks((int) Math.round(seconds * scheduler.getTickRate()));
+    }
+    
+    /**
+     * Walks the entity to the point and returns once it has arrived
+     */
+    public void moveTo(float x, float y) throws InterruptedException {
+        entity.moveTo(x, y);
+        while (!entity.hasArrived()) {
+            waitTicks(1);
+        }
+    }
+    
+    public Npc getEntity() {
+        return entity;
+    }
+    
+    public long getTick() {
+        return scheduler.getTick();
+    }
+    
+    public boolean isDone() {
+        return done;
+    }
+}
@@ -0,0 +1,185 @@
+package com.vincentramdhanie.twod.game.script;
+
+import com.vincentramdhanie.twod.game.entity.Npc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs entity scripts on virtual threads, resuming each once per simulation tick.
+ *
+ * Each tick() hands control to a driver virtual thread, which resumes the due
+ * scripts one at a time in the order they were spawned, so a run is deterministic.
+ * Waiting scripts cost a parked virtual thread and are not touched until their
+ * wake-up tick. Handing off between virtual threads is much cheaper than waking
+ * each script from the game thread.
+ *
+ * The game thread waits for a round at most the tick budget. If scripts take
+ * longer, tick() returns false, the round finishes in the background and is
+ * counted as an overrun; callers leave scripted entities alone until a later
+ * tick() returns true, so their moves are deferred rather than raced. Rounds are
+ * normally far under budget, so scripts advance once per tick and replays see
+ * the same NPC moves.
+ *
+ * A script that keeps control longer than the script limit without waiting is
+ * cancelled by the driver, so the rounds after it finish again. Java cannot stop
+ * a thread that ignores interrupts, and virtual threads are not preempted: a
+ * cancelled script that never waits keeps one carrier thread busy, and on a
+ * single core the driver only gets to cancel it once it does. tick() stays
+ * bounded either way.
+ */
+public class ScriptScheduler {
+    public static final long DEFAULT_BUDGET_NANOS = 4_000_000L;
+    public static final long DEFAULT_SCRIPT_LIMIT_NANOS = 250_000_000L;
+    
+    private final int tickRate;
+    private final long budgetNanos;
+    private final long scriptLimitNanos;
+    private final ThreadFactory threads = Thread.ofVirtual().name("script-", 0).factory();
+    private final ConcurrentLinkedQueue<ScriptContext> spawned = new ConcurrentLinkedQueue<>();
+    private final Semaphore roundStart = new Semaphore(0);
+    private final Semaphore roundDone = new Semaphore(0);
+    private volatile boolean stopped;
+    
+    // Owned by the driver thread
+    private final List<ScriptContext> scripts = new ArrayList<>();
+    private volatile long tick;
+    private volatile int size;
+    
+    // Owned by the game thread
+    private Thread driver;
+    private boolean roundPending;
+    private long overruns;
+    
+    public ScriptScheduler(int tickRate) {
+        this(tickRate, DEFAULT_BUDGET_NANOS);
+    }
+    
+    public ScriptScheduler(int tickRate, long budgetNanos) {
+        this(tickRate, budgetNanos, DEFAULT_SCRIPT_LIMIT_NANOS);
+    }
+    
+    /**
+     * @param budgetNanos how long tick() waits for a round
+     * @param scriptLimitNanos how long one script may run without waiting before it is cancelled
+     */
+    public ScriptScheduler(int tickRate, long budgetNanos, long scriptLimitNanos) {
+        this.tickRate = tickRate;
+        this.budgetNanos = budgetNanos;
+        this.scriptLimitNanos = scriptLimitNanos;
+    }
+    
+    /**
+     * Attaches a script to an entity. It first runs on the next tick.
+     */
+    public ScriptContext spawn(Npc entity, Script script) {
+        ScriptContext ctx = new ScriptContext(this, entity, script);
+        spawned.add(ctx);
+        return ctx;
+    }
+    
+    /**
+     * Runs one round of scripts, waiting for it at most the budget. While an
+     * earlier round is still running, waits for that one instead of starting another.
+     * @return true once the round has finished, false if it overran the budget or
+     *         the scheduler was shut down
+     */
+    public boolean tick() {
+        if (stopped) return false;
+        if (driver == null) {
+            driver = Thread.ofVirtual().name("script-driver").start(this::drive);
+        }
+        
+        if (!roundPending) {
+            roundStart.release();
+        }
+        try {
+            roundPending = !roundDone.tryAcquire(budgetNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            roundPending = true;
+        }
+        
+        if (roundPending) {
+            overruns++;
+        }
+        return !roundPending && !stopped;
+    }
+    
+    private void drive() {
+        try {
+            while (true) {
+                roundStart.acquire();
+                
+                ScriptContext added;
+                while ((added = spawned.poll()) != null) {
+                    scripts.add(added);
+                }
+                
+                long now = tick;
+                for (int i = 0; i < scripts.size(); i++) {
+                    ScriptContext ctx = scripts.get(i);
+                    if (ctx.isDueAt(now) && !ctx.resume(scriptLimitNanos)) {
+                        System.err.println("Script " + i + " ran for over "
+                                           + scriptLimitNanos / 1_000_000 + " ms without waiting, cancelled");
+                        ctx.cancel();
+                    }
+                }
+                scripts.removeIf(ScriptContext::isDone);
+                size = scripts.size();
+                
+                tick = now + 1;
+                roundDone.release();
+            }
+        } catch (InterruptedException e) {
+            // Shut down
+        } finally {
+            for (ScriptContext ctx : scripts) {
+                ctx.cancel();
+            }
+            // Never leave a tick() waiting for a round that will not run
+            roundDone.release(Integer.MAX_VALUE / 2);
+        }
+    }
+    
+    /**
+     * Interrupts every script; each ends at its next wait
+     */
+    public void shutdown() {
+        stopped = true;
+        if (driver != null) {
+            driver.interrupt();
+        }
+        spawned.clear();
+    }
+    
+    Thread newThread(Runnable body) {
+        return threads.newThread(body);
+    }
+    
+    /**
+     * Completed rounds, which is the clock scripts wait on
+     */
+    public long getTick() {
+        return tick;
+    }
+    
+    public int getTickRate() {
+        return tickRate;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Ticks on which tick() gave up waiting for a round. Read on the game thread.
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+}
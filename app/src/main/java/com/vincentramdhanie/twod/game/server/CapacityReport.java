@@ -0,0 +1,55 @@
+package com.vincentramdhanie.twod.game.server;
+
+/**
+ * A point-in-time summary of how loaded a RoomScheduler is, for deciding where
+ * to place new rooms.
+ */
+public class CapacityReport {
+    private final int rooms;
+    private final int carriers;
+    private final double utilization;
+    private final double averageTickNanos;
+    private final int estimatedCapacity;
+    private final long overruns;
+    private final long rejected;
+    private final boolean saturated;
+    
+    CapacityReport(int rooms, int carriers, double utilization, double averageTickNanos,
+                   int estimatedCapacity, long overruns, long rejected, boolean saturated) {
+        this.rooms = rooms;
+        this.carriers = carriers;
+        this.utilization = utilization;
+        this.averageTickNanos = averageTickNanos;
+        this.estimatedCapacity = estimatedCapacity;
+        this.overruns = overruns;
+        this.rejected = rejected;
+        this.saturated = saturated;
+    }
+    
+    public int getRooms() { return rooms; }
+    public int getCarriers() { return carriers; }
+    
+    /**
+     * Fraction of the carrier threads' time spent ticking rooms over the last window
+     */
+    public double getUtilization() { return utilization; }
+    
+    public double getAverageTickNanos() { return averageTickNanos; }
+    
+    /**
+     * How many rooms like the current ones fit before reaching the target utilization,
+     * or -1 while there is no measurement yet
+     */
+    public int getEstimatedCapacity() { return estimatedCapacity; }
+    
+    public long getOverruns() { return overruns; }
+    public long getRejected() { return rejected; }
+    public boolean isSaturated() { return saturated; }
+    
+    @Override
+    public String toString() {
+        return String.format("%d rooms on %d carriers, %.0f%% busy, avg tick %.1f us, capacity ~%d rooms, %d overruns, %d rejected%s",
+            rooms, carriers, utilization * 100, averageTickNanos / 1000.0, estimatedCapacity,
+            overruns, rejected, saturated ? " (saturated)" : "");
+    }
+}
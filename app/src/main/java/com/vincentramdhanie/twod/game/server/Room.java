@@ -0,0 +1,120 @@
+package com.vincentramdhanie.twod.game.server;
+
+import com.vincentramdhanie.twod.game.state.PlayState;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One independent headless simulation hosted by a RoomScheduler. A room is only
+ * ever ticked by one carrier thread at a time; the scheduler hands it back and
+ * forth through its queues, which also publishes the world state between threads.
+ *
+ * Tick statistics are written by the carrier running the room and may be read
+ * from any thread for reporting.
+ */
+public class Room {
+    // Log2 buckets of microseconds: bucket i holds ticks shorter than 2^i us
+    private static final int LATENCY_BUCKETS = 24;
+    
+    private final int id;
+    private final PlayState world;
+    
+    // Owned by the scheduler
+    long nextDeadline;
+    volatile boolean closed;
+    
+    private volatile long ticks;
+    private volatile long overruns;
+    private volatile long droppedTicks;
+    private volatile long lastTickNanos;
+    private volatile long maxTickNanos;
+    private volatile double averageTickNanos;
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKETS);
+    
+    public Room(int id, PlayState world) {
+        this.id = id;
+        this.world = world;
+    }
+    
+    /**
+     * Creates a room around a new headless PlayState built from the seed
+     */
+    public static Room create(int id, long seed, int width, int height) {
+        PlayState world = new PlayState(null, width, height);
+        world.setSeed(seed);
+        world.setEffects(false);
+        world.init();
+        return new Room(id, world);
+    }
+    
+    /**
+     * Runs one simulation step and returns how long it took
+     */
+    long tick() {
+        long start = System.nanoTime();
+        world.update();
+        long elapsed = System.nanoTime() - start;
+        
+        ticks++;
+        lastTickNanos = elapsed;
+        if (elapsed > maxTickNanos) {
+            maxTickNanos = elapsed;
+        }
+        // Exponential moving average over roughly the last second at 60 Hz
+        averageTickNanos = averageTickNanos == 0 ? elapsed : averageTickNanos + (elapsed - averageTickNanos) / 64;
+        
+        int bucket = 64 - Long.numberOfLeadingZeros(elapsed / 1000);
+        latencyBuckets.incrementAndGet(Math.min(bucket, LATENCY_BUCKETS - 1));
+        return elapsed;
+    }
+    
+    /**
+     * Stops the world's scripts. Called once the room will not be ticked again.
+     */
+    void dispose() {
+        world.shutdown();
+    }
+    
+    void recordOverrun() {
+        overruns++;
+    }
+    
+    void recordDropped(long count) {
+        droppedTicks += count;
+    }
+    
+    /**
+     * Approximate tick-latency percentile in microseconds, as the upper bound of
+     * the bucket containing it
+     */
+    public long getTickLatencyPercentileMicros(double p) {
+        long total = ticks;
+        if (total == 0) return 0;
+        long target = (long) Math.ceil(p * total);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += latencyBuckets.get(i);
+            if (seen >= target) {
+                return 1L << i;
+            }
+        }
+        return 1L << (LATENCY_BUCKETS - 1);
+    }
+    
+    public int getId() { return id; }
+    public PlayState getWorld() { return world; }
+    public boolean isClosed() { return closed; }
+    public long getTicks() { return ticks; }
+    public long getOverruns() { return overruns; }
+    public long getDroppedTicks() { return droppedTicks; }
+    public long getLastTickNanos() { return lastTickNanos; }
+    public long getMaxTickNanos() { return maxTickNanos; }
+    public double getAverageTickNanos() { return averageTickNanos; }
+    
+    @Override
+    public String toString() {
+        return String.format("room %d: %d ticks, avg %.1f us, p99 <%d us, max %.1f us, %d overruns, %d dropped",
+            id, ticks, averageTickNanos / 1000.0, getTickLatencyPercentileMicros(0.99),
+            maxTickNanos / 1000.0, overruns, droppedTicks);
+    }
+}
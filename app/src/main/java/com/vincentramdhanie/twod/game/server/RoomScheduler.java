@@ -0,0 +1,316 @@
+package com.vincentramdhanie.twod.game.server;
+
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
+import com.vincentramdhanie.twod.game.metrics.MetricsServer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs many independent rooms at a fixed tick rate on a small pool of carrier threads.
+ *
+ * A timer thread keeps idle rooms in a queue ordered by their next deadline. When
+ * rooms fall due it hands them to a ForkJoinPool as one task that splits itself,
+ * so idle carriers steal work from busy ones. A finished room goes back to the
+ * timer with its next deadline.
+ *
+ * A tick that ends after the room's following deadline counts as an overrun. A
+ * room more than MAX_CATCH_UP_TICKS behind drops the missed ticks instead of
+ * bursting. New rooms are refused while the carriers are busier than the target
+ * utilization or recently overran, which is the signal to place rooms elsewhere.
+ *
+ * Usage: RoomScheduler [rooms] [carriers] [tickRate]
+ */
+public class RoomScheduler {
+    public static final double DEFAULT_TARGET_UTILIZATION = 0.75;
+    
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    private static final long STATS_WINDOW_NANOS = 1_000_000_000L;
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+    
+    private final int carriers;
+    private final long tickNanos;
+    private final int maxRooms;
+    private final double targetUtilization;
+    private final ForkJoinPool pool;
+    
+    private final List<Room> rooms = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Room> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger nextRoomId = new AtomicInteger(1);
+    
+    // Owned by the timer thread
+    private final PriorityQueue<Room> idle = new PriorityQueue<>((a, b) -> Long.compare(a.nextDeadline, b.nextDeadline));
+    private Room[] batch = new Room[16];
+    
+    // Rooms of the last batch the carriers have not picked up yet. The batch array
+    // is only refilled once this is zero.
+    private final AtomicInteger batchUnread = new AtomicInteger();
+    
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double utilization;
+    private volatile long windowOverruns;
+    private volatile boolean running;
+    private Thread timer;
+    
+    public RoomScheduler(int carriers, int tickRate, int maxRooms) {
+        this(carriers, tickRate, maxRooms, DEFAULT_TARGET_UTILIZATION);
+    }
+    
+    public RoomScheduler(int carriers, int tickRate, int maxRooms, double targetUtilization) {
+        this.carriers = carriers;
+        this.tickNanos = 1_000_000_000L / tickRate;
+        this.maxRooms = maxRooms;
+        this.targetUtilization = targetUtilization;
+        this.pool = new ForkJoinPool(carriers);
+    }
+    
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int carriers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int tickRate = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        
+        String metricsPort = System.getProperty("twod.metrics.port");
+        if (metricsPort != null) {
+            new MetricsServer(EngineMetrics.REGISTRY, Integer.parseInt(metricsPort)).start();
+        }
+        
+        RoomScheduler scheduler = new RoomScheduler(carriers, tickRate, roomCount);
+        scheduler.start();
+        
+        // Ramp up gradually so the utilization measurement can push back
+        int added = 0;
+        while (added < roomCount) {
+            if (scheduler.tryAddRoom(added, 800, 600) != null) {
+                added++;
+            } else {
+                Thread.sleep(250);
+            }
+            if (added % 20 == 0) {
+                Thread.sleep(100);
+            }
+        }
+        
+        while (true) {
+            Thread.sleep(1000);
+            System.out.println(scheduler.getCapacityReport());
+        }
+    }
+    
+    public void start() {
+        running = true;
+        timer = new Thread(this::runTimer, "room-scheduler");
+        timer.setDaemon(true);
+        timer.start();
+    }
+    
+    public void stop() {
+        running = false;
+        if (timer != null) {
+            LockSupport.unpark(timer);
+            try {
+                timer.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Room room : rooms) {
+            room.dispose();
+        }
+    }
+    
+    /**
+     * Creates and schedules a room for the seed, or returns null if the host is saturated.
+     * Synchronized because building a PlayState goes through the shared ResourceLoader cache.
+     */
+    public synchronized Room tryAddRoom(long seed, int width, int height) {
+        if (!canAcceptRoom()) {
+            rejected.incrementAndGet();
+            EngineMetrics.ROOMS_REJECTED.increment();
+            return null;
+        }
+        Room room = Room.create(nextRoomId.getAndIncrement(), seed, width, height);
+        addRoom(room);
+        return room;
+    }
+    
+    /**
+     * Schedules an existing room regardless of load
+     */
+    public void addRoom(Room room) {
+        // Spread first deadlines over one tick so rooms do not all fire together
+        room.nextDeadline = System.nanoTime() + (long) ((room.getId() * 0.618034 % 1.0) * tickNanos);
+        rooms.add(room);
+        EngineMetrics.ROOMS.set(rooms.size());
+        pending.add(room);
+        if (timer != null) {
+            LockSupport.unpark(timer);
+        }
+    }
+    
+    public void removeRoom(Room room) {
+        // The timer drops closed rooms the next time it sees them
+        room.closed = true;
+        rooms.remove(room);
+        EngineMetrics.ROOMS.set(rooms.size());
+    }
+    
+    public boolean canAcceptRoom() {
+        return rooms.size() < maxRooms && !isSaturated();
+    }
+    
+    public boolean isSaturated() {
+        return utilization >= targetUtilization || windowOverruns > 0;
+    }
+    
+    private void runTimer() {
+        long windowStart = System.nanoTime();
+        long windowStartOverruns = 0;
+        
+        while (running) {
+            Room returned;
+            while ((returned = pending.poll()) != null) {
+                if (!returned.closed) {
+                    idle.add(returned);
+                } else {
+                    returned.dispose();
+                }
+            }
+            
+            long now = System.nanoTime();
+            if (batchUnread.get() == 0) {
+                int count = 0;
+                while (!idle.isEmpty() && idle.peek().nextDeadline - now <= 0) {
+                    if (count == batch.length) {
+                        batch = Arrays.copyOf(batch, count * 2);
+                    }
+                    batch[count++] = idle.poll();
+                }
+                if (count > 0) {
+                    batchUnread.set(count);
+                    pool.execute(new TickTask(batch, 0, count));
+                }
+            }
+            
+            if (now - windowStart >= STATS_WINDOW_NANOS) {
+                long elapsed = now - windowStart;
+                utilization = busyNanos.getAndSet(0) / (double) (elapsed * carriers);
+                long totalOverruns = overruns.get();
+                windowOverruns = totalOverruns - windowStartOverruns;
+                windowStartOverruns = totalOverruns;
+                windowStart = now;
+                EngineMetrics.ROOM_UTILIZATION.set(utilization);
+                EngineMetrics.ROOM_CAPACITY.set(estimateCapacity());
+            }
+            
+            // Due rooms wait for the last room of the previous batch to be picked up, which unparks the timer
+            long wait = idle.isEmpty() || batchUnread.get() != 0
+                ? MAX_PARK_NANOS : idle.peek().nextDeadline - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, Math.min(wait, MAX_PARK_NANOS));
+            }
+        }
+    }
+    
+    private void runRoom(Room room) {
+        if (room.closed) {
+            room.dispose();
+            return;
+        }
+        
+        long start = System.nanoTime();
+        EngineMetrics.ROOM_TICK_LAG.observeNanos(Math.max(0, start - room.nextDeadline));
+        long elapsed = room.tick();
+        EngineMetrics.ROOM_TICK_TIME.observeNanos(elapsed);
+        busyNanos.addAndGet(elapsed);
+        
+        long end = start + elapsed;
+        room.nextDeadline += tickNanos;
+        if (end - room.nextDeadline > 0) {
+            room.recordOverrun();
+            overruns.incrementAndGet();
+            EngineMetrics.ROOM_OVERRUNS.increment();
+            
+            long behind = (end - room.nextDeadline) / tickNanos;
+            if (behind > MAX_CATCH_UP_TICKS) {
+                room.recordDropped(behind);
+                room.nextDeadline = end + tickNanos;
+            }
+        }
+        
+        pending.add(room);
+        LockSupport.unpark(timer);
+    }
+    
+    private int estimateCapacity() {
+        int count = rooms.size();
+        if (count == 0 || utilization <= 0) return -1;
+        return (int) (count * targetUtilization / utilization);
+    }
+    
+    public CapacityReport getCapacityReport() {
+        double averageTick = 0;
+        for (Room room : rooms) {
+            averageTick += room.getAverageTickNanos();
+        }
+        int count = rooms.size();
+        return new CapacityReport(count, carriers, utilization, count == 0 ? 0 : averageTick / count,
+            estimateCapacity(), overruns.get(), rejected.get(), isSaturated());
+    }
+    
+    public List<Room> getRooms() {
+        return rooms;
+    }
+    
+    /**
+     * Ticks a range of due rooms, splitting in halves so idle carriers can steal.
+     * Each leaf takes its room out of the shared batch array so the timer can reuse it.
+     * Never serialized; ForkJoinTask is only Serializable for historical reasons.
+     */
+    @SuppressWarnings("serial")
+    private class TickTask extends RecursiveAction {
+        private final Room[] batch;
+        private final int from;
+        private final int to;
+        
+        TickTask(Room[] batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                Room room = batch[from];
+                batch[from] = null;
+                if (batchUnread.decrementAndGet() == 0) {
+                    LockSupport.unpark(timer);
+                }
+                runRoom(room);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TickTask(batch, from, mid), new TickTask(batch, mid, to));
+        }
+    }
+}
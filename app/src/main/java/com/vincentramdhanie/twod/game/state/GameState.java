@@ -1,6 +1,7 @@
 package com.vincentramdhanie.twod.game.state;
 
 import com.vincentramdhanie.twod.game.core.GameStateManager;
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
 
 import java.awt.Graphics2D;
 
@@ -14,6 +15,16 @@ public abstract class GameState {
     public abstract void init();
     public abstract void update();
     public abstract void render(Graphics2D g);
+    
+    /**
+     * Records the frame as draw commands, to be drawn on the render thread while the
+     * next tick runs. Called on the game thread after an update. States that do not
+     * support it return false and are rendered with render(Graphics2D) instead.
+     */
+    public boolean record(DrawCommandBuffer buffer) {
+        return false;
+    }
+    
     public abstract void keyPressed(int k);
     public abstract void keyReleased(int k);
     public abstract void mousePressed(int x, int y);
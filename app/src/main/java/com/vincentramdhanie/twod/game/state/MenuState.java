@@ -1,18 +1,23 @@
 package com.vincentramdhanie.twod.game.state;
 
 import com.vincentramdhanie.twod.game.core.GameStateManager;
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
 import com.vincentramdhanie.twod.game.ui.Button;
+import com.vincentramdhanie.twod.game.utils.AssetHandle;
 import com.vincentramdhanie.twod.game.utils.ResourceLoader;
 
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 
 public class MenuState extends GameState {
-    private BufferedImage background;
+    private AssetHandle<BufferedImage> background;
+    // The version of the background in menuBuffer; a reload means a redraw
+    private BufferedImage drawnBackground;
     private List<Button> buttons;
     private String title;
     private Font titleFont;
@@ -23,6 +28,8 @@ public class MenuState extends GameState {
     private boolean needsRedraw = true;
     private BufferedImage menuBuffer;
     private boolean renderingInProgress = false;
+    // Hints the buffer is drawn with, taken from the panel so the menu follows its quality level
+    private RenderingHints bufferHints;
     
     public MenuState(GameStateManager gsm) {
         super(gsm);
@@ -41,8 +48,8 @@ public class MenuState extends GameState {
         
         try {
             // Load resources
-            background = ResourceLoader.loadImage("/backgrounds/menu_bg.jpg");
-            if (background == null) {
+            background = ResourceLoader.imageHandle("/backgrounds/menu_bg.jpg");
+            if (background.get() == null) {
                 System.err.println("Failed to load menu background image!");
             } else {
                 System.out.println("Menu background loaded successfully");
@@ -57,14 +64,9 @@ public class MenuState extends GameState {
             
             buttons.clear(); // Clear any existing buttons in case init() is called multiple times
             buttons.add(new Button(startX, startY, buttonWidth, buttonHeight, "Play"));
-            buttons.add(new Button(startX, startY + buttonHeight + padding, buttonWidth, buttonHeight, "Options"));
-            buttons.add(new Button(startX, startY + (buttonHeight + padding) * 2, buttonWidth, buttonHeight, "Exit"));
-            
-            // Create hardware-accelerated buffer for the menu render with a compatible image
-            // This improves rendering performance significantly
-            java.awt.GraphicsConfiguration gc = java.awt.GraphicsEnvironment.getLocalGraphicsEnvironment()
-                                              .getDefaultScreenDevice().getDefaultConfiguration();
-            menuBuffer = gc.createCompatibleImage(screenWidth, screenHeight, java.awt.Transparency.TRANSLUCENT);
+            buttons.add(new Button(startX, startY + buttonHeight + padding, buttonWidth, buttonHeight, "New Game"));
+            buttons.add(new Button(startX, startY + (buttonHeight + padding) * 2, buttonWidth, buttonHeight, "Options"));
+            buttons.add(new Button(startX, startY + (buttonHeight + padding) * 3, buttonWidth, buttonHeight, "Exit"));
             
             initialized = true;
             needsRedraw = true; // Always need redraw after initialization
@@ -80,21 +82,26 @@ public class MenuState extends GameState {
     }
     
     /**
-     * Renders the menu content to the buffer
+     * Renders the menu content to a new buffer. The previous buffer is left as it
+     * is, since a recorded frame may still be waiting to draw it.
      */
     private void renderToBuffer() {
-        if (menuBuffer == null) return;
-        
         System.out.println("Rendering menu to buffer");
         
+        // Create hardware-accelerated buffer for the menu render with a compatible image
+        // This improves rendering performance significantly
+        java.awt.GraphicsConfiguration gc = java.awt.GraphicsEnvironment.getLocalGraphicsEnvironment()
+                                          .getDefaultScreenDevice().getDefaultConfiguration();
+        BufferedImage buffer = gc.createCompatibleImage(screenWidth, screenHeight, java.awt.Transparency.TRANSLUCENT);
+        
         // Get graphics from buffer with acceleration hints
-        Graphics2D bufferG = menuBuffer.createGraphics();
-        bufferG.setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, 
-                                java.awt.RenderingHints.VALUE_ANTIALIAS_ON);
-        bufferG.setRenderingHint(java.awt.RenderingHints.KEY_TEXT_ANTIALIASING, 
-                                java.awt.RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        bufferG.setRenderingHint(java.awt.RenderingHints.KEY_RENDERING, 
-                                java.awt.RenderingHints.VALUE_RENDER_QUALITY);
+        Graphics2D bufferG = buffer.createGraphics();
+        if (bufferHints != null) {
+            bufferG.setRenderingHints(bufferHints);
+        } else {
+            bufferG.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            bufferG.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        }
         
         // Clear the buffer first
         bufferG.setComposite(java.awt.AlphaComposite.Clear);
@@ -102,8 +109,9 @@ public class MenuState extends GameState {
         bufferG.setComposite(java.awt.AlphaComposite.SrcOver);
         
         // Draw background
-        if (background != null) {
-            bufferG.drawImage(background, 0, 0, screenWidth, screenHeight, null);
+        drawnBackground = background != null ? background.get() : null;
+        if (drawnBackground != null) {
+            bufferG.drawImage(drawnBackground, 0, 0, screenWidth, screenHeight, null);
         } else {
             // Fallback if background image failed to load
             bufferG.setColor(new Color(50, 80, 120)); // Dark blue background
@@ -124,6 +132,7 @@ public class MenuState extends GameState {
         
         // Cleanup
         bufferG.dispose();
+        menuBuffer = buffer;
         
         // Mark as no longer needing a redraw
         needsRedraw = false;
@@ -148,8 +157,19 @@ public class MenuState extends GameState {
             g.drawString("Menu not fully initialized!", 10, 20);
             return;
         }
-
+        
         try {
+            // Redraw the cached menu when the panel's quality level changed its hints
+            if (bufferHints == null
+                    || bufferHints.get(RenderingHints.KEY_ANTIALIASING) != g.getRenderingHint(RenderingHints.KEY_ANTIALIASING)
+                    || bufferHints.get(RenderingHints.KEY_TEXT_ANTIALIASING) != g.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING)) {
+                bufferHints = g.getRenderingHints();
+                needsRedraw = true;
+            }
+            if (background != null && background.get() != drawnBackground) {
+                needsRedraw = true;
+            }
+            
             if (needsRedraw && !renderingInProgress) {
                 // Avoid concurrent redraws
                 renderingInProgress = true;
@@ -173,6 +193,29 @@ public class MenuState extends GameState {
         }
     }
     
+    /**
+     * Records the cached menu as one image, redrawing it first if it changed
+     */
+    @Override
+    public boolean record(DrawCommandBuffer buffer) {
+        if (!initialized) return false;
+        
+        if (background != null && background.get() != drawnBackground) {
+            needsRedraw = true;
+        }
+        // Redraw the cached menu when the panel's quality level changed its hints
+        RenderingHints hints = gsm.getRenderingHints();
+        if (hints != null && !hints.equals(bufferHints)) {
+            bufferHints = hints;
+            needsRedraw = true;
+        }
+        if (needsRedraw || menuBuffer == null) {
+            renderToBuffer();
+        }
+        buffer.drawImage(menuBuffer, 0, 0, screenWidth, screenHeight, DrawCommandBuffer.LAYER_BACKGROUND);
+        return true;
+    }
+    
     @Override
     public void keyPressed(int k) {
         // Handle key press in menu
@@ -201,13 +244,16 @@ public class MenuState extends GameState {
             if (buttons.get(i).contains(x, y) && buttons.get(i).isPressed()) {
                 // Handle button action
                 switch (i) {
-                    case 0: // Play button
+                    case 0: // Play button, continues the saved world if there is one
                         gsm.setState(GameStateManager.PLAY_STATE);
                         break;
-                    case 1: // Options button
+                    case 1: // New Game button
+                        gsm.newGame();
+                        break;
+                    case 2: // Options button
                         // Could transition to an options state
                         break;
-                    case 2: // Exit button
+                    case 3: // Exit button
                         System.exit(0);
                         break;
                 }
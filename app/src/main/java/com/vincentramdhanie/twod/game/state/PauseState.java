@@ -1,11 +1,14 @@
 package com.vincentramdhanie.twod.game.state;
 
 import com.vincentramdhanie.twod.game.core.GameStateManager;
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
 import com.vincentramdhanie.twod.game.ui.Button;
 
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,6 +18,11 @@ public class PauseState extends GameState {
     private Font buttonFont;
     private int screenWidth;
     private int screenHeight;
+    // The screen as last recorded, redrawn into a new image when a button changes
+    private BufferedImage snapshot;
+    // Hints the snapshot was drawn with, taken from the panel so it follows its quality level
+    private RenderingHints snapshotHints;
+    private boolean needsRedraw = true;
     
     public PauseState(GameStateManager gsm) {
         super(gsm);
@@ -34,16 +42,20 @@ public class PauseState extends GameState {
         int startY = screenHeight / 2 - 50;
         int padding = 20;
         
+        buttons.clear(); // The pause screen is entered again every time the game is paused
         buttons.add(new Button(startX, startY, buttonWidth, buttonHeight, "Resume"));
         buttons.add(new Button(startX, startY + buttonHeight + padding, buttonWidth, buttonHeight, "Options"));
         buttons.add(new Button(startX, startY + (buttonHeight + padding) * 2, buttonWidth, buttonHeight, "Main Menu"));
+        needsRedraw = true;
     }
     
     @Override
     public void update() {
         // Update button states
         for (Button button : buttons) {
-            button.update();
+            if (button.update()) {
+                needsRedraw = true;
+            }
         }
     }
     
@@ -67,6 +79,36 @@ public class PauseState extends GameState {
         }
     }
     
+    /**
+     * Records the pause screen as one image. A frame may still be waiting to draw
+     * the previous image, so changes are drawn into a new one.
+     */
+    @Override
+    public boolean record(DrawCommandBuffer buffer) {
+        RenderingHints hints = gsm.getRenderingHints();
+        if (hints != null && !hints.equals(snapshotHints)) {
+            snapshotHints = hints;
+            needsRedraw = true;
+        }
+        if (needsRedraw || snapshot == null) {
+            // Starts black, like the panel's back buffer before render()
+            BufferedImage image = new BufferedImage(screenWidth, screenHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            if (snapshotHints != null) {
+                g.setRenderingHints(snapshotHints);
+            } else {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            }
+            render(g);
+            g.dispose();
+            snapshot = image;
+            needsRedraw = false;
+        }
+        buffer.drawImage(snapshot, 0, 0, screenWidth, screenHeight, DrawCommandBuffer.LAYER_BACKGROUND);
+        return true;
+    }
+    
     @Override
     public void keyPressed(int k) {
         // Handle key press
@@ -83,6 +125,7 @@ public class PauseState extends GameState {
         for (int i = 0; i < buttons.size(); i++) {
             if (buttons.get(i).contains(x, y)) {
                 buttons.get(i).setPressed(true);
+                needsRedraw = true;
             }
         }
     }
@@ -107,13 +150,18 @@ public class PauseState extends GameState {
             }
             buttons.get(i).setPressed(false);
         }
+        needsRedraw = true;
     }
     
     @Override
     public void mouseMoved(int x, int y) {
         // Update button hover states
         for (Button button : buttons) {
+            boolean wasHovered = button.isHovered();
             button.setHovered(button.contains(x, y));
+            if (wasHovered != button.isHovered()) {
+                needsRedraw = true;
+            }
         }
     }
 }
\ No newline at end of file
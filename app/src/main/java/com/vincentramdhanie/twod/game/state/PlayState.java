@@ -1,29 +1,97 @@
 package com.vincentramdhanie.twod.game.state;
 
+import com.vincentramdhanie.twod.game.core.Game;
 import com.vincentramdhanie.twod.game.core.GameStateManager;
 import com.vincentramdhanie.twod.game.entity.BallPlayer;
 import com.vincentramdhanie.twod.game.entity.Block;
+import com.vincentramdhanie.twod.game.entity.Entity;
+import com.vincentramdhanie.twod.game.entity.EntityPool;
+import com.vincentramdhanie.twod.game.entity.Npc;
+import com.vincentramdhanie.twod.game.graphics.DrawCommandBuffer;
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
+import com.vincentramdhanie.twod.game.nav.NavGrid;
+import com.vincentramdhanie.twod.game.nav.NavigationService;
+import com.vincentramdhanie.twod.game.net.EntitySnapshot;
+import com.vincentramdhanie.twod.game.particles.ParticleEmitter;
+import com.vincentramdhanie.twod.game.particles.ParticleSystem;
+import com.vincentramdhanie.twod.game.physics.ActivityTracker;
+import com.vincentramdhanie.twod.game.replay.InputRecorder;
+import com.vincentramdhanie.twod.game.replay.WorldChecksum;
+import com.vincentramdhanie.twod.game.save.Autosaver;
+import com.vincentramdhanie.twod.game.save.WorldSnapshot;
+import com.vincentramdhanie.twod.game.script.Behaviours;
+import com.vincentramdhanie.twod.game.script.ScriptScheduler;
+import com.vincentramdhanie.twod.game.steering.Flock;
+import com.vincentramdhanie.twod.game.steering.SteeringSystem;
+import com.vincentramdhanie.twod.game.world.BlockLayout;
+import com.vincentramdhanie.twod.game.world.PoissonDiskSampler;
 
 import java.awt.Graphics2D;
 import java.awt.Color;
 import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 public class PlayState extends GameState {
+    // Input bits sampled once per tick
+    public static final int INPUT_LEFT = 1;
+    public static final int INPUT_RIGHT = 2;
+    public static final int INPUT_UP = 4;
+    public static final int INPUT_DOWN = 8;
+    
+    private static final int PLAYER_SIZE = 32;
+    private static final int SWARM_SIZE = 200;
+    private static final Color SWARM_COLOR = new Color(220, 70, 40);
+    private static final int MAX_PARTICLES = 100_000;
+    // Hits slower than this do not throw sparks
+    private static final float SPARK_SPEED = 1.5f;
+    
     private BallPlayer player;
     private List<Block> blocks;
+    private List<Npc> npcs;
+    private ScriptScheduler scripts;
+    private long scriptBudgetNanos = ScriptScheduler.DEFAULT_BUDGET_NANOS;
+    private NavigationService navigation;
+    private ActivityTracker activity;
+    private Flock swarm;
+    private SteeringSystem steering;
+    // Only created when effects are on; null in worlds nobody draws
+    private ParticleSystem particles;
+    private boolean effects = true;
+    private ParticleEmitter trail;
+    private ParticleEmitter sparks;
     private int screenWidth;
     private int screenHeight;
     private Random random;
+    private final EntityPool pool = new EntityPool();
     private boolean initialized = false;
     
+    // World seed; a new one is picked on every init() unless fixed with setSeed()
+    private long seed;
+    private boolean fixedSeed = false;
+    private long tick;
+    
+    // Written by the input handlers on the EDT, applied to the player at the start of each tick
+    private volatile int inputBits;
+    private InputRecorder recorder;
+    
+    // Saves the world when pausing and every autosaveTicks; null if the world is not saved
+    private Autosaver autosaver;
+    private int autosaveTicks;
+    private long nextAutosave;
+    // Set by Escape on the EDT, handled at the end of the next tick
+    private volatile boolean pauseRequested;
+    
     public PlayState(GameStateManager gsm, int screenWidth, int screenHeight) {
         super(gsm);
         this.screenWidth = screenWidth;
         this.screenHeight = screenHeight;
         this.random = new Random();
+        registerPooledTypes();
         System.out.println("PlayState created with dimensions: " + screenWidth + "x" + screenHeight);
     }
     
@@ -33,86 +101,362 @@ public class PlayState extends GameState {
         this.screenWidth = gsm.getWidth();
         this.screenHeight = gsm.getHeight();
         this.random = new Random();
+        registerPooledTypes();
         System.out.println("PlayState created with dimensions from GSM: " + screenWidth + "x" + screenHeight);
     }
     
+    private void registerPooledTypes() {
+        pool.register(Block.class, () -> new Block(0, 0, BlockLayout.BLOCK_SIZE, BlockLayout.BLOCK_SIZE));
+        pool.register(BallPlayer.class, () -> new BallPlayer(0, 0, PLAYER_SIZE, PLAYER_SIZE, screenWidth, screenHeight));
+    }
+    
     @Override
     public void init() {
         System.out.println("PlayState.init() called");
         
+        // Continue the saved world if there is one
+        WorldSnapshot saved = autosaver != null ? autosaver.load() : null;
+        if (saved != null && (saved.getScreenWidth() != screenWidth || saved.getScreenHeight() != screenHeight)) {
+            System.err.println("Save is for a " + saved.getScreenWidth() + "x" + saved.getScreenHeight()
+                               + " world, starting a new one");
+            saved = null;
+        }
+        
+        // Seed the world so it can be reproduced from a recording
+        if (saved != null) {
+            seed = saved.getSeed();
+        } else if (!fixedSeed) {
+            seed = new Random().nextLong();
+        }
+        random.setSeed(seed);
+        // Everything set up below (scripts, animations, autosave) starts from the saved tick
+        tick = saved != null ? saved.getTick() : 0;
+        inputBits = 0;
+        pauseRequested = false;
+        
+        // Entities from the last time the state was entered go back to the pool
+        // and are reused below instead of being reallocated
+        pool.clear();
+        
         // Create blocks
         blocks = new ArrayList<>();
-        createBlocks(10); // Create 10 random blocks
+        createBlocks(BlockLayout.LEVEL_BLOCKS); // Same layout as BlockLayout.generate(seed)
+        
+        // Walkable grid around the blocks, sized for the NPCs
+        navigation = new NavigationService(NavGrid.fromEntities(screenWidth, screenHeight, 16, 12, blocks));
+        
+        createNpcs();
         
         try {
             // Create player in the lower middle of the screen
-            int playerSize = 32;
+            int playerSize = PLAYER_SIZE;
             int playerX = screenWidth / 2 - playerSize / 2;
             int playerY = screenHeight - playerSize - 50; // 50 pixels from bottom
             System.out.println("Creating player at: " + playerX + "," + playerY);
-            player = new BallPlayer(playerX, playerY, playerSize, playerSize, screenWidth, screenHeight);
+            player = pool.spawn(BallPlayer.class, playerX, playerY);
             player.setBlocks(blocks);
             
+            // Blocks never move, so they start asleep; the player wakes on input
+            activity = new ActivityTracker();
+            for (Block block : blocks) {
+                activity.add(block, false);
+            }
+            activity.add(player, true);
+            
+            createChaser();
+            createSwarm();
+            createEmitters();
+            
+            if (saved != null) {
+                restore(saved);
+            }
+            nextAutosave = tick + autosaveTicks;
+            
             initialized = true;
             System.out.println("PlayState initialization complete");
+            
+            // Record the session when started with -Dtwod.record=<file>
+            String recordPath = System.getProperty("twod.record");
+            if (recordPath != null) {
+                startRecording(Paths.get(recordPath));
+            }
         } catch (Exception e) {
             System.err.println("Error initializing player: " + e.getMessage());
             e.printStackTrace();
         }
     }
     
-    private void createBlocks(int numBlocks) {
-        int blockWidth = 64;
-        int blockHeight = 64;
+    /**
+     * Returns the blocks to the pool so createBlocks() starts from an empty level
+     */
+    void clearBlocks() {
+        for (Block block : blocks) {
+            pool.despawn(block);
+        }
+        pool.endTick();
+        blocks.clear();
+    }
+    
+    /**
+     * Places blocks with Poisson-disk sampling, laid out by BlockLayout. Places as
+     * many as fit when numBlocks is too many.
+     */
+    void createBlocks(int numBlocks) {
+        PoissonDiskSampler sampler = BlockLayout.sampler(screenWidth, screenHeight, blocks);
+        int placed = sampler.sample(random.nextLong(), numBlocks);
+        if (placed < numBlocks) {
+            System.err.println("Only room for " + placed + " of " + numBlocks + " blocks");
+        }
+        for (int i = 0; i < placed; i++) {
+            blocks.add(pool.spawn(Block.class, sampler.getX(i), sampler.getY(i)));
+        }
+    }
+    
+    private void createNpcs() {
+        // Scripts from a previous init() would otherwise keep their threads parked
+        if (scripts != null) {
+            scripts.shutdown();
+        }
+        scripts = new ScriptScheduler(Game.TICK_RATE, scriptBudgetNanos);
+        npcs = new ArrayList<>();
         
-        for (int i = 0; i < numBlocks; i++) {
-            // Generate random positions, but don't spawn in the bottom center
-            // where the player will start
-            int x, y;
-            boolean validPosition;
-            
-            do {
-                validPosition = true;
-                x = random.nextInt(screenWidth - blockWidth);
-                y = random.nextInt(screenHeight - blockHeight);
-                
-                // Avoid spawning in the bottom center (player spawn area)
-                int playerSpawnX = screenWidth / 2 - 50; // 50 is half player spawn width
-                int playerSpawnY = screenHeight - 150; // 150 is approximate player spawn height
-                int playerSpawnWidth = 100; // Width of the spawn area
-                int playerSpawnHeight = 150; // Height of the spawn area
-                
-                // Check if block overlaps with player spawn area
-                if (x < playerSpawnX + playerSpawnWidth &&
-                    x + blockWidth > playerSpawnX &&
-                    y < playerSpawnY + playerSpawnHeight &&
-                    y + blockHeight > playerSpawnY) {
-                    validPosition = false;
-                }
-                
-                // Check if block overlaps with other blocks
-                for (Block block : blocks) {
-                    if (x < block.getX() + block.getWidth() + 10 &&
-                        x + blockWidth + 10 > block.getX() &&
-                        y < block.getY() + block.getHeight() + 10 &&
-                        y + blockHeight + 10 > block.getY()) {
-                        validPosition = false;
-                        break;
-                    }
-                }
-            } while (!validPosition);
-            
-            blocks.add(new Block(x, y, blockWidth, blockHeight));
+        // Two guards patrolling along the top of the screen, and a chaser
+        int size = 24;
+        Npc left = new Npc(20, 20, size, size, 1.5f, Color.ORANGE);
+        Npc right = new Npc(screenWidth - 20 - size, 60, size, size, 1.0f, Color.PINK);
+        npcs.add(left);
+        npcs.add(right);
+        scripts.spawn(left, Behaviours.patrol(20, 20, screenWidth / 2f - size, 20, 2.0));
+        scripts.spawn(right, Behaviours.patrol(screenWidth - 20 - size, 60, screenWidth / 2f, 60, 1.0));
+    }
+    
+    /**
+     * Adds a chaser that follows the player around the blocks. Called once the player exists.
+     */
+    private void createChaser() {
+        Npc chaser = new Npc(20, screenHeight / 2f, 24, 24, 1.2f, new Color(200, 60, 60));
+        npcs.add(chaser);
+        scripts.spawn(chaser, Behaviours.chase(navigation, player));
+    }
+    
+    /**
+     * Spawns the enemy swarm along the top of the screen. It flocks around the player.
+     */
+    private void createSwarm() {
+        steering = new SteeringSystem(screenWidth, screenHeight, 32);
+        steering.setObstacles(blocks);
+        swarm = new Flock(SWARM_SIZE);
+        for (int i = 0; i < SWARM_SIZE; i++) {
+            swarm.add(random.nextInt(screenWidth), random.nextInt(screenHeight / 4),
+                random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1);
+        }
+    }
+    
+    /**
+     * Sets up the player's trail and the sparks thrown when it hits something.
+     * The emitters have their own random streams so the world's stays untouched.
+     */
+    private void createEmitters() {
+        if (!effects) {
+            particles = null;
+            return;
+        }
+        if (particles == null) {
+            particles = new ParticleSystem(MAX_PARTICLES);
+        }
+        particles.clear();
+        particles.setDrag(0.92f);
+        trail = new ParticleEmitter(seed);
+        trail.setSpeed(0.1f, 0.6f);
+        trail.setLife(10, 25);
+        trail.setColor(0x3070c0);
+        sparks = new ParticleEmitter(~seed);
+        sparks.setSpeed(1.0f, 4.0f);
+        sparks.setLife(15, 35);
+        sparks.setColor(0xffc040);
+    }
+    
+    /**
+     * Puts a world freshly generated from the save's seed back into the saved state.
+     * Scripts are not saved; the NPCs carry on with their behaviours from where they stand.
+     */
+    private void restore(WorldSnapshot saved) {
+        EntitySnapshot savedBlocks = saved.getBlocks();
+        EntitySnapshot savedNpcs = saved.getNpcs();
+        if (saved.getPlayer().size() != 1 || savedBlocks.size() != blocks.size() || savedNpcs.size() != npcs.size()) {
+            System.err.println("Save does not match the world generated from its seed, starting over");
+            tick = 0;
+            return;
+        }
+        
+        restore(player, saved.getPlayer(), 0);
+        player.setHealth(saved.getPlayer().getHealth(0));
+        player.restoreAnimation(saved.getPlayerAnimation(), saved.getPlayerAnimationTime());
+        for (int i = 0; i < blocks.size(); i++) {
+            restore(blocks.get(i), savedBlocks, i);
+        }
+        for (int i = 0; i < npcs.size(); i++) {
+            restore(npcs.get(i), savedNpcs, i);
+        }
+        EntitySnapshot savedSwarm = saved.getSwarm();
+        swarm.clear();
+        for (int i = 0; i < savedSwarm.size(); i++) {
+            swarm.add(savedSwarm.getX(i), savedSwarm.getY(i), savedSwarm.getVelX(i), savedSwarm.getVelY(i));
+        }
+        
+        // Collide against the blocks where they were saved
+        player.setBlocks(blocks);
+        System.out.println("Continuing saved world at tick " + tick);
+    }
+    
+    private static void restore(Entity entity, EntitySnapshot saved, int i) {
+        entity.setX(saved.getX(i));
+        entity.setY(saved.getY(i));
+        entity.setVelX(saved.getVelX(i));
+        entity.setVelY(saved.getVelY(i));
+        entity.setActive(saved.isActive(i));
+    }
+    
+    /**
+     * Saves the world to a file when pausing and every autosaveSeconds, and continues
+     * it from there on the next init(). Replaces any previous save file.
+     * @param autosaveSeconds 0 to only save when pausing
+     */
+    public void setSaveFile(Path file, int autosaveSeconds) {
+        if (autosaver != null) {
+            autosaver.close();
+        }
+        autosaver = new Autosaver(file);
+        autosaveTicks = autosaveSeconds > 0 ? autosaveSeconds * Game.TICK_RATE : Integer.MAX_VALUE;
+    }
+    
+    /**
+     * Stops the NPC scripts and any recording. Call when the world is thrown away,
+     * so the scripts' virtual threads are not left parked.
+     */
+    public void shutdown() {
+        if (scripts != null) {
+            scripts.shutdown();
+        }
+        stopRecording();
+    }
+    
+    /**
+     * Deletes the save file, so the next init() starts a new world
+     */
+    public void discardSave() {
+        if (autosaver != null) {
+            autosaver.discard();
+        }
+    }
+    
+    /**
+     * Waits for a save that is being written in the background
+     */
+    public void awaitSave() {
+        if (autosaver != null) {
+            autosaver.await();
+        }
+    }
+    
+    /**
+     * Starts recording the seed and the per-tick input of this world to a file.
+     * Any previous recording is closed first.
+     */
+    public void startRecording(Path file) {
+        stopRecording();
+        try {
+            recorder = new InputRecorder(file, seed, screenWidth, screenHeight);
+            System.out.println("Recording input to " + file);
+        } catch (IOException e) {
+            System.err.println("Could not start recording to " + file + ": " + e.getMessage());
+        }
+    }
+    
+    public void stopRecording() {
+        if (recorder != null) {
+            recorder.close();
+            recorder = null;
         }
     }
     
     @Override
     public void update() {
-        player.update();
+        // Apply the input sampled for this tick
+        int input = inputBits;
+        player.setLeft((input & INPUT_LEFT) != 0);
+        player.setRight((input & INPUT_RIGHT) != 0);
+        player.setUp((input & INPUT_UP) != 0);
+        player.setDown((input & INPUT_DOWN) != 0);
+        if (input != 0) {
+            activity.wake(player);
+        }
         
-        // Update blocks (if they had dynamic behavior)
-        for (Block block : blocks) {
-            block.update();
+        // Only the player and blocks that are awake are updated
+        activity.update();
+        
+        // Scripts decide first, then the NPCs move. If the scripts overran their
+        // budget the NPCs wait for them rather than race with them.
+        navigation.tick();
+        if (scripts.tick()) {
+            for (Npc npc : npcs) {
+                npc.update();
+            }
+        }
+        
+        steering.update(swarm, player.getX() + player.getWidth() / 2f, player.getY() + player.getHeight() / 2f);
+        
+        if (particles != null) {
+            updateParticles();
+        }
+        
+        EngineMetrics.ENTITIES.set(blocks.size() + npcs.size() + swarm.size() + 1);
+        EngineMetrics.BODIES_AWAKE.set(activity.getAwakeCount());
+        EngineMetrics.BODIES_SLEEPING.set(activity.getSleepingCount());
+        EngineMetrics.PARTICLES.set(particles != null ? particles.size() : 0);
+        
+        pool.endTick();
+        tick++;
+        if (recorder != null) {
+            recorder.record(input, WorldChecksum.of(this));
+        }
+        
+        if (autosaver != null && tick >= nextAutosave && !pauseRequested) {
+            // A save still being written is not waited for; it is tried again next tick
+            if (autosaver.saveInBackground(this)) {
+                nextAutosave = tick + autosaveTicks;
+            }
+        }
+        
+        // Pausing saves the world, so it survives going to the menu from the pause screen
+        if (pauseRequested) {
+            pauseRequested = false;
+            if (autosaver != null) {
+                autosaver.save(this);
+            }
+            if (gsm != null) {
+                gsm.setState(GameStateManager.PAUSE_STATE);
+            }
+        }
+    }
+    
+    private void updateParticles() {
+        particles.update();
+        
+        float centerX = player.getX() + player.getWidth() / 2f;
+        float centerY = player.getY() + player.getHeight() / 2f;
+        float velX = player.getVelX();
+        float velY = player.getVelY();
+        float speed = (float) Math.sqrt(velX * velX + velY * velY);
+        if (speed > 0) {
+            // Trail left behind the player, denser the faster it goes
+            trail.setCone((float) Math.atan2(-velY, -velX), 1.0f);
+            trail.stream(particles, centerX, centerY, 0, 0, speed * 2);
+        }
+        
+        float impact = player.getImpactSpeed();
+        if (impact > SPARK_SPEED) {
+            sparks.burst(particles, centerX, centerY, 0, 0, (int) (impact * 40));
         }
     }
     
@@ -129,6 +473,26 @@ public class PlayState extends GameState {
             }
         }
         
+        // Draw the swarm
+        if (swarm != null) {
+            g.setColor(SWARM_COLOR);
+            for (int i = 0; i < swarm.size(); i++) {
+                g.fillOval((int) swarm.getX(i) - 3, (int) swarm.getY(i) - 3, 6, 6);
+            }
+        }
+        
+        // Particles are drawn under the characters
+        if (particles != null) {
+            particles.render(g, screenWidth, screenHeight);
+        }
+        
+        // Draw NPCs
+        if (npcs != null) {
+            for (Npc npc : npcs) {
+                npc.render(g);
+            }
+        }
+        
         // Draw player
         if (player != null) {
             player.render(g);
@@ -150,31 +514,61 @@ public class PlayState extends GameState {
     }
     
     @Override
-    public void keyPressed(int k) {
-        if (k == KeyEvent.VK_LEFT) player.setLeft(true);
-        if (k == KeyEvent.VK_RIGHT) player.setRight(true);
-        if (k == KeyEvent.VK_UP) player.setUp(true);
-        if (k == KeyEvent.VK_DOWN) player.setDown(true);
+    public boolean record(DrawCommandBuffer buffer) {
+        if (player == null) return false;
         
-        // Alternative WASD controls
-        if (k == KeyEvent.VK_A) player.setLeft(true);
-        if (k == KeyEvent.VK_D) player.setRight(true);
-        if (k == KeyEvent.VK_W) player.setUp(true);
-        if (k == KeyEvent.VK_S) player.setDown(true);
+        buffer.fillRect(0, 0, screenWidth, screenHeight, 0xff000000, DrawCommandBuffer.LAYER_BACKGROUND);
+        for (Block block : blocks) {
+            block.record(buffer, DrawCommandBuffer.LAYER_WORLD);
+        }
+        int swarmColor = SWARM_COLOR.getRGB();
+        for (int i = 0; i < swarm.size(); i++) {
+            buffer.fillOval((int) swarm.getX(i) - 3, (int) swarm.getY(i) - 3, 6, 6, swarmColor,
+                DrawCommandBuffer.LAYER_WORLD);
+        }
+        if (particles != null) {
+            particles.record(buffer, DrawCommandBuffer.LAYER_EFFECTS);
+        }
+        for (Npc npc : npcs) {
+            npc.record(buffer, DrawCommandBuffer.LAYER_CHARACTERS);
+        }
+        player.record(buffer, DrawCommandBuffer.LAYER_CHARACTERS);
+        return true;
+    }
+    
+    @Override
+    public void keyPressed(int k) {
+        if (k == KeyEvent.VK_ESCAPE) {
+            pauseRequested = true;
+        }
+        inputBits |= inputBitFor(k);
     }
     
     @Override
     public void keyReleased(int k) {
-        if (k == KeyEvent.VK_LEFT) player.setLeft(false);
-        if (k == KeyEvent.VK_RIGHT) player.setRight(false);
-        if (k == KeyEvent.VK_UP) player.setUp(false);
-        if (k == KeyEvent.VK_DOWN) player.setDown(false);
-        
-        // Alternative WASD controls
-        if (k == KeyEvent.VK_A) player.setLeft(false);
-        if (k == KeyEvent.VK_D) player.setRight(false);
-        if (k == KeyEvent.VK_W) player.setUp(false);
-        if (k == KeyEvent.VK_S) player.setDown(false);
+        inputBits &= ~inputBitFor(k);
+    }
+    
+    /**
+     * Maps arrow keys and the alternative WASD controls to input bits
+     */
+    public static int inputBitFor(int k) {
+        switch (k) {
+            case KeyEvent.VK_LEFT:
+            case KeyEvent.VK_A:
+                return INPUT_LEFT;
+            case KeyEvent.VK_RIGHT:
+            case KeyEvent.VK_D:
+                return INPUT_RIGHT;
+            case KeyEvent.VK_UP:
+            case KeyEvent.VK_W:
+                return INPUT_UP;
+            case KeyEvent.VK_DOWN:
+            case KeyEvent.VK_S:
+                return INPUT_DOWN;
+            default:
+                return 0;
+        }
     }
     
     @Override
@@ -191,4 +585,86 @@ public class PlayState extends GameState {
     public void mouseMoved(int x, int y) {
         // Not used in this example
     }
+    
+    // Getters for the simulation state
+    public BallPlayer getPlayer() {
+        return player;
+    }
+    
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+    
+    public List<Npc> getNpcs() {
+        return npcs;
+    }
+    
+    public NavigationService getNavigation() {
+        return navigation;
+    }
+    
+    public Flock getSwarm() {
+        return swarm;
+    }
+    
+    /**
+     * @return null if effects are off
+     */
+    public ParticleSystem getParticles() {
+        return particles;
+    }
+    
+    /**
+     * Turns the purely visual effects (particles) on or off from the next init().
+     * Worlds that are never drawn, like server rooms, turn them off to save the
+     * memory and the per-tick work.
+     */
+    public void setEffects(boolean effects) {
+        this.effects = effects;
+    }
+    
+    /**
+     * Sets how long each tick waits for the NPC scripts from the next init(). The
+     * game loop keeps the default so it is never held up; headless runs that must
+     * be exactly reproducible, like recordings and replays checked in tests, can
+     * afford a longer wait so a busy machine does not defer NPC moves.
+     */
+    public void setScriptBudget(long nanos) {
+        this.scriptBudgetNanos = nanos;
+    }
+    
+    /**
+     * Replaces the input bits used from the next tick on (for replays and remote input)
+     */
+    public void setInputBits(int inputBits) {
+        this.inputBits = inputBits;
+    }
+    
+    public int getInputBits() {
+        return inputBits;
+    }
+    
+    /**
+     * Fixes the seed used by the next init(), making the generated world reproducible
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.fixedSeed = true;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public long getTick() {
+        return tick;
+    }
+    
+    public int getScreenWidth() {
+        return screenWidth;
+    }
+    
+    public int getScreenHeight() {
+        return screenHeight;
+    }
 }
\ No newline at end of file
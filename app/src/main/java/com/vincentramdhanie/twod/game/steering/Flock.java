@@ -0,0 +1,67 @@
+package com.vincentramdhanie.twod.game.steering;
+
+import java.util.Arrays;
+
+/**
+ * Positions and velocities of a group of steering agents, stored as parallel
+ * primitive arrays. Velocities are double-buffered: the steering pass reads the
+ * current ones and writes the next ones, so agents can be processed in any order
+ * or in parallel with the same result.
+ */
+public class Flock {
+    int count;
+    float[] x;
+    float[] y;
+    float[] velX;
+    float[] velY;
+    float[] nextVelX;
+    float[] nextVelY;
+    
+    public Flock(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        nextVelX = new float[capacity];
+        nextVelY = new float[capacity];
+    }
+    
+    /**
+     * Adds an agent and returns its index
+     */
+    public int add(float x, float y, float velX, float velY) {
+        if (count == this.x.length) {
+            int capacity = Math.max(16, count * 2);
+            this.x = Arrays.copyOf(this.x, capacity);
+            this.y = Arrays.copyOf(this.y, capacity);
+            this.velX = Arrays.copyOf(this.velX, capacity);
+            this.velY = Arrays.copyOf(this.velY, capacity);
+            nextVelX = Arrays.copyOf(nextVelX, capacity);
+            nextVelY = Arrays.copyOf(nextVelY, capacity);
+        }
+        this.x[count] = x;
+        this.y[count] = y;
+        this.velX[count] = velX;
+        this.velY[count] = velY;
+        return count++;
+    }
+    
+    public void clear() {
+        count = 0;
+    }
+    
+    void swapVelocities() {
+        float[] swap = velX;
+        velX = nextVelX;
+        nextVelX = swap;
+        swap = velY;
+        velY = nextVelY;
+        nextVelY = swap;
+    }
+    
+    public int size() { return count; }
+    public float getX(int i) { return x[i]; }
+    public float getY(int i) { return y[i]; }
+    public float getVelX(int i) { return velX[i]; }
+    public float getVelY(int i) { return velY[i]; }
+}
@@ -0,0 +1,86 @@
+package com.vincentramdhanie.twod.game.steering;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the world for neighbour queries. Rebuilt from scratch each
+ * tick with a counting sort: agents end up grouped by cell in one flat array, so
+ * a query walks contiguous runs instead of linked lists. Positions outside the
+ * world are clamped to the border cells.
+ */
+public class SpatialHash {
+    private final float cellSize;
+    private final float inverseCellSize;
+    private final int cols;
+    private final int rows;
+    private final int[] cellStart;
+    private int[] agents = new int[0];
+    private int[] agentCell = new int[0];
+    
+    public SpatialHash(float width, float height, float cellSize) {
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellStart = new int[cols * rows + 1];
+    }
+    
+    public void build(float[] x, float[] y, int count) {
+        if (agents.length < count) {
+            agents = new int[count];
+            agentCell = new int[count];
+        }
+        
+        // Count agents per cell, shifted by one so the prefix sum gives start offsets
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < count; i++) {
+            int cell = cellOf(x[i], y[i]);
+            agentCell[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        
+        // Place agents using each start as a cursor, which leaves it at the cell's
+        // end, then shift everything up one cell to restore the starts
+        for (int i = 0; i < count; i++) {
+            agents[cellStart[agentCell[i]]++] = i;
+        }
+        for (int c = cols * rows; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+    
+    public int colOf(float x) {
+        return Math.max(0, Math.min(cols - 1, (int) (x * inverseCellSize)));
+    }
+    
+    public int rowOf(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y * inverseCellSize)));
+    }
+    
+    public int cellOf(float x, float y) {
+        return rowOf(y) * cols + colOf(x);
+    }
+    
+    /**
+     * Index into the agent array of the first agent in the cell
+     */
+    public int cellStart(int cell) {
+        return cellStart[cell];
+    }
+    
+    public int cellEnd(int cell) {
+        return cellStart[cell + 1];
+    }
+    
+    public int agentAt(int index) {
+        return agents[index];
+    }
+    
+    public float getCellSize() { return cellSize; }
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+}
@@ -0,0 +1,243 @@
+package com.vincentramdhanie.twod.game.steering;
+
+import com.vincentramdhanie.twod.game.entity.Entity;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Boids steering for a Flock: separation, alignment, cohesion, seeking a target,
+ * avoiding rectangular obstacles and staying inside the world.
+ *
+ * Neighbours come from a SpatialHash with cells as large as the neighbour radius,
+ * so each agent only looks at the 3x3 cells around it, and at most
+ * maxNeighbours of those agents. Large flocks are split into fixed chunks that
+ * run in parallel on the common ForkJoinPool. Every chunk reads the current
+ * state and writes only its own agents' next velocities, so the result does not
+ * depend on the number of threads.
+ */
+public class SteeringSystem {
+    private static final int CHUNK_SIZE = 1024;
+    
+    private final float worldWidth;
+    private final float worldHeight;
+    private final SpatialHash hash;
+    
+    private final float neighbourRadius;
+    private float separationRadius = 12f;
+    private float avoidRadius = 24f;
+    private float maxSpeed = 3f;
+    private float maxForce = 0.2f;
+    private float separationWeight = 1.8f;
+    private float alignmentWeight = 1.0f;
+    private float cohesionWeight = 0.8f;
+    private float seekWeight = 0.6f;
+    private float avoidWeight = 3.0f;
+    private int maxNeighbours = 16;
+    private int parallelThreshold = 4096;
+    
+    // Obstacles as packed x, y, width, height
+    private float[] obstacles = new float[0];
+    private int obstacleCount;
+    
+    public SteeringSystem(float worldWidth, float worldHeight, float neighbourRadius) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.neighbourRadius = neighbourRadius;
+        this.hash = new SpatialHash(worldWidth, worldHeight, neighbourRadius);
+    }
+    
+    public void setObstacles(List<? extends Entity> entities) {
+        obstacles = new float[entities.size() * 4];
+        obstacleCount = entities.size();
+        for (int i = 0; i < obstacleCount; i++) {
+            Entity e = entities.get(i);
+            obstacles[i * 4] = e.getX();
+            obstacles[i * 4 + 1] = e.getY();
+            obstacles[i * 4 + 2] = e.getWidth();
+            obstacles[i * 4 + 3] = e.getHeight();
+        }
+    }
+    
+    /**
+     * Advances every agent by one tick, steering towards the target
+     */
+    public void update(Flock flock, float targetX, float targetY) {
+        int count = flock.count;
+        if (count == 0) return;
+        hash.build(flock.x, flock.y, count);
+        
+        if (count >= parallelThreshold) {
+            int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            IntStream.range(0, chunks).parallel().forEach(c ->
+                steer(flock, c * CHUNK_SIZE, Math.min(count, (c + 1) * CHUNK_SIZE), targetX, targetY));
+        } else {
+            steer(flock, 0, count, targetX, targetY);
+        }
+        
+        flock.swapVelocities();
+        integrate(flock, count);
+    }
+    
+    private void steer(Flock flock, int from, int to, float targetX, float targetY) {
+        final float[] x = flock.x;
+        final float[] y = flock.y;
+        final float[] velX = flock.velX;
+        final float[] velY = flock.velY;
+        final float neighbourRadiusSq = neighbourRadius * neighbourRadius;
+        final float separationRadiusSq = separationRadius * separationRadius;
+        final int cols = hash.getCols();
+        final int rows = hash.getRows();
+        
+        for (int i = from; i < to; i++) {
+            float px = x[i];
+            float py = y[i];
+            float vx = velX[i];
+            float vy = velY[i];
+            
+            float sepX = 0, sepY = 0, alignX = 0, alignY = 0, centreX = 0, centreY = 0;
+            int neighbours = 0;
+            int col = hash.colOf(px);
+            int row = hash.rowOf(py);
+            
+            search:
+            for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(cols - 1, col + 1); c++) {
+                    int cell = r * cols + c;
+                    for (int k = hash.cellStart(cell), end = hash.cellEnd(cell); k < end; k++) {
+                        int j = hash.agentAt(k);
+                        if (j == i) continue;
+                        float dx = x[j] - px;
+                        float dy = y[j] - py;
+                        float distSq = dx * dx + dy * dy;
+                        if (distSq >= neighbourRadiusSq) continue;
+                        
+                        alignX += velX[j];
+                        alignY += velY[j];
+                        centreX += x[j];
+                        centreY += y[j];
+                        if (distSq < separationRadiusSq && distSq > 0) {
+                            // Push away harder the closer the neighbour is
+                            sepX -= dx / distSq;
+                            sepY -= dy / distSq;
+                        }
+                        if (++neighbours >= maxNeighbours) break search;
+                    }
+                }
+            }
+            
+            // Each behaviour asks for a velocity at full speed in some direction and
+            // steers by the difference from the current velocity
+            float steerX = 0, steerY = 0;
+            float len;
+            if (neighbours > 0) {
+                float inv = 1f / neighbours;
+                
+                // Alignment: match the neighbours' average heading
+                float ax = alignX * inv, ay = alignY * inv;
+                len = (float) Math.sqrt(ax * ax + ay * ay);
+                if (len > 0) {
+                    steerX += (ax / len * maxSpeed - vx) * alignmentWeight;
+                    steerY += (ay / len * maxSpeed - vy) * alignmentWeight;
+                }
+                
+                // Cohesion: head for the neighbours' centre
+                float cx = centreX * inv - px, cy = centreY * inv - py;
+                len = (float) Math.sqrt(cx * cx + cy * cy);
+                if (len > 0) {
+                    steerX += (cx / len * maxSpeed - vx) * cohesionWeight;
+                    steerY += (cy / len * maxSpeed - vy) * cohesionWeight;
+                }
+                
+                // Separation: away from neighbours that are too close
+                len = (float) Math.sqrt(sepX * sepX + sepY * sepY);
+                if (len > 0) {
+                    steerX += (sepX / len * maxSpeed - vx) * separationWeight;
+                    steerY += (sepY / len * maxSpeed - vy) * separationWeight;
+                }
+            }
+            
+            // Seek the target
+            float tx = targetX - px, ty = targetY - py;
+            len = (float) Math.sqrt(tx * tx + ty * ty);
+            if (len > 0) {
+                steerX += (tx / len * maxSpeed - vx) * seekWeight;
+                steerY += (ty / len * maxSpeed - vy) * seekWeight;
+            }
+            
+            // Obstacles and walls push straight outwards, scaled by how close they are
+            for (int o = 0; o < obstacleCount; o++) {
+                float ox = obstacles[o * 4];
+                float oy = obstacles[o * 4 + 1];
+                float nearestX = Math.max(ox, Math.min(px, ox + obstacles[o * 4 + 2]));
+                float nearestY = Math.max(oy, Math.min(py, oy + obstacles[o * 4 + 3]));
+                float dx = px - nearestX;
+                float dy = py - nearestY;
+                float distSq = dx * dx + dy * dy;
+                if (distSq < avoidRadius * avoidRadius) {
+                    float dist = (float) Math.sqrt(distSq);
+                    float push = (avoidRadius - dist) / avoidRadius * maxSpeed * avoidWeight;
+                    if (dist > 0) {
+                        steerX += dx / dist * push;
+                        steerY += dy / dist * push;
+                    } else {
+                        // Inside the obstacle; head away from its centre
+                        steerX += Math.signum(px - (ox + obstacles[o * 4 + 2] / 2)) * push;
+                        steerY += Math.signum(py - (oy + obstacles[o * 4 + 3] / 2)) * push;
+                    }
+                }
+            }
+            if (px < avoidRadius) steerX += (avoidRadius - px) / avoidRadius * maxSpeed * avoidWeight;
+            if (px > worldWidth - avoidRadius) steerX -= (px - worldWidth + avoidRadius) / avoidRadius * maxSpeed * avoidWeight;
+            if (py < avoidRadius) steerY += (avoidRadius - py) / avoidRadius * maxSpeed * avoidWeight;
+            if (py > worldHeight - avoidRadius) steerY -= (py - worldHeight + avoidRadius) / avoidRadius * maxSpeed * avoidWeight;
+            
+            // Limit the turn, then the speed
+            float steerSq = steerX * steerX + steerY * steerY;
+            if (steerSq > maxForce * maxForce) {
+                float scale = maxForce / (float) Math.sqrt(steerSq);
+                steerX *= scale;
+                steerY *= scale;
+            }
+            vx += steerX;
+            vy += steerY;
+            float speedSq = vx * vx + vy * vy;
+            if (speedSq > maxSpeed * maxSpeed) {
+                float scale = maxSpeed / (float) Math.sqrt(speedSq);
+                vx *= scale;
+                vy *= scale;
+            }
+            flock.nextVelX[i] = vx;
+            flock.nextVelY[i] = vy;
+        }
+    }
+    
+    private void integrate(Flock flock, int count) {
+        float[] x = flock.x;
+        float[] y = flock.y;
+        float[] velX = flock.velX;
+        float[] velY = flock.velY;
+        for (int i = 0; i < count; i++) {
+            x[i] = Math.max(0, Math.min(worldWidth, x[i] + velX[i]));
+            y[i] = Math.max(0, Math.min(worldHeight, y[i] + velY[i]));
+        }
+    }
+    
+    public void setSeparationRadius(float separationRadius) { this.separationRadius = separationRadius; }
+    public void setAvoidRadius(float avoidRadius) { this.avoidRadius = avoidRadius; }
+    public void setMaxSpeed(float maxSpeed) { this.maxSpeed = maxSpeed; }
+    public void setMaxForce(float maxForce) { this.maxForce = maxForce; }
+    public void setMaxNeighbours(int maxNeighbours) { this.maxNeighbours = maxNeighbours; }
+    public void setParallelThreshold(int parallelThreshold) { this.parallelThreshold = parallelThreshold; }
+    
+    public void setWeights(float separation, float alignment, float cohesion, float seek, float avoid) {
+        this.separationWeight = separation;
+        this.alignmentWeight = alignment;
+        this.cohesionWeight = cohesion;
+        this.seekWeight = seek;
+        this.avoidWeight = avoid;
+    }
+    
+    public float getNeighbourRadius() { return neighbourRadius; }
+    public float getMaxSpeed() { return maxSpeed; }
+}
@@ -0,0 +1,71 @@
+package com.vincentramdhanie.twod.game.stress;
+
+import com.vincentramdhanie.twod.game.world.Chunk;
+import com.vincentramdhanie.twod.game.world.ChunkManager;
+import com.vincentramdhanie.twod.game.world.PoissonChunkGenerator;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Flies a focus point across the chunked world in a straight line and reports the
+ * time spent in ChunkManager.update(), how many chunks stayed loaded and the heap
+ * after the run. The first chunks around the start are loaded before measuring,
+ * which also warms up the block sprite. Every tenth chunk that arrives is marked modified so eviction
+ * also exercises saving.
+ *
+ * Usage: ChunkStreamingHarness [ticks] [pixelsPerTick] [loadRadius]
+ */
+public class ChunkStreamingHarness {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 6000;
+        float speed = args.length > 1 ? Float.parseFloat(args[1]) : 24f;
+        int loadRadius = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+        Path saveDirectory = Files.createTempDirectory("twod-chunks");
+        long[] updateNanos = new long[ticks];
+        int maxLoaded = 0;
+        int seen = 0;
+
+        try (ChunkManager chunks = new ChunkManager(42L, 512, loadRadius,
+                new PoissonChunkGenerator(64, 32, 0.4), saveDirectory)) {
+            float x = 0;
+            float y = 0;
+            while (!chunks.isSettled() || chunks.getLoadedChunks().isEmpty()) {
+                chunks.update(x, y);
+                Thread.sleep(1);
+            }
+
+            for (int tick = 0; tick < ticks; tick++) {
+                long start = System.nanoTime();
+                chunks.update(x, y);
+                updateNanos[tick] = System.nanoTime() - start;
+
+                for (Chunk chunk : chunks.getLoadedChunks()) {
+                    if (!chunk.isModified() && ++seen % 10 == 0) {
+                        chunk.getBlocks().get(0).setActive(false);
+                        chunk.markModified();
+                    }
+                }
+                maxLoaded = Math.max(maxLoaded, chunks.getLoadedChunks().size());
+                x += speed;
+                y += speed / 3;
+
+                // Pace the run like a 60 Hz game loop so the workers keep up
+                Thread.sleep(0, 500_000);
+            }
+        }
+
+        Arrays.sort(updateNanos);
+        System.gc();
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%d ticks, update p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", ticks,
+            updateNanos[ticks / 2] / 1e6, updateNanos[(int) (ticks * 0.99)] / 1e6, updateNanos[ticks - 1] / 1e6);
+        System.out.printf("at most %d chunks loaded, heap after run %.1f MB, saved chunks in %s%n",
+            maxLoaded, heap / (1024.0 * 1024.0), saveDirectory);
+    }
+}
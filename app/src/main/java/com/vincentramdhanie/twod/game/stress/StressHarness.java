@@ -0,0 +1,178 @@
+package com.vincentramdhanie.twod.game.stress;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line harness that runs headless worlds of increasing size for a fixed
+ * number of ticks and reports throughput, tick-time percentiles, heap and GC usage.
+ *
+ * Usage:
+ *   ./gradlew :app:stressTest --args="--blocks 10,100,1000 --balls 1,10,100 --ticks 3000 --render"
+ *
+ * Options:
+ *   --blocks  comma-separated block counts (default 10,100,1000)
+ *   --balls   comma-separated moving ball counts (default 1,10,100)
+ *   --ticks   measured ticks per configuration (default 3000)
+ *   --warmup  unmeasured ticks before measuring (default 300)
+ *   --render  also render every tick into an offscreen image
+ *   --seed    world seed (default 42)
+ *   --out     output directory for stress.csv and stress.json (default build/stress)
+ */
+public class StressHarness {
+    private static final int VIEW_WIDTH = 800;
+    private static final int VIEW_HEIGHT = 600;
+    
+    private int[] blockCounts = {10, 100, 1000};
+    private int[] ballCounts = {1, 10, 100};
+    private int ticks = 3000;
+    private int warmupTicks = 300;
+    private boolean render = false;
+    private long seed = 42;
+    private Path outputDir = Paths.get("build", "stress");
+    
+    public static void main(String[] args) throws Exception {
+        // The harness never opens a window
+        System.setProperty("java.awt.headless", "true");
+        
+        StressHarness harness = new StressHarness();
+        harness.parseArgs(args);
+        
+        List<StressResult> results = harness.runAll();
+        
+        Files.createDirectories(harness.outputDir);
+        Path csv = harness.outputDir.resolve("stress.csv");
+        Path json = harness.outputDir.resolve("stress.json");
+        StressResult.writeCsv(results, csv);
+        StressResult.writeJson(results, json);
+        System.out.println("Wrote " + csv + " and " + json);
+    }
+    
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--blocks": blockCounts = parseList(args[++i]); break;
+                case "--balls": ballCounts = parseList(args[++i]); break;
+                case "--ticks": ticks = Integer.parseInt(args[++i]); break;
+                case "--warmup": warmupTicks = Integer.parseInt(args[++i]); break;
+                case "--render": render = true; break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--out": outputDir = Paths.get(args[++i]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+    }
+    
+    private static int[] parseList(String value) {
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+    
+    public List<StressResult> runAll() {
+        List<StressResult> results = new ArrayList<>();
+        for (int blocks : blockCounts) {
+            for (int balls : ballCounts) {
+                StressResult result = run(blocks, balls);
+                System.out.println(result);
+                results.add(result);
+            }
+        }
+        return results;
+    }
+    
+    private StressResult run(int blockCount, int ballCount) {
+        StressWorld world = new StressWorld(blockCount, ballCount, seed);
+        
+        BufferedImage frame = null;
+        Graphics2D g = null;
+        if (render) {
+            frame = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            g = frame.createGraphics();
+        }
+        
+        for (int i = 0; i < warmupTicks; i++) {
+            step(world, g);
+        }
+        
+        // Start each configuration from a clean heap so the numbers don't bleed together
+        System.gc();
+        resetPeakUsage();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        
+        long[] tickNanos = new long[ticks];
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            long tickStart = System.nanoTime();
+            step(world, g);
+            tickNanos[i] = System.nanoTime() - tickStart;
+        }
+        long total = System.nanoTime() - start;
+        
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapUsed = memory.getHeapMemoryUsage().getUsed();
+        
+        if (g != null) {
+            g.dispose();
+        }
+        
+        return new StressResult(blockCount, ballCount, render, tickNanos, total,
+                                heapUsed, peakUsage(), gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+    }
+    
+    private void step(StressWorld world, Graphics2D g) {
+        world.update();
+        if (g != null) {
+            world.render(g, VIEW_WIDTH, VIEW_HEIGHT);
+        }
+    }
+    
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+    
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+    
+    private static void resetPeakUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+    
+    private static long peakUsage() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
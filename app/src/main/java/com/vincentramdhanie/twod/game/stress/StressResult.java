@@ -0,0 +1,119 @@
+package com.vincentramdhanie.twod.game.stress;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measurements for one stress-test configuration, plus CSV and JSON writers
+ * for a list of them.
+ */
+public class StressResult {
+    private static final String[] COLUMNS = {
+        "blocks", "balls", "render", "ticks", "ups",
+        "p50_ms", "p90_ms", "p99_ms", "max_ms",
+        "heap_used_mb", "heap_peak_mb", "gc_count", "gc_time_ms"
+    };
+    
+    final int blocks;
+    final int balls;
+    final boolean render;
+    final int ticks;
+    final double ups;
+    final double p50Ms;
+    final double p90Ms;
+    final double p99Ms;
+    final double maxMs;
+    final double heapUsedMb;
+    final double heapPeakMb;
+    final long gcCount;
+    final long gcTimeMs;
+    
+    StressResult(int blocks, int balls, boolean render, long[] tickNanos, long totalNanos,
+                 long heapUsedBytes, long heapPeakBytes, long gcCount, long gcTimeMs) {
+        this.blocks = blocks;
+        this.balls = balls;
+        this.render = render;
+        this.ticks = tickNanos.length;
+        this.ups = totalNanos > 0 ? ticks / (totalNanos / 1_000_000_000.0) : 0;
+        
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        this.p50Ms = percentile(sorted, 0.50);
+        this.p90Ms = percentile(sorted, 0.90);
+        this.p99Ms = percentile(sorted, 0.99);
+        this.maxMs = sorted.length > 0 ? sorted[sorted.length - 1] / 1_000_000.0 : 0;
+        
+        this.heapUsedMb = heapUsedBytes / (1024.0 * 1024.0);
+        this.heapPeakMb = heapPeakBytes / (1024.0 * 1024.0);
+        this.gcCount = gcCount;
+        this.gcTimeMs = gcTimeMs;
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1_000_000.0;
+    }
+    
+    private Object[] values() {
+        return new Object[] {
+            blocks, balls, render, ticks, format(ups),
+            format(p50Ms), format(p90Ms), format(p99Ms), format(maxMs),
+            format(heapUsedMb), format(heapPeakMb), gcCount, gcTimeMs
+        };
+    }
+    
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+            "blocks=%d balls=%d render=%b ups=%.1f p50=%.3fms p99=%.3fms max=%.3fms heap=%.1fMB gc=%d",
+            blocks, balls, render, ups, p50Ms, p99Ms, maxMs, heapUsedMb, gcCount);
+    }
+    
+    /**
+     * Writes one row per configuration with a header line
+     */
+    public static void writeCsv(List<StressResult> results, Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println(String.join(",", COLUMNS));
+            for (StressResult result : results) {
+                Object[] values = result.values();
+                StringBuilder line = new StringBuilder();
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) line.append(',');
+                    line.append(values[i]);
+                }
+                out.println(line);
+            }
+        }
+    }
+    
+    /**
+     * Writes the results as a JSON array of objects keyed by the CSV column names
+     */
+    public static void writeJson(List<StressResult> results, Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("[");
+            for (int r = 0; r < results.size(); r++) {
+                Object[] values = results.get(r).values();
+                StringBuilder line = new StringBuilder("  {");
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) line.append(", ");
+                    line.append('"').append(COLUMNS[i]).append("\": ").append(values[i]);
+                }
+                line.append(r < results.size() - 1 ? "}," : "}");
+                out.println(line);
+            }
+            out.println("]");
+        }
+    }
+}
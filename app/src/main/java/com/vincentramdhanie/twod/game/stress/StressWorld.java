@@ -0,0 +1,137 @@
+package com.vincentramdhanie.twod.game.stress;
+
+import com.vincentramdhanie.twod.game.entity.BallPlayer;
+import com.vincentramdhanie.twod.game.entity.Block;
+import com.vincentramdhanie.twod.game.physics.ActivityTracker;
+import com.vincentramdhanie.twod.game.physics.PhysicsWorld;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A PlayState-like world with a configurable number of blocks and moving balls.
+ * The world grows with the entity count so that every configuration can be placed,
+ * and all randomness comes from a fixed seed so runs are comparable.
+ */
+public class StressWorld {
+    private static final int BLOCK_SIZE = 64;
+    private static final int BALL_SIZE = 32;
+    private static final int CELL_SIZE = BLOCK_SIZE + 10; // Same spacing PlayState uses between blocks
+    private static final int DIRECTION_CHANGE_TICKS = 30;
+    
+    private final List<Block> blocks;
+    private final List<BallPlayer> balls;
+    private final Random random;
+    private final ActivityTracker activity = new ActivityTracker();
+    private final int worldWidth;
+    private final int worldHeight;
+    private long tick;
+    
+    public StressWorld(int blockCount, int ballCount, long seed) {
+        this.random = new Random(seed);
+        this.blocks = new ArrayList<>(blockCount);
+        this.balls = new ArrayList<>(ballCount);
+        
+        // Lay the world out as a grid with twice as many cells as entities,
+        // so the balls have free space to move around in
+        int cells = Math.max(1, (blockCount + ballCount) * 2);
+        int columns = (int) Math.ceil(Math.sqrt(cells * 4.0 / 3.0));
+        int rows = (cells + columns - 1) / columns;
+        this.worldWidth = columns * CELL_SIZE;
+        this.worldHeight = rows * CELL_SIZE;
+        
+        List<Integer> freeCells = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            freeCells.add(i);
+        }
+        Collections.shuffle(freeCells, random);
+        
+        int next = 0;
+        for (int i = 0; i < blockCount; i++, next++) {
+            int cell = freeCells.get(next);
+            blocks.add(new Block((cell % columns) * CELL_SIZE, (cell / columns) * CELL_SIZE, BLOCK_SIZE, BLOCK_SIZE));
+        }
+        
+        // Balls bump into each other as well as the blocks
+        PhysicsWorld physics = new PhysicsWorld(worldWidth, worldHeight, CELL_SIZE);
+        physics.addStatics(blocks);
+        physics.setActivity(activity);
+        for (Block block : blocks) {
+            activity.add(block, false);
+        }
+        
+        int offset = (CELL_SIZE - BALL_SIZE) / 2;
+        for (int i = 0; i < ballCount; i++, next++) {
+            int cell = freeCells.get(next);
+            BallPlayer ball = new BallPlayer((cell % columns) * CELL_SIZE + offset, (cell / columns) * CELL_SIZE + offset,
+                                             BALL_SIZE, BALL_SIZE, worldWidth, worldHeight);
+            ball.setPhysics(physics);
+            activity.add(ball, true);
+            balls.add(ball);
+        }
+    }
+    
+    /**
+     * Advances the world by one tick, steering each ball in a new random
+     * direction every half second
+     */
+    public void update() {
+        if (tick % DIRECTION_CHANGE_TICKS == 0) {
+            for (BallPlayer ball : balls) {
+                int direction = random.nextInt(16);
+                ball.setLeft((direction & 1) != 0);
+                ball.setRight((direction & 2) != 0);
+                ball.setUp((direction & 4) != 0);
+                ball.setDown((direction & 8) != 0);
+                if (direction != 0) {
+                    activity.wake(ball);
+                }
+            }
+        }
+        
+        // Balls that stopped without input sleep until steered or bumped
+        activity.update();
+        tick++;
+    }
+    
+    /**
+     * Renders the world into a viewport centred on the first ball,
+     * drawing every entity the same way PlayState does
+     */
+    public void render(Graphics2D g, int viewWidth, int viewHeight) {
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, viewWidth, viewHeight);
+        
+        int cameraX = 0;
+        int cameraY = 0;
+        if (!balls.isEmpty()) {
+            cameraX = (int) balls.get(0).getX() - viewWidth / 2;
+            cameraY = (int) balls.get(0).getY() - viewHeight / 2;
+        }
+        
+        g.translate(-cameraX, -cameraY);
+        for (Block block : blocks) {
+            block.render(g);
+        }
+        for (BallPlayer ball : balls) {
+            ball.render(g);
+        }
+        g.translate(cameraX, cameraY);
+    }
+    
+    public int getEntityCount() {
+        return blocks.size() + balls.size();
+    }
+    
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+    
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+}
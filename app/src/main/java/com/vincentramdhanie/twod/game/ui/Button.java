@@ -31,9 +31,6 @@ public class Button extends UIComponent {
         this.borderColor = Color.WHITE;
         this.hovered = false;
         this.pressed = false;
-        
-        System.out.println("Button created: " + text + " at " + x + "," + y + 
-                           " with dimensions " + width + "x" + height);
     }
     
     /**
@@ -49,7 +46,6 @@ public class Button extends UIComponent {
     @Override
     public void render(Graphics2D g) {
         if (!visible) {
-            System.out.println("Button '" + text + "' not visible, skipping render");
             return;
         }
         
@@ -0,0 +1,29 @@
+package com.vincentramdhanie.twod.game.utils;
+
+/**
+ * A cached asset that can be replaced while the game runs. ResourceLoader hands
+ * out one handle per path and swaps a reloaded asset into it in one write, so
+ * code that calls get() each frame draws the new version from the next frame on
+ * without waiting for the reload.
+ */
+public final class AssetHandle<T> {
+    private final String path;
+    private volatile T value;
+    
+    AssetHandle(String path, T value) {
+        this.path = path;
+        this.value = value;
+    }
+    
+    public T get() {
+        return value;
+    }
+    
+    void set(T value) {
+        this.value = value;
+    }
+    
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,133 @@
+package com.vincentramdhanie.twod.game.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches a source asset directory (such as app/src/main/resources) and reloads
+ * changed files into ResourceLoader on a background thread, for iterating on art
+ * without restarting. Decoding happens on the watcher thread; the game only sees
+ * the finished asset being swapped into its handle.
+ *
+ * Editors often save a file in several writes, so changes are collected until
+ * the directory has been quiet for SETTLE_MILLIS and each file is reloaded once.
+ */
+public class AssetWatcher implements Runnable {
+    static final long SETTLE_MILLIS = 100;
+    
+    private final Path root;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private volatile boolean running;
+    private Thread thread;
+    
+    public AssetWatcher(Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        watchService = this.root.getFileSystem().newWatchService();
+        registerAll(this.root);
+    }
+    
+    /**
+     * Starts watching, and makes ResourceLoader read assets from the watched
+     * directory rather than the classpath
+     */
+    public void start() {
+        ResourceLoader.setAssetRoot(root);
+        running = true;
+        thread = new Thread(this, "asset-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("Watching " + root + " for asset changes");
+    }
+    
+    public void stop() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("Error closing asset watcher: " + e.getMessage());
+        }
+        if (thread == null) return;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                Set<String> changed = new LinkedHashSet<>();
+                collect(watchService.take(), changed);
+                
+                // Wait for the burst of writes to settle before reloading
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                
+                for (String path : changed) {
+                    ResourceLoader.reload(path);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Stopped
+        }
+    }
+    
+    private void collect(WatchKey key, Set<String> changed) {
+        Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (directory == null || event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+            
+            Path file = directory.resolve((Path) event.context());
+            if (Files.isDirectory(file)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    try {
+                        registerAll(file);
+                    } catch (IOException e) {
+                        System.err.println("Cannot watch new directory " + file + ": " + e.getMessage());
+                    }
+                }
+            } else {
+                changed.add(toResourcePath(file));
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+    
+    /**
+     * The ResourceLoader path of a file under the root, such as /sprites/ball.png
+     */
+    String toResourcePath(Path file) {
+        return "/" + root.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+    
+    // WatchService only reports a directory's direct children, so every subdirectory is registered
+    private void registerAll(Path start) throws IOException {
+        try (Stream<Path> paths = Files.walk(start)) {
+            for (Path directory : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                WatchKey key = directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                directories.put(key, directory);
+            }
+        }
+    }
+}
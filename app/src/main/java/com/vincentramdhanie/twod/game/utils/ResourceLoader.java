@@ -1,55 +1,66 @@
 package com.vincentramdhanie.twod.game.utils;
 
+import com.vincentramdhanie.twod.game.diagnostics.AssetLoadEvent;
+import com.vincentramdhanie.twod.game.graphics.SpriteSheet;
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
+
 import javax.imageio.ImageIO;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ResourceLoader {
-    // Cache loaded resources to avoid reloading the same resource multiple times
-    private static final Map<String, BufferedImage> imageCache = new HashMap<>();
+    // Cache loaded resources to avoid reloading the same resource multiple times.
+    // Concurrent because AssetWatcher swaps reloaded assets in from its own thread.
+    private static final Map<String, AssetHandle<BufferedImage>> imageCache = new ConcurrentHashMap<>();
+    private static final Map<String, AssetHandle<SpriteSheet>> sheetCache = new ConcurrentHashMap<>();
+    // Image each cached sheet was sliced from, so the sheet is re-sliced when it changes
+    private static final Map<String, String> sheetImages = new ConcurrentHashMap<>();
+    
+    // Approximate decoded size of the cached images, for metrics
+    private static final AtomicLong cachedBytes = new AtomicLong();
+    
+    // Directory read before the classpath while assets are being watched
+    private static volatile Path assetRoot;
     
     public static BufferedImage loadImage(String path) {
+        AssetLoadEvent event = new AssetLoadEvent();
+        event.begin();
+        event.path = path;
+        
         // First check if the image is already in the cache
-        if (imageCache.containsKey(path)) {
-            System.out.println("Using cached image: " + path);
-            return imageCache.get(path);
+        AssetHandle<BufferedImage> cached = imageCache.get(path);
+        if (cached != null) {
+            EngineMetrics.ASSET_CACHE_HITS.increment();
+            event.cacheHit = true;
+            event.found = true;
+            event.commit();
+            return cached.get();
         }
         
+        EngineMetrics.ASSET_CACHE_MISSES.increment();
+        
         try {
-            System.out.println("Attempting to load image: " + path);
-            
-            // Try different methods of loading the resource
-            InputStream is = null;
+            // Read the raw bytes first so the decode can be timed on its own
+            byte[] data = readResource(path);
             BufferedImage img = null;
             
-            // Method 1: Standard class resource stream
-            is = ResourceLoader.class.getResourceAsStream(path);
-            
-            // Method 2: Try with ClassLoader if method 1 fails
-            if (is == null) {
-                System.out.println("Trying alternate method with ClassLoader...");
-                is = ResourceLoader.class.getClassLoader().getResourceAsStream(path.startsWith("/") ? path.substring(1) : path);
-            }
-            
-            // Method 3: Try by URL if both previous methods fail
-            if (is == null) {
-                System.out.println("Trying alternate method with URL...");
-                URL url = ResourceLoader.class.getResource(path);
-                if (url != null) {
-                    img = ImageIO.read(url);
-                }
-            }
-            
-            // Process the input stream if we have one and haven't loaded the image yet
-            if (is != null && img == null) {
-                img = ImageIO.read(is);
-                is.close();
+            if (data != null) {
+                event.bytes = data.length;
+                EngineMetrics.ASSET_BYTES_READ.add(data.length);
+                long decodeStart = System.nanoTime();
+                img = ImageIO.read(new ByteArrayInputStream(data));
+                event.decodeTime = System.nanoTime() - decodeStart;
             }
             
             if (img == null) {
@@ -62,26 +73,236 @@ public class ResourceLoader {
                 // Create a placeholder image with error pattern
                 img = createPlaceholderImage(64, 64);
             } else {
-                System.out.println("Successfully loaded image: " + path + " (" + img.getWidth() + "x" + img.getHeight() + ")");
+                event.found = true;
                 
                 // Cache the successfully loaded image
-                imageCache.put(path, img);
+                if (imageCache.putIfAbsent(path, new AssetHandle<>(path, img)) == null) {
+                    addCachedBytes(imageBytes(img));
+                }
             }
             
+            event.commit();
             return img;
             
         } catch (IOException e) {
             System.err.println("Failed to load image: " + path);
             e.printStackTrace();
+            event.commit();
             // Create a placeholder image
             return createPlaceholderImage(64, 64);
         } catch (Exception e) {
             System.err.println("Unexpected error loading image: " + path);
             e.printStackTrace();
+            event.commit();
             return createPlaceholderImage(64, 64);
         }
     }
     
+    /**
+     * Returns the cached handle for an image, loading it first if needed. Hold on
+     * to the handle and call get() when drawing to pick up reloaded versions.
+     */
+    public static AssetHandle<BufferedImage> imageHandle(String path) {
+        BufferedImage image = loadImage(path);
+        AssetHandle<BufferedImage> handle = imageCache.get(path);
+        // Images that failed to load are not cached; their placeholder never changes
+        return handle != null ? handle : new AssetHandle<>(path, image);
+    }
+    
+    /**
+     * Loads a sprite sheet described by a .sheet metadata file, sliced into its
+     * frames. The image it names is resolved relative to the metadata file.
+     * @return the sheet, or null if it could not be loaded
+     */
+    public static SpriteSheet loadSpriteSheet(String path) {
+        AssetHandle<SpriteSheet> handle = sheetHandle(path);
+        return handle != null ? handle.get() : null;
+    }
+    
+    /**
+     * Returns the cached handle for a sprite sheet, loading it first if needed
+     * @return the handle, or null if the sheet could not be loaded
+     */
+    public static AssetHandle<SpriteSheet> sheetHandle(String path) {
+        AssetHandle<SpriteSheet> cached = sheetCache.get(path);
+        if (cached != null) {
+            EngineMetrics.ASSET_CACHE_HITS.increment();
+            return cached;
+        }
+        
+        EngineMetrics.ASSET_CACHE_MISSES.increment();
+        
+        try {
+            SpriteSheet sheet = readSpriteSheet(path);
+            if (sheet == null) {
+                System.err.println("Sprite sheet not found: " + path);
+                return null;
+            }
+            
+            AssetHandle<SpriteSheet> handle = new AssetHandle<>(path, sheet);
+            AssetHandle<SpriteSheet> raced = sheetCache.putIfAbsent(path, handle);
+            if (raced != null) return raced;
+            addCachedBytes(sheetBytes(sheet));
+            System.out.println("Loaded sprite sheet " + path + " with " + sheet.getFrameCount() + " frames");
+            return handle;
+        } catch (IOException e) {
+            System.err.println("Failed to load sprite sheet: " + path);
+            e.printStackTrace();
+            return null;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid sprite sheet " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Reads and slices a sheet without touching the sheet cache
+     * @return the sheet, or null if the metadata file could not be found
+     */
+    private static SpriteSheet readSpriteSheet(String path) throws IOException {
+        byte[] data = readResource(path);
+        if (data == null) return null;
+        EngineMetrics.ASSET_BYTES_READ.add(data.length);
+        
+        String directory = path.substring(0, path.lastIndexOf('/') + 1);
+        return SpriteSheet.parse(new String(data, StandardCharsets.UTF_8), image -> {
+            String imagePath = image.startsWith("/") ? image : directory + image;
+            sheetImages.put(path, imagePath);
+            return loadImage(imagePath);
+        });
+    }
+    
+    /**
+     * Re-reads a changed asset and swaps it into the cache, along with any sprite
+     * sheet sliced from it. Assets that were never loaded are left alone, and if the
+     * new version cannot be read the old one stays in place. Runs on the caller's
+     * thread; the game keeps drawing the old version until the swap.
+     * @return true if anything was replaced
+     */
+    public static boolean reload(String path) {
+        boolean reloaded = false;
+        
+        AssetHandle<BufferedImage> image = imageCache.get(path);
+        if (image != null) {
+            AssetLoadEvent event = new AssetLoadEvent();
+            event.begin();
+            event.path = path;
+            try {
+                byte[] data = readResource(path);
+                BufferedImage img = null;
+                if (data != null) {
+                    event.bytes = data.length;
+                    EngineMetrics.ASSET_BYTES_READ.add(data.length);
+                    long decodeStart = System.nanoTime();
+                    img = ImageIO.read(new ByteArrayInputStream(data));
+                    event.decodeTime = System.nanoTime() - decodeStart;
+                }
+                if (img != null) {
+                    event.found = true;
+                    addCachedBytes(imageBytes(img) - imageBytes(image.get()));
+                    image.set(img);
+                    reloaded = true;
+                } else {
+                    System.err.println("Could not decode changed image " + path + ", keeping the old one");
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to reload image: " + path);
+                e.printStackTrace();
+            }
+            event.commit();
+        }
+        
+        // Sheets whose metadata changed, or that were sliced from the changed image
+        for (Map.Entry<String, AssetHandle<SpriteSheet>> entry : sheetCache.entrySet()) {
+            String sheetPath = entry.getKey();
+            if (!sheetPath.equals(path) && !path.equals(sheetImages.get(sheetPath))) continue;
+            try {
+                SpriteSheet sheet = readSpriteSheet(sheetPath);
+                if (sheet != null) {
+                    addCachedBytes(sheetBytes(sheet) - sheetBytes(entry.getValue().get()));
+                    entry.getValue().set(sheet);
+                    reloaded = true;
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to reload sprite sheet: " + sheetPath);
+                e.printStackTrace();
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid sprite sheet " + sheetPath + ", keeping the old one: " + e.getMessage());
+            }
+        }
+        
+        if (reloaded) {
+            EngineMetrics.ASSET_RELOADS.increment();
+            System.out.println("Reloaded " + path);
+        }
+        return reloaded;
+    }
+    
+    /**
+     * Reads assets from this directory before the classpath, so edits to source
+     * assets show up without a rebuild. Null to only use the classpath.
+     */
+    public static void setAssetRoot(Path root) {
+        assetRoot = root;
+    }
+    
+    private static long imageBytes(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+    
+    private static long sheetBytes(SpriteSheet sheet) {
+        long bytes = 0;
+        for (int i = 0; i < sheet.getFrameCount(); i++) {
+            bytes += imageBytes(sheet.getFrame(i));
+        }
+        return bytes;
+    }
+    
+    private static void addCachedBytes(long bytes) {
+        EngineMetrics.ASSET_CACHE_BYTES.set(cachedBytes.addAndGet(bytes));
+    }
+    
+    /**
+     * Reads a classpath resource fully into memory
+     * @return the resource bytes, or null if it could not be found
+     */
+    private static byte[] readResource(String path) throws IOException {
+        // Watched source assets win over the copies on the classpath
+        Path root = assetRoot;
+        if (root != null) {
+            Path file = root.resolve(path.startsWith("/") ? path.substring(1) : path);
+            if (Files.isRegularFile(file)) {
+                return Files.readAllBytes(file);
+            }
+        }
+        
+        // Try different methods of loading the resource
+        
+        // Method 1: Standard class resource stream
+        InputStream is = ResourceLoader.class.getResourceAsStream(path);
+        
+        // Method 2: Try with ClassLoader if method 1 fails
+        if (is == null) {
+            is = ResourceLoader.class.getClassLoader().getResourceAsStream(path.startsWith("/") ? path.substring(1) : path);
+        }
+        
+        // Method 3: Try by URL if both previous methods fail
+        if (is == null) {
+            URL url = ResourceLoader.class.getResource(path);
+            if (url != null) {
+                is = url.openStream();
+            }
+        }
+        
+        if (is == null) {
+            return null;
+        }
+        
+        try (InputStream in = is) {
+            return in.readAllBytes();
+        }
+    }
+    
     private static BufferedImage createPlaceholderImage(int width, int height) {
         BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g = img.createGraphics();
@@ -109,6 +330,9 @@ public class ResourceLoader {
      */
     public static void clearCache() {
         imageCache.clear();
-        System.out.println("Resource cache cleared");
+        sheetCache.clear();
+        sheetImages.clear();
+        cachedBytes.set(0);
+        EngineMetrics.ASSET_CACHE_BYTES.set(0);
     }
 }
\ No newline at end of file
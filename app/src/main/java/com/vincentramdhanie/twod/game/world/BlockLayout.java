@@ -0,0 +1,65 @@
+package com.vincentramdhanie.twod.game.world;
+
+import com.vincentramdhanie.twod.game.entity.Block;
+import com.vincentramdhanie.twod.game.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Places the blocks of a PlayState level. The layout only depends on the world
+ * seed and size, so the game server and network clients build the same level
+ * from the seed without running the rest of a PlayState (NPCs, scripts, swarm).
+ */
+public final class BlockLayout {
+    public static final int BLOCK_SIZE = 64;
+    public static final int LEVEL_BLOCKS = 10;
+    // Minimum space between blocks
+    public static final int GAP = 10;
+    
+    private BlockLayout() {
+    }
+    
+    /**
+     * A sampler for block top-left corners that keeps clear of the player spawn area
+     * at the bottom centre and of the given blocks
+     */
+    public static PoissonDiskSampler sampler(int width, int height, List<? extends Entity> existing) {
+        // Positions are block top-left corners, so keep them a block short of the edges
+        PoissonDiskSampler sampler = new PoissonDiskSampler(width - BLOCK_SIZE, height - BLOCK_SIZE,
+                BLOCK_SIZE + GAP, BLOCK_SIZE + GAP);
+        
+        // Avoid spawning in the bottom center (player spawn area)
+        int playerSpawnX = width / 2 - 50; // 50 is half player spawn width
+        int playerSpawnY = height - 150; // 150 is approximate player spawn height
+        int playerSpawnWidth = 100; // Width of the spawn area
+        int playerSpawnHeight = 150; // Height of the spawn area
+        sampler.addExclusion(playerSpawnX - BLOCK_SIZE, playerSpawnY - BLOCK_SIZE,
+                playerSpawnWidth + BLOCK_SIZE, playerSpawnHeight + BLOCK_SIZE);
+        
+        // Keep clear of blocks that are already there
+        for (Entity block : existing) {
+            sampler.addExclusion(block.getX() - BLOCK_SIZE - GAP, block.getY() - BLOCK_SIZE - GAP,
+                    block.getWidth() + BLOCK_SIZE + 2 * GAP, block.getHeight() + BLOCK_SIZE + 2 * GAP);
+        }
+        return sampler;
+    }
+    
+    /**
+     * The blocks PlayState.init() places for a world seed
+     */
+    public static List<Block> generate(long worldSeed, int width, int height) {
+        // PlayState seeds its Random with the world seed and draws the layout seed first
+        long layoutSeed = new Random(worldSeed).nextLong();
+        PoissonDiskSampler sampler = sampler(width, height, Collections.emptyList());
+        int placed = sampler.sample(layoutSeed, LEVEL_BLOCKS);
+        
+        List<Block> blocks = new ArrayList<>(placed);
+        for (int i = 0; i < placed; i++) {
+            blocks.add(new Block(sampler.getX(i), sampler.getY(i), BLOCK_SIZE, BLOCK_SIZE));
+        }
+        return blocks;
+    }
+}
@@ -0,0 +1,171 @@
+package com.vincentramdhanie.twod.game.world;
+
+import com.vincentramdhanie.twod.game.entity.Block;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A square region of the world and the blocks in it.
+ *
+ * The layout is plain data (parallel arrays in world coordinates) so it can be
+ * generated or read from disk on a worker thread. The Block entities are only
+ * created by materialize() on the game thread, once the chunk is handed over.
+ */
+public class Chunk {
+    static final int MAGIC = 0x32444348; // "2DCH"
+    static final int VERSION = 1;
+    
+    private final int chunkX;
+    private final int chunkY;
+    private final int size;
+    
+    private int count;
+    private float[] xs;
+    private float[] ys;
+    private int[] widths;
+    private int[] heights;
+    private boolean[] active;
+    
+    private List<Block> blocks;
+    private boolean modified;
+    
+    public Chunk(int chunkX, int chunkY, int size) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.size = size;
+        this.xs = new float[16];
+        this.ys = new float[16];
+        this.widths = new int[16];
+        this.heights = new int[16];
+        this.active = new boolean[16];
+    }
+    
+    /**
+     * Packs chunk coordinates into one map key
+     */
+    public static long key(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Adds a block to the layout. Only valid before materialize().
+     */
+    public void addBlock(float x, float y, int width, int height) {
+        if (count == xs.length) {
+            int capacity = count * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+            active = Arrays.copyOf(active, capacity);
+        }
+        xs[count] = x;
+        ys[count] = y;
+        widths[count] = width;
+        heights[count] = height;
+        active[count] = true;
+        count++;
+    }
+    
+    /**
+     * Creates the Block entities for the layout. Call on the game thread.
+     */
+    List<Block> materialize() {
+        if (blocks == null) {
+            blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Block block = new Block(xs[i], ys[i], widths[i], heights[i]);
+                block.setActive(active[i]);
+                blocks.add(block);
+            }
+        }
+        return blocks;
+    }
+    
+    /**
+     * Copies the layout, with the current state of the Block entities, into a new
+     * chunk without entities. The copy is never changed afterwards, so it can be
+     * written out on another thread while this chunk keeps changing.
+     */
+    Chunk copyLayout() {
+        Chunk copy = new Chunk(chunkX, chunkY, size);
+        copy.count = count;
+        copy.xs = xs.clone();
+        copy.ys = ys.clone();
+        copy.widths = widths.clone();
+        copy.heights = heights.clone();
+        copy.active = active.clone();
+        copy.modified = modified;
+        if (blocks != null) {
+            for (int i = 0; i < count; i++) {
+                Block block = blocks.get(i);
+                copy.xs[i] = block.getX();
+                copy.ys[i] = block.getY();
+                copy.active[i] = block.isActive();
+            }
+        }
+        return copy;
+    }
+    
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(chunkX);
+        out.writeInt(chunkY);
+        out.writeInt(size);
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeFloat(xs[i]);
+            out.writeFloat(ys[i]);
+            out.writeShort(widths[i]);
+            out.writeShort(heights[i]);
+            out.writeBoolean(active[i]);
+        }
+    }
+    
+    static Chunk read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a chunk file");
+        }
+        int version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported chunk version " + version);
+        }
+        Chunk chunk = new Chunk(in.readInt(), in.readInt(), in.readInt());
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            chunk.addBlock(in.readFloat(), in.readFloat(), in.readShort(), in.readShort());
+            chunk.active[i] = in.readBoolean();
+        }
+        // It was saved because it differed from the generated layout
+        chunk.modified = true;
+        return chunk;
+    }
+    
+    /**
+     * Flags the chunk as changed from its generated layout, so eviction saves it
+     */
+    public void markModified() {
+        modified = true;
+    }
+    
+    public boolean isModified() { return modified; }
+    public int getChunkX() { return chunkX; }
+    public int getChunkY() { return chunkY; }
+    public int getSize() { return size; }
+    public int getBlockCount() { return count; }
+    public float getBlockX(int i) { return xs[i]; }
+    public float getBlockY(int i) { return ys[i]; }
+    public int getBlockWidth(int i) { return widths[i]; }
+    public int getBlockHeight(int i) { return heights[i]; }
+    
+    /**
+     * The Block entities, or null until the chunk has been handed to the simulation
+     */
+    public List<Block> getBlocks() { return blocks; }
+}
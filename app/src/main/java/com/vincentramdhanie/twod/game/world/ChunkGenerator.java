@@ -0,0 +1,20 @@
+package com.vincentramdhanie.twod.game.world;
+
+/**
+ * Fills a chunk with its procedurally generated layout. Implementations must be
+ * thread-safe and produce the same layout for the same seed and chunk.
+ */
+public interface ChunkGenerator {
+    void generate(Chunk chunk, long seed);
+    
+    /**
+     * A seed for one chunk, mixed from the world seed and the chunk coordinates
+     */
+    static long chunkSeed(long worldSeed, int chunkX, int chunkY) {
+        long h = worldSeed ^ (chunkX * 0x9E3779B97F4A7C15L) ^ (chunkY * 0xC2B2AE3D27D4EB4FL);
+        // SplitMix64 finalizer
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
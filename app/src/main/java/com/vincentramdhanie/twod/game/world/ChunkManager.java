@@ -0,0 +1,296 @@
+package com.vincentramdhanie.twod.game.world;
+
+import com.vincentramdhanie.twod.game.metrics.EngineMetrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams a world of fixed-size chunks around a focus point, usually the player.
+ *
+ * Chunks within the load radius are generated from the seed (or read back from
+ * disk) on worker threads and handed to the game thread through a lock-free
+ * queue. update() takes at most a few per tick, so arriving chunks never cause
+ * a spike. Chunks beyond the unload radius are dropped; modified ones are copied
+ * and the copy is written to disk on a worker. Saves of the same chunk run one
+ * after another, in the order they were made. Only the chunks around the focus
+ * are ever in memory, however far it travels.
+ *
+ * update(), the getters and markModified() belong to the game thread.
+ */
+public class ChunkManager implements AutoCloseable {
+    private static final int DEFAULT_CHUNKS_PER_TICK = 2;
+    
+    private final long seed;
+    private final int chunkSize;
+    private final int loadRadius;
+    private final int unloadRadius;
+    private final ChunkGenerator generator;
+    private final Path saveDirectory;
+    private final ExecutorService workers;
+    private int chunksPerTick = DEFAULT_CHUNKS_PER_TICK;
+    
+    // Workers to game thread
+    private final ConcurrentLinkedQueue<Chunk> ready = new ConcurrentLinkedQueue<>();
+    // Latest save of each chunk still being written, so a quick reload does not read a stale file
+    private final Map<Long, PendingSave> saving = new ConcurrentHashMap<>();
+    
+    // Owned by the game thread
+    private final Map<Long, Chunk> loaded = new HashMap<>();
+    private final Set<Long> requested = new HashSet<>();
+    private final List<Chunk> evicted = new ArrayList<>();
+    private int focusChunkX = Integer.MIN_VALUE;
+    private int focusChunkY = Integer.MIN_VALUE;
+    
+    /**
+     * A copy of a chunk queued for writing, and the write that finishes with it
+     */
+    private static class PendingSave {
+        final Chunk layout;
+        // Set and read on the game thread
+        CompletableFuture<Void> written;
+        
+        PendingSave(Chunk layout) {
+            this.layout = layout;
+        }
+    }
+    
+    public ChunkManager(long seed, int chunkSize, int loadRadius, ChunkGenerator generator, Path saveDirectory) {
+        this(seed, chunkSize, loadRadius, generator, saveDirectory, 2);
+    }
+    
+    /**
+     * @param saveDirectory where modified chunks are written on eviction, or null to discard them
+     */
+    public ChunkManager(long seed, int chunkSize, int loadRadius, ChunkGenerator generator,
+                        Path saveDirectory, int workerThreads) {
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+        this.loadRadius = loadRadius;
+        // One chunk of hysteresis so walking along a border does not reload chunks
+        this.unloadRadius = loadRadius + 1;
+        this.generator = generator;
+        this.saveDirectory = saveDirectory;
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread thread = new Thread(r, "chunk-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+    
+    /**
+     * Takes in chunks that finished loading and requests or evicts chunks around
+     * the focus point. Call once per tick.
+     */
+    public void update(float focusX, float focusY) {
+        // Hand over a bounded number of finished chunks
+        Chunk chunk;
+        for (int i = 0; i < chunksPerTick && (chunk = ready.poll()) != null; i++) {
+            long key = Chunk.key(chunk.getChunkX(), chunk.getChunkY());
+            requested.remove(key);
+            if (distance(chunk.getChunkX(), chunk.getChunkY()) > unloadRadius) {
+                continue; // The focus moved on while it was loading
+            }
+            chunk.materialize();
+            loaded.put(key, chunk);
+            EngineMetrics.CHUNKS_STREAMED.increment();
+        }
+        
+        int chunkX = Math.floorDiv((int) Math.floor(focusX), chunkSize);
+        int chunkY = Math.floorDiv((int) Math.floor(focusY), chunkSize);
+        focusChunkX = chunkX;
+        focusChunkY = chunkY;
+        
+        // Request missing chunks, nearest first
+        for (int ring = 0; ring <= loadRadius; ring++) {
+            for (int y = chunkY - ring; y <= chunkY + ring; y++) {
+                for (int x = chunkX - ring; x <= chunkX + ring; x++) {
+                    if (Math.max(Math.abs(x - chunkX), Math.abs(y - chunkY)) != ring) continue;
+                    long key = Chunk.key(x, y);
+                    if (!loaded.containsKey(key) && requested.add(key)) {
+                        final int cx = x, cy = y;
+                        workers.execute(() -> ready.add(load(cx, cy)));
+                    }
+                }
+            }
+        }
+        
+        // Evict chunks that fell behind
+        Iterator<Chunk> it = loaded.values().iterator();
+        while (it.hasNext()) {
+            Chunk c = it.next();
+            if (distance(c.getChunkX(), c.getChunkY()) > unloadRadius) {
+                it.remove();
+                evicted.add(c);
+            }
+        }
+        for (Chunk c : evicted) {
+            if (c.isModified() && saveDirectory != null) {
+                saveInBackground(c);
+            }
+        }
+        evicted.clear();
+        
+        EngineMetrics.CHUNKS_LOADED.set(loaded.size());
+    }
+    
+    private int distance(int chunkX, int chunkY) {
+        return Math.max(Math.abs(chunkX - focusChunkX), Math.abs(chunkY - focusChunkY));
+    }
+    
+    /**
+     * Copies a modified chunk and writes the copy on a worker once any earlier
+     * save of the same chunk has finished, so two workers never write one file.
+     * Call on the game thread.
+     */
+    private void saveInBackground(Chunk chunk) {
+        long key = Chunk.key(chunk.getChunkX(), chunk.getChunkY());
+        PendingSave save = new PendingSave(chunk.copyLayout());
+        PendingSave previous = saving.put(key, save);
+        Runnable write = () -> save(key, save);
+        save.written = previous == null
+            ? CompletableFuture.runAsync(write, workers)
+            : previous.written.handleAsync((result, error) -> {
+                write.run();
+                return null;
+            }, workers);
+    }
+    
+    /**
+     * Runs on a worker: a copy of the chunk being saved, the saved file, or a fresh layout
+     */
+    private Chunk load(int chunkX, int chunkY) {
+        long key = Chunk.key(chunkX, chunkY);
+        PendingSave pendingSave = saving.get(key);
+        if (pendingSave != null) {
+            // The saved copy must stay as it is until it has been written
+            return pendingSave.layout.copyLayout();
+        }
+        
+        if (saveDirectory != null) {
+            Path file = fileFor(chunkX, chunkY);
+            if (Files.exists(file)) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                    return Chunk.read(in);
+                } catch (IOException e) {
+                    System.err.println("Error reading chunk " + file + ", regenerating: " + e.getMessage());
+                }
+            }
+        }
+        
+        Chunk chunk = new Chunk(chunkX, chunkY, chunkSize);
+        generator.generate(chunk, seed);
+        return chunk;
+    }
+    
+    /**
+     * Runs on a worker. Writes to a temporary file first so a crash never leaves
+     * a half-written chunk behind.
+     */
+    private void save(long key, PendingSave save) {
+        Chunk chunk = save.layout;
+        Path file = fileFor(chunk.getChunkX(), chunk.getChunkY());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(saveDirectory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                chunk.write(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            EngineMetrics.CHUNKS_SAVED.increment();
+        } catch (IOException e) {
+            System.err.println("Error saving chunk " + file + ": " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            saving.remove(key, save);
+        }
+    }
+    
+    private Path fileFor(int chunkX, int chunkY) {
+        return saveDirectory.resolve("chunk_" + chunkX + "_" + chunkY + ".bin");
+    }
+    
+    /**
+     * The loaded chunk containing the point, or null
+     */
+    public Chunk getChunkAt(float x, float y) {
+        return loaded.get(Chunk.key(Math.floorDiv((int) Math.floor(x), chunkSize),
+                                    Math.floorDiv((int) Math.floor(y), chunkSize)));
+    }
+    
+    public Collection<Chunk> getLoadedChunks() {
+        return loaded.values();
+    }
+    
+    /**
+     * Whether every chunk within the load radius has been handed over
+     */
+    public boolean isSettled() {
+        return requested.isEmpty() && ready.isEmpty();
+    }
+    
+    public void setChunksPerTick(int chunksPerTick) {
+        this.chunksPerTick = chunksPerTick;
+    }
+    
+    public int getChunkSize() { return chunkSize; }
+    public int getLoadRadius() { return loadRadius; }
+    public long getSeed() { return seed; }
+    
+    /**
+     * Saves every loaded modified chunk and stops the workers
+     */
+    @Override
+    public void close() {
+        for (Chunk c : loaded.values()) {
+            if (c.isModified() && saveDirectory != null) {
+                saveInBackground(c);
+            }
+        }
+        
+        // Saves chained onto earlier ones are only submitted when those finish
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (PendingSave save : saving.values()) {
+            try {
+                save.written.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                System.err.println("Error finishing chunk saves: " + e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.vincentramdhanie.twod.game.world;
+
+import java.util.SplittableRandom;
+
+/**
+ * Lays out blocks in a chunk with Poisson-disk sampling, which looks less like a grid
+ * than ScatterChunkGenerator. Blocks stay half a gap away from the chunk edges, so
+ * blocks in neighbouring chunks never overlap either.
+ */
+public class PoissonChunkGenerator implements ChunkGenerator {
+    private final int blockSize;
+    private final int gap;
+    private final double density;
+    
+    /**
+     * @param density fraction of the sampled positions that get a block
+     */
+    public PoissonChunkGenerator(int blockSize, int gap, double density) {
+        this.blockSize = blockSize;
+        this.gap = gap;
+        this.density = density;
+    }
+    
+    @Override
+    public void generate(Chunk chunk, long seed) {
+        long chunkSeed = ChunkGenerator.chunkSeed(seed, chunk.getChunkX(), chunk.getChunkY());
+        int size = chunk.getSize();
+        int spacing = blockSize + gap;
+        PoissonDiskSampler sampler = new PoissonDiskSampler(size - spacing, size - spacing, spacing, spacing);
+        int sampled = sampler.sample(chunkSeed, Integer.MAX_VALUE);
+        
+        // Selection sampling keeps exactly 'keep' of the positions
+        SplittableRandom random = new SplittableRandom(~chunkSeed);
+        int keep = (int) Math.round(sampled * density);
+        float originX = (float) chunk.getChunkX() * size + gap / 2f;
+        float originY = (float) chunk.getChunkY() * size + gap / 2f;
+        for (int i = 0; i < sampled && keep > 0; i++) {
+            if (random.nextInt(sampled - i) < keep) {
+                chunk.addBlock(originX + sampler.getX(i), originY + sampler.getY(i), blockSize, blockSize);
+                keep--;
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.vincentramdhanie.twod.game.world;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Bridson's Poisson-disk sampling over a rectangle, used to lay out blocks.
+ *
+ * Two points conflict when they are closer than spacingX horizontally AND closer
+ * than spacingY vertically, so with the spacing set to the block size plus a gap,
+ * blocks placed at the points never overlap. The acceleration grid uses cells of
+ * exactly one spacing, which holds at most one point each, so a candidate only has
+ * to be checked against the 3x3 cells around it. The grid stores the coordinates
+ * themselves (NaN when empty) and has a border of empty cells, so those checks
+ * read three short runs of memory without any bounds clamping.
+ *
+ * sample() always fills the area until no more points fit, then keeps a random
+ * subset if fewer were asked for. That spreads a small count over the whole area
+ * instead of clustering it around the first point, and it always terminates: when
+ * the count is impossible it simply returns fewer points.
+ */
+public class PoissonDiskSampler {
+    // Candidates tried around an active point before it is retired
+    private static final int ATTEMPTS = 8;
+    
+    private final float width;
+    private final float height;
+    private final float spacingX;
+    private final float spacingY;
+    private final int cols;
+    private final int rows;
+    // Floats per grid row, including the border cells
+    private final int stride;
+    
+    // Points inside these rectangles are rejected. Meant for a handful of zones.
+    private float[] exclusions = new float[0];
+    
+    // x, y of the point in each cell, interleaved
+    private float[] grid;
+    private int[] active;
+    private float[] xs;
+    private float[] ys;
+    private int count;
+    
+    /**
+     * @param width    points have x in [0, width]
+     * @param height   points have y in [0, height]
+     * @param spacingX minimum horizontal distance, unless far enough apart vertically
+     * @param spacingY minimum vertical distance, unless far enough apart horizontally
+     */
+    public PoissonDiskSampler(float width, float height, float spacingX, float spacingY) {
+        if (spacingX <= 0 || spacingY <= 0) {
+            throw new IllegalArgumentException("Spacing must be positive");
+        }
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+        this.spacingX = spacingX;
+        this.spacingY = spacingY;
+        long cells = ((long) (this.width / spacingX) + 3) * ((long) (this.height / spacingY) + 3);
+        if (cells * 2 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Area is too large for the spacing");
+        }
+        this.cols = (int) (this.width / spacingX) + 1;
+        this.rows = (int) (this.height / spacingY) + 1;
+        this.stride = (cols + 2) * 2;
+    }
+    
+    /**
+     * Rejects points inside the rectangle (edges excluded)
+     */
+    public void addExclusion(float x, float y, float w, float h) {
+        int n = exclusions.length;
+        exclusions = Arrays.copyOf(exclusions, n + 4);
+        exclusions[n] = x;
+        exclusions[n + 1] = y;
+        exclusions[n + 2] = x + w;
+        exclusions[n + 3] = y + h;
+    }
+    
+    /**
+     * Upper bound on how many points can fit, whatever the seed
+     */
+    public long getCapacity() {
+        // Every grid cell holds at most one point
+        return (long) cols * rows;
+    }
+    
+    /**
+     * Samples the area. The same seed always gives the same points.
+     *
+     * @return the number of points, at most maxPoints; fewer when no more fit
+     */
+    public int sample(long seed, int maxPoints) {
+        SplittableRandom random = new SplittableRandom(seed);
+        count = 0;
+        if (maxPoints <= 0) return 0;
+        
+        int cells = cols * rows;
+        if (grid == null) {
+            grid = new float[stride * (rows + 2)];
+            xs = new float[cells];
+            ys = new float[cells];
+            active = new int[cells];
+        }
+        Arrays.fill(grid, Float.NaN);
+        
+        // The first point may land in an exclusion zone, so give it a few tries and
+        // then try one point per cell, so mostly excluded areas still get sampled
+        for (int i = 0; i < ATTEMPTS && count == 0; i++) {
+            float x = (float) (random.nextDouble() * width);
+            float y = (float) (random.nextDouble() * height);
+            if (fits(x, y)) {
+                insert(x, y);
+            }
+        }
+        if (count == 0) {
+            int start = random.nextInt(cells);
+            for (int i = 0; i < cells && count == 0; i++) {
+                int cell = (start + i) % cells;
+                float x = Math.min((float) ((cell % cols + random.nextDouble()) * spacingX), width);
+                float y = Math.min((float) ((cell / cols + random.nextDouble()) * spacingY), height);
+                if (fits(x, y)) {
+                    insert(x, y);
+                }
+            }
+            if (count == 0) return 0;
+        }
+        
+        int activeCount = 1;
+        active[0] = 0;
+        while (activeCount > 0) {
+            int slot = activeCount - 1;
+            int parent = active[slot];
+            float px = xs[parent];
+            float py = ys[parent];
+            
+            // Candidates are spread evenly around a square ring one to one and a half
+            // spacings out, from a random start, so few attempts cover every direction
+            boolean placed = false;
+            double t = random.nextDouble() * 8.0;
+            for (int i = 0; i < ATTEMPTS; i++) {
+                t += 8.0 / ATTEMPTS;
+                if (t >= 8.0) t -= 8.0;
+                double r = 1.0 + 0.5 * random.nextDouble();
+                int side = (int) (t * 0.5);
+                double s = (t - 2 * side - 1.0) * r;
+                double dx, dy;
+                switch (side) {
+                    case 0:  dx = r;  dy = s;  break;
+                    case 1:  dx = -s; dy = r;  break;
+                    case 2:  dx = -r; dy = -s; break;
+                    default: dx = s;  dy = -r; break;
+                }
+                float x = (float) (px + dx * spacingX);
+                float y = (float) (py + dy * spacingY);
+                if (fits(x, y)) {
+                    active[activeCount++] = insert(x, y);
+                    placed = true;
+                    break;
+                }
+            }
+            if (!placed) {
+                active[slot] = active[--activeCount];
+            }
+        }
+        
+        if (count > maxPoints) {
+            // Keep a uniform random subset (partial Fisher-Yates)
+            for (int i = 0; i < maxPoints; i++) {
+                int j = i + random.nextInt(count - i);
+                float tx = xs[i]; xs[i] = xs[j]; xs[j] = tx;
+                float ty = ys[i]; ys[i] = ys[j]; ys[j] = ty;
+            }
+            count = maxPoints;
+        }
+        return count;
+    }
+    
+    private int insert(float x, float y) {
+        int index = count++;
+        xs[index] = x;
+        ys[index] = y;
+        int cell = cellOf(x, y);
+        grid[cell] = x;
+        grid[cell + 1] = y;
+        return index;
+    }
+    
+    /**
+     * Index of the x coordinate of the cell holding (x, y), which must be in bounds
+     */
+    private int cellOf(float x, float y) {
+        int col = Math.min((int) (x / spacingX), cols - 1);
+        int row = Math.min((int) (y / spacingY), rows - 1);
+        return (row + 1) * stride + (col + 1) * 2;
+    }
+    
+    private boolean fits(float x, float y) {
+        if (x < 0 || y < 0 || x > width || y > height) return false;
+        int cell = cellOf(x, y);
+        if (!Float.isNaN(grid[cell])) return false;
+        
+        // Empty cells hold NaN, which never compares as close
+        for (int row = cell - stride; row <= cell + stride; row += stride) {
+            for (int c = row - 2; c <= row + 2; c += 2) {
+                if (Math.abs(grid[c] - x) < spacingX && Math.abs(grid[c + 1] - y) < spacingY) {
+                    return false;
+                }
+            }
+        }
+        
+        for (int i = 0; i < exclusions.length; i += 4) {
+            if (x > exclusions[i] && y > exclusions[i + 1] && x < exclusions[i + 2] && y < exclusions[i + 3]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public int getCount() { return count; }
+    public float getX(int i) { return xs[i]; }
+    public float getY(int i) { return ys[i]; }
+}
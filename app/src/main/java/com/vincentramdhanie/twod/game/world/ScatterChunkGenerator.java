@@ -0,0 +1,38 @@
+package com.vincentramdhanie.twod.game.world;
+
+import java.util.SplittableRandom;
+
+/**
+ * Scatters blocks over a chunk by dividing it into slots one block plus a gap wide
+ * and filling each slot with a jittered block at a given probability. Blocks can
+ * never overlap, and generation is a single pass with no retries.
+ */
+public class ScatterChunkGenerator implements ChunkGenerator {
+    private final int blockSize;
+    private final int gap;
+    private final double density;
+    
+    public ScatterChunkGenerator(int blockSize, int gap, double density) {
+        this.blockSize = blockSize;
+        this.gap = gap;
+        this.density = density;
+    }
+    
+    @Override
+    public void generate(Chunk chunk, long seed) {
+        SplittableRandom random = new SplittableRandom(ChunkGenerator.chunkSeed(seed, chunk.getChunkX(), chunk.getChunkY()));
+        int slot = blockSize + gap;
+        int slots = chunk.getSize() / slot;
+        float originX = (float) chunk.getChunkX() * chunk.getSize();
+        float originY = (float) chunk.getChunkY() * chunk.getSize();
+        
+        for (int row = 0; row < slots; row++) {
+            for (int col = 0; col < slots; col++) {
+                if (random.nextDouble() >= density) continue;
+                float x = originX + col * slot + random.nextInt(gap + 1);
+                float y = originY + row * slot + random.nextInt(gap + 1);
+                chunk.addBlock(x, y, blockSize, blockSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.vincentramdhanie.twod.game.entity;
+
+import org.junit.Test;
+
+import java.awt.Graphics2D;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class EntityPoolTest {
+    
+    private static class Shot extends Entity {
+        Shot() {
+            super(0, 0, 4, 4);
+        }
+        
+        @Override public void update() { }
+        @Override public void render(Graphics2D g) { }
+    }
+    
+    private static EntityPool newPool() {
+        EntityPool pool = new EntityPool();
+        pool.register(Shot.class, Shot::new);
+        return pool;
+    }
+    
+    @Test public void despawnIsDeferredAndStaleHandlesAreCaught() {
+        EntityPool pool = newPool();
+        Shot shot = pool.spawn(Shot.class, 10, 20);
+        long handle = pool.handleOf(shot);
+        assertTrue(pool.isAlive(handle));
+        
+        pool.despawn(handle);
+        assertFalse(shot.isActive());
+        assertFalse(pool.isAlive(handle));
+        // Still reachable until the end of the tick
+        assertSame(shot, pool.get(handle));
+        assertEquals(1, pool.getLiveCount());
+        
+        pool.endTick();
+        assertEquals(0, pool.getLiveCount());
+        try {
+            pool.get(handle);
+            fail("Stale handle was accepted");
+        } catch (IllegalStateException expected) {
+        }
+        
+        // The slot is reused under a new generation
+        Shot again = pool.spawn(Shot.class, 1, 2);
+        assertSame(shot, again);
+        assertTrue(again.isActive());
+        assertEquals(1, again.getX(), 0f);
+        assertNotEquals(handle, pool.handleOf(again));
+        assertFalse(pool.isAlive(handle));
+    }
+    
+    @Test public void despawningAFreedEntityAgainIsRejected() {
+        EntityPool pool = newPool();
+        Shot first = pool.spawn(Shot.class, 0, 0);
+        Shot second = pool.spawn(Shot.class, 0, 0);
+        pool.despawn(first);
+        pool.endTick();
+        
+        try {
+            pool.despawn(first);
+            fail("Freed entity was despawned again");
+        } catch (IllegalStateException expected) {
+        }
+        pool.endTick();
+        
+        // The other entity is still live and the slot is handed out only once
+        assertEquals(1, pool.getLiveCount());
+        assertSame(second, pool.getLive(0));
+        assertTrue(second.isActive());
+        Shot a = pool.spawn(Shot.class, 0, 0);
+        Shot b = pool.spawn(Shot.class, 0, 0);
+        assertNotSame(a, b);
+        assertEquals(3, pool.getLiveCount());
+    }
+    
+    @Test public void steadyStateChurnAllocatesNothing() {
+        EntityPool pool = newPool();
+        long[] handles = new long[1000];
+        
+        // Warm up the pool, the JIT and the metrics
+        for (int round = 0; round < 200; round++) {
+            churn(pool, handles);
+        }
+        
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int round = 0; round < 200; round++) {
+            churn(pool, handles);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        
+        // 200,000 spawns; allow for a little unrelated JVM noise
+        assertTrue("Allocated " + allocated + " bytes", allocated < 64 * 1024);
+        assertEquals(1000, pool.getCapacity());
+    }
+    
+    private static void churn(EntityPool pool, long[] handles) {
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = pool.handleOf(pool.spawn(Shot.class, i, i));
+        }
+        for (long handle : handles) {
+            pool.despawn(handle);
+        }
+        pool.endTick();
+    }
+}
@@ -0,0 +1,71 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class AnimationTest {
+    
+    private static AnimationDefinition definition(boolean looping, int... durations) {
+        BufferedImage[] frames = new BufferedImage[durations.length];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        }
+        return new AnimationDefinition(frames, durations, looping);
+    }
+    
+    @Test
+    public void findsTheFrameShowingAtAnyTime() {
+        AnimationDefinition walk = definition(true, 100, 50, 0, 150);
+        assertEquals(300, walk.getDuration());
+        assertEquals(0, walk.frameAt(0));
+        assertEquals(0, walk.frameAt(99));
+        assertEquals(1, walk.frameAt(100));
+        // A zero-length frame is never shown
+        assertEquals(3, walk.frameAt(150));
+        assertEquals(3, walk.frameAt(299));
+        assertEquals(0, walk.frameAt(300));
+        assertEquals(1, walk.frameAt(3_000_000_120L));
+        
+        AnimationDefinition once = definition(false, 100, 100);
+        assertEquals(1, once.frameAt(150));
+        assertEquals(1, once.frameAt(10_000));
+    }
+    
+    @Test
+    public void playheadsFollowTheSimulationClock() {
+        AnimationDefinition blink = definition(true, 48, 16, 32);
+        Animation single = new Animation(blink);
+        AnimationPlayheads many = new AnimationPlayheads(4);
+        int a = many.add(blink);
+        int b = many.add(blink);
+        many.setPlaying(b, false);
+        
+        for (int tick = 1; tick <= 200; tick++) {
+            single.update(16);
+            many.advance(16);
+            assertEquals(blink.frameAt(tick * 16L), single.getCurrentFrameIndex());
+            assertEquals(single.getCurrentFrameIndex(), many.getFrameIndex(a));
+            // Paused playheads hold their frame
+            assertEquals(0, many.getFrameIndex(b));
+        }
+        
+        many.remove(a);
+        assertEquals(1, many.size());
+        assertSame(blink.getFrame(0), many.getCurrentFrame(0));
+    }
+    
+    @Test
+    public void addFrameKeepsTheSharedDefinitionUntouched() {
+        AnimationDefinition shared = definition(true, 10);
+        Animation animation = new Animation(shared);
+        animation.addFrame(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), 10);
+        
+        assertEquals(1, shared.getFrameCount());
+        assertEquals(2, animation.getFrameCount());
+        animation.update(15);
+        assertEquals(1, animation.getCurrentFrameIndex());
+    }
+}
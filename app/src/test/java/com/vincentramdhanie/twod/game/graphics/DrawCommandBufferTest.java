@@ -0,0 +1,93 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import com.vincentramdhanie.twod.game.state.PlayState;
+import org.junit.Test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class DrawCommandBufferTest {
+    
+    @Test
+    public void lowerLayersAreDrawnFirst() {
+        DrawCommandBuffer buffer = new DrawCommandBuffer(new SpriteRegistry());
+        buffer.fillRect(0, 0, 4, 4, 0xffff0000, DrawCommandBuffer.LAYER_CHARACTERS);
+        buffer.fillRect(0, 0, 8, 8, 0xff00ff00, DrawCommandBuffer.LAYER_BACKGROUND);
+        buffer.fillRect(2, 2, 4, 4, 0xff0000ff, DrawCommandBuffer.LAYER_CHARACTERS);
+        
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        SoftwareRenderer r = new SoftwareRenderer(image);
+        buffer.replay(r);
+        r.flush();
+        
+        assertEquals(0xffff0000, image.getRGB(0, 0));
+        assertEquals(0xff0000ff, image.getRGB(3, 3));
+        assertEquals(0xff00ff00, image.getRGB(7, 7));
+    }
+    
+    @Test
+    public void imagesAreReleasedOnceNoFrameDrawsThem() throws InterruptedException {
+        SpriteRegistry sprites = new SpriteRegistry();
+        DrawCommandBuffer buffer = new DrawCommandBuffer(sprites);
+        BufferedImage kept = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+        int keptHandle = sprites.handleOf(kept);
+        buffer.drawImage(new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB), 0, 0, 4, 4,
+                         DrawCommandBuffer.LAYER_WORLD);
+        
+        // The recorded frame keeps its image alive until it is cleared
+        collectGarbage(sprites, 1);
+        assertEquals(2, sprites.size());
+        buffer.clear();
+        collectGarbage(sprites, 1);
+        assertEquals(1, sprites.size());
+        
+        // The freed handle goes to the next image
+        BufferedImage replacement = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+        int handle = sprites.handleOf(replacement);
+        assertNotEquals(keptHandle, handle);
+        assertSame(replacement, sprites.get(handle));
+        assertSame(kept, sprites.get(keptHandle));
+        assertTrue(handle < 2);
+    }
+    
+    private static void collectGarbage(SpriteRegistry sprites, int size) throws InterruptedException {
+        for (int i = 0; i < 20 && sprites.size() > size; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+    
+    @Test
+    public void recordedPlayStateFrameMatchesDirectRendering() {
+        PlayState state = new PlayState(null, 320, 240);
+        state.setSeed(7L);
+        state.init();
+        // Move to leave a trail on screen
+        state.setInputBits(PlayState.INPUT_RIGHT | PlayState.INPUT_UP);
+        for (int tick = 0; tick < 30; tick++) {
+            state.update();
+        }
+        state.shutdown();
+        assertTrue(state.getParticles().size() > 0);
+        
+        BufferedImage direct = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = direct.createGraphics();
+        state.render(g);
+        g.dispose();
+        
+        DrawCommandBuffer buffer = new DrawCommandBuffer(new SpriteRegistry());
+        assertTrue(state.record(buffer));
+        BufferedImage replayed = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+        g = replayed.createGraphics();
+        buffer.replay(g, new PointOverlay(), 320, 240);
+        g.dispose();
+        
+        for (int y = 0; y < 240; y++) {
+            for (int x = 0; x < 320; x++) {
+                assertEquals("pixel " + x + "," + y, direct.getRGB(x, y), replayed.getRGB(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class FrameRingTest {
+    
+    // Frame n is n one-pixel fills, all in the colour n
+    private static void record(FrameRing ring, int frame) {
+        DrawCommandBuffer buffer = ring.beginFrame();
+        for (int i = 0; i < frame; i++) {
+            buffer.fillRect(i % 64, i / 64, 1, 1, 0xff000000 | frame, DrawCommandBuffer.LAYER_WORLD);
+        }
+        ring.publish();
+    }
+    
+    @Test
+    public void rendererGetsTheLatestFrameOnce() {
+        FrameRing ring = new FrameRing(new SpriteRegistry());
+        record(ring, 1);
+        record(ring, 2);
+        
+        DrawCommandBuffer frame = ring.take(0, TimeUnit.MILLISECONDS);
+        assertNotNull(frame);
+        assertEquals(2, frame.size());
+        assertNull(ring.take(0, TimeUnit.MILLISECONDS));
+    }
+    
+    @Test
+    public void framesAreNeverTornBetweenThreads() throws Exception {
+        FrameRing ring = new FrameRing(new SpriteRegistry());
+        int frames = 2000;
+        AtomicReference<String> failure = new AtomicReference<>();
+        
+        Thread renderer = new Thread(() -> {
+            BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+            SoftwareRenderer r = new SoftwareRenderer(image);
+            int last = 0;
+            while (last < frames) {
+                DrawCommandBuffer frame = ring.take(1, TimeUnit.SECONDS);
+                if (frame == null) {
+                    failure.set("no frame after " + last);
+                    return;
+                }
+                int number = frame.size();
+                if (number <= last) {
+                    failure.set("frame " + number + " after " + last);
+                    return;
+                }
+                frame.replay(r);
+                r.flush();
+                for (int i = 0; i < number; i++) {
+                    if ((image.getRGB(i % 64, i / 64) & 0xffffff) != number) {
+                        failure.set("frame " + number + " was overwritten while drawn");
+                        return;
+                    }
+                }
+                last = number;
+            }
+        });
+        renderer.start();
+        for (int frame = 1; frame <= frames; frame++) {
+            record(ring, frame);
+        }
+        renderer.join(10_000);
+        assertNull(failure.get(), failure.get());
+    }
+}
@@ -0,0 +1,79 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import org.junit.Test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class PresenterTest {
+    
+    // A frame with a distinct colour in every pixel
+    private static BufferedImage frame(int width, int height) {
+        BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                frame.setRGB(x, y, (x << 12) | y);
+            }
+        }
+        return frame;
+    }
+    
+    private static BufferedImage present(Presenter presenter, BufferedImage frame, int width, int height) {
+        BufferedImage screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        presenter.present(g, frame, width, height);
+        g.dispose();
+        return screen;
+    }
+    
+    @Test
+    public void wholeFactorsCopyEveryPixelExactly() {
+        Presenter presenter = new Presenter(80, 60, Presenter.SCALING_FIT);
+        BufferedImage frame = frame(80, 60);
+        BufferedImage screen = present(presenter, frame, 240, 180);
+        
+        for (int y = 0; y < 180; y++) {
+            for (int x = 0; x < 240; x++) {
+                assertEquals(frame.getRGB(x / 3, y / 3), screen.getRGB(x, y));
+            }
+        }
+    }
+    
+    @Test
+    public void keepsTheAspectRatioWithBars() {
+        Presenter presenter = new Presenter(80, 60, Presenter.SCALING_FIT);
+        BufferedImage screen = present(presenter, frame(80, 60), 400, 180);
+        
+        // Three times wider than it is tall would stretch; it is centred at 240x180 instead
+        assertEquals(80, presenter.getViewX());
+        assertEquals(240, presenter.getViewWidth());
+        assertEquals(0xff000000, screen.getRGB(79, 90));
+        assertEquals(0xff000000, screen.getRGB(320, 90));
+    }
+    
+    @Test
+    public void integerScalingLeavesTheRemainderAsBars() {
+        Presenter presenter = new Presenter(80, 60, Presenter.SCALING_INTEGER);
+        present(presenter, frame(80, 60), 250, 190);
+        
+        assertEquals(240, presenter.getViewWidth());
+        assertEquals(180, presenter.getViewHeight());
+        assertEquals(5, presenter.getViewX());
+        assertEquals(5, presenter.getViewY());
+    }
+    
+    @Test
+    public void mouseMapsBackToGameCoordinates() {
+        // Logical 80x60 game rendered at 160x120 internally, shown at 400x180
+        Presenter presenter = new Presenter(80, 60, Presenter.SCALING_FIT);
+        present(presenter, frame(160, 120), 400, 180);
+        
+        assertEquals(0, presenter.toLogicalX(80));
+        assertEquals(0, presenter.toLogicalY(0));
+        assertEquals(40, presenter.toLogicalX(200));
+        assertEquals(59, presenter.toLogicalY(179));
+        assertTrue(presenter.toLogicalX(10) < 0);
+    }
+}
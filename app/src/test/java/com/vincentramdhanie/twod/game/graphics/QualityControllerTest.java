@@ -0,0 +1,64 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class QualityControllerTest {
+    private static final long BUDGET = 16_000_000L;
+    
+    // Feeds one full window of frames taking the given fraction of the budget
+    private static boolean window(QualityController quality, double fraction) {
+        boolean changed = false;
+        for (int i = 0; i < QualityController.WINDOW; i++) {
+            changed |= quality.frameDrawn((long) (BUDGET * fraction));
+        }
+        return changed;
+    }
+    
+    @Test
+    public void slowFramesLowerTheQualityOneLevelPerWindow() {
+        QualityController quality = new QualityController(BUDGET);
+        assertEquals(QualityController.QUALITY_HIGH, quality.getLevel());
+        
+        assertTrue(window(quality, 1.5));
+        assertEquals(QualityController.QUALITY_MEDIUM, quality.getLevel());
+        assertEquals(1.0f, quality.getScale(), 0f);
+        
+        window(quality, 1.5);
+        window(quality, 1.5);
+        assertEquals(QualityController.QUALITY_MINIMUM, quality.getLevel());
+        assertEquals(0.5f, quality.getScale(), 0f);
+        
+        // Already at the bottom
+        assertFalse(window(quality, 1.5));
+    }
+    
+    @Test
+    public void qualityClimbsBackAfterSeveralFastWindows() {
+        QualityController quality = new QualityController(BUDGET, QualityController.QUALITY_LOW, true);
+        for (int i = 1; i < QualityController.UPGRADE_WINDOWS; i++) {
+            assertFalse(window(quality, 0.2));
+        }
+        assertTrue(window(quality, 0.2));
+        assertEquals(QualityController.QUALITY_MEDIUM, quality.getLevel());
+    }
+    
+    @Test
+    public void framesBetweenTheThresholdsKeepTheLevel() {
+        QualityController quality = new QualityController(BUDGET, QualityController.QUALITY_MEDIUM, true);
+        for (int i = 0; i < 20; i++) {
+            // Alternating fast and middling windows never count as a run of fast ones
+            assertFalse(window(quality, i % 2 == 0 ? 0.2 : 0.7));
+        }
+        assertEquals(QualityController.QUALITY_MEDIUM, quality.getLevel());
+    }
+    
+    @Test
+    public void fixedLevelIgnoresFrameTimes() {
+        QualityController quality = new QualityController(BUDGET, QualityController.parseLevel("low"), false);
+        assertFalse(window(quality, 3.0));
+        assertEquals("low", quality.getLevelName());
+        assertEquals(-1, QualityController.parseLevel("ultra"));
+    }
+}
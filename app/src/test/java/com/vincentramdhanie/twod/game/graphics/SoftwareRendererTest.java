@@ -0,0 +1,101 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SoftwareRendererTest {
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 150;
+    
+    private static BufferedImage sprite(int w, int h, boolean translucent) {
+        BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Random random = new Random(w * 31 + h);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int alpha = translucent ? (x + y) % 3 == 0 ? 0 : random.nextInt(256) : 255;
+                image.setRGB(x, y, (alpha << 24) | random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+    
+    @Test
+    public void matchesJava2DForFillsAndSprites() {
+        BufferedImage opaque = sprite(24, 16, false);
+        BufferedImage translucent = sprite(20, 20, true);
+        
+        BufferedImage expected = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = expected.createGraphics();
+        g.setColor(new Color(10, 20, 30));
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.setColor(new Color(200, 100, 50));
+        g.fillRect(-10, 40, 90, 30);
+        g.setColor(new Color(0, 255, 0, 100));
+        g.fillRect(30, 30, 150, 100);
+        g.drawImage(opaque, 60, -5, null);
+        g.drawImage(opaque, 185, 140, null);
+        g.drawImage(translucent, 100, 60, null);
+        g.drawImage(translucent, 10, 90, 40, 40, null);
+        g.drawImage(opaque, 150, 20, 12, 32, null);
+        g.dispose();
+        
+        // Small tiles so every command crosses tile edges
+        BufferedImage actual = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        SoftwareRenderer r = new SoftwareRenderer(actual, 16);
+        r.clear(0x0a141e);
+        r.fillRect(-10, 40, 90, 30, 0xffc86432);
+        r.fillRect(30, 30, 150, 100, new Color(0, 255, 0, 100).getRGB());
+        r.drawImage(opaque, 60, -5);
+        r.drawImage(opaque, 185, 140);
+        r.drawImage(translucent, 100, 60);
+        r.drawImage(translucent, 10, 90, 40, 40);
+        r.drawImage(opaque, 150, 20, 12, 32);
+        r.flush();
+        
+        assertClose(expected, actual, 2);
+    }
+    
+    @Test
+    public void parallelAndSerialTilesGiveTheSameFrame() {
+        BufferedImage translucent = sprite(20, 20, true);
+        BufferedImage[] frames = new BufferedImage[2];
+        for (int f = 0; f < 2; f++) {
+            frames[f] = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+            SoftwareRenderer r = new SoftwareRenderer(frames[f], 32);
+            r.setParallel(f == 1);
+            Random random = new Random(7);
+            r.clear(0);
+            for (int i = 0; i < 500; i++) {
+                int x = random.nextInt(WIDTH + 40) - 20, y = random.nextInt(HEIGHT + 40) - 20;
+                switch (i % 3) {
+                    case 0: r.drawImage(translucent, x, y); break;
+                    case 1: r.fillOval(x, y, 9, 7, random.nextInt()); break;
+                    default: r.fillRect(x, y, 11, 5, random.nextInt()); break;
+                }
+            }
+            r.flush();
+        }
+        assertClose(frames[0], frames[1], 0);
+    }
+    
+    private static void assertClose(BufferedImage expected, BufferedImage actual, int tolerance) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int e = expected.getRGB(x, y), a = actual.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    int diff = Math.abs(((e >> shift) & 0xff) - ((a >> shift) & 0xff));
+                    if (diff > tolerance) {
+                        fail("Pixel " + x + "," + y + " expected " + Integer.toHexString(e)
+                            + " got " + Integer.toHexString(a));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import com.vincentramdhanie.twod.game.utils.ResourceLoader;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class SpriteSheetTest {
+    
+    // 4x2 cells of 8x8, each filled with its own colour
+    private static BufferedImage sheetImage() {
+        BufferedImage image = new BufferedImage(32, 16, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 32; x++) {
+                image.setRGB(x, y, 0xff000000 | ((y / 8) * 4 + x / 8 + 1));
+            }
+        }
+        return image;
+    }
+    
+    @Test
+    public void slicesNamedFramesAndAnimations() {
+        BufferedImage image = sheetImage();
+        SpriteSheet sheet = SpriteSheet.parse(
+            "# test sheet\n"
+            + "image cells.png\n"
+            + "grid walk 0 0 8 8 4 1\n"
+            + "frame jump 8 8 8 8\n"
+            + "\n"
+            + "animation walk loop 100 walk0 walk1 walk2:300 walk3\n"
+            + "animation jump once 50 jump\n",
+            name -> "cells.png".equals(name) ? image : null);
+        
+        assertEquals(5, sheet.getFrameCount());
+        assertEquals(2, sheet.indexOf("walk2"));
+        assertEquals(-1, sheet.indexOf("run"));
+        
+        BufferedImage jump = sheet.getFrame(sheet.indexOf("jump"));
+        assertEquals(8, jump.getWidth());
+        assertEquals(0xff000006, jump.getRGB(3, 3));
+        // Slices are copies, not views into the sheet's raster
+        assertNotSame(image.getRaster().getDataBuffer(), jump.getRaster().getDataBuffer());
+        
+        AnimationDefinition walk = sheet.getAnimation("walk");
+        assertEquals(600, walk.getDuration());
+        assertTrue(walk.isLooping());
+        assertSame(sheet.getFrame(2), walk.getFrame(walk.frameAt(250)));
+        assertFalse(sheet.getAnimation("jump").isLooping());
+    }
+    
+    @Test
+    public void gridSheetsAreSlicedUpFront() {
+        SpriteSheet sheet = new SpriteSheet(sheetImage(), 8, 8);
+        assertEquals(4, sheet.getColumnCount());
+        assertEquals(2, sheet.getRowCount());
+        assertEquals(0xff000007, sheet.getSprite(1, 2).getRGB(0, 0));
+        assertSame(sheet.getSprite(1, 2), sheet.getSprite(1, 2));
+        assertNull(sheet.getSprite(2, 0));
+    }
+    
+    @Test
+    public void malformedMetadataNamesTheLine() {
+        BufferedImage image = sheetImage();
+        try {
+            SpriteSheet.parse("image cells.png\nframe a 0 0 8 8\nanimation a loop 100 a b\n", name -> image);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Line 3: unknown frame b", e.getMessage());
+        }
+        try {
+            SpriteSheet.parse("image cells.png\nframe a 30 0 8 8\n", name -> image);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2: frame 30,0 8x8 is outside"));
+        }
+    }
+    
+    @Test
+    public void loadsThePlayerSheet() {
+        SpriteSheet sheet = ResourceLoader.loadSpriteSheet("/sprites/ball.sheet");
+        assertNotNull(sheet);
+        assertSame(sheet, ResourceLoader.loadSpriteSheet("/sprites/ball.sheet"));
+        assertEquals(32, sheet.getFrame(sheet.indexOf("ball")).getWidth());
+        assertNotNull(sheet.getAnimation("left"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.vincentramdhanie.twod.game.metrics;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+    
+    @Test public void histogramExportsCumulativeBucketsInSeconds() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Histogram histogram = registry.histogram("twod_test_seconds", "Test durations", 0.001, 0.01, 0.1);
+        histogram.observeNanos(500_000L);       // 0.5 ms
+        histogram.observeNanos(1_000_000L);     // 1 ms, on the bound, so still in the first bucket
+        histogram.observeNanos(5_000_000L);     // 5 ms
+        histogram.observeNanos(50_000_000L);    // 50 ms
+        histogram.observeNanos(2_000_000_000L); // 2 s, above every bound
+        
+        String text = registry.scrape();
+        assertTrue(text.contains("# HELP twod_test_seconds Test durations\n"));
+        assertTrue(text.contains("# TYPE twod_test_seconds histogram\n"));
+        assertTrue(text.contains("twod_test_seconds_bucket{le=\"0.001\"} 2\n"));
+        assertTrue(text.contains("twod_test_seconds_bucket{le=\"0.01\"} 3\n"));
+        assertTrue(text.contains("twod_test_seconds_bucket{le=\"0.1\"} 4\n"));
+        assertTrue(text.contains("twod_test_seconds_bucket{le=\"+Inf\"} 5\n"));
+        assertTrue(text.contains("twod_test_seconds_count 5\n"));
+        assertEquals(2.0565, sampleValue(text, "twod_test_seconds_sum"), 1e-9);
+        assertEquals(5, histogram.getCount());
+    }
+    
+    @Test public void countersAndGaugesExportTheirValues() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter frames = registry.counter("twod_test_frames_total", "Frames");
+        Gauge entities = registry.gauge("twod_test_entities", "Entities");
+        registry.gauge("twod_test_supplied", "Supplied", () -> 2.5);
+        frames.increment();
+        frames.add(41);
+        entities.set(12);
+        
+        String text = registry.scrape();
+        assertTrue(text.contains("# TYPE twod_test_frames_total counter\ntwod_test_frames_total 42\n"));
+        assertTrue(text.contains("# TYPE twod_test_entities gauge\n"));
+        assertEquals(12, sampleValue(text, "twod_test_entities"), 0);
+        assertEquals(2.5, sampleValue(text, "twod_test_supplied"), 0);
+        
+        try {
+            registry.counter("twod_test_frames_total", "Again");
+            fail("registered the same name twice");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+    
+    @Test public void serverAnswersScrapes() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("twod_test_requests_total", "Requests").add(3);
+        MetricsServer server = new MetricsServer(registry, 0);
+        server.start();
+        try {
+            URL url = URI.create("http://localhost:" + server.getPort() + "/metrics").toURL();
+            HttpURLConnection get = (HttpURLConnection) url.openConnection();
+            assertEquals(200, get.getResponseCode());
+            assertTrue(get.getContentType().startsWith("text/plain; version=0.0.4"));
+            String body;
+            try (InputStream in = get.getInputStream()) {
+                body = read(in);
+            }
+            assertEquals(registry.scrape(), body);
+            assertTrue(body.contains("twod_test_requests_total 3\n"));
+            
+            HttpURLConnection post = (HttpURLConnection) url.openConnection();
+            post.setRequestMethod("POST");
+            assertEquals(405, post.getResponseCode());
+        } finally {
+            server.stop();
+        }
+    }
+    
+    private static double sampleValue(String text, String sample) {
+        for (String line : text.split("\n")) {
+            if (line.startsWith(sample + " ")) {
+                return Double.parseDouble(line.substring(sample.length() + 1));
+            }
+        }
+        throw new AssertionError("No sample " + sample + " in\n" + text);
+    }
+    
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
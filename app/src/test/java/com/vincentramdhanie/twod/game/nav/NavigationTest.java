@@ -0,0 +1,77 @@
+package com.vincentramdhanie.twod.game.nav;
+
+import com.vincentramdhanie.twod.game.entity.Block;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NavigationTest {
+    // 20x20 cells of 10 px with a wall down the middle, open at the bottom
+    private static NavGrid wallGrid() {
+        NavGrid grid = new NavGrid(200, 200, 10, 0);
+        grid.addRect(100, 0, 10, 180);
+        return grid;
+    }
+    
+    @Test public void aStarGoesAroundTheWall() {
+        NavGrid grid = wallGrid();
+        int start = grid.cellAt(50, 50);
+        int goal = grid.cellAt(150, 50);
+        int[] path = new PathFinder().findPath(grid, start, goal);
+        
+        assertNotNull(path);
+        assertEquals(start, path[0]);
+        assertEquals(goal, path[path.length - 1]);
+        for (int cell : path) {
+            assertTrue(grid.isWalkable(cell));
+        }
+        // Has to dip below the wall at row 18
+        assertTrue(PathFinder.pathLength(grid, path) > 25);
+    }
+    
+    @Test public void flowFieldAgreesWithAStar() {
+        NavGrid grid = wallGrid();
+        int goal = grid.cellAt(150, 50);
+        FlowField field = FlowField.compute(grid, goal);
+        
+        int start = grid.cellAt(50, 50);
+        int[] path = new PathFinder().findPath(grid, start, goal);
+        assertEquals(PathFinder.pathLength(grid, path), field.getCost(start), 0.001f);
+        
+        // Following the field reaches the goal
+        int cell = start;
+        for (int steps = 0; steps < 100 && cell != goal; steps++) {
+            cell = field.nextCell(cell);
+        }
+        assertEquals(goal, cell);
+    }
+    
+    @Test public void fieldsArePublishedOnALaterTickAndInvalidatedSelectively() {
+        NavGrid grid = wallGrid();
+        // Run computations inline so the test does not depend on timing
+        NavigationService navigation = new NavigationService(grid, Runnable::run);
+        
+        assertNull(navigation.getFlowField(150, 50));
+        for (int i = 0; i < NavigationService.RESULT_LATENCY_TICKS; i++) {
+            navigation.tick();
+        }
+        FlowField field = navigation.getFlowField(150, 50);
+        assertNotNull(field);
+        assertTrue(field.isValidFor(grid.getVersion()));
+        
+        // Closing the gap changes reachable cells, so the field goes stale
+        Block plug = new Block(100, 180, 10, 20);
+        navigation.addObstacle(plug);
+        assertFalse(field.isValidFor(grid.getVersion()));
+        assertSame(field, navigation.getFlowField(150, 50)); // Stale field still served
+        navigation.tick();
+        navigation.tick();
+        FlowField rebuilt = navigation.getFlowField(150, 50);
+        assertNotSame(field, rebuilt);
+        assertFalse(rebuilt.isReachable(grid.cellAt(50, 50)));
+        
+        // A block in the now unreachable half cannot change the field
+        navigation.addObstacle(new Block(20, 20, 10, 10));
+        assertTrue(rebuilt.isValidFor(grid.getVersion()));
+    }
+}
@@ -0,0 +1,94 @@
+package com.vincentramdhanie.twod.game.net;
+
+import com.vincentramdhanie.twod.game.state.PlayState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameServerTest {
+    private GameServer server;
+    private final List<GameClient> clients = new ArrayList<>();
+    
+    @Before public void startServer() throws Exception {
+        server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 5L, 800, 600, 60);
+        server.start();
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+        for (int i = 0; i < 3; i++) {
+            clients.add(new GameClient(address));
+        }
+    }
+    
+    @After public void stopServer() throws Exception {
+        for (GameClient client : clients) {
+            client.close();
+        }
+        server.stop();
+    }
+    
+    @Test public void clientsJoinAndReceiveSnapshots() throws Exception {
+        pollUntil(() -> {
+            for (GameClient client : clients) {
+                if (!client.isConnected() || client.getPlayerCount() < clients.size()) return false;
+            }
+            return true;
+        });
+        
+        for (GameClient client : clients) {
+            assertEquals(5L, client.getSeed());
+            assertEquals(800, client.getWorldWidth());
+            assertEquals(clients.size(), client.getPlayerCount());
+        }
+    }
+    
+    @Test public void inputMovesOnlyThatClientsPlayer() throws Exception {
+        GameClient mover = clients.get(0);
+        GameClient observer = clients.get(1);
+        pollUntil(() -> observer.getPlayerCount() == clients.size() && mover.isConnected());
+        
+        float startX = playerX(observer, mover.getClientId());
+        int snapshot = observer.getSnapshotTick();
+        long end = System.nanoTime() + 500_000_000L;
+        while (System.nanoTime() < end) {
+            mover.poll();
+            mover.sendInput(PlayState.INPUT_LEFT);
+            for (GameClient client : clients) {
+                client.poll();
+            }
+            Thread.sleep(5);
+        }
+        
+        assertTrue("observer should have received new snapshots", observer.getSnapshotTick() > snapshot);
+        assertTrue("mover should have moved left", playerX(observer, mover.getClientId()) < startX);
+    }
+    
+    private static float playerX(GameClient client, int id) {
+        for (int i = 0; i < client.getPlayerCount(); i++) {
+            if (client.getPlayerId(i) == id) return client.getPlayerX(i);
+        }
+        fail("player " + id + " not in snapshot");
+        return 0;
+    }
+    
+    private interface Condition {
+        boolean met();
+    }
+    
+    private void pollUntil(Condition condition) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            for (GameClient client : clients) {
+                client.poll();
+            }
+            if (condition.met()) return;
+            Thread.sleep(5);
+        }
+        fail("condition not met within 5 seconds");
+    }
+}
@@ -0,0 +1,114 @@
+package com.vincentramdhanie.twod.game.net;
+
+import org.junit.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class SnapshotCodecTest {
+    private final SnapshotCodec codec = new SnapshotCodec();
+    
+    @Test public void fullSnapshotRoundTripsWithinQuantization() {
+        EntitySnapshot snapshot = new EntitySnapshot();
+        snapshot.clear(7);
+        snapshot.add(3, 12.3f, -45.6f, 1.25f, -0.7f, 100, EntitySnapshot.FLAG_ACTIVE);
+        snapshot.add(9, 780.01f, 560.5f, 0f, 0f, 0, 0);
+        
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.encodeFull(snapshot, buffer);
+        buffer.flip();
+        EntitySnapshot decoded = new EntitySnapshot();
+        codec.decodeFull(buffer, decoded);
+        
+        assertFalse(buffer.hasRemaining());
+        assertEquals(2, decoded.size());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(snapshot.getId(i), decoded.getId(i));
+            assertEquals(snapshot.getX(i), decoded.getX(i), 0.5f / SnapshotCodec.POSITION_SCALE);
+            assertEquals(snapshot.getY(i), decoded.getY(i), 0.5f / SnapshotCodec.POSITION_SCALE);
+            assertEquals(snapshot.getVelX(i), decoded.getVelX(i), 0.5f / SnapshotCodec.VELOCITY_SCALE);
+            assertEquals(snapshot.getVelY(i), decoded.getVelY(i), 0.5f / SnapshotCodec.VELOCITY_SCALE);
+            assertEquals(snapshot.getHealth(i), decoded.getHealth(i));
+            assertEquals(snapshot.isActive(i), decoded.isActive(i));
+        }
+    }
+    
+    @Test public void deltaAppliesChangesRemovalsAndAdditions() {
+        EntitySnapshot baseline = new EntitySnapshot();
+        baseline.clear(1);
+        for (int id = 0; id < 1000; id++) {
+            baseline.add(id, id, id * 2, 0, 0, 100, EntitySnapshot.FLAG_ACTIVE);
+        }
+        EntitySnapshot current = new EntitySnapshot();
+        current.clear(2);
+        for (int id = 0; id < 1000; id++) {
+            if (id == 10 || id == 500) continue; // Removed
+            if (id == 20) {
+                current.add(id, id + 3.5f, id * 2, 3.5f, 0, 90, EntitySnapshot.FLAG_ACTIVE);
+            } else if (id == 30) {
+                current.add(id, id, id * 2, 0, 0, 100, 0);
+            } else {
+                current.add(id, id, id * 2, 0, 0, 100, EntitySnapshot.FLAG_ACTIVE);
+            }
+        }
+        current.add(5000, 1, 1, 0, 0, 50, EntitySnapshot.FLAG_ACTIVE);
+        
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        codec.encodeDelta(baseline, current, buffer);
+        buffer.flip();
+        // Unchanged entities cost nothing, so the delta stays tiny
+        assertTrue("delta was " + buffer.remaining() + " bytes", buffer.remaining() < 40);
+        
+        EntitySnapshot decoded = new EntitySnapshot();
+        codec.decodeDelta(baseline, buffer, decoded);
+        assertEquals(current.size(), decoded.size());
+        for (int i = 0; i < current.size(); i++) {
+            assertEquals(current.getId(i), decoded.getId(i));
+            assertEquals(current.getX(i), decoded.getX(i), 0.001f);
+            assertEquals(current.getVelX(i), decoded.getVelX(i), 0.001f);
+            assertEquals(current.getHealth(i), decoded.getHealth(i));
+            assertEquals(current.getFlags(i), decoded.getFlags(i));
+        }
+    }
+    
+    @Test public void malformedCountsAndIdsAreRejected() {
+        EntitySnapshot out = new EntitySnapshot();
+        // A count far beyond what the packet could hold
+        assertRejected(() -> codec.decodeFull(ByteBuffer.wrap(new byte[] { (byte) 0xFF, (byte) 0xFF, 0x7F }), out));
+        // A count that decodes as negative
+        assertRejected(() -> codec.decodeFull(ByteBuffer.wrap(
+            new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F }), out));
+        
+        // A removed-id gap that would wrap around
+        EntitySnapshot baseline = new EntitySnapshot();
+        baseline.clear(1);
+        baseline.add(0, 0, 0, 0, 0, 0, 0);
+        ByteBuffer delta = ByteBuffer.wrap(new byte[] { 2, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0, 0 });
+        assertRejected(() -> codec.decodeDelta(baseline, delta, out));
+        
+        // A valid snapshot cut short still fails as an underflow
+        EntitySnapshot snapshot = new EntitySnapshot();
+        snapshot.clear(1);
+        snapshot.add(1, 10, 10, 0, 0, 100, EntitySnapshot.FLAG_ACTIVE);
+        snapshot.add(2, 20, 20, 0, 0, 100, EntitySnapshot.FLAG_ACTIVE);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.encodeFull(snapshot, buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 3);
+        try {
+            codec.decodeFull(buffer, out);
+            fail("decoded a truncated snapshot");
+        } catch (BufferUnderflowException | SnapshotFormatException expected) {
+        }
+    }
+    
+    private static void assertRejected(Runnable decode) {
+        try {
+            decode.run();
+            fail("malformed snapshot was decoded");
+        } catch (SnapshotFormatException expected) {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.vincentramdhanie.twod.game.particles;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ParticleSystemTest {
+    
+    @Test
+    public void expiredParticlesAreSwappedOutAndTheRestKept() {
+        ParticleSystem particles = new ParticleSystem(8);
+        // Tag each particle by its x position
+        particles.spawn(0, 0, 0, 0, 1, 0);
+        particles.spawn(1, 0, 0, 0, 5, 0);
+        particles.spawn(2, 0, 0, 0, 1, 0);
+        particles.spawn(3, 0, 0, 0, 5, 0);
+        
+        particles.update();
+        
+        assertEquals(2, particles.size());
+        float a = particles.getX(0), b = particles.getX(1);
+        assertEquals(4, a + b, 0);
+        assertTrue(a == 1 || a == 3);
+        assertEquals(4, particles.getLife(0), 0);
+    }
+    
+    @Test
+    public void spawnsBeyondCapacityAreDropped() {
+        ParticleSystem particles = new ParticleSystem(2);
+        assertTrue(particles.spawn(0, 0, 0, 0, 10, 0));
+        assertTrue(particles.spawn(0, 0, 0, 0, 10, 0));
+        assertFalse(particles.spawn(0, 0, 0, 0, 10, 0));
+        assertEquals(2, particles.size());
+    }
+    
+    @Test
+    public void renderAddsFadedColourAndClipsToTheRaster() {
+        ParticleSystem particles = new ParticleSystem(4);
+        particles.setPointSize(1);
+        particles.spawn(1, 1, 0, 0, 2, 0xff0000);
+        particles.spawn(-5, 1, 0, 0, 2, 0xff0000);
+        particles.spawn(1, 7, 0, 0, 2, 0xff0000);
+        particles.update();
+        
+        int[] pixels = new int[4 * 4];
+        pixels[1 * 4 + 1] = 0x000010;
+        particles.render(pixels, 4, 4);
+        
+        // Half of its life left, so half the colour (and alpha) is added
+        assertEquals(0x7f7f0010, pixels[1 * 4 + 1]);
+        int lit = 0;
+        for (int p : pixels) {
+            if (p != 0) lit++;
+        }
+        assertEquals(1, lit);
+    }
+}
@@ -0,0 +1,79 @@
+package com.vincentramdhanie.twod.game.physics;
+
+import com.vincentramdhanie.twod.game.entity.Entity;
+import org.junit.Test;
+
+import java.awt.Graphics2D;
+
+import static org.junit.Assert.*;
+
+public class ActivityTrackerTest {
+    
+    // Moves by its velocity through the world and counts its updates
+    private static class Body extends Entity {
+        PhysicsWorld world;
+        int id;
+        int updates;
+        
+        Body(float x, float y) {
+            super(x, y, 32, 32);
+        }
+        
+        @Override public void update() {
+            updates++;
+            if (world != null) {
+                world.move(id, velocity.x, velocity.y);
+            }
+        }
+        
+        @Override public void render(Graphics2D g) { }
+    }
+    
+    @Test public void restingBodiesSleepAndAreSkipped() {
+        ActivityTracker activity = new ActivityTracker(5);
+        Body resting = new Body(0, 0);
+        Body moving = new Body(100, 0);
+        moving.setVelX(1);
+        activity.add(resting, true);
+        activity.add(moving, true);
+        
+        for (int i = 0; i < 20; i++) {
+            activity.update();
+        }
+        assertTrue(resting.isSleeping());
+        assertEquals(5, resting.updates);
+        assertEquals(20, moving.updates);
+        assertEquals(1, activity.getAwakeCount());
+        assertEquals(1, activity.getSleepingCount());
+        
+        activity.applyImpulse(resting, 2, 0);
+        activity.update();
+        assertFalse(resting.isSleeping());
+        assertEquals(6, resting.updates);
+    }
+    
+    @Test public void contactWakesASleepingBodyAndKeepsItsIslandAwake() {
+        ActivityTracker activity = new ActivityTracker(5);
+        PhysicsWorld world = new PhysicsWorld(1000, 200, 64);
+        world.setActivity(activity);
+        Body pusher = new Body(0, 50);
+        Body sleeper = new Body(300, 50);
+        pusher.world = world;
+        sleeper.world = world;
+        pusher.id = world.addDynamic(pusher);
+        sleeper.id = world.addDynamic(sleeper);
+        activity.add(pusher, true);
+        activity.add(sleeper, false);
+        
+        // Drive into the sleeper and keep pressing against it
+        pusher.setVelX(50);
+        for (int i = 0; i < 20; i++) {
+            activity.update();
+            pusher.setVelX(50);
+        }
+        assertEquals(300 - 32, pusher.getX(), 0f);
+        assertFalse(sleeper.isSleeping());
+        assertTrue(sleeper.updates > 10);
+        assertEquals(2, activity.getAwakeCount());
+    }
+}
@@ -0,0 +1,92 @@
+package com.vincentramdhanie.twod.game.physics;
+
+import com.vincentramdhanie.twod.game.entity.Entity;
+import org.junit.Test;
+
+import java.awt.Graphics2D;
+
+import static org.junit.Assert.*;
+
+public class PhysicsWorldTest {
+    
+    private static class Box extends Entity {
+        Box(float x, float y, int width, int height) {
+            super(x, y, width, height);
+        }
+        
+        @Override public void update() { }
+        @Override public void render(Graphics2D g) { }
+    }
+    
+    @Test public void fastBodiesDoNotTunnelThroughThinOnes() {
+        PhysicsWorld world = new PhysicsWorld(1000, 200, 64);
+        world.addStatic(new Box(500, 0, 4, 200));
+        Box ball = new Box(10, 50, 32, 32);
+        int id = world.addDynamic(ball);
+        
+        // Far more than the wall is thick in one move
+        int contacts = world.move(id, 900, 0);
+        assertEquals(PhysicsWorld.CONTACT_X, contacts);
+        assertEquals(500 - 32, ball.getX(), 0f);
+        assertEquals(50, ball.getY(), 0f);
+    }
+    
+    @Test public void earliestContactWinsAndTheRestSlides() {
+        PhysicsWorld world = new PhysicsWorld(1000, 1000, 64);
+        // Listed far wall first; the near one must still stop the move
+        world.addStatic(new Box(400, 0, 64, 1000));
+        world.addStatic(new Box(200, 0, 64, 1000));
+        Box ball = new Box(100, 100, 32, 32);
+        int id = world.addDynamic(ball);
+        
+        int contacts = world.move(id, 300, 150);
+        assertEquals(PhysicsWorld.CONTACT_X, contacts);
+        assertEquals(200 - 32, ball.getX(), 0f);
+        // Vertical movement carries on along the wall
+        assertEquals(250, ball.getY(), 1e-3f);
+        
+        // Resting against the wall, it can still slide along it
+        assertEquals(0, world.move(id, 0, -50));
+        assertEquals(200, ball.getY(), 1e-3f);
+    }
+    
+    @Test public void dynamicBodiesBlockEachOtherAndBoundsHold() {
+        PhysicsWorld world = new PhysicsWorld(400, 400, 64);
+        Box a = new Box(0, 100, 32, 32);
+        Box b = new Box(300, 100, 32, 32);
+        int idA = world.addDynamic(a);
+        int idB = world.addDynamic(b);
+        
+        world.move(idA, 250, 0);
+        assertEquals(250, a.getX(), 0f);
+        assertEquals(PhysicsWorld.CONTACT_X, world.move(idB, -250, 0));
+        assertEquals(282, b.getX(), 0f);
+        
+        assertEquals(PhysicsWorld.CONTACT_Y, world.move(idA, 0, 1000));
+        assertEquals(400 - 32, a.getY(), 0f);
+        
+        // Removed bodies stop blocking
+        world.remove(idA);
+        world.move(idB, -282, 0);
+        assertEquals(0, b.getX(), 0f);
+    }
+    
+    @Test public void removedIdsAreReused() {
+        PhysicsWorld world = new PhysicsWorld(400, 400, 64);
+        world.addStatic(new Box(200, 0, 32, 400));
+        // Players joining and leaving over and over
+        for (int i = 0; i < 100; i++) {
+            int id = world.addDynamic(new Box(0, 0, 32, 32));
+            assertEquals(1, id);
+            world.remove(id);
+        }
+        assertEquals(1, world.getBodyCount());
+        
+        // A reused id is a fresh dynamic body with no trace of the old one
+        Box box = new Box(0, 100, 32, 32);
+        int id = world.addDynamic(box);
+        assertSame(box, world.getBody(id));
+        assertEquals(PhysicsWorld.CONTACT_X, world.move(id, 300, 0));
+        assertEquals(200 - 32, box.getX(), 0f);
+    }
+}
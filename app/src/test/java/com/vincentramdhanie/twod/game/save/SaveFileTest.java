@@ -0,0 +1,213 @@
+package com.vincentramdhanie.twod.game.save;
+
+import com.vincentramdhanie.twod.game.entity.Entity;
+import com.vincentramdhanie.twod.game.replay.WorldChecksum;
+import com.vincentramdhanie.twod.game.state.PlayState;
+import com.vincentramdhanie.twod.game.steering.Flock;
+import org.junit.Test;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SaveFileTest {
+    
+    private static PlayState world(Path save) {
+        PlayState state = new PlayState(null, 800, 600);
+        state.setEffects(false);
+        state.setSaveFile(save, 0);
+        return state;
+    }
+    
+    @Test public void pausedWorldContinuesFromTheSave() throws Exception {
+        Path file = Files.createTempFile("world", ".sav");
+        Files.delete(file);
+        try {
+            PlayState original = world(file);
+            original.setSeed(77L);
+            original.init();
+            Random input = new Random(5);
+            for (int tick = 0; tick < 300; tick++) {
+                if (tick % 20 == 0) {
+                    original.setInputBits(input.nextInt(16));
+                }
+                original.update();
+            }
+            
+            // Escape saves at the end of the next tick
+            original.setInputBits(PlayState.INPUT_RIGHT);
+            original.keyPressed(KeyEvent.VK_ESCAPE);
+            original.update();
+            original.awaitSave();
+            int savedChecksum = WorldChecksum.of(original);
+            float swarmX = original.getSwarm().getX(7);
+            
+            PlayState continued = world(file);
+            continued.init();
+            assertEquals(77L, continued.getSeed());
+            assertEquals(original.getTick(), continued.getTick());
+            assertEquals(savedChecksum, WorldChecksum.of(continued));
+            assertEquals(swarmX, continued.getSwarm().getX(7), 0f);
+            assertEquals(original.getPlayer().getAnimationId(), continued.getPlayer().getAnimationId());
+            assertEquals(original.getPlayer().getAnimationTime(), continued.getPlayer().getAnimationTime());
+            // Everything the save holds comes back exactly
+            assertEquals(original.getPlayer().getHealth(), continued.getPlayer().getHealth());
+            assertSameEntity(original.getPlayer(), continued.getPlayer());
+            for (int i = 0; i < original.getBlocks().size(); i++) {
+                assertSameEntity(original.getBlocks().get(i), continued.getBlocks().get(i));
+            }
+            for (int i = 0; i < original.getNpcs().size(); i++) {
+                assertSameEntity(original.getNpcs().get(i), continued.getNpcs().get(i));
+            }
+            assertSameSwarm(original, continued);
+            
+            // Everything but the NPCs carries on identically. NPC scripts are not
+            // saved; they start over from where the NPCs stand, so the NPCs are free
+            // to take another path.
+            for (int tick = 0; tick < 100; tick++) {
+                original.setInputBits(PlayState.INPUT_LEFT | PlayState.INPUT_UP);
+                continued.setInputBits(PlayState.INPUT_LEFT | PlayState.INPUT_UP);
+                original.update();
+                continued.update();
+            }
+            assertEquals(original.getTick(), continued.getTick());
+            assertSameEntity(original.getPlayer(), continued.getPlayer());
+            for (int i = 0; i < original.getBlocks().size(); i++) {
+                assertSameEntity(original.getBlocks().get(i), continued.getBlocks().get(i));
+            }
+            assertSameSwarm(original, continued);
+            original.shutdown();
+            continued.shutdown();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test public void ticksPastTheIntRangeAreKept() throws IOException {
+        Path file = Files.createTempFile("world", ".sav");
+        Files.delete(file);
+        try {
+            PlayState original = world(file);
+            original.setSeed(3L);
+            original.init();
+            WorldSnapshot snapshot = new WorldSnapshot();
+            snapshot.capture(original);
+            snapshot.tick = (1L << 33) + 5;
+            SaveFile.write(snapshot, file);
+            original.shutdown();
+            
+            PlayState continued = world(file);
+            continued.init();
+            assertEquals((1L << 33) + 5, continued.getTick());
+            continued.update();
+            assertEquals((1L << 33) + 6, continued.getTick());
+            continued.shutdown();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    private static void assertSameEntity(Entity expected, Entity actual) {
+        assertEquals(expected.getX(), actual.getX(), 0f);
+        assertEquals(expected.getY(), actual.getY(), 0f);
+        assertEquals(expected.getVelX(), actual.getVelX(), 0f);
+        assertEquals(expected.getVelY(), actual.getVelY(), 0f);
+        assertEquals(expected.isActive(), actual.isActive());
+    }
+    
+    private static void assertSameSwarm(PlayState expected, PlayState actual) {
+        Flock a = expected.getSwarm();
+        Flock b = actual.getSwarm();
+        assertEquals(a.size(), b.size());
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.getX(i), b.getX(i), 0f);
+            assertEquals(a.getY(i), b.getY(i), 0f);
+            assertEquals(a.getVelX(i), b.getVelX(i), 0f);
+            assertEquals(a.getVelY(i), b.getVelY(i), 0f);
+        }
+    }
+    
+    @Test public void roundTripsLargeWorlds() throws IOException {
+        WorldSnapshot snapshot = new WorldSnapshot();
+        snapshot.seed = -3;
+        snapshot.tick = 1L << 40;
+        snapshot.player.add(0, 1, 2, 3, 4, 50, 1);
+        for (int i = 0; i < 200_000; i++) {
+            snapshot.blocks.add(i, i * 0.5f, -i, 0, 0, 0, i & 1);
+            snapshot.swarm.add(i, i, i * 2f, 1.5f, -1.5f, 0, 1);
+        }
+        
+        Path file = Files.createTempFile("world", ".sav");
+        try {
+            SaveFile.write(snapshot, file);
+            assertEquals(SaveFile.sizeOf(snapshot), Files.size(file));
+            
+            WorldSnapshot read = new WorldSnapshot();
+            SaveFile.read(file, read);
+            assertEquals(-3, read.getSeed());
+            assertEquals(1L << 40, read.getTick());
+            assertEquals(50, read.getPlayer().getHealth(0));
+            assertEquals(200_000, read.getBlocks().size());
+            assertEquals(199_999 * 0.5f, read.getBlocks().getX(199_999), 0f);
+            assertFalse(read.getBlocks().isActive(199_998));
+            assertEquals(-1.5f, read.getSwarm().getVelY(123), 0f);
+            assertEquals(0, read.getNpcs().size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test public void savesCanBeReplacedAndDiscarded() throws IOException {
+        Path file = Files.createTempFile("world", ".sav");
+        Files.delete(file);
+        Autosaver autosaver = new Autosaver(file);
+        try {
+            PlayState state = new PlayState(null, 800, 600);
+            state.setEffects(false);
+            state.setSeed(5L);
+            state.init();
+            autosaver.save(state);
+            state.update();
+            autosaver.save(state);
+            assertEquals(1, autosaver.load().getTick());
+            
+            autosaver.discard();
+            assertFalse(Files.exists(file));
+            assertNull(autosaver.load());
+            state.shutdown();
+        } finally {
+            autosaver.close();
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test public void damagedSavesStartANewWorld() throws IOException {
+        WorldSnapshot snapshot = new WorldSnapshot();
+        snapshot.blocks.add(0, 1, 1, 0, 0, 0, 1);
+        Path file = Files.createTempFile("world", ".sav");
+        try {
+            SaveFile.write(snapshot, file);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+            try {
+                SaveFile.read(file, new WorldSnapshot());
+                fail("read a truncated save");
+            } catch (IOException expected) {
+            }
+            
+            // A newer version is refused rather than misread
+            bytes[5] = 9;
+            Files.write(file, bytes);
+            Autosaver autosaver = new Autosaver(file);
+            assertNull(autosaver.load());
+            autosaver.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
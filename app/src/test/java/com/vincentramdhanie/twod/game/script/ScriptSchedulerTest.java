@@ -0,0 +1,136 @@
+package com.vincentramdhanie.twod.game.script;
+
+import com.vincentramdhanie.twod.game.entity.Npc;
+import org.junit.After;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ScriptSchedulerTest {
+    private final ScriptScheduler scheduler = new ScriptScheduler(60, 1_000_000_000L);
+    
+    @After public void shutdown() {
+        scheduler.shutdown();
+    }
+    
+    private static Npc npc() {
+        return new Npc(0, 0, 10, 10, 2f, Color.WHITE);
+    }
+    
+    @Test public void scriptsResumeInSpawnOrderEveryTick() {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final int id = i;
+            scheduler.spawn(npc(), ctx -> {
+                while (true) {
+                    order.add(id);
+                    ctx.waitTicks(1);
+                }
+            });
+        }
+        
+        for (int t = 0; t < 3; t++) {
+            scheduler.tick();
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 0, 1, 2, 0, 1, 2), order);
+    }
+    
+    @Test public void waitsAndMovesAreCountedInTicks() {
+        Npc npc = npc();
+        long[] arrivedAt = new long[1];
+        ScriptContext ctx = scheduler.spawn(npc, c -> {
+            c.waitSeconds(0.5);
+            c.moveTo(20, 0);
+            arrivedAt[0] = c.getTick();
+        });
+        
+        for (int t = 0; t < 100 && !ctx.isDone(); t++) {
+            scheduler.tick();
+            npc.update();
+        }
+        assertTrue(ctx.isDone());
+        // 30 ticks of waiting, then 10 ticks to walk 20 px at 2 px per tick
+        assertEquals(40, arrivedAt[0]);
+        assertEquals(20f, npc.getX(), 0f);
+        assertEquals(0, scheduler.size());
+    }
+    
+    @Test public void slowRoundIsDeferredAndCountedAsAnOverrun() {
+        ScriptScheduler bounded = new ScriptScheduler(60, 1_000_000L);
+        int[] steps = new int[1];
+        bounded.spawn(npc(), ctx -> {
+            long end = System.nanoTime() + 20_000_000L;
+            while (System.nanoTime() < end) {
+                // Busy without yielding
+            }
+            steps[0]++;
+            ctx.waitTicks(1);
+            steps[0]++;
+        });
+        
+        assertFalse(bounded.tick());
+        assertEquals(1, bounded.getOverruns());
+        
+        // Later ticks pick up the late round before starting the next one
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!bounded.tick() && System.nanoTime() < deadline) {
+        }
+        assertEquals(1, steps[0]);
+        while (!bounded.tick() && System.nanoTime() < deadline) {
+        }
+        assertEquals(2, steps[0]);
+        bounded.shutdown();
+    }
+    
+    @Test public void scriptThatNeverWaitsDoesNotBlockTheTick() {
+        ScriptScheduler bounded = new ScriptScheduler(60, 5_000_000L, 50_000_000L);
+        AtomicBoolean release = new AtomicBoolean();
+        int[] others = new int[1];
+        bounded.spawn(npc(), ctx -> {
+            // Never waits; released at the end so it does not hog a carrier thread for later tests
+            while (!release.get()) {
+                Thread.onSpinWait();
+            }
+        });
+        bounded.spawn(npc(), ctx -> {
+            while (true) {
+                others[0]++;
+                ctx.waitTicks(1);
+            }
+        });
+        
+        for (int t = 0; t < 5; t++) {
+            long start = System.nanoTime();
+            assertFalse(bounded.tick());
+            // The budget plus slack for a busy machine
+            assertTrue(System.nanoTime() - start < 500_000_000L);
+        }
+        release.set(true);
+        
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (others[0] < 3 && System.nanoTime() < deadline) {
+            bounded.tick();
+        }
+        assertTrue(others[0] >= 3);
+        assertEquals(1, bounded.size());
+        assertTrue(bounded.getOverruns() >= 5);
+        bounded.shutdown();
+    }
+    
+    @Test public void tickAfterShutdownReturns() {
+        scheduler.spawn(npc(), ctx -> {
+            while (true) {
+                ctx.waitTicks(1);
+            }
+        });
+        scheduler.tick();
+        scheduler.shutdown();
+        scheduler.tick();
+    }
+}
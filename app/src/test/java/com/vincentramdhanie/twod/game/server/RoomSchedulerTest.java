@@ -0,0 +1,51 @@
+package com.vincentramdhanie.twod.game.server;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoomSchedulerTest {
+    private RoomScheduler scheduler;
+    
+    @After public void stopScheduler() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+    }
+    
+    @Test public void roomsTickAtTheirOwnRate() throws Exception {
+        scheduler = new RoomScheduler(2, 60, 100, 1.0);
+        scheduler.start();
+        for (int i = 0; i < 20; i++) {
+            assertNotNull(scheduler.tryAddRoom(i, 800, 600));
+        }
+        
+        long[] before = new long[20];
+        for (int i = 0; i < 20; i++) {
+            before[i] = scheduler.getRooms().get(i).getTicks();
+        }
+        Thread.sleep(500);
+        for (int i = 0; i < 20; i++) {
+            Room room = scheduler.getRooms().get(i);
+            // About 30 ticks in half a second at 60 Hz, allowing for a slow machine
+            long ticked = room.getTicks() - before[i];
+            assertTrue(room.toString(), ticked >= 15 && ticked <= 33);
+            assertTrue(room.getAverageTickNanos() > 0);
+        }
+        assertEquals(20, scheduler.getCapacityReport().getRooms());
+    }
+    
+    @Test public void refusesRoomsBeyondTheLimit() {
+        scheduler = new RoomScheduler(1, 60, 3);
+        scheduler.start();
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(scheduler.tryAddRoom(i, 800, 600));
+        }
+        assertNull(scheduler.tryAddRoom(3, 800, 600));
+        assertEquals(1, scheduler.getCapacityReport().getRejected());
+        
+        scheduler.removeRoom(scheduler.getRooms().get(0));
+        assertNotNull(scheduler.tryAddRoom(4, 800, 600));
+    }
+}
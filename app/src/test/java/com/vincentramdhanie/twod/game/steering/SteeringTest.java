@@ -0,0 +1,82 @@
+package com.vincentramdhanie.twod.game.steering;
+
+import com.vincentramdhanie.twod.game.entity.Block;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SteeringTest {
+    private static Flock randomFlock(int count, long seed) {
+        Random random = new Random(seed);
+        Flock flock = new Flock(count);
+        for (int i = 0; i < count; i++) {
+            flock.add(random.nextFloat() * 800, random.nextFloat() * 600,
+                random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1);
+        }
+        return flock;
+    }
+    
+    @Test public void spatialHashFindsTheSameNeighboursAsAllPairs() {
+        Flock flock = randomFlock(500, 1);
+        SpatialHash hash = new SpatialHash(800, 600, 30);
+        hash.build(flock.x, flock.y, flock.count);
+        
+        for (int i = 0; i < flock.count; i += 7) {
+            int expected = 0;
+            for (int j = 0; j < flock.count; j++) {
+                float dx = flock.x[j] - flock.x[i], dy = flock.y[j] - flock.y[i];
+                if (j != i && dx * dx + dy * dy < 30 * 30) expected++;
+            }
+            int found = 0;
+            int col = hash.colOf(flock.x[i]), row = hash.rowOf(flock.y[i]);
+            for (int r = Math.max(0, row - 1); r <= Math.min(hash.getRows() - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(hash.getCols() - 1, col + 1); c++) {
+                    int cell = r * hash.getCols() + c;
+                    for (int k = hash.cellStart(cell); k < hash.cellEnd(cell); k++) {
+                        int j = hash.agentAt(k);
+                        float dx = flock.x[j] - flock.x[i], dy = flock.y[j] - flock.y[i];
+                        if (j != i && dx * dx + dy * dy < 30 * 30) found++;
+                    }
+                }
+            }
+            assertEquals(expected, found);
+        }
+    }
+    
+    @Test public void parallelUpdateMatchesSequential() {
+        Flock sequential = randomFlock(6000, 2);
+        Flock parallel = randomFlock(6000, 2);
+        SteeringSystem one = new SteeringSystem(800, 600, 32);
+        one.setParallelThreshold(Integer.MAX_VALUE);
+        SteeringSystem many = new SteeringSystem(800, 600, 32);
+        many.setParallelThreshold(1);
+        
+        for (int t = 0; t < 20; t++) {
+            one.update(sequential, 400, 300);
+            many.update(parallel, 400, 300);
+        }
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.getX(i), parallel.getX(i), 0f);
+            assertEquals(sequential.getY(i), parallel.getY(i), 0f);
+        }
+    }
+    
+    @Test public void agentsKeepOutOfObstacles() {
+        Flock flock = randomFlock(300, 3);
+        SteeringSystem steering = new SteeringSystem(800, 600, 32);
+        steering.setObstacles(Collections.singletonList(new Block(350, 250, 100, 100)));
+        
+        // The target sits inside the obstacle, so the swarm keeps pressing against it
+        for (int t = 0; t < 600; t++) {
+            steering.update(flock, 400, 300);
+        }
+        int inside = 0;
+        for (int i = 0; i < flock.size(); i++) {
+            if (flock.getX(i) > 355 && flock.getX(i) < 445 && flock.getY(i) > 255 && flock.getY(i) < 345) inside++;
+        }
+        assertEquals(0, inside);
+    }
+}
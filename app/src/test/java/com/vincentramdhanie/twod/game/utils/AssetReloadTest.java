@@ -0,0 +1,104 @@
+package com.vincentramdhanie.twod.game.utils;
+
+import com.vincentramdhanie.twod.game.graphics.SpriteSheet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class AssetReloadTest {
+    private Path root;
+    private AssetWatcher watcher;
+    
+    @Before public void createAssets() throws IOException {
+        root = Files.createTempDirectory("twod-assets");
+        Files.createDirectories(root.resolve("sprites"));
+        writeImage("sprites/tile.png", 0xffff0000);
+        Files.write(root.resolve("sprites/tile.sheet"),
+            "image tile.png\nframe tile 0 0 4 4\nanimation idle loop 100 tile\n".getBytes(StandardCharsets.UTF_8));
+        ResourceLoader.clearCache();
+        ResourceLoader.setAssetRoot(root);
+    }
+    
+    @After public void removeAssets() throws IOException {
+        if (watcher != null) {
+            watcher.stop();
+        }
+        ResourceLoader.setAssetRoot(null);
+        ResourceLoader.clearCache();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+    
+    private void writeImage(String path, int argb) throws IOException {
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        // Write beside the target and move it over, so nothing reads a half-written file
+        Path temp = root.resolve(path + ".tmp");
+        ImageIO.write(image, "png", temp.toFile());
+        Files.move(temp, root.resolve(path), StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    @Test public void reloadSwapsImagesAndTheSheetsSlicedFromThem() throws IOException {
+        AssetHandle<BufferedImage> image = ResourceLoader.imageHandle("/sprites/tile.png");
+        AssetHandle<SpriteSheet> sheet = ResourceLoader.sheetHandle("/sprites/tile.sheet");
+        SpriteSheet before = sheet.get();
+        assertEquals(0xffff0000, image.get().getRGB(0, 0));
+        
+        writeImage("sprites/tile.png", 0xff0000ff);
+        assertTrue(ResourceLoader.reload("/sprites/tile.png"));
+        
+        // Same handles, new contents
+        assertSame(image, ResourceLoader.imageHandle("/sprites/tile.png"));
+        assertEquals(0xff0000ff, image.get().getRGB(0, 0));
+        assertNotSame(before, sheet.get());
+        assertEquals(0xff0000ff, sheet.get().getFrame(0).getRGB(0, 0));
+        assertSame(sheet.get(), ResourceLoader.loadSpriteSheet("/sprites/tile.sheet"));
+    }
+    
+    @Test public void brokenEditsKeepTheOldAsset() throws IOException {
+        AssetHandle<BufferedImage> image = ResourceLoader.imageHandle("/sprites/tile.png");
+        BufferedImage before = image.get();
+        
+        Files.write(root.resolve("sprites/tile.png"), new byte[] {1, 2, 3});
+        assertFalse(ResourceLoader.reload("/sprites/tile.png"));
+        assertSame(before, image.get());
+        
+        // Assets nobody loaded are not reloaded
+        assertFalse(ResourceLoader.reload("/sprites/other.png"));
+    }
+    
+    @Test public void watcherPicksUpChangedFiles() throws Exception {
+        AssetHandle<BufferedImage> image = ResourceLoader.imageHandle("/sprites/tile.png");
+        watcher = new AssetWatcher(root);
+        watcher.start();
+        assertEquals("/sprites/tile.png", watcher.toResourcePath(root.resolve("sprites/tile.png")));
+        
+        writeImage("sprites/tile.png", 0xff00ff00);
+        // Where WatchService polls (macOS) changes show up only every ten seconds or so,
+        // so wait several poll intervals; elsewhere the loop ends within milliseconds
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (image.get().getRGB(0, 0) != 0xff00ff00 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0xff00ff00, image.get().getRGB(0, 0));
+    }
+}
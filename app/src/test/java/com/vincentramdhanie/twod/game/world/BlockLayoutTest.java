@@ -0,0 +1,30 @@
+package com.vincentramdhanie.twod.game.world;
+
+import com.vincentramdhanie.twod.game.entity.Block;
+import com.vincentramdhanie.twod.game.state.PlayState;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BlockLayoutTest {
+    
+    @Test public void generatedLayoutMatchesThePlayStateLevel() {
+        PlayState state = new PlayState(null, 800, 600);
+        state.setSeed(42L);
+        state.setEffects(false);
+        state.init();
+        
+        List<Block> generated = BlockLayout.generate(42L, 800, 600);
+        List<Block> level = state.getBlocks();
+        assertEquals(BlockLayout.LEVEL_BLOCKS, generated.size());
+        assertEquals(level.size(), generated.size());
+        for (int i = 0; i < level.size(); i++) {
+            assertEquals(level.get(i).getX(), generated.get(i).getX(), 0f);
+            assertEquals(level.get(i).getY(), generated.get(i).getY(), 0f);
+            assertEquals(level.get(i).getWidth(), generated.get(i).getWidth());
+        }
+        state.shutdown();
+    }
+}
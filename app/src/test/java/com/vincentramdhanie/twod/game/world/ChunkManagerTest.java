@@ -0,0 +1,123 @@
+package com.vincentramdhanie.twod.game.world;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class ChunkManagerTest {
+    private static final int SIZE = 256;
+    private final ChunkGenerator generator = new ScatterChunkGenerator(32, 16, 0.5);
+    
+    private static void settle(ChunkManager chunks, float x, float y) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            chunks.update(x, y);
+            if (chunks.isSettled() && chunks.getChunkAt(x, y) != null) return;
+            Thread.sleep(2);
+        }
+        fail("Chunks did not finish loading");
+    }
+    
+    @Test public void generationIsReproducibleAndNonOverlapping() {
+        Chunk a = new Chunk(3, -2, SIZE);
+        Chunk b = new Chunk(3, -2, SIZE);
+        generator.generate(a, 7L);
+        generator.generate(b, 7L);
+        
+        assertTrue(a.getBlockCount() > 0);
+        assertEquals(a.getBlockCount(), b.getBlockCount());
+        for (int i = 0; i < a.getBlockCount(); i++) {
+            assertEquals(a.getBlockX(i), b.getBlockX(i), 0f);
+            assertEquals(a.getBlockY(i), b.getBlockY(i), 0f);
+            assertTrue(a.getBlockX(i) >= 3 * SIZE && a.getBlockX(i) + 32 <= 4 * SIZE);
+            for (int j = 0; j < i; j++) {
+                boolean overlap = Math.abs(a.getBlockX(i) - a.getBlockX(j)) < 32 && Math.abs(a.getBlockY(i) - a.getBlockY(j)) < 32;
+                assertFalse(overlap);
+            }
+        }
+    }
+    
+    @Test public void poissonChunksDoNotOverlapTheirNeighbours() {
+        ChunkGenerator poisson = new PoissonChunkGenerator(32, 16, 0.8);
+        Chunk left = new Chunk(0, 0, SIZE);
+        Chunk right = new Chunk(1, 0, SIZE);
+        poisson.generate(left, 7L);
+        poisson.generate(right, 7L);
+        
+        assertTrue(left.getBlockCount() > 0 && right.getBlockCount() > 0);
+        for (int i = 0; i < left.getBlockCount(); i++) {
+            // Half the gap stays free on either side of the border
+            assertTrue(left.getBlockX(i) + 32 <= SIZE - 8);
+        }
+        for (int i = 0; i < right.getBlockCount(); i++) {
+            assertTrue(right.getBlockX(i) >= SIZE + 8);
+        }
+    }
+    
+    @Test public void memoryStaysFlatAndModifiedChunksSurviveEviction() throws Exception {
+        Path dir = Files.createTempDirectory("chunks");
+        try (ChunkManager chunks = new ChunkManager(7L, SIZE, 1, generator, dir)) {
+            chunks.setChunksPerTick(4);
+            settle(chunks, 10, 10);
+            assertEquals(9, chunks.getLoadedChunks().size());
+            
+            Chunk home = chunks.getChunkAt(10, 10);
+            assertTrue(home.getBlockCount() > 0);
+            home.getBlocks().get(0).setActive(false);
+            home.markModified();
+            
+            // Travel far away; only the chunks around the focus stay loaded
+            for (int step = 1; step <= 20; step++) {
+                settle(chunks, 10 + step * SIZE, 10);
+                assertTrue(chunks.getLoadedChunks().size() <= 16);
+            }
+            assertNull(chunks.getChunkAt(10, 10));
+            
+            // Come back and find the change
+            settle(chunks, 10, 10);
+            Chunk reloaded = chunks.getChunkAt(10, 10);
+            assertNotSame(home, reloaded);
+            assertFalse(reloaded.getBlocks().get(0).isActive());
+            assertTrue(reloaded.getBlocks().get(1).isActive());
+        }
+    }
+    
+    @Test public void quickReturnsKeepEveryChangeInOrder() throws Exception {
+        Path dir = Files.createTempDirectory("chunks");
+        try (ChunkManager chunks = new ChunkManager(7L, SIZE, 1, generator, dir)) {
+            chunks.setChunksPerTick(16);
+            // Step just past the unload radius and back, changing one more block each visit
+            for (int visit = 0; visit < 4; visit++) {
+                settle(chunks, 10, 10);
+                Chunk home = chunks.getChunkAt(10, 10);
+                home.getBlocks().get(visit).setActive(false);
+                home.markModified();
+                settle(chunks, 10 + 3 * SIZE, 10);
+            }
+        }
+        
+        try (ChunkManager chunks = new ChunkManager(7L, SIZE, 1, generator, dir)) {
+            settle(chunks, 10, 10);
+            Chunk home = chunks.getChunkAt(10, 10);
+            for (int i = 0; i < 4; i++) {
+                assertFalse(home.getBlocks().get(i).isActive());
+            }
+        }
+    }
+    
+    @Test public void savedCopyDoesNotFollowLaterChanges() {
+        Chunk chunk = new Chunk(0, 0, SIZE);
+        generator.generate(chunk, 7L);
+        chunk.materialize();
+        chunk.getBlocks().get(0).setActive(false);
+        
+        Chunk copy = chunk.copyLayout();
+        chunk.getBlocks().get(0).setActive(true);
+        chunk.getBlocks().get(1).setActive(false);
+        assertFalse(copy.materialize().get(0).isActive());
+        assertTrue(copy.materialize().get(1).isActive());
+        assertNotSame(chunk.getBlocks(), copy.getBlocks());
+    }
+}
@@ -0,0 +1,63 @@
+package com.vincentramdhanie.twod.game.world;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PoissonDiskSamplerTest {
+    
+    @Test public void pointsKeepTheirSpacingAndAvoidExclusions() {
+        PoissonDiskSampler sampler = new PoissonDiskSampler(2000, 1500, 74, 50);
+        sampler.addExclusion(900, 600, 200, 300);
+        int count = sampler.sample(11L, Integer.MAX_VALUE);
+        
+        assertTrue(count > 200);
+        for (int i = 0; i < count; i++) {
+            float x = sampler.getX(i);
+            float y = sampler.getY(i);
+            assertTrue(x >= 0 && x <= 2000 && y >= 0 && y <= 1500);
+            assertFalse(x > 900 && x < 1100 && y > 600 && y < 900);
+            for (int j = 0; j < i; j++) {
+                boolean close = Math.abs(x - sampler.getX(j)) < 74 && Math.abs(y - sampler.getY(j)) < 50;
+                assertFalse(close);
+            }
+        }
+    }
+    
+    @Test public void sameSeedGivesSamePoints() {
+        PoissonDiskSampler a = new PoissonDiskSampler(736, 536, 74, 74);
+        PoissonDiskSampler b = new PoissonDiskSampler(736, 536, 74, 74);
+        assertEquals(10, a.sample(5L, 10));
+        assertEquals(10, b.sample(5L, 10));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(a.getX(i), b.getX(i), 0f);
+            assertEquals(a.getY(i), b.getY(i), 0f);
+        }
+        
+        a.sample(6L, 10);
+        assertTrue(a.getX(0) != b.getX(0));
+    }
+    
+    @Test public void findsTheFreeCornerOfAMostlyExcludedArea() {
+        PoissonDiskSampler sampler = new PoissonDiskSampler(1000, 1000, 50, 50);
+        // Everything but a 100 x 100 corner
+        sampler.addExclusion(100, -1, 901, 1002);
+        sampler.addExclusion(-1, 100, 102, 901);
+        for (long seed = 0; seed < 20; seed++) {
+            int count = sampler.sample(seed, Integer.MAX_VALUE);
+            assertTrue("seed " + seed, count > 0);
+            for (int i = 0; i < count; i++) {
+                assertTrue(sampler.getX(i) <= 100 && sampler.getY(i) <= 100);
+            }
+        }
+    }
+    
+    @Test public void impossibleCountPlacesWhatFits() {
+        PoissonDiskSampler sampler = new PoissonDiskSampler(736, 536, 74, 74);
+        int count = sampler.sample(3L, 1000);
+        
+        assertTrue(count > 0);
+        assertTrue(count <= sampler.getCapacity());
+        assertEquals(count, sampler.getCount());
+    }
+}
@@ -0,0 +1,64 @@
+package com.vincentramdhanie.twod.game.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one BallPlayer.update() against a growing number of blocks.
+ * The blocks are laid out in a band at the top of the screen and the player
+ * moves along the bottom, so every update scans the full list without colliding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BallPlayerBenchmark {
+    private static final int SCREEN_WIDTH = 800;
+    private static final int SCREEN_HEIGHT = 600;
+    
+    @Param({"10", "100", "1000"})
+    public int blockCount;
+    
+    private BallPlayer player;
+    
+    @Setup
+    public void setup() {
+        List<Block> blocks = new ArrayList<>();
+        int blockSize = 8;
+        int columns = SCREEN_WIDTH / (blockSize * 2);
+        for (int i = 0; i < blockCount; i++) {
+            int x = (i % columns) * blockSize * 2;
+            int y = (i / columns) * blockSize * 2 % 200;
+            blocks.add(new Block(x, y, blockSize, blockSize));
+        }
+        
+        player = new BallPlayer(SCREEN_WIDTH / 2f, 400, 32, 32, SCREEN_WIDTH, SCREEN_HEIGHT);
+        player.setBlocks(blocks);
+    }
+    
+    @Benchmark
+    public float update() {
+        // Reset to the same starting point so every invocation does identical work
+        player.setX(SCREEN_WIDTH / 2f);
+        player.setY(400);
+        player.setVelX(3);
+        player.setVelY(0);
+        player.update();
+        return player.getX();
+    }
+}
@@ -0,0 +1,46 @@
+package com.vincentramdhanie.twod.game.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Entity.checkCollision for an overlapping and a disjoint pair.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    private Block a;
+    private Block overlapping;
+    private Block disjoint;
+    
+    @Setup
+    public void setup() {
+        a = new Block(100, 100, 64, 64);
+        overlapping = new Block(130, 130, 64, 64);
+        disjoint = new Block(400, 400, 64, 64);
+    }
+    
+    @Benchmark
+    public boolean checkCollisionHit() {
+        return a.checkCollision(overlapping);
+    }
+    
+    @Benchmark
+    public boolean checkCollisionMiss() {
+        return a.checkCollision(disjoint);
+    }
+}
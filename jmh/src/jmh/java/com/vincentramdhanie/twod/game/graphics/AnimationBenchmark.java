@@ -0,0 +1,70 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-tick cost of advancing a single animation, and of advancing
+ * 50,000 playheads spread over a handful of shared definitions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AnimationBenchmark {
+    private static final int SPRITES = 50_000;
+    private static final long TICK_MILLIS = 16;
+    
+    private Animation animation;
+    private AnimationPlayheads playheads;
+    
+    @Setup
+    public void setup() {
+        AnimationDefinition[] definitions = new AnimationDefinition[4];
+        for (int d = 0; d < definitions.length; d++) {
+            int frames = 4 + d * 4;
+            BufferedImage[] images = new BufferedImage[frames];
+            int[] durations = new int[frames];
+            for (int i = 0; i < frames; i++) {
+                images[i] = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+                durations[i] = 16 + i;
+            }
+            definitions[d] = new AnimationDefinition(images, durations, true);
+        }
+        
+        animation = new Animation(definitions[1]);
+        playheads = new AnimationPlayheads(SPRITES);
+        for (int i = 0; i < SPRITES; i++) {
+            playheads.add(definitions[i % definitions.length]);
+            // Stagger the sprites so they are not all on the same frame
+            if (i % 1000 == 999) {
+                playheads.advance(7);
+            }
+        }
+    }
+    
+    @Benchmark
+    public BufferedImage update() {
+        animation.update(TICK_MILLIS);
+        return animation.getCurrentFrame();
+    }
+    
+    @Benchmark
+    public int advance50k() {
+        playheads.advance(TICK_MILLIS);
+        return playheads.getFrameIndex(SPRITES - 1);
+    }
+}
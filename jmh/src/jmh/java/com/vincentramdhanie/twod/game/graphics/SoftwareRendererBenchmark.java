@@ -0,0 +1,110 @@
+package com.vincentramdhanie.twod.game.graphics;
+
+import com.vincentramdhanie.twod.game.utils.ResourceLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draws the same sprite-heavy frame with Java2D and with SoftwareRenderer, at
+ * 1080p and 4K. The scene scales with the screen area: opaque blocks, translucent
+ * balls and small ovals, like a crowded play screen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SoftwareRendererBenchmark {
+    @Param({"1920x1080", "3840x2160"})
+    public String resolution;
+    
+    @Param({"java2d", "software-serial", "software"})
+    public String renderer;
+    
+    private int width;
+    private int height;
+    private BufferedImage frame;
+    private Graphics2D g;
+    private SoftwareRenderer software;
+    
+    private BufferedImage block;
+    private BufferedImage ball;
+    // Packed kind, x, y per draw
+    private int[] scene;
+    
+    @Setup
+    public void setup() {
+        String[] size = resolution.split("x");
+        width = Integer.parseInt(size[0]);
+        height = Integer.parseInt(size[1]);
+        frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+        software = new SoftwareRenderer(frame);
+        software.setParallel(!renderer.equals("software-serial"));
+        
+        block = ResourceLoader.loadImage("/sprites/block.png");
+        ball = ResourceLoader.loadImage("/sprites/ball.png");
+        
+        // About 10,000 draws at 1080p
+        int draws = width * height / 200;
+        Random random = new Random(42);
+        scene = new int[draws * 3];
+        for (int i = 0; i < draws; i++) {
+            scene[i * 3] = i < draws / 20 ? 0 : i % 2 + 1;
+            scene[i * 3 + 1] = random.nextInt(width + 64) - 64;
+            scene[i * 3 + 2] = random.nextInt(height + 64) - 64;
+        }
+    }
+    
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+    
+    @Benchmark
+    public BufferedImage frame() {
+        if (renderer.equals("java2d")) {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+            g.setColor(Color.ORANGE);
+            for (int i = 0; i < scene.length; i += 3) {
+                int x = scene[i + 1], y = scene[i + 2];
+                switch (scene[i]) {
+                    case 0: g.drawImage(block, x, y, 64, 64, null); break;
+                    case 1: g.drawImage(ball, x, y, 32, 32, null); break;
+                    default: g.fillOval(x, y, 8, 8); break;
+                }
+            }
+        } else {
+            int orange = Color.ORANGE.getRGB();
+            software.clear(0x000000);
+            for (int i = 0; i < scene.length; i += 3) {
+                int x = scene[i + 1], y = scene[i + 2];
+                switch (scene[i]) {
+                    case 0: software.drawImage(block, x, y, 64, 64); break;
+                    case 1: software.drawImage(ball, x, y, 32, 32); break;
+                    default: software.fillOval(x, y, 8, 8, orange); break;
+                }
+            }
+            software.flush();
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,85 @@
+package com.vincentramdhanie.twod.game.nav;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares steering 2,000 agents towards one goal with an A* query each against
+ * one flow field shared by all of them, on an 800x600 world with 10 blocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NavigationBenchmark {
+    private static final int AGENTS = 2000;
+    
+    private NavGrid grid;
+    private int goal;
+    private int[] agentCells;
+    private FlowField field;
+    private final PathFinder pathFinder = new PathFinder();
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        grid = new NavGrid(800, 600, 16, 12);
+        for (int i = 0; i < 10; i++) {
+            grid.addRect(random.nextInt(736), random.nextInt(536), 64, 64);
+        }
+        goal = grid.cellAt(400, 560);
+        
+        agentCells = new int[AGENTS];
+        for (int i = 0; i < AGENTS; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(grid.getCellCount());
+            } while (!grid.isWalkable(cell));
+            agentCells[i] = cell;
+        }
+        field = FlowField.compute(grid, goal);
+    }
+    
+    @Benchmark
+    public int singleAStarQuery() {
+        int[] path = pathFinder.findPath(grid, agentCells[0], goal);
+        return path == null ? 0 : path.length;
+    }
+    
+    @Benchmark
+    public int aStarPerAgent() {
+        int total = 0;
+        for (int cell : agentCells) {
+            int[] path = pathFinder.findPath(grid, cell, goal);
+            if (path != null && path.length > 1) total += path[1];
+        }
+        return total;
+    }
+    
+    @Benchmark
+    public FlowField computeFlowField() {
+        return FlowField.compute(grid, goal);
+    }
+    
+    @Benchmark
+    public int flowFieldLookupPerAgent() {
+        int total = 0;
+        for (int cell : agentCells) {
+            total += field.nextCell(cell);
+        }
+        return total;
+    }
+}
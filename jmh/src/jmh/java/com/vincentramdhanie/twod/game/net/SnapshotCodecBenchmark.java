@@ -0,0 +1,106 @@
+package com.vincentramdhanie.twod.game.net;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures SnapshotCodec encode and decode times for a world of entityCount
+ * entities, where changedPercent of them moved since the baseline. The encoded
+ * sizes in bytes per entity are printed once per fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotCodecBenchmark {
+    @Param({"10000"})
+    public int entityCount;
+    
+    @Param({"0", "10", "100"})
+    public int changedPercent;
+    
+    private final SnapshotCodec codec = new SnapshotCodec();
+    private EntitySnapshot baseline;
+    private EntitySnapshot current;
+    private EntitySnapshot decoded;
+    private ByteBuffer buffer;
+    private ByteBuffer fullPacket;
+    private ByteBuffer deltaPacket;
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        baseline = new EntitySnapshot(entityCount);
+        current = new EntitySnapshot(entityCount);
+        decoded = new EntitySnapshot(entityCount);
+        baseline.clear(0);
+        current.clear(1);
+        for (int i = 0; i < entityCount; i++) {
+            float x = random.nextFloat() * 4000;
+            float y = random.nextFloat() * 4000;
+            baseline.add(i, x, y, 0, 0, 100, EntitySnapshot.FLAG_ACTIVE);
+            if (random.nextInt(100) < changedPercent) {
+                float velX = random.nextFloat() * 10 - 5;
+                float velY = random.nextFloat() * 10 - 5;
+                current.add(i, x + velX, y + velY, velX, velY, 100, EntitySnapshot.FLAG_ACTIVE);
+            } else {
+                current.add(i, x, y, 0, 0, 100, EntitySnapshot.FLAG_ACTIVE);
+            }
+        }
+        
+        buffer = ByteBuffer.allocateDirect(entityCount * 32);
+        fullPacket = ByteBuffer.allocateDirect(entityCount * 32);
+        codec.encodeFull(current, fullPacket);
+        fullPacket.flip();
+        deltaPacket = ByteBuffer.allocateDirect(entityCount * 32);
+        codec.encodeDelta(baseline, current, deltaPacket);
+        deltaPacket.flip();
+        
+        System.out.printf("%n%d entities, %d%% changed: full %.2f bytes/entity, delta %.2f bytes/entity%n",
+            entityCount, changedPercent,
+            (double) fullPacket.remaining() / entityCount, (double) deltaPacket.remaining() / entityCount);
+    }
+    
+    @Benchmark
+    public int encodeFull() {
+        buffer.clear();
+        codec.encodeFull(current, buffer);
+        return buffer.position();
+    }
+    
+    @Benchmark
+    public int encodeDelta() {
+        buffer.clear();
+        codec.encodeDelta(baseline, current, buffer);
+        return buffer.position();
+    }
+    
+    @Benchmark
+    public int decodeFull() {
+        fullPacket.rewind();
+        codec.decodeFull(fullPacket, decoded);
+        return decoded.size();
+    }
+    
+    @Benchmark
+    public int decodeDelta() {
+        deltaPacket.rewind();
+        codec.decodeDelta(baseline, deltaPacket, decoded);
+        return decoded.size();
+    }
+}
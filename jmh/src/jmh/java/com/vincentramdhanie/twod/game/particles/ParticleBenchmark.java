@@ -0,0 +1,73 @@
+package com.vincentramdhanie.twod.game.particles;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one frame of a particle system holding a steady population: the update,
+ * then rendering into an 800x600 RGB raster. At 60 FPS the budget for both
+ * together is 16.6 ms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParticleBenchmark {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int LIFE = 60;
+    
+    @Param({"10000", "100000"})
+    public int particles;
+    
+    private ParticleSystem system;
+    private ParticleEmitter emitter;
+    private int[] pixels;
+    
+    @Setup
+    public void setup() {
+        system = new ParticleSystem(particles);
+        system.setGravity(0.05f);
+        emitter = new ParticleEmitter(42);
+        emitter.setLife(LIFE / 2, LIFE * 3 / 2);
+        // Run until spawning and expiry balance out at the capacity
+        for (int t = 0; t < LIFE * 2; t++) {
+            frame();
+        }
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+    
+    private void frame() {
+        system.update();
+        emitter.burst(system, WIDTH / 2f, HEIGHT / 2f, 0, 0, particles / LIFE + 1);
+    }
+    
+    @Benchmark
+    public ParticleSystem update() {
+        frame();
+        return system;
+    }
+    
+    @Benchmark
+    public int[] updateAndRender() {
+        frame();
+        system.render(pixels, WIDTH, HEIGHT);
+        return pixels;
+    }
+}
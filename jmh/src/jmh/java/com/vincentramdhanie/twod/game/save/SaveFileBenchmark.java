@@ -0,0 +1,72 @@
+package com.vincentramdhanie.twod.game.save;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads back a world save of entityCount entities, split between
+ * blocks and swarm agents. Both run off the game thread, which only pays for
+ * WorldSnapshot.capture().
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SaveFileBenchmark {
+    @Param({"100000", "1000000", "4000000"})
+    public int entityCount;
+    
+    private WorldSnapshot snapshot;
+    private WorldSnapshot read;
+    private Path file;
+    
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        snapshot = new WorldSnapshot();
+        snapshot.player.add(0, 100, 100, 0, 0, 100, 1);
+        for (int i = 0; i < entityCount / 2; i++) {
+            snapshot.blocks.add(i, random.nextFloat() * 100_000, random.nextFloat() * 100_000, 0, 0, 0, 1);
+            snapshot.swarm.add(i, random.nextFloat() * 100_000, random.nextFloat() * 100_000,
+                random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1, 0, 1);
+        }
+        read = new WorldSnapshot();
+        file = Files.createTempFile("world", ".sav");
+        SaveFile.write(snapshot, file);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+    
+    @Benchmark
+    public Path write() throws IOException {
+        SaveFile.write(snapshot, file);
+        return file;
+    }
+    
+    @Benchmark
+    public int read() throws IOException {
+        SaveFile.read(file, read);
+        return read.size();
+    }
+}
@@ -0,0 +1,99 @@
+package com.vincentramdhanie.twod.game.state;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures level generation and a full headless frame of PlayState.
+ * Lives in the state package so it can reach the package-private createBlocks
+ * and clearBlocks.
+ *
+ * Level generation runs in its own world, emptied at the start of each call. The
+ * frame benchmark draws a world relaid with blockCount blocks, so both scale with it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PlayStateBenchmark {
+    private static final int SCREEN_WIDTH = 800;
+    private static final int SCREEN_HEIGHT = 600;
+    
+    @Param({"10", "30"})
+    public int blockCount;
+    
+    private PlayState state;
+    private BufferedImage frame;
+    private Graphics2D g;
+    
+    /**
+     * A world whose blocks are regenerated on every createBlocks call
+     */
+    @State(Scope.Thread)
+    public static class Layout {
+        PlayState state;
+        
+        @Setup
+        public void setup() {
+            state = new PlayState(null, SCREEN_WIDTH, SCREEN_HEIGHT);
+            state.init();
+        }
+        
+        @TearDown
+        public void tearDown() {
+            state.shutdown();
+        }
+        
+        void clear() {
+            state.clearBlocks();
+        }
+    }
+    
+    @Setup
+    public void setup() {
+        state = new PlayState(null, SCREEN_WIDTH, SCREEN_HEIGHT);
+        state.init();
+        // Replace the level init() placed so the frame draws blockCount blocks
+        state.clearBlocks();
+        state.createBlocks(blockCount);
+        
+        frame = new BufferedImage(SCREEN_WIDTH, SCREEN_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+        state.shutdown();
+    }
+    
+    @Benchmark
+    public int createBlocks(Layout layout) {
+        // Returning the blocks to the pool is a few stores, far below the layout cost
+        layout.clear();
+        layout.state.createBlocks(blockCount);
+        return layout.state.getBlocks().size();
+    }
+    
+    @Benchmark
+    public BufferedImage render() {
+        state.render(g);
+        return frame;
+    }
+}
@@ -0,0 +1,71 @@
+package com.vincentramdhanie.twod.game.steering;
+
+import com.vincentramdhanie.twod.game.entity.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one SteeringSystem tick for a swarm gathered around a target among
+ * blocks. At 60 UPS the budget for a tick is 16.6 ms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SteeringBenchmark {
+    private static final int WIDTH = 3200;
+    private static final int HEIGHT = 2400;
+    
+    @Param({"2000", "20000"})
+    public int agents;
+    
+    @Param({"false", "true"})
+    public boolean parallel;
+    
+    private Flock flock;
+    private SteeringSystem steering;
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            blocks.add(new Block(random.nextInt(WIDTH - 64), random.nextInt(HEIGHT - 64), 64, 64));
+        }
+        steering = new SteeringSystem(WIDTH, HEIGHT, 32);
+        steering.setObstacles(blocks);
+        steering.setParallelThreshold(parallel ? 1 : Integer.MAX_VALUE);
+        
+        flock = new Flock(agents);
+        for (int i = 0; i < agents; i++) {
+            flock.add(random.nextFloat() * WIDTH, random.nextFloat() * HEIGHT,
+                random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1);
+        }
+        // Let the swarm close in on the target so neighbourhoods are realistic
+        for (int t = 0; t < 300; t++) {
+            steering.update(flock, WIDTH / 2f, HEIGHT / 2f);
+        }
+    }
+    
+    @Benchmark
+    public Flock tick() {
+        steering.update(flock, WIDTH / 2f, HEIGHT / 2f);
+        return flock;
+    }
+}
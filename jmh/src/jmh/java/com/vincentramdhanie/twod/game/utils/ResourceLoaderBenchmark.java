@@ -0,0 +1,68 @@
+package com.vincentramdhanie.twod.game.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ResourceLoader.loadImage with an empty cache (full decode)
+ * and with the image already cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ResourceLoaderBenchmark {
+    private static final String SPRITE = "/sprites/ball.png";
+    private static final String BACKGROUND = "/backgrounds/menu_bg.jpg";
+    
+    @State(Scope.Thread)
+    public static class Cold {
+        @Setup(Level.Invocation)
+        public void clear() {
+            ResourceLoader.clearCache();
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Warm {
+        @Setup
+        public void load() {
+            ResourceLoader.clearCache();
+            ResourceLoader.loadImage(SPRITE);
+            ResourceLoader.loadImage(BACKGROUND);
+        }
+    }
+    
+    @Benchmark
+    public BufferedImage spriteCold(Cold cold) {
+        return ResourceLoader.loadImage(SPRITE);
+    }
+    
+    @Benchmark
+    public BufferedImage spriteWarm(Warm warm) {
+        return ResourceLoader.loadImage(SPRITE);
+    }
+    
+    @Benchmark
+    public BufferedImage backgroundCold(Cold cold) {
+        return ResourceLoader.loadImage(BACKGROUND);
+    }
+    
+    @Benchmark
+    public BufferedImage backgroundWarm(Warm warm) {
+        return ResourceLoader.loadImage(BACKGROUND);
+    }
+}
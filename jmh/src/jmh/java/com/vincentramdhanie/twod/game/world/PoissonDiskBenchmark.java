@@ -0,0 +1,48 @@
+package com.vincentramdhanie.twod.game.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lays out 64x64 blocks with a 10 pixel gap over an area sized to fit the
+ * requested count, with a spawn area excluded in the middle.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class PoissonDiskBenchmark {
+    private static final int SPACING = 64 + 10;
+    
+    @Param({"10000", "1000000"})
+    public int blockCount;
+    
+    private PoissonDiskSampler sampler;
+    private long seed;
+    
+    @Setup
+    public void setup() {
+        // Sampling fills about 45% of the grid cells, so leave plenty of room
+        float side = (float) Math.sqrt(blockCount / 0.4) * SPACING;
+        sampler = new PoissonDiskSampler(side, side, SPACING, SPACING);
+        sampler.addExclusion(side / 2 - 100, side / 2 - 100, 200, 200);
+    }
+    
+    @Benchmark
+    public int sample() {
+        return sampler.sample(seed++, blockCount);
+    }
+}